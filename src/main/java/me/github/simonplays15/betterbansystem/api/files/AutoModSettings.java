@@ -0,0 +1,107 @@
+package me.github.simonplays15.betterbansystem.api.files;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.automod.AutoModAction;
+import me.github.simonplays15.betterbansystem.core.automod.ChatFilterPipeline;
+import me.github.simonplays15.betterbansystem.core.automod.ChatModule;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The AutoModSettings record is an immutable snapshot of the {@code automod} section of the config.
+ * <p>
+ * The snapshot is built once whenever the config is loaded, so the chat listeners read plain fields instead of
+ * looking up the config for every message. A reload builds a new snapshot and replaces the old one as a whole.
+ *
+ * @param enabled               whether the AutoMod is enabled
+ * @param spamming              whether the spamming module is enabled
+ * @param maxMessages           the maximum amount of messages within the spam window
+ * @param spammingActions       the actions executed if a player spams
+ * @param duplicatedText        whether the duplicated text module is enabled
+ * @param duplicatedTextActions the actions executed if a player sends the same message twice
+ * @param moduleActions         the actions executed if a message violates a chat module
+ * @param chatFilters           the compiled content checks of the enabled chat modules
+ */
+public record AutoModSettings(boolean enabled,
+                              boolean spamming,
+                              int maxMessages,
+                              @NotNull List<AutoModAction> spammingActions,
+                              boolean duplicatedText,
+                              @NotNull List<AutoModAction> duplicatedTextActions,
+                              @NotNull Map<ChatModule, List<AutoModAction>> moduleActions,
+                              @NotNull ChatFilterPipeline chatFilters) {
+
+    /**
+     * The settings of a disabled AutoMod, used until the config is loaded.
+     */
+    public static final AutoModSettings DISABLED = new AutoModSettings(false, false, 0, List.of(), false, List.of(), Map.of(), ChatFilterPipeline.EMPTY);
+    /**
+     * The actions executed if no actions are configured for a module.
+     */
+    private static final String DEFAULT_ACTIONS = "DELETE";
+
+    /**
+     * Creates a new AutoModSettings record with immutable copies of the action lists.
+     */
+    public AutoModSettings {
+        spammingActions = List.copyOf(spammingActions);
+        duplicatedTextActions = List.copyOf(duplicatedTextActions);
+        moduleActions = Map.copyOf(moduleActions);
+    }
+
+    /**
+     * Builds the snapshot from the config.
+     *
+     * @param config the config of the plugin
+     * @return the snapshot of the AutoMod settings
+     */
+    public static @NotNull AutoModSettings load(@NotNull BaseConfig config) {
+        Map<ChatModule, List<AutoModAction>> moduleActions = new EnumMap<>(ChatModule.class);
+        for (ChatModule module : ChatModule.values()) {
+            moduleActions.put(module, parseActions(config, module.getActionPath()));
+        }
+        return new AutoModSettings(
+                config.getBoolean("automod.use"),
+                config.getBoolean("automod.modules.chat.spamming.use"),
+                config.getInt("automod.modules.chat.spamming.maxMessages", 5),
+                parseActions(config, "automod.modules.chat.spamming.action"),
+                config.getBoolean("automod.modules.chat.duplicatedText.use"),
+                parseActions(config, "automod.modules.chat.duplicatedText.action"),
+                moduleActions,
+                ChatFilterPipeline.compile(config));
+    }
+
+    /**
+     * Parses the actions at the given path of the config.
+     *
+     * @param config the config of the plugin
+     * @param path   the path of the actions
+     * @return the parsed actions, {@link #DEFAULT_ACTIONS} if none are configured or the configured actions are invalid
+     */
+    private static @NotNull List<AutoModAction> parseActions(@NotNull BaseConfig config, @NotNull String path) {
+        String actions = config.getString(path, DEFAULT_ACTIONS);
+        try {
+            return List.of(AutoModAction.parseActions(actions));
+        } catch (NumberFormatException ex) {
+            GlobalLogger.getLogger().error("Invalid AutoMod actions", actions, "at", path + ", using", DEFAULT_ACTIONS, ex);
+            return List.of(AutoModAction.parseActions(DEFAULT_ACTIONS));
+        }
+    }
+
+    /**
+     * Returns the actions executed if a message violates the chat module.
+     *
+     * @param module the chat module
+     * @return the actions of the module
+     */
+    public @NotNull List<AutoModAction> actions(@NotNull ChatModule module) {
+        return this.moduleActions.getOrDefault(module, List.of());
+    }
+}
@@ -13,6 +13,7 @@ import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,12 @@ public class BaseConfig {
      * This variable is private and can only be accessed within the containing class "BaseConfig".
      */
     private Map<String, Object> config = new HashMap<>();
+    /**
+     * The flattened view of the configuration data, built on every load.
+     * Every dotted path of the nested maps, including the paths of the maps themselves, is mapped to its value,
+     * so a lookup is a single hash probe. The paths are interned, as they repeat across configs and reloads.
+     */
+    private Map<String, Object> index = Map.of();
 
     /**
      * BaseConfig class is used for managing configurations.
@@ -59,12 +66,51 @@ public class BaseConfig {
     public void load(@NotNull File file) {
         Yaml yaml = b();
         try (InputStream stream = new FileInputStream(file)) {
-            this.config = yaml.load(stream);
+            Map<String, Object> loaded = yaml.load(stream);
+            this.config = loaded != null ? loaded : new HashMap<>();
+            Map<String, Object> index = new HashMap<>();
+            flatten("", this.config, index);
+            this.index = index;
         } catch (IOException ex) {
             GlobalLogger.getLogger().error("Failed to load configuration file", ex);
         }
     }
 
+    /**
+     * Adds the dotted paths of all values of the map and its nested maps to the index.
+     *
+     * @param prefix the path of the map, or an empty string for the root map
+     * @param map    the map
+     * @param index  the index the paths are added to
+     */
+    private static void flatten(@NotNull String prefix, @NotNull Map<?, ?> map, @NotNull Map<String, Object> index) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String path = (prefix.isEmpty() ? String.valueOf(entry.getKey()) : prefix + "." + entry.getKey()).intern();
+            index.put(path, entry.getValue());
+            if (entry.getValue() instanceof Map<?, ?> child)
+                flatten(path, child, index);
+        }
+    }
+
+    /**
+     * Returns whether the configuration holds no values, which is the case before a file was loaded
+     * successfully or if the loaded file was empty.
+     *
+     * @return true if the configuration holds no values
+     */
+    public boolean isEmpty() {
+        return this.config.isEmpty();
+    }
+
+    /**
+     * Returns the flattened view of the configuration data, mapping every dotted path to its value.
+     *
+     * @return an unmodifiable view of the flattened configuration data
+     */
+    protected @NotNull Map<String, Object> getValues() {
+        return Collections.unmodifiableMap(this.index);
+    }
+
     /**
      * Constructs a new instance of Yaml with the specified options.
      *
@@ -90,41 +136,34 @@ public class BaseConfig {
     }
 
     /**
-     * Retrieves the value associated with the specified key from the config map.
-     * If the config map is empty, an empty string is returned.
+     * Retrieves the value associated with the specified key from the flattened index of the config.
+     * The key is the dotted path of the value, e.g. {@code automod.modules.chat.links.use}; paths of nested sections
+     * return the section as map.
      * If the key is empty or null, null is returned.
-     * If the key does not contain a dot ('.'), the value associated with the key is returned from the config map,
-     * or the default value if the key is not found.
-     * If the key contains a dot ('.'), the value associated with the key is returned from the nested map structure,
-     * or null if any of the intermediate keys are missing or if the value is not found.
      *
      * @param key the key to retrieve the value for
      * @param def the default value to return if the key is not found
      * @return the value associated with the key, or the default value if the key is not found
      */
-    @SuppressWarnings("unchecked")
     public Object get(String key, Object def) {
-        if (this.config.isEmpty()) {
-            return "";
-        }
-        if (key.isEmpty())
+        if (key == null || key.isEmpty())
             return null;
-        if (!key.contains(".")) {
-            return this.config.getOrDefault(key, def);
-        }
+        return this.index.getOrDefault(key, def);
+    }
 
-        String[] keys = key.split("\\.");
-        Map<String, Object> current = this.config;
-        Object result = null;
-        for (String k : keys) {
-            Object val = current.get(k);
-            if (!(val instanceof Map<?, ?>)) {
-                result = val;
-                continue;
-            }
-            current = (Map<String, Object>) val;
-        }
-        return result;
+    /**
+     * Retrieves the value at the specified path if it has the given type.
+     *
+     * @param path the path of the value
+     * @param type the expected type of the value
+     * @param def  the default value to return if the path is not found or the value has another type
+     * @param <T>  the expected type of the value
+     * @return the value at the path, or the default value
+     */
+    @Contract("_, _, !null -> !null")
+    public <T> @Nullable T get(@NotNull String path, @NotNull Class<T> type, @Nullable T def) {
+        Object val = this.get(path, def);
+        return type.isInstance(val) ? type.cast(val) : def;
     }
 
     /**
@@ -297,17 +336,21 @@ public class BaseConfig {
         List<?> list = this.getList(path, def);
         if (list == null)
             return new ArrayList<>(0);
-        return new ArrayList<>(def);
+        List<String> result = new ArrayList<>(list.size());
+        for (Object o : list) {
+            result.add(String.valueOf(o));
+        }
+        return result;
     }
 
     /**
      * Checks if the specified path exists in the configuration.
      *
-     * @param path the path to check
+     * @param path the dotted path to check
      * @return true if the path exists, false otherwise
      */
     public boolean contains(String path) {
-        return this.config.containsKey(path);
+        return this.index.containsKey(path);
     }
 
     /**
@@ -0,0 +1,122 @@
+package me.github.simonplays15.betterbansystem.api.files;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ConfigFileWatcher class reloads a config file whenever it is changed on disk.
+ * <p>
+ * The directory of the file is registered at a {@link WatchService}, which is polled by the timer of the {@link TaskScheduler}.
+ * All changes of the file between two polls result in a single reload, so an editor writing the file in several steps
+ * reloads it only once.
+ */
+public final class ConfigFileWatcher implements Closeable {
+
+    /**
+     * The interval in milliseconds in which the watch service is polled.
+     */
+    public static final long POLL_INTERVAL = 1000;
+
+    /**
+     * The watched file.
+     */
+    private final File file;
+    /**
+     * The watch service the directory of the file is registered at.
+     */
+    private final WatchService watchService;
+    /**
+     * The action reloading the file.
+     */
+    private final Runnable reload;
+    /**
+     * The scheduled poll of the watch service.
+     */
+    private final ScheduledFuture<?> poll;
+
+    /**
+     * Creates a new ConfigFileWatcher and starts polling.
+     *
+     * @param file         the watched file
+     * @param watchService the watch service the directory of the file is registered at
+     * @param reload       the action reloading the file
+     */
+    private ConfigFileWatcher(@NotNull File file, @NotNull WatchService watchService, @NotNull Runnable reload) {
+        this.file = file;
+        this.watchService = watchService;
+        this.reload = reload;
+        this.poll = TaskScheduler.scheduleAsync(this::poll, POLL_INTERVAL, POLL_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts watching the file.
+     *
+     * @param file   the watched file
+     * @param reload the action reloading the file, run on an async thread
+     * @return the watcher, or null if the file system does not support watching the directory
+     */
+    public static @Nullable ConfigFileWatcher watch(@NotNull File file, @NotNull Runnable reload) {
+        Path directory = file.getAbsoluteFile().getParentFile().toPath();
+        try {
+            WatchService watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return new ConfigFileWatcher(file, watchService, reload);
+        } catch (IOException | UnsupportedOperationException ex) {
+            GlobalLogger.getLogger().warn("Could not watch", file.getName(), "for changes, the file is not reloaded automatically", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Collects the pending changes of the directory and reloads the file if it was changed.
+     */
+    private void poll() {
+        boolean changed = false;
+        WatchKey key;
+        try {
+            while ((key = this.watchService.poll()) != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path path && path.getFileName().toString().equals(this.file.getName()))
+                        changed = true;
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException ex) {
+            return;
+        }
+        if (!changed || !this.file.isFile())
+            return;
+        GlobalLogger.getLogger().info("Reloading", this.file.getName(), "after it was changed");
+        try {
+            this.reload.run();
+        } catch (RuntimeException ex) {
+            GlobalLogger.getLogger().error("Failed to reload", this.file.getName(), ex);
+        }
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    @Override
+    public void close() {
+        this.poll.cancel(false);
+        try {
+            this.watchService.close();
+        } catch (IOException ex) {
+            GlobalLogger.getLogger().debug("Failed to close the watch service of", this.file.getName(), ex);
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package me.github.simonplays15.betterbansystem.api.files;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The JsonEntryJournal class stores entries of the flat file backend as a JSON snapshot plus an append-only journal.
+ * <p>
+ * The snapshot is the regular pretty printed JSON array (e.g. banned-players.json), so existing files stay readable.
+ * Every add or remove operation is appended as a single JSON line to the journal file ({@code <snapshot>.journal})
+ * and applied to the in-memory state, which turns a write into an O(1) append.
+ * <p>
+ * A background task on the {@link TaskScheduler} folds the journal into the snapshot once the configured amount of operations
+ * or the configured time has passed. On startup, the snapshot is loaded and the journal is replayed on top of it.
+ * <p>
+ * The files are only written after they were loaded completely. If an entry can not be read, every access fails
+ * and the files are left untouched, so a single invalid entry never cuts the snapshot short.
+ *
+ * @param <T> the type of the stored entries
+ */
+public class JsonEntryJournal<T> {
+
+    /**
+     * All journals created so far. Used by the background compaction and to flush every journal on shutdown.
+     */
+    private static final List<JsonEntryJournal<?>> journals = new CopyOnWriteArrayList<>();
+    /**
+     * The amount of journal operations after which the journal is folded into the snapshot.
+     */
+    private static volatile int compactOperations = 1000;
+    /**
+     * The maximum time in milliseconds a non-empty journal is kept before it is folded into the snapshot.
+     */
+    private static volatile long compactIntervalMillis = TimeUnit.MINUTES.toMillis(5);
+    /**
+     * The background task checking the journals for compaction, or null if {@link #configure(int, long)} was not called yet.
+     */
+    private static ScheduledFuture<?> compactTask = null;
+
+    /**
+     * The snapshot file holding the JSON array of all entries.
+     */
+    private final File snapshotFile;
+    /**
+     * The journal file holding one JSON operation per line.
+     */
+    private final File journalFile;
+    /**
+     * The type adapter used to convert a single entry from and to JSON.
+     */
+    private final TypeAdapter<T> adapter;
+    /**
+     * The function returning the unique key of an entry.
+     */
+    private final Function<T, String> keyFunction;
+    /**
+     * The in-memory state of all entries, keyed by {@link #keyFunction} and kept in insertion order.
+     */
+    private final Map<String, T> entries = new LinkedHashMap<>();
+    /**
+     * The compact Gson instance used for the journal lines.
+     */
+    private final Gson gson = new Gson();
+    /**
+     * The open writer of the journal file, or null if the journal has not been loaded yet.
+     */
+    private Writer journalWriter;
+    /**
+     * Indicates whether the snapshot and the journal have been loaded into memory completely.
+     */
+    private boolean loaded = false;
+    /**
+     * The amount of operations in the journal which are not yet part of the snapshot.
+     */
+    private int pendingOperations = 0;
+    /**
+     * The time in milliseconds of the last compaction.
+     */
+    private long lastCompaction = System.currentTimeMillis();
+
+    /**
+     * Creates a new journal for the given snapshot file. The files are loaded on first access.
+     *
+     * @param snapshotFile the JSON snapshot file, e.g. banned-players.json
+     * @param adapter      the type adapter for a single entry
+     * @param keyFunction  the function returning the unique key of an entry
+     */
+    public JsonEntryJournal(@NotNull File snapshotFile, @NotNull TypeAdapter<T> adapter, @NotNull Function<T, String> keyFunction) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = new File(snapshotFile.getPath() + ".journal");
+        this.adapter = adapter;
+        this.keyFunction = keyFunction;
+        journals.add(this);
+    }
+
+    /**
+     * Configures the thresholds of the background compactor for all journals and starts the compactor on the
+     * {@link TaskScheduler}, replacing a compactor started before.
+     * The compactor stops together with the {@link TaskScheduler}, the journals are closed by {@link #closeAll()}.
+     *
+     * @param operations      the amount of operations after which a journal is compacted
+     * @param intervalSeconds the maximum age in seconds of a non-empty journal
+     */
+    public static synchronized void configure(int operations, long intervalSeconds) {
+        compactOperations = Math.max(1, operations);
+        compactIntervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, intervalSeconds));
+        if (compactTask != null)
+            compactTask.cancel(false);
+        compactTask = TaskScheduler.scheduleAsync(() -> {
+            for (JsonEntryJournal<?> journal : journals) {
+                journal.compactIfNeeded();
+            }
+        }, 5, 5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Compacts and closes all journals. Called by {@link me.github.simonplays15.betterbansystem.core.BetterBanSystem#shutdown()}.
+     */
+    public static void closeAll() {
+        for (JsonEntryJournal<?> journal : journals) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Adds or replaces the given entry and appends the operation to the journal.
+     *
+     * If the operation can not be appended, the in-memory state is left unchanged.
+     *
+     * @param entry the entry to store
+     * @throws UncheckedIOException if the stored entries could not be loaded or the operation could not be appended
+     */
+    public synchronized void put(@NotNull T entry) {
+        this.ensureLoaded();
+        String key = this.keyFunction.apply(entry);
+        JsonObject operation = new JsonObject();
+        operation.addProperty("op", "put");
+        operation.add("entry", this.adapter.toJsonTree(entry));
+        this.append(operation);
+        this.entries.put(key, entry);
+    }
+
+    /**
+     * Removes the entry with the given key and appends the operation to the journal.
+     * Nothing is written if no entry with the key exists.
+     * If the operation can not be appended, the in-memory state is left unchanged.
+     *
+     * @param key the key of the entry to remove
+     * @throws UncheckedIOException if the stored entries could not be loaded or the operation could not be appended
+     */
+    public synchronized void remove(@NotNull String key) {
+        this.ensureLoaded();
+        if (!this.entries.containsKey(key))
+            return;
+        JsonObject operation = new JsonObject();
+        operation.addProperty("op", "remove");
+        operation.addProperty("key", key);
+        this.append(operation);
+        this.entries.remove(key);
+    }
+
+    /**
+     * Returns the entry with the given key.
+     *
+     * @param key the key of the entry
+     * @return the entry, or null if no entry with the key exists
+     * @throws UncheckedIOException if the stored entries could not be loaded
+     */
+    public synchronized @Nullable T get(@NotNull String key) {
+        this.ensureLoaded();
+        return this.entries.get(key);
+    }
+
+    /**
+     * Returns a copy of all stored entries.
+     *
+     * @return a new list containing all entries
+     * @throws UncheckedIOException if the stored entries could not be loaded
+     */
+    public synchronized @NotNull List<T> values() {
+        this.ensureLoaded();
+        return new ArrayList<>(this.entries.values());
+    }
+
+    /**
+     * Returns whether no entries are stored.
+     *
+     * @return true if no entries are stored, false otherwise
+     * @throws UncheckedIOException if the stored entries could not be loaded
+     */
+    public synchronized boolean isEmpty() {
+        this.ensureLoaded();
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * Passes every stored entry to the consumer, reading the snapshot file one entry at a time instead of loading it.
+     * Operations which are still in the journal are folded into the snapshot first.
+     *
+     * @param consumer the consumer receiving every entry
+     * @return the amount of read entries
+     * @throws IOException if the journal could not be folded or the snapshot could not be read
+     */
+    public synchronized long forEachStored(@NotNull Consumer<T> consumer) throws IOException {
+        if (this.loaded ? this.pendingOperations > 0 : this.journalFile.exists()) {
+            if (!this.loaded)
+                this.load();
+            if (this.pendingOperations > 0)
+                this.compact();
+            if (this.pendingOperations > 0)
+                throw new IOException("Failed to fold the journal into " + this.snapshotFile.getName());
+        }
+        if (!this.snapshotFile.exists() || this.snapshotFile.length() == 0)
+            return 0;
+        long count = 0;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(this.snapshotFile), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T entry = this.adapter.read(reader);
+                if (entry == null)
+                    continue;
+                consumer.accept(entry);
+                count++;
+            }
+            reader.endArray();
+        }
+        return count;
+    }
+
+    /**
+     * Replaces all stored entries with the entries of the given source. The entries are written to the snapshot file
+     * one at a time as the source provides them, so they are never held in memory at once.
+     * The journal is deleted and the new snapshot is loaded again on the next access.
+     *
+     * @param source the source providing the new entries
+     * @return the amount of written entries
+     * @throws IOException if the source failed or the snapshot could not be written
+     */
+    public synchronized long replaceAll(@NotNull EntrySource<T> source) throws IOException {
+        File tempFile = new File(this.snapshotFile.getPath() + ".tmp");
+        long[] count = {0};
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            writer.setIndent("  ");
+            writer.beginArray();
+            source.forEach(entry -> {
+                try {
+                    this.adapter.write(writer, entry);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.endArray();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+        try {
+            Files.move(tempFile.toPath(), this.snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), this.snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.closeWriter();
+        Files.deleteIfExists(this.journalFile.toPath());
+        this.entries.clear();
+        this.loaded = false;
+        this.pendingOperations = 0;
+        this.lastCompaction = System.currentTimeMillis();
+        return count[0];
+    }
+
+    /**
+     * Folds the journal into the snapshot and deletes the journal afterward.
+     */
+    public synchronized void compact() {
+        if (!this.loaded)
+            return;
+        File tempFile = new File(this.snapshotFile.getPath() + ".tmp");
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            writer.setIndent("  ");
+            writer.beginArray();
+            for (T entry : this.entries.values()) {
+                this.adapter.write(writer, entry);
+            }
+            writer.endArray();
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to write snapshot", this.snapshotFile.getName(), e);
+            return;
+        }
+        try {
+            try {
+                Files.move(tempFile.toPath(), this.snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), this.snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            this.closeWriter();
+            Files.deleteIfExists(this.journalFile.toPath());
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to replace snapshot", this.snapshotFile.getName(), e);
+            return;
+        }
+        this.pendingOperations = 0;
+        this.lastCompaction = System.currentTimeMillis();
+        GlobalLogger.getLogger().debug("Compacted journal of", this.snapshotFile.getName(), "with", this.entries.size(), "entries.");
+    }
+
+    /**
+     * Compacts the journal and closes the journal writer.
+     */
+    public synchronized void close() {
+        if (this.pendingOperations > 0)
+            this.compact();
+        this.closeWriter();
+    }
+
+    /**
+     * Compacts the journal if the configured amount of operations or the configured time has been reached.
+     */
+    private synchronized void compactIfNeeded() {
+        if (this.pendingOperations == 0)
+            return;
+        if (this.pendingOperations >= compactOperations || System.currentTimeMillis() - this.lastCompaction >= compactIntervalMillis)
+            this.compact();
+    }
+
+    /**
+     * Appends a single operation as one line to the journal file.
+     * <p>
+     * If the line can not be written completely, the writer and its buffer are dropped and the journal is cut back
+     * to its length before the write, so the next operation does not end up behind a torn line.
+     *
+     * @param operation the operation to append
+     * @throws UncheckedIOException if the operation could not be appended
+     */
+    private void append(@NotNull JsonObject operation) {
+        long length = this.journalFile.length();
+        try {
+            if (this.journalWriter == null)
+                this.journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.journalFile, true), StandardCharsets.UTF_8));
+            this.journalWriter.write(this.gson.toJson(operation));
+            this.journalWriter.write('\n');
+            this.journalWriter.flush();
+            this.pendingOperations++;
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to append to journal", this.journalFile.getName(), e);
+            this.closeWriter();
+            try (FileChannel channel = FileChannel.open(this.journalFile.toPath(), StandardOpenOption.WRITE)) {
+                if (channel.size() > length)
+                    channel.truncate(length);
+            } catch (IOException ex) {
+                // The torn line is cut off when the journal is replayed, as long as nothing is appended behind it
+                this.loaded = false;
+                e.addSuppressed(ex);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the snapshot and replays the journal on top of it, if not done yet.
+     * If the files can not be loaded, they are tried again on the next access.
+     *
+     * @throws UncheckedIOException if the stored entries could not be loaded
+     */
+    private void ensureLoaded() {
+        if (this.loaded)
+            return;
+        try {
+            this.load();
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to load", this.snapshotFile.getName() + ", the file is not changed until it can be loaded", e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the snapshot and replays the journal on top of it.
+     * The journal is compacted right after the replay if it is not empty or ended with an incomplete line.
+     * The journal is only marked as loaded if every entry could be read, otherwise the in-memory state is discarded.
+     *
+     * @throws IOException if the snapshot or the journal could not be read or contain an invalid entry
+     */
+    private void load() throws IOException {
+        this.entries.clear();
+        this.pendingOperations = 0;
+        boolean truncated;
+        try {
+            this.loadSnapshot();
+            truncated = this.replayJournal();
+        } catch (IOException | RuntimeException e) {
+            this.entries.clear();
+            this.pendingOperations = 0;
+            throw e instanceof IOException io ? io : new IOException("Invalid entry in " + this.snapshotFile.getName(), e);
+        }
+        this.loaded = true;
+        if (this.pendingOperations > 0 || truncated)
+            this.compact();
+    }
+
+    /**
+     * Reads all entries of the snapshot file into memory.
+     *
+     * @throws IOException if the snapshot could not be read
+     */
+    private void loadSnapshot() throws IOException {
+        if (!this.snapshotFile.exists() || this.snapshotFile.length() == 0)
+            return;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(this.snapshotFile), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T entry = this.adapter.read(reader);
+                if (entry != null)
+                    this.entries.put(this.keyFunction.apply(entry), entry);
+            }
+            reader.endArray();
+        }
+    }
+
+    /**
+     * Replays all operations of the journal file on the in-memory state.
+     * An incomplete last line, e.g. after a crash, is cut off the journal, so later operations are not appended behind it.
+     *
+     * @return true if an incomplete last line was cut off, false otherwise
+     * @throws IOException if the journal could not be read or contains an invalid line before its last line
+     */
+    private boolean replayJournal() throws IOException {
+        if (!this.journalFile.exists())
+            return false;
+        byte[] content = Files.readAllBytes(this.journalFile.toPath());
+        int lineStart = 0;
+        while (lineStart < content.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < content.length && content[lineEnd] != '\n')
+                lineEnd++;
+            String line = new String(content, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                JsonObject operation;
+                try {
+                    operation = JsonParser.parseString(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    if (lineEnd < content.length - 1)
+                        throw new IOException("Invalid line in the middle of " + this.journalFile.getName(), e);
+                    GlobalLogger.getLogger().warn("Cutting off incomplete journal line in", this.journalFile.getName());
+                    this.closeWriter();
+                    try (FileChannel channel = FileChannel.open(this.journalFile.toPath(), StandardOpenOption.WRITE)) {
+                        channel.truncate(lineStart);
+                    }
+                    return true;
+                }
+                String op = operation.get("op").getAsString();
+                if (op.equals("put")) {
+                    T entry = this.adapter.fromJsonTree(operation.get("entry"));
+                    this.entries.put(this.keyFunction.apply(entry), entry);
+                } else if (op.equals("remove")) {
+                    this.entries.remove(operation.get("key").getAsString());
+                }
+                this.pendingOperations++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Closes the journal writer if it is open.
+     */
+    private void closeWriter() {
+        if (this.journalWriter == null)
+            return;
+        try {
+            this.journalWriter.close();
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error(e);
+        }
+        this.journalWriter = null;
+    }
+
+    /**
+     * The EntrySource interface provides the entries for {@link #replaceAll(EntrySource)}.
+     *
+     * @param <T> the type of the entries
+     */
+    @FunctionalInterface
+    public interface EntrySource<T> {
+        /**
+         * Passes every entry to the consumer.
+         *
+         * @param consumer the consumer receiving every entry
+         * @throws IOException if the entries could not be read
+         */
+        void forEach(@NotNull Consumer<T> consumer) throws IOException;
+    }
+}
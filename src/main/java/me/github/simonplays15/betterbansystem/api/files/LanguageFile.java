@@ -4,19 +4,33 @@ package me.github.simonplays15.betterbansystem.api.files;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
-import me.github.simonplays15.betterbansystem.core.chat.ChatColor;
+import me.github.simonplays15.betterbansystem.core.chat.MessageTemplate;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * This class represents a language file.
  * It extends the BaseConfig class.
+ * <p>
+ * Every message of the file is compiled into a {@link MessageTemplate} when the file is loaded,
+ * so sending a message only renders the precompiled template.
  */
 public class LanguageFile extends BaseConfig {
 
+    /**
+     * The message returned if a key is not found.
+     */
+    private static final MessageTemplate MISSING_MESSAGE = MessageTemplate.compile("Failed to load message. See log for more details.");
+
+    /**
+     * The compiled messages of the file, keyed by their dotted path.
+     */
+    private Map<String, MessageTemplate> templates = Map.of();
+
     /**
      * Constructs a LanguageFile object by loading the language file from
      * the specified path.
@@ -27,6 +41,23 @@ public class LanguageFile extends BaseConfig {
         this.load(new File(languagePath));
     }
 
+    /**
+     * Loads the language file and compiles all messages into templates.
+     *
+     * @param file The file to load the messages from.
+     */
+    @Override
+    public void load(@NotNull File file) {
+        super.load(file);
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (Map.Entry<String, Object> entry : this.getValues().entrySet()) {
+            Object value = entry.getValue();
+            if (value != null && !(value instanceof Map<?, ?>) && !(value instanceof List<?>))
+                templates.put(entry.getKey(), MessageTemplate.compile(value.toString()));
+        }
+        this.templates = templates;
+    }
+
     /**
      * Retrieves a message by its key.
      *
@@ -35,7 +66,7 @@ public class LanguageFile extends BaseConfig {
      * @throws NullPointerException if the key is null
      */
     public String getMessage(String key) {
-        return getMessage(key, new HashMap<>());
+        return getMessage(key, Map.of());
     }
 
     /**
@@ -46,16 +77,6 @@ public class LanguageFile extends BaseConfig {
      * @return the formatted message with translated colors
      */
     public String getMessage(String key, @NotNull Map<String, String> placeholders) {
-
-        String message = this.getString(key, "Failed to load message. See log for more details.");
-
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            String placeholder = "{" + entry.getKey() + "}";
-            String replacement = entry.getValue();
-
-            message = message.replace(placeholder, replacement);
-        }
-
-        return ChatColor.translateAlternateColorCodes('&', message);
+        return this.templates.getOrDefault(key, MISSING_MESSAGE).render(placeholders);
     }
 }
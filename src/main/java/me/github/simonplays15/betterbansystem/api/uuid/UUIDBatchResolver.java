@@ -0,0 +1,286 @@
+package me.github.simonplays15.betterbansystem.api.uuid;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The UUIDBatchResolver class collects name lookups and resolves them in bulk requests of up to {@link #MAX_BATCH_SIZE} names.
+ * <p>
+ * Submitted names wait for the configured linger time, so lookups submitted close together share a request.
+ * Names are matched case-insensitively and a name which is already waiting shares the pending lookup.
+ * If the endpoint answers with a rate limit, the batch is queued again and all requests are paused with an exponential backoff.
+ * The requests are sent from the I/O executor of the {@link TaskScheduler}.
+ */
+public class UUIDBatchResolver {
+
+    /**
+     * The maximum amount of names resolved with a single request.
+     */
+    public static final int MAX_BATCH_SIZE = 10;
+    /**
+     * The first backoff in milliseconds after a rate limited request.
+     */
+    private static final long INITIAL_BACKOFF = 1000;
+    /**
+     * The maximum backoff in milliseconds after a rate limited request.
+     */
+    private static final long MAXIMUM_BACKOFF = 60000;
+    /**
+     * The maximum amount of rate limited attempts of a lookup before it fails.
+     */
+    private static final int MAX_ATTEMPTS = 5;
+
+    /**
+     * The resolver sending a single bulk request.
+     */
+    private final BulkResolver resolver;
+    /**
+     * The time in milliseconds a submitted name waits for further names before the request is sent.
+     */
+    private final long lingerMillis;
+    /**
+     * The lookups waiting to be sent, in submission order.
+     */
+    private final Deque<PendingLookup> queue = new ConcurrentLinkedDeque<>();
+    /**
+     * The lookups which have been submitted but not completed yet, keyed by the lower case name.
+     */
+    private final ConcurrentMap<String, PendingLookup> pending = new ConcurrentHashMap<>();
+    /**
+     * Whether a flush is already scheduled.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /**
+     * The current backoff in milliseconds, or 0 if the last request was not rate limited.
+     */
+    private long backoffMillis;
+    /**
+     * The time in milliseconds since the epoch until which no requests are sent.
+     */
+    private volatile long blockedUntil;
+
+    /**
+     * Creates a new batch resolver.
+     *
+     * @param lingerMillis the time in milliseconds a submitted name waits for further names before the request is sent
+     * @param resolver     the resolver sending a single bulk request
+     */
+    public UUIDBatchResolver(long lingerMillis, @NotNull BulkResolver resolver) {
+        this.lingerMillis = Math.max(0, lingerMillis);
+        this.resolver = resolver;
+    }
+
+    /**
+     * Returns the key used for the given name.
+     *
+     * @param name the name of the player
+     * @return the lower case name
+     */
+    private static @NotNull String key(@NotNull String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Queues the lookup of the given name.
+     *
+     * @param name the name of the player
+     * @return a future completed with the UUID of the player, or with an empty optional if the name is unknown.
+     * The future fails if the request failed or was rate limited too often.
+     */
+    public @NotNull CompletableFuture<Optional<UUID>> submit(@NotNull String name) {
+        String key = key(name);
+        PendingLookup lookup = this.pending.get(key);
+        if (lookup != null)
+            return lookup.future;
+        PendingLookup created = new PendingLookup(name);
+        lookup = this.pending.putIfAbsent(key, created);
+        if (lookup != null)
+            return lookup.future;
+        this.queue.add(created);
+        this.scheduleFlush();
+        return created.future;
+    }
+
+    /**
+     * Returns the amount of lookups which have been submitted but not completed yet.
+     *
+     * @return the amount of pending lookups
+     */
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Schedules a flush after the linger time or the current backoff, unless one is already scheduled.
+     */
+    private void scheduleFlush() {
+        if (!this.flushScheduled.compareAndSet(false, true))
+            return;
+        long delay = Math.max(this.lingerMillis, this.blockedUntil - System.currentTimeMillis());
+        try {
+            TaskScheduler.schedule(() -> TaskScheduler.execute(this::flush), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            this.flushScheduled.set(false);
+            PendingLookup lookup;
+            while ((lookup = this.queue.poll()) != null) {
+                this.fail(lookup, e);
+            }
+        }
+    }
+
+    /**
+     * Sends the queued lookups in batches until the queue is empty or the endpoint is rate limited.
+     */
+    private synchronized void flush() {
+        this.flushScheduled.set(false);
+        while (!this.queue.isEmpty()) {
+            if (this.blockedUntil > System.currentTimeMillis()) {
+                this.scheduleFlush();
+                return;
+            }
+            List<PendingLookup> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            PendingLookup lookup;
+            while (batch.size() < MAX_BATCH_SIZE && (lookup = this.queue.poll()) != null) {
+                batch.add(lookup);
+            }
+            this.send(batch);
+        }
+    }
+
+    /**
+     * Sends a single batch and completes its lookups.
+     *
+     * @param batch the lookups of the batch
+     */
+    private void send(@NotNull List<PendingLookup> batch) {
+        List<String> names = new ArrayList<>(batch.size());
+        for (PendingLookup lookup : batch) {
+            names.add(lookup.name);
+        }
+        Map<String, UUID> found;
+        try {
+            found = this.resolver.resolve(names);
+        } catch (RateLimitException e) {
+            this.backoffMillis = this.backoffMillis == 0 ? INITIAL_BACKOFF : Math.min(MAXIMUM_BACKOFF, this.backoffMillis * 2);
+            long wait = Math.max(this.backoffMillis, e.getRetryAfterMillis());
+            this.blockedUntil = System.currentTimeMillis() + wait;
+            GlobalLogger.getLogger().debug("UUID lookups are rate limited, retrying in", wait, "ms");
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                PendingLookup lookup = batch.get(i);
+                if (++lookup.attempts >= MAX_ATTEMPTS)
+                    this.fail(lookup, e);
+                else
+                    this.queue.addFirst(lookup);
+            }
+            return;
+        } catch (IOException | RuntimeException e) {
+            GlobalLogger.getLogger().error("Failed to resolve", batch.size(), "UUIDs:", e.getMessage());
+            for (PendingLookup lookup : batch) {
+                this.fail(lookup, e);
+            }
+            return;
+        }
+        this.backoffMillis = 0;
+        Map<String, UUID> byKey = new HashMap<>();
+        found.forEach((name, uuid) -> byKey.put(key(name), uuid));
+        for (PendingLookup lookup : batch) {
+            String key = key(lookup.name);
+            this.pending.remove(key, lookup);
+            lookup.future.complete(Optional.ofNullable(byKey.get(key)));
+        }
+    }
+
+    /**
+     * Fails the given lookup.
+     *
+     * @param lookup    the lookup
+     * @param throwable the cause of the failure
+     */
+    private void fail(@NotNull PendingLookup lookup, @NotNull Throwable throwable) {
+        this.pending.remove(key(lookup.name), lookup);
+        lookup.future.completeExceptionally(throwable);
+    }
+
+    /**
+     * The BulkResolver interface sends a single bulk request.
+     */
+    @FunctionalInterface
+    public interface BulkResolver {
+        /**
+         * Looks up the UUIDs of the given names.
+         *
+         * @param names the names of the players, at most {@link #MAX_BATCH_SIZE}
+         * @return the UUIDs of the known names, keyed by the name. Unknown names are left out.
+         * @throws RateLimitException if the endpoint is rate limited
+         * @throws IOException        if the request failed
+         */
+        @NotNull Map<String, UUID> resolve(@NotNull List<String> names) throws IOException;
+    }
+
+    /**
+     * Exception thrown by a {@link BulkResolver} if the endpoint answered with a rate limit.
+     */
+    public static class RateLimitException extends IOException {
+
+        /**
+         * The time in milliseconds the endpoint asked to wait, or 0 if it did not say.
+         */
+        private final long retryAfterMillis;
+
+        /**
+         * Creates a new RateLimitException.
+         *
+         * @param retryAfterMillis the time in milliseconds the endpoint asked to wait, or 0 if it did not say
+         */
+        public RateLimitException(long retryAfterMillis) {
+            super("Rate limited");
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        /**
+         * Returns the time in milliseconds the endpoint asked to wait.
+         *
+         * @return the time in milliseconds, or 0 if the endpoint did not say
+         */
+        public long getRetryAfterMillis() {
+            return this.retryAfterMillis;
+        }
+    }
+
+    /**
+     * A lookup waiting for its request.
+     */
+    private static final class PendingLookup {
+        /**
+         * The name of the player as it was submitted first.
+         */
+        private final String name;
+        /**
+         * The future completed with the result of the lookup.
+         */
+        private final CompletableFuture<Optional<UUID>> future = new CompletableFuture<>();
+        /**
+         * The amount of rate limited attempts.
+         */
+        private int attempts;
+
+        /**
+         * Creates a new lookup.
+         *
+         * @param name the name of the player
+         */
+        private PendingLookup(@NotNull String name) {
+            this.name = name;
+        }
+    }
+}
@@ -8,8 +8,10 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -17,53 +19,70 @@ import org.jetbrains.annotations.Nullable;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.Map;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class that retrieves UUIDs of players from the Mojang API or returns their offline UUID.
  */
 public class UUIDFetcher {
     /**
-     * The API URL used to fetch user profiles from Mojang API.
+     * The default API URL used to fetch user profiles from Mojang API.
      */
-    private static final String API_URL = "https://api.mojang.com/users/profiles/minecraft/";
+    public static final String API_URL = "https://api.mojang.com/users/profiles/minecraft/";
     /**
-     * The uuidCache variable is a private static final ConcurrentMap<String, UUID> object that represents a cache for UUID values.
-     * It is used to store previously resolved UUIDs for faster lookups.
-     * <p>
-     * The cache is implemented as a ConcurrentHashMap, a thread-safe map implementation that allows multiple threads to access
-     * the map concurrently without the need for external synchronization.
-     * <p>
-     * The keys in the map are strings representing player names, and the values are UUID objects corresponding to the UUIDs of the players.
-     * <p>
-     * This cache is used in conjunction with the UUIDFetcher class methods to efficiently retrieve UUIDs for player names.
-     * <p>
-     * Class Name: UUIDFetcher
-     * Fields: API_URL, uuidCache, BIN_FILE, USERCACHE
-     * Methods: loadUsercacheJson(), saveUUIDToBin(String playername, UUID uuid),
-     * loadUUIDFromBin(String playername), getUUID(String playername), getUUIDOrOfflineUUID(String playername)
-     * Superclasses: Object
+     * The connect and read timeout in milliseconds of a request to the API.
+     */
+    private static final int REQUEST_TIMEOUT = 5000;
+    /**
+     * The API URL the player name is appended to. Can be changed with {@link #configure(String, int, long, long)}.
+     */
+    private static volatile String apiUrl = API_URL;
+    /**
+     * The cache of the API lookups. Can be replaced with {@link #configure(String, int, long, long)}.
+     */
+    private static volatile UUIDResolverCache resolver = new UUIDResolverCache(10000, 3600, 300, UUIDFetcher::lookupUUID);
+    /**
+     * The default API URL used to fetch up to {@link UUIDBatchResolver#MAX_BATCH_SIZE} user profiles with a single request.
+     */
+    public static final String BULK_API_URL = "https://api.mojang.com/profiles/minecraft";
+    /**
+     * The API URL the bulk requests are sent to. Can be changed with {@link #configureBatching(String, long)}.
+     */
+    private static volatile String bulkApiUrl = BULK_API_URL;
+    /**
+     * The resolver collecting the lookups of {@link #resolveAll(Collection)} into bulk requests.
+     * Can be replaced with {@link #configureBatching(String, long)}.
+     */
+    private static volatile UUIDBatchResolver batchResolver = new UUIDBatchResolver(50, UUIDFetcher::requestUUIDs);
+    /**
+     * The uuidCache variable holds the UUIDs of player names which could not be written to the {@link UUIDStore},
+     * either because the store could not be opened or because the name is longer than {@link UUIDStore#MAX_NAME_BYTES}.
      */
     private static final ConcurrentMap<String, UUID> uuidCache = new ConcurrentHashMap<>();
     /**
-     * Represents the binary file used for storing UUIDs.
-     * <p>
-     * The BIN_FILE variable is a private static final File object that represents the binary file used for storing UUIDs.
-     * The file is initialized using the {@link BetterBanSystem#getDataFolder()} method from the {@link BetterBanSystem} instance,
-     * along with the file name "uuids.bin".
-     * </p>
-     * <p>
-     * This file is used by the {@link UUIDFetcher} class to store and retrieve UUIDs associated with player names.
-     * </p>
+     * Represents the name of the legacy binary file which held the Java serialized UUID map.
+     * If it exists in the data folder, its content is imported into the {@link UUIDStore} once and the file is renamed to "uuids.bin.migrated".
      *
      * @see BetterBanSystem#getDataFolder()
      * @see UUIDFetcher
      */
-    private static final File BIN_FILE = new File(BetterBanSystem.getInstance().getDataFolder(), "uuids.bin");
+    private static final String BIN_FILE = "uuids.bin";
+    /**
+     * Represents the name of the file of the {@link UUIDStore} used for storing the UUIDs associated with player names.
+     *
+     * @see BetterBanSystem#getDataFolder()
+     * @see UUIDStore
+     */
+    private static final String STORE_FILE = "uuids.dat";
     /**
      * The variable USERCACHE represents the file used to store the user cache in JSON format.
      * It is a private static final variable of type File.
@@ -75,86 +94,169 @@ public class UUIDFetcher {
      * Note: The file path should be a valid path to a file.
      */
     private static final File USERCACHE = new File("usercache.json");
-
     /**
-     * Loads the user cache from the JSON file.
-     * If the JSON file doesn't exist, the method returns.
-     * The method reads the JSON file using a buffered reader.
-     * It then converts the JSON data to a JsonArray using a Gson library.
-     * For each JsonElement in the JsonArray, the method retrieves the UUID and name values from the JsonObject.
-     * If the UUID is not already stored in the UUID bin file, it is saved using the saveUUIDToBin method.
+     * The persistent name to UUID store, or null if it could not be opened.
      */
-    public static void loadUsercacheJson() {
-        if (!USERCACHE.exists())
-            return;
-        Gson gson = new Gson();
+    private static final UUIDStore store = openStore();
 
-        Reader reader;
+    /**
+     * Opens the {@link UUIDStore} in the data folder, imports the legacy binary file and schedules the periodic compaction of the store.
+     *
+     * @return the opened store, or null if it could not be opened or the plugin is not initialized
+     */
+    private static @Nullable UUIDStore openStore() {
+        BetterBanSystem instance = BetterBanSystem.getInstance();
+        if (instance == null)
+            return null;
+        File storeFile = new File(instance.getDataFolder(), STORE_FILE);
+        UUIDStore opened;
         try {
-            reader = Files.newBufferedReader(USERCACHE.toPath());
+            opened = new UUIDStore(storeFile);
         } catch (IOException e) {
-            GlobalLogger.getLogger().error("Failed to load Usercached UUIDs", e);
+            GlobalLogger.getLogger().error("Failed to open the UUID store", storeFile.getName(), e);
+            return null;
+        }
+        migrateLegacyBin(opened, new File(instance.getDataFolder(), BIN_FILE));
+        TaskScheduler.scheduleAsync(opened::compactIfNeeded, 10, 10, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                opened.close();
+            } catch (IOException e) {
+                GlobalLogger.getLogger().error("Failed to close the UUID store", e);
+            }
+        }));
+        return opened;
+    }
+
+    /**
+     * Imports the Java serialized map of the legacy binary file into the given store and renames the legacy file afterwards.
+     *
+     * @param target  the store to import the UUIDs into
+     * @param binFile the legacy binary file
+     */
+    private static void migrateLegacyBin(@NotNull UUIDStore target, @NotNull File binFile) {
+        if (!binFile.exists() || binFile.length() == 0)
+            return;
+        int imported = 0;
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(binFile)))) {
+            if (ois.readObject() instanceof Map<?, ?> map) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getKey() instanceof String name && entry.getValue() instanceof UUID uuid && target.put(name, uuid))
+                        imported++;
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            GlobalLogger.getLogger().error("Failed to read the legacy UUID file", binFile.getName(), e);
             return;
         }
-        JsonArray array = gson.fromJson(reader, JsonArray.class);
-        for (JsonElement map : array) {
-            JsonObject object = map.getAsJsonObject();
-            UUID uuid = UUID.fromString(object.get("uuid").getAsString());
-            String name = object.get("name").getAsString();
-            if (loadUUIDFromBin(name) == null)
-                saveUUIDToBin(name, uuid);
+        try {
+            Files.move(binFile.toPath(), new File(binFile.getPath() + ".migrated").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to rename the legacy UUID file", binFile.getName(), e);
         }
+        GlobalLogger.getLogger().info("Imported", imported, "UUIDs from", binFile.getName());
+    }
 
+    /**
+     * Configures the API endpoint and the lookup cache. The previously cached lookups are dropped.
+     * <p>
+     * The endpoint can point to any service answering like the Mojang API, for example a local stub.
+     *
+     * @param url                the API URL the player name is appended to
+     * @param maximumSize        the maximum amount of cached lookups
+     * @param positiveTtlSeconds the time in seconds a found UUID is cached
+     * @param negativeTtlSeconds the time in seconds an unknown name is cached
+     */
+    public static void configure(@NotNull String url, int maximumSize, long positiveTtlSeconds, long negativeTtlSeconds) {
+        apiUrl = url.endsWith("/") ? url : url + "/";
+        resolver = new UUIDResolverCache(maximumSize, positiveTtlSeconds, negativeTtlSeconds, UUIDFetcher::lookupUUID);
+    }
 
+    /**
+     * Configures the endpoint and the linger time of the bulk requests sent by {@link #resolveAll(Collection)}.
+     *
+     * @param url          the API URL the bulk requests are sent to
+     * @param lingerMillis the time in milliseconds a name waits for further names before the request is sent
+     */
+    public static void configureBatching(@NotNull String url, long lingerMillis) {
+        bulkApiUrl = url;
+        batchResolver = new UUIDBatchResolver(lingerMillis, UUIDFetcher::requestUUIDs);
     }
 
     /**
-     * Saves a UUID to a binary file.
+     * Returns the cache of the API lookups.
+     *
+     * @return the lookup cache
+     */
+    public static @NotNull UUIDResolverCache getResolverCache() {
+        return resolver;
+    }
+
+    /**
+     * Loads the user cache from the JSON file.
+     * If the JSON file doesn't exist, the method returns.
+     * The file is read in a single streaming pass, so the array is never held in memory as a whole.
+     * Every name which is not stored yet is appended to the UUID store.
+     */
+    public static void loadUsercacheJson() {
+        if (!USERCACHE.exists())
+            return;
+        int imported = 0;
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(USERCACHE.toPath()))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String name = null;
+                String uuid = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "name" -> name = reader.nextString();
+                        case "uuid" -> uuid = reader.nextString();
+                        default -> reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (name != null && uuid != null && loadUUID(name) == null) {
+                    saveUUID(name, UUID.fromString(uuid));
+                    imported++;
+                }
+            }
+            reader.endArray();
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            GlobalLogger.getLogger().error("Failed to load Usercached UUIDs", e);
+        }
+        GlobalLogger.getLogger().debug("Imported", imported, "UUIDs from", USERCACHE.getName());
+    }
+
+    /**
+     * Saves a UUID to the UUID store.
+     * If the store is not available or can not hold the name, the UUID is only kept in memory.
+     * Names are case-insensitive, like in the {@link UUIDResolverCache}.
      *
      * @param playername the name of the player
      * @param uuid       the UUID of the player
      */
-    private static void saveUUIDToBin(String playername, UUID uuid) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(BIN_FILE, false))) {
-            if (!uuidCache.containsKey(playername))
-                uuidCache.put(playername, uuid);
-            oos.writeObject(uuidCache);
-        } catch (Exception ex) {
-            GlobalLogger.getLogger().error(ex.getMessage().trim().substring(0, 60) + "...");
-        }
+    private static void saveUUID(String playername, UUID uuid) {
+        if (store == null || !store.put(playername, uuid))
+            uuidCache.put(playername.toLowerCase(Locale.ROOT), uuid);
     }
 
     /**
-     * Loads a UUID from a binary file using the playername as the key.
+     * Loads a UUID from the UUID store using the playername as the key, ignoring its case.
      *
      * @param playername The playername to retrieve the UUID for.
      * @return The UUID associated with the playername, or null if not found.
      */
-    private static @Nullable UUID loadUUIDFromBin(String playername) {
-        if (uuidCache.containsKey(playername))
-            return uuidCache.get(playername);
-        if (!BIN_FILE.exists()) {
-            try {
-                BIN_FILE.createNewFile();
-            } catch (IOException ignored) {
-            }
-        }
-        Map<String, UUID> map;
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(BIN_FILE))) {
-            Object potentialMap = ois.readObject();
-            if (potentialMap instanceof ConcurrentMap<?, ?>) {
-                map = (ConcurrentMap<String, UUID>) potentialMap;
-                if (map.containsKey(playername)) {
-                    return map.get(playername);
-                }
-            }
-        } catch (Exception ignored) {
-        }
-        return null;
+    private static @Nullable UUID loadUUID(String playername) {
+        UUID uuid = store == null ? null : store.get(playername);
+        return uuid != null ? uuid : uuidCache.get(playername.toLowerCase(Locale.ROOT));
     }
 
     /**
      * Retrieves the UUID for a given player name.
+     * <p>
+     * The name is looked up in the {@link UUIDResolverCache} first, so found UUIDs and unknown names are only
+     * requested again from the API once their cache entries have expired.
      *
      * @param playername the name of the player
      * @return the UUID of the player
@@ -162,71 +264,190 @@ public class UUIDFetcher {
      */
     @Contract(pure = true)
     public static @NotNull UUID getUUID(String playername) {
-        UUID bin = loadUUIDFromBin(playername);
-        if (bin != null) {
-            return bin;
+        Optional<UUID> resolved;
+        try {
+            resolved = resolver.resolve(playername);
+        } catch (IOException ex) {
+            GlobalLogger.getLogger().error("Failed to call mojang API for uuid fetching. Are the servers unavailable?");
+            throw new RuntimeException(ex);
         }
+        return resolved.orElseThrow(() -> new RuntimeException("There is no player with the name " + playername));
+    }
 
-        UUID uuidFromCache = uuidCache.get(playername);
-        if (uuidFromCache != null) {
-            return uuidFromCache;
+    /**
+     * Looks up the UUID of a name which is not cached by the {@link UUIDResolverCache}.
+     * <p>
+     * The name is requested from the API and a found UUID is written to the UUID store. Unknown names are not stored,
+     * so they are only remembered for the negative expiry time of the cache. If the API can not be reached,
+     * the UUID which was stored for the name before is returned instead.
+     *
+     * @param playername the name of the player
+     * @return the UUID of the player, or null if the API does not know the name
+     * @throws IOException if the request failed and no UUID is stored for the name
+     */
+    private static @Nullable UUID lookupUUID(@NotNull String playername) throws IOException {
+        UUID uuid;
+        try {
+            uuid = requestUUID(playername);
+        } catch (IOException ex) {
+            UUID stored = loadUUID(playername);
+            if (stored == null)
+                throw ex;
+            GlobalLogger.getLogger().debug("Using the stored UUID of", playername, "because the API is unavailable:", ex.getMessage());
+            return stored;
         }
+        if (uuid != null)
+            saveUUID(playername, uuid);
+        return uuid;
+    }
 
-        try {
-            URL url = new URL(API_URL + playername);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            InputStreamReader reader = new InputStreamReader(connection.getInputStream());
-            Gson gson = new Gson();
-            JsonElement element = gson.fromJson(reader, JsonElement.class);
-            JsonObject json = element.getAsJsonObject();
-
-            String uuidString = json.get("id").getAsString();
-            reader.close();
-
-            StringBuilder realUuid = new StringBuilder();
-            for (int i = 0; i <= 31; i++) {
-                realUuid.append(uuidString.charAt(i));
-                if (i == 7 || i == 11 || i == 15 || i == 19) {
-                    realUuid.append("-");
-                }
+    /**
+     * Requests the UUID of the given name from the configured API endpoint.
+     *
+     * @param playername the name of the player
+     * @return the UUID of the player, or null if the API does not know the name
+     * @throws IOException if the request failed or the API answered with an unexpected status code
+     */
+    private static @Nullable UUID requestUUID(@NotNull String playername) throws IOException {
+        URL url = new URL(apiUrl + URLEncoder.encode(playername, StandardCharsets.UTF_8));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(REQUEST_TIMEOUT);
+        connection.setReadTimeout(REQUEST_TIMEOUT);
+        int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NO_CONTENT || status == HttpURLConnection.HTTP_NOT_FOUND)
+            return null;
+        if (status != HttpURLConnection.HTTP_OK)
+            throw new IOException("Unexpected response code " + status + " from " + url.getHost());
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            JsonObject json = new Gson().fromJson(reader, JsonObject.class);
+            if (json == null || !json.has("id"))
+                return null;
+            return fromUndashed(json.get("id").getAsString());
+        }
+    }
+
+    /**
+     * Requests the UUIDs of the given names from the configured bulk API endpoint.
+     *
+     * @param names the names of the players, at most {@link UUIDBatchResolver#MAX_BATCH_SIZE}
+     * @return the UUIDs of the known names, keyed by the name returned by the API
+     * @throws IOException if the request failed or the API answered with an unexpected status code
+     */
+    private static @NotNull Map<String, UUID> requestUUIDs(@NotNull List<String> names) throws IOException {
+        URL url = new URL(bulkApiUrl);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(REQUEST_TIMEOUT);
+        connection.setReadTimeout(REQUEST_TIMEOUT);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (Writer writer = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8)) {
+            new Gson().toJson(names, writer);
+        }
+        int status = connection.getResponseCode();
+        if (status == 429) {
+            long retryAfter = connection.getHeaderFieldLong("Retry-After", 0);
+            throw new UUIDBatchResolver.RateLimitException(TimeUnit.SECONDS.toMillis(retryAfter));
+        }
+        if (status != HttpURLConnection.HTTP_OK)
+            throw new IOException("Unexpected response code " + status + " from " + url.getHost());
+        Map<String, UUID> found = new HashMap<>();
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            JsonArray array = new Gson().fromJson(reader, JsonArray.class);
+            if (array == null)
+                return found;
+            for (JsonElement element : array) {
+                JsonObject profile = element.getAsJsonObject();
+                found.put(profile.get("name").getAsString(), fromUndashed(profile.get("id").getAsString()));
             }
-            UUID uuid = UUID.fromString(realUuid.toString());
-            uuidCache.put(playername, uuid);
-            saveUUIDToBin(playername, uuid);
-            return uuid;
-        } catch (Exception ex) {
-            GlobalLogger.getLogger().error("Failed to call mojang API for uuid fetching. Are the servers unavailable?");
-            throw new RuntimeException(ex);
         }
+        return found;
+    }
+
+    /**
+     * Converts a UUID without dashes, as returned by the Mojang API, into a UUID.
+     *
+     * @param uuidString the 32 hexadecimal digits of the UUID
+     * @return the UUID
+     */
+    private static @NotNull UUID fromUndashed(@NotNull String uuidString) {
+        StringBuilder realUuid = new StringBuilder(36);
+        for (int i = 0; i <= 31; i++) {
+            realUuid.append(uuidString.charAt(i));
+            if (i == 7 || i == 11 || i == 15 || i == 19) {
+                realUuid.append("-");
+            }
+        }
+        return UUID.fromString(realUuid.toString());
     }
 
     /**
      * Returns the UUID of a player based on their name. If the UUID is not found,
      * it generates an offline UUID based on the player's name.
+     * The offline UUID is not stored, so the name is looked up again once the cached result has expired.
      *
      * @param playername the name of the player
      * @return the UUID of the player or an offline generated UUID
      */
     @Contract(pure = true)
     public static UUID getUUIDOrOfflineUUID(String playername) {
-        UUID bin = loadUUIDFromBin(playername);
-        if (bin != null) {
-            return bin;
-        }
-
-        UUID uuidFromCache = uuidCache.get(playername);
-        if (uuidFromCache != null) {
-            return uuidFromCache;
-        }
         try {
             return getUUID(playername);
         } catch (Exception ex) {
-            UUID g = UUID.nameUUIDFromBytes(playername.getBytes());
-            uuidCache.put(playername, g);
-            saveUUIDToBin(playername, g);
-            return g;
+            return offlineUUID(playername);
+        }
+    }
+
+    /**
+     * Resolves the UUIDs of many player names with as few requests as possible.
+     * <p>
+     * Cached names are completed right away. All other names are queued and sent in bulk requests
+     * of up to {@link UUIDBatchResolver#MAX_BATCH_SIZE} names. Like {@link #getUUIDOrOfflineUUID(String)},
+     * unknown names are completed with the offline UUID of the name, which is not stored.
+     * If a bulk request fails or stays rate limited, its names are completed with their stored UUIDs.
+     * The futures of names without a stored UUID fail, so a temporary failure never turns into an offline UUID.
+     *
+     * @param playernames the names of the players
+     * @return a future for every distinct name, completed with the UUID of the player or an offline generated UUID,
+     * or failed if the name could not be looked up
+     */
+    public static @NotNull Map<String, CompletableFuture<UUID>> resolveAll(@NotNull Collection<String> playernames) {
+        Map<String, CompletableFuture<UUID>> futures = new LinkedHashMap<>();
+        UUIDResolverCache cache = resolver;
+        UUIDBatchResolver batch = batchResolver;
+        for (String playername : playernames) {
+            if (futures.containsKey(playername))
+                continue;
+            Optional<UUID> cached = cache.getIfPresent(playername);
+            if (cached.isPresent()) {
+                UUID uuid = cached.get();
+                futures.put(playername, CompletableFuture.completedFuture(UUIDResolverCache.UNKNOWN.equals(uuid) ? offlineUUID(playername) : uuid));
+                continue;
+            }
+            futures.put(playername, batch.submit(playername).handle((result, throwable) -> {
+                if (throwable != null) {
+                    UUID stored = loadUUID(playername);
+                    if (stored == null)
+                        throw new CompletionException(throwable);
+                    return stored;
+                }
+                cache.put(playername, result.orElse(null));
+                result.ifPresent(uuid -> saveUUID(playername, uuid));
+                return result.orElseGet(() -> offlineUUID(playername));
+            }));
         }
+        return futures;
+    }
+
+    /**
+     * Generates the offline UUID of the given player name.
+     *
+     * @param playername the name of the player
+     * @return the offline UUID
+     */
+    private static @NotNull UUID offlineUUID(@NotNull String playername) {
+        return UUID.nameUUIDFromBytes(playername.getBytes());
     }
 
 }
@@ -0,0 +1,256 @@
+package me.github.simonplays15.betterbansystem.api.uuid;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The UUIDResolverCache class caches the results of a name to UUID lookup.
+ * <p>
+ * Player names are matched case-insensitively. The cache holds up to a maximum amount of names and evicts the least recently used one.
+ * Found UUIDs and unknown names are cached with separate expiry times, so unknown names are not looked up again on every call.
+ * Concurrent lookups of the same uncached name share a single call of the {@link Resolver}. Failed lookups are not cached.
+ */
+public class UUIDResolverCache {
+
+    /**
+     * The UUID returned by {@link #getIfPresent(String)} for a name which is cached as unknown.
+     * The nil UUID is never assigned to a player.
+     */
+    public static final UUID UNKNOWN = new UUID(0L, 0L);
+
+    /**
+     * The maximum amount of cached names.
+     */
+    private final int maximumSize;
+    /**
+     * The time in nanoseconds a found UUID is cached.
+     */
+    private final long positiveTtlNanos;
+    /**
+     * The time in nanoseconds an unknown name is cached.
+     */
+    private final long negativeTtlNanos;
+    /**
+     * The resolver looking up names which are not cached.
+     */
+    private final Resolver resolver;
+    /**
+     * The cached results in access order, keyed by the lower case name.
+     */
+    private final LinkedHashMap<String, CachedResult> entries;
+    /**
+     * The running lookups, keyed by the lower case name.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Optional<UUID>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize        the maximum amount of cached names
+     * @param positiveTtlSeconds the time in seconds a found UUID is cached
+     * @param negativeTtlSeconds the time in seconds an unknown name is cached
+     * @param resolver           the resolver looking up names which are not cached
+     */
+    public UUIDResolverCache(int maximumSize, long positiveTtlSeconds, long negativeTtlSeconds, @NotNull Resolver resolver) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.positiveTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, positiveTtlSeconds));
+        this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, negativeTtlSeconds));
+        this.resolver = resolver;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return this.size() > UUIDResolverCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the key used for the given name.
+     *
+     * @param name the name of the player
+     * @return the lower case name
+     */
+    private static @NotNull String key(@NotNull String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the cached result for the given name without looking it up.
+     *
+     * @param name the name of the player
+     * @return the cached UUID, {@link #UNKNOWN} for a known unknown name, or an empty optional if nothing valid is cached
+     */
+    public @NotNull Optional<UUID> getIfPresent(@NotNull String name) {
+        CachedResult result = this.getValid(key(name));
+        if (result == null)
+            return Optional.empty();
+        return Optional.of(result.uuid() != null ? result.uuid() : UNKNOWN);
+    }
+
+    /**
+     * Returns the cached result for the given key, removing it if it has expired.
+     *
+     * @param key the lower case name
+     * @return the cached result, or null if nothing valid is cached
+     */
+    private @Nullable CachedResult getValid(@NotNull String key) {
+        synchronized (this.entries) {
+            CachedResult result = this.entries.get(key);
+            if (result == null)
+                return null;
+            if (result.expiresAt() - System.nanoTime() <= 0) {
+                this.entries.remove(key);
+                return null;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Stores the given result for the given name.
+     *
+     * @param name the name of the player
+     * @param uuid the UUID of the player, or null if the name is unknown
+     */
+    public void put(@NotNull String name, @Nullable UUID uuid) {
+        long ttl = uuid != null ? this.positiveTtlNanos : this.negativeTtlNanos;
+        if (ttl == 0)
+            return;
+        synchronized (this.entries) {
+            this.entries.put(key(name), new CachedResult(uuid, System.nanoTime() + ttl));
+        }
+    }
+
+    /**
+     * Removes the cached result for the given name.
+     *
+     * @param name the name of the player
+     */
+    public void invalidate(@NotNull String name) {
+        synchronized (this.entries) {
+            this.entries.remove(key(name));
+        }
+    }
+
+    /**
+     * Returns the UUID of the given name. Uncached names are looked up with the {@link Resolver}.
+     * If another thread is already looking up the same name, its result is awaited instead.
+     *
+     * @param name the name of the player
+     * @return the UUID of the player, or an empty optional if the name is unknown
+     * @throws IOException if the lookup failed
+     */
+    public @NotNull Optional<UUID> resolve(@NotNull String name) throws IOException {
+        String key = key(name);
+        CachedResult cached = this.getValid(key);
+        if (cached != null)
+            return Optional.ofNullable(cached.uuid());
+
+        CompletableFuture<Optional<UUID>> own = new CompletableFuture<>();
+        CompletableFuture<Optional<UUID>> running = this.inFlight.putIfAbsent(key, own);
+        if (running != null)
+            return await(running);
+
+        try {
+            // The previous lookup may have finished between the cache check and claiming the key
+            cached = this.getValid(key);
+            UUID uuid;
+            if (cached != null) {
+                uuid = cached.uuid();
+            } else {
+                uuid = this.resolver.resolve(name);
+                this.put(name, uuid);
+            }
+            Optional<UUID> result = Optional.ofNullable(uuid);
+            own.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Waits for the lookup of another thread.
+     *
+     * @param running the running lookup
+     * @return the result of the lookup
+     * @throws IOException if the lookup failed
+     */
+    private @NotNull Optional<UUID> await(@NotNull CompletableFuture<Optional<UUID>> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the UUID lookup", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io)
+                throw io;
+            if (e.getCause() instanceof RuntimeException runtime)
+                throw runtime;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the amount of cached names, including expired ones which have not been removed yet.
+     *
+     * @return the amount of cached names
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * The Resolver interface looks up the UUID of a name which is not cached.
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        /**
+         * Looks up the UUID of the given name.
+         *
+         * @param name the name of the player
+         * @return the UUID of the player, or null if the name is unknown
+         * @throws IOException if the lookup failed
+         */
+        @Nullable UUID resolve(@NotNull String name) throws IOException;
+    }
+
+    /**
+     * A cached lookup result.
+     *
+     * @param uuid      the UUID, or null if the name is unknown
+     * @param expiresAt the {@link System#nanoTime()} at which the result expires
+     */
+    private record CachedResult(@Nullable UUID uuid, long expiresAt) {
+    }
+}
@@ -0,0 +1,548 @@
+package me.github.simonplays15.betterbansystem.api.uuid;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The UUIDStore class is a persistent name to UUID mapping stored in an append-only file with fixed size records.
+ * <p>
+ * The file starts with a 16 byte header, followed by 64 byte records. Every record holds the length of the name,
+ * the UTF-8 bytes of the name padded to {@link #MAX_NAME_BYTES} and the two halves of the UUID.
+ * The file is read and written through a {@link MappedByteBuffer}, so lookups do not copy the file into the heap.
+ * <p>
+ * An open addressing hash index from the name to the newest record is rebuilt when the store is opened.
+ * Changing the UUID of a known name appends a new record, so older records are compacted away by {@link #compactIfNeeded()}.
+ * Names are case-insensitive like Minecraft names: new names are stored in lower case and the ASCII letters of
+ * stored names are folded to lower case when they are hashed and compared, so records of older versions are found as well.
+ * Lookups of lower case ASCII names do not allocate anything but the returned UUID.
+ * <p>
+ * If the file can not be reopened after a compaction, the store becomes unusable: lookups find nothing and
+ * nothing can be stored, so the callers keep the UUIDs in memory until the next start.
+ */
+public class UUIDStore implements Closeable {
+
+    /**
+     * The maximum amount of UTF-8 bytes of a stored name.
+     */
+    public static final int MAX_NAME_BYTES = 47;
+    /**
+     * The magic number at the start of the file ("BBSUUID1").
+     */
+    private static final long MAGIC = 0x4242535555494431L;
+    /**
+     * The version of the record layout.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size of the file header in bytes.
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * The size of a single record in bytes.
+     */
+    private static final int RECORD_SIZE = 64;
+    /**
+     * The offset of the UUID inside a record.
+     */
+    private static final int UUID_OFFSET = 48;
+    /**
+     * The amount of records the file is initially sized for.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * The minimum amount of outdated records before the file is compacted.
+     */
+    private static final int COMPACT_MIN_STALE = 1024;
+    /**
+     * The FNV-1a offset basis used for hashing the names.
+     */
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    /**
+     * The FNV-1a prime used for hashing the names.
+     */
+    private static final int FNV_PRIME = 0x01000193;
+
+    /**
+     * The file holding the records.
+     */
+    private final File file;
+    /**
+     * The lock guarding the mapping and the index. Lookups share the lock, while appends and compactions hold it exclusively.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * The channel of the opened file.
+     */
+    private FileChannel channel;
+    /**
+     * The mapping of the file, covering the header and {@link #capacity} records.
+     */
+    private MappedByteBuffer buffer;
+    /**
+     * The amount of records the current mapping has room for.
+     */
+    private int capacity;
+    /**
+     * The amount of written records, including the outdated ones.
+     */
+    private int records;
+    /**
+     * The open addressing hash index. Each slot holds the index of a record plus one, or 0 if the slot is empty.
+     */
+    private int[] slots;
+    /**
+     * The amount of names in the index.
+     */
+    private int size;
+    /**
+     * Indicates whether the file is opened and mapped. False if it could not be reopened after a compaction.
+     */
+    private boolean usable = true;
+    /**
+     * Indicates whether the file may be compacted. False after the file could not be replaced,
+     * e.g. because the platform refused to replace it, so the compaction is not retried until the next start.
+     */
+    private boolean compactable = true;
+
+    /**
+     * Opens the store backed by the given file. The file is created if it does not exist.
+     *
+     * @param file the file holding the records
+     * @throws IOException if the file can not be opened or is not a UUID store
+     */
+    public UUIDStore(@NotNull File file) throws IOException {
+        this.file = file;
+        this.open();
+    }
+
+    /**
+     * Calculates the FNV-1a hash of the given name.
+     *
+     * @param name    the name, used if the name is ASCII only
+     * @param encoded the UTF-8 bytes of the name, or null if the name is ASCII only
+     * @return the hash of the name
+     */
+    private static int hash(@NotNull String name, byte @Nullable [] encoded) {
+        int length = encoded == null ? name.length() : encoded.length;
+        int hash = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (encoded == null ? name.charAt(i) : encoded[i] & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Folds an ASCII upper case letter to lower case.
+     *
+     * @param c the character or byte
+     * @return the lower case letter, or the given value if it is no ASCII upper case letter
+     */
+    private static int fold(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    /**
+     * Returns the UTF-8 bytes of the given name, or null if the name only consists of ASCII characters,
+     * in which case the characters can be compared to the stored bytes directly.
+     *
+     * @param name the name
+     * @return the UTF-8 bytes of the name, or null for ASCII names
+     */
+    private static byte @Nullable [] encode(@NotNull String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80)
+                return name.getBytes(StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    /**
+     * Opens and maps the file and rebuilds the index from its records.
+     *
+     * @throws IOException if the file can not be opened or is not a UUID store
+     */
+    private void open() throws IOException {
+        if (this.file.getParentFile() != null && !this.file.getParentFile().exists())
+            this.file.getParentFile().mkdirs();
+        this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = this.channel.size();
+        boolean created = length < HEADER_SIZE;
+        int mappedRecords = created ? INITIAL_CAPACITY : (int) Math.max(INITIAL_CAPACITY, (length - HEADER_SIZE) / RECORD_SIZE);
+        try {
+            this.map(mappedRecords);
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+        if (created) {
+            this.buffer.putLong(0, MAGIC);
+            this.buffer.putInt(8, VERSION);
+            this.buffer.putInt(12, RECORD_SIZE);
+        } else if (this.buffer.getLong(0) != MAGIC || this.buffer.getInt(12) != RECORD_SIZE) {
+            this.channel.close();
+            throw new IOException(this.file.getName() + " is not a UUID store");
+        }
+
+        this.records = 0;
+        this.size = 0;
+        this.slots = new int[Integer.highestOneBit(Math.max(16, mappedRecords)) << 1];
+        // The length byte is written last, so a record interrupted by a crash reads as the end of the file
+        while (this.records < this.capacity && this.buffer.get(this.offset(this.records)) != 0) {
+            this.index(this.records++);
+        }
+    }
+
+    /**
+     * Maps the header and the given amount of records, growing the file if needed.
+     *
+     * @param recordCapacity the amount of records to map
+     * @throws IOException if the file can not be mapped
+     */
+    private void map(int recordCapacity) throws IOException {
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordCapacity * RECORD_SIZE);
+        this.capacity = recordCapacity;
+    }
+
+    /**
+     * Returns the position of the given record in the file.
+     *
+     * @param record the index of the record
+     * @return the position of the record
+     */
+    private int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    /**
+     * Adds the given record to the index, replacing an older record with the same name.
+     *
+     * @param record the index of the record
+     */
+    private void index(int record) {
+        if ((this.size + 1) * 2 > this.slots.length)
+            this.rehash(this.slots.length << 1);
+        int offset = this.offset(record);
+        int length = this.buffer.get(offset) & 0xFF;
+        int hash = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ fold(this.buffer.get(offset + 1 + i) & 0xFF)) * FNV_PRIME;
+        }
+        int mask = this.slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int current = this.slots[slot];
+            if (current == 0) {
+                this.slots[slot] = record + 1;
+                this.size++;
+                return;
+            }
+            if (this.sameName(current - 1, record)) {
+                this.slots[slot] = record + 1;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index with the given amount of slots.
+     *
+     * @param slotCount the new amount of slots, a power of two
+     */
+    private void rehash(int slotCount) {
+        int[] old = this.slots;
+        this.slots = new int[slotCount];
+        this.size = 0;
+        for (int current : old) {
+            if (current != 0)
+                this.index(current - 1);
+        }
+    }
+
+    /**
+     * Checks whether the two records hold the same name, ignoring the case of ASCII letters.
+     *
+     * @param first  the index of the first record
+     * @param second the index of the second record
+     * @return true if both names are equal, otherwise false
+     */
+    private boolean sameName(int first, int second) {
+        int firstOffset = this.offset(first);
+        int secondOffset = this.offset(second);
+        int length = this.buffer.get(firstOffset) & 0xFF;
+        if (length != (this.buffer.get(secondOffset) & 0xFF))
+            return false;
+        for (int i = 1; i <= length; i++) {
+            if (fold(this.buffer.get(firstOffset + i) & 0xFF) != fold(this.buffer.get(secondOffset + i) & 0xFF))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the given record holds the given name, ignoring the case of the ASCII letters of the record.
+     *
+     * @param record  the index of the record
+     * @param name    the lower case name, used if the name is ASCII only
+     * @param encoded the UTF-8 bytes of the name, or null if the name is ASCII only
+     * @return true if the record holds the name, otherwise false
+     */
+    private boolean matches(int record, @NotNull String name, byte @Nullable [] encoded) {
+        int offset = this.offset(record);
+        int length = encoded == null ? name.length() : encoded.length;
+        if (length != (this.buffer.get(offset) & 0xFF))
+            return false;
+        for (int i = 0; i < length; i++) {
+            int expected = encoded == null ? name.charAt(i) : encoded[i] & 0xFF;
+            if (fold(this.buffer.get(offset + 1 + i) & 0xFF) != expected)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the slot holding the given name, or the empty slot the name would be stored in.
+     *
+     * @param name    the name
+     * @param encoded the UTF-8 bytes of the name, or null if the name is ASCII only
+     * @return the index of the slot
+     */
+    private int find(@NotNull String name, byte @Nullable [] encoded) {
+        int mask = this.slots.length - 1;
+        for (int slot = hash(name, encoded) & mask; ; slot = (slot + 1) & mask) {
+            int current = this.slots[slot];
+            if (current == 0 || this.matches(current - 1, name, encoded))
+                return slot;
+        }
+    }
+
+    /**
+     * Reads the UUID of the given record.
+     *
+     * @param record the index of the record
+     * @return the UUID of the record
+     */
+    private @NotNull UUID readUUID(int record) {
+        int offset = this.offset(record) + UUID_OFFSET;
+        return new UUID(this.buffer.getLong(offset), this.buffer.getLong(offset + 8));
+    }
+
+    /**
+     * Returns the UUID stored for the given name, ignoring its case.
+     *
+     * @param name the name of the player
+     * @return the stored UUID, or null if the name is unknown or the store is unusable
+     */
+    public @Nullable UUID get(@NotNull String name) {
+        name = name.toLowerCase(Locale.ROOT);
+        byte[] encoded = encode(name);
+        if ((encoded == null ? name.length() : encoded.length) > MAX_NAME_BYTES)
+            return null;
+        this.lock.readLock().lock();
+        try {
+            if (!this.usable)
+                return null;
+            int current = this.slots[this.find(name, encoded)];
+            return current == 0 ? null : this.readUUID(current - 1);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the UUID for the given name in lower case. Nothing is written if the name is already stored with the same UUID.
+     *
+     * @param name the name of the player
+     * @param uuid the UUID of the player
+     * @return true if the name is stored, false if the name is empty or longer than {@link #MAX_NAME_BYTES}, the file could not be grown or the store is unusable
+     */
+    public boolean put(@NotNull String name, @NotNull UUID uuid) {
+        name = name.toLowerCase(Locale.ROOT);
+        byte[] encoded = encode(name);
+        byte[] bytes = encoded == null ? name.getBytes(StandardCharsets.US_ASCII) : encoded;
+        if (bytes.length == 0 || bytes.length > MAX_NAME_BYTES)
+            return false;
+        this.lock.writeLock().lock();
+        try {
+            if (!this.usable)
+                return false;
+            int current = this.slots[this.find(name, encoded)];
+            if (current != 0 && this.readUUID(current - 1).equals(uuid))
+                return true;
+            if (this.records == this.capacity)
+                this.map(this.capacity << 1);
+            int offset = this.offset(this.records);
+            this.buffer.put(offset + 1, bytes, 0, bytes.length);
+            this.buffer.putLong(offset + UUID_OFFSET, uuid.getMostSignificantBits());
+            this.buffer.putLong(offset + UUID_OFFSET + 8, uuid.getLeastSignificantBits());
+            this.buffer.put(offset, (byte) bytes.length);
+            this.index(this.records++);
+            return true;
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to grow", this.file.getName(), e);
+            return false;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of stored names.
+     *
+     * @return the amount of names
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.usable ? this.size : 0;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the file if it holds more outdated records than the threshold and at least half as many as current ones.
+     */
+    public void compactIfNeeded() {
+        this.lock.writeLock().lock();
+        try {
+            if (!this.usable || !this.compactable)
+                return;
+            int stale = this.records - this.size;
+            if (stale >= COMPACT_MIN_STALE && stale * 2 >= this.size)
+                this.compact();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file with only the newest record of every name and reopens it.
+     * The records are written to a new temporary file, which replaces the file after the mapping of the file was dropped,
+     * as a mapped file can not be replaced on every platform. If the file can not be replaced, the temporary file is deleted
+     * and the file is not compacted again until the next start. If the file can not be reopened, the store becomes unusable.
+     * Must be called while holding the write lock.
+     */
+    private void compact() {
+        File tempFile;
+        try {
+            tempFile = Files.createTempFile(this.file.getAbsoluteFile().getParentFile().toPath(), this.file.getName() + ".", ".tmp").toFile();
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to compact", this.file.getName(), e);
+            return;
+        }
+        try (FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).flip();
+            out.write(header);
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            for (int current : this.slots) {
+                if (current == 0)
+                    continue;
+                int offset = this.offset(current - 1);
+                record.clear();
+                record.put(0, this.buffer, offset, RECORD_SIZE);
+                out.write(record);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to compact", this.file.getName(), e);
+            this.deleteQuietly(tempFile);
+            return;
+        }
+        int before = this.records;
+        boolean replaced = false;
+        try {
+            this.buffer.force();
+            this.buffer = null;
+            this.channel.close();
+            try {
+                Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            replaced = true;
+        } catch (IOException | UncheckedIOException e) {
+            this.compactable = false;
+            GlobalLogger.getLogger().warn("Failed to replace", this.file.getName() + ", it is not compacted again until the next start", e);
+            this.deleteQuietly(tempFile);
+            try {
+                this.channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        try {
+            this.open();
+            if (replaced)
+                GlobalLogger.getLogger().debug("Compacted", this.file.getName(), "from", before, "to", this.records, "records.");
+        } catch (IOException e) {
+            this.usable = false;
+            this.buffer = null;
+            GlobalLogger.getLogger().error("Failed to reopen", this.file.getName() + ", the UUIDs are only kept in memory until the next start", e);
+        }
+    }
+
+    /**
+     * Deletes the given file, logging a failure.
+     *
+     * @param file the file to delete
+     */
+    private void deleteQuietly(@NotNull File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to delete", file.getName(), e);
+        }
+    }
+
+    /**
+     * Writes all changes of the mapping to the disk.
+     */
+    public void flush() {
+        this.lock.readLock().lock();
+        try {
+            if (this.usable)
+                this.buffer.force();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all changes to the disk and closes the file.
+     *
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            if (!this.usable)
+                return;
+            this.buffer.force();
+            this.channel.close();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+}
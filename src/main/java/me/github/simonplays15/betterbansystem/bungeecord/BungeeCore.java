@@ -7,8 +7,10 @@ package me.github.simonplays15.betterbansystem.bungeecord;
 import me.github.simonplays15.betterbansystem.bungeecord.event.EventManager;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * The BungeeCore class represents the core plugin for BetterBanSystem on BungeeCord.
@@ -44,6 +46,11 @@ public class BungeeCore extends Plugin {
                 public void dispatchCommand(String command) {
                     ProxyServer.getInstance().getPluginManager().dispatchCommand(ProxyServer.getInstance().getConsole(), command);
                 }
+
+                @Override
+                public void runSync(@NotNull Runnable runnable) {
+                    runnable.run();
+                }
             };
         } catch (RuntimeException e) {
             throw new RuntimeException(e);
@@ -53,4 +60,16 @@ public class BungeeCore extends Plugin {
         new CommandHandler(this);
         new EventManager(this);
     }
+
+    /**
+     * Called when the plugin is disabled.
+     * The config watcher, the {@link TaskScheduler}, the journals of the JSON files and the database are closed
+     * by {@link BetterBanSystem#shutdown()}.
+     */
+    @Override
+    public void onDisable() {
+        BetterBanSystem core = BetterBanSystem.getInstance();
+        if (core != null)
+            core.shutdown();
+    }
 }
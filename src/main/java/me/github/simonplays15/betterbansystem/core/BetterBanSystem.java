@@ -4,20 +4,25 @@ package me.github.simonplays15.betterbansystem.core;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
+import me.github.simonplays15.betterbansystem.api.files.AutoModSettings;
 import me.github.simonplays15.betterbansystem.api.files.BaseConfig;
 import me.github.simonplays15.betterbansystem.api.files.BasePluginDescription;
+import me.github.simonplays15.betterbansystem.api.files.ConfigFileWatcher;
+import me.github.simonplays15.betterbansystem.api.files.JsonEntryJournal;
 import me.github.simonplays15.betterbansystem.api.files.LanguageFile;
 import me.github.simonplays15.betterbansystem.api.files.ResourceFile;
 import me.github.simonplays15.betterbansystem.api.runtimeservice.RuntimeService;
 import me.github.simonplays15.betterbansystem.api.uuid.UUIDFetcher;
 import me.github.simonplays15.betterbansystem.core.ban.BanManager;
+import me.github.simonplays15.betterbansystem.core.ban.PunishmentIndex;
 import me.github.simonplays15.betterbansystem.core.chat.ChatColor;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommandHandler;
+import me.github.simonplays15.betterbansystem.core.database.CachedDatabase;
 import me.github.simonplays15.betterbansystem.core.database.DriverType;
 import me.github.simonplays15.betterbansystem.core.database.IDatabase;
-import me.github.simonplays15.betterbansystem.core.database.mongodb.CachedMongoDBDatabase;
-import me.github.simonplays15.betterbansystem.core.database.mysql.CachedMySQLDatabase;
-import me.github.simonplays15.betterbansystem.core.database.sqlite.CachedSQLiteDatabase;
+import me.github.simonplays15.betterbansystem.core.database.mongodb.MongoDBDatabase;
+import me.github.simonplays15.betterbansystem.core.database.mysql.MySQLDatabase;
+import me.github.simonplays15.betterbansystem.core.database.sqlite.SQLiteDatabase;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
 import me.github.simonplays15.betterbansystem.core.mute.MuteManager;
 import me.github.simonplays15.betterbansystem.core.permissions.BungeeCordDefaultHandler;
@@ -25,6 +30,7 @@ import me.github.simonplays15.betterbansystem.core.permissions.PermissionsHandle
 import me.github.simonplays15.betterbansystem.core.permissions.PermissionsManager;
 import me.github.simonplays15.betterbansystem.core.permissions.SpigotPermissionsHandler;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import me.github.simonplays15.betterbansystem.core.warn.WarnManager;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
@@ -98,7 +104,7 @@ public abstract class BetterBanSystem {
     /**
      * Represents the configuration settings for the BetterBanSystem.
      */
-    public BaseConfig config;
+    public volatile BaseConfig config;
     /**
      * The LanguageFile class represents a language file that extends the BaseConfig class.
      * It provides methods to load and retrieve messages from the language file.
@@ -177,6 +183,14 @@ public abstract class BetterBanSystem {
      * }</pre>
      */
     private IDatabase database;
+    /**
+     * The snapshot of the AutoMod settings, replaced whenever the config is loaded.
+     */
+    private volatile AutoModSettings autoModSettings = AutoModSettings.DISABLED;
+    /**
+     * The watcher reloading the config when the config file is changed, or null if the file can not be watched.
+     */
+    private final ConfigFileWatcher configWatcher;
 
     /**
      * Initializes the BetterBanSystem.
@@ -204,6 +218,7 @@ public abstract class BetterBanSystem {
         resourceFile.saveResource("language/en_US.yml", true);
         this.config = new BaseConfig();
         this.config.load(this.configFile);
+        this.autoModSettings = AutoModSettings.load(this.config);
 
         GlobalLogger.getLogger().setDebug(config.getBoolean("logging.debug", false));
         GlobalLogger.getLogger().setWriteLogsToFile(config.getBoolean("logging.logfile", false));
@@ -220,17 +235,23 @@ public abstract class BetterBanSystem {
 
         this.commandHandler = new BaseCommandHandler();
 
+        JsonEntryJournal.configure(this.config.getInt("storage.journal.compactOperations", 1000), this.config.getLong("storage.journal.compactInterval", 300));
+        UUIDFetcher.configure(this.config.getString("uuid.apiUrl", UUIDFetcher.API_URL), this.config.getInt("uuid.cache.maximumSize", 10000), this.config.getLong("uuid.cache.expireAfter", 3600), this.config.getLong("uuid.cache.expireAfterUnknown", 300));
+        UUIDFetcher.configureBatching(this.config.getString("uuid.bulkApiUrl", UUIDFetcher.BULK_API_URL), this.config.getLong("uuid.bulkLinger", 50));
+
         if (!this.config.getString("database.type", "none").equalsIgnoreCase("none")) {
             try {
                 DriverType type = DriverType.valueOf(Objects.requireNonNull(this.config.getString("database.type")).toUpperCase());
+                long cacheSize = this.config.getLong("database.cache.maximumSize", 1000);
+                long cacheExpire = this.config.getLong("database.cache.expireAfter", 60);
                 if (type == DriverType.MYSQL) {
-                    this.database = new CachedMySQLDatabase();
+                    this.database = new CachedDatabase(new MySQLDatabase(), cacheSize, cacheExpire);
                     this.database.connect(this.config.getString("database.hostname") + ":" + this.config.getInt("database.port") + "/betterbansystem", this.config.getString("database.user"), this.config.getString("database.password"));
                 } else if (type == DriverType.SQLITE) {
-                    this.database = new CachedSQLiteDatabase();
+                    this.database = new CachedDatabase(new SQLiteDatabase(), cacheSize, cacheExpire);
                     this.database.connect(this.config.getString("database.dbFile"), null, null);
                 } else if (type == DriverType.MONGODB) {
-                    this.database = new CachedMongoDBDatabase();
+                    this.database = new CachedDatabase(new MongoDBDatabase(), cacheSize, cacheExpire);
                     this.database.connect(this.config.getString("database.hostname") + ":" + this.config.getInt("database.port") + "/betterbansystem", this.config.getString("database.user"), this.config.getString("database.password"));
                 }
                 if (this.database != null)
@@ -239,9 +260,11 @@ public abstract class BetterBanSystem {
                 GlobalLogger.getLogger().error("Failed to find database type", this.config.getString("database.type", "none").toUpperCase(), "going back to default file handling.", ex);
             }
         }
+        PunishmentIndex.load(this.config.getInt("bans.index.maxEntries", 0), this.config.getLong("bans.index.refreshInterval", 30));
         new BanManager().start();
         new MuteManager().start();
         new WarnManager().start();
+        this.configWatcher = ConfigFileWatcher.watch(this.configFile, this::reloadConfig);
 
         new Updater().getVersion(version -> {
             if (!this.getPluginDescription().getVersion().equals(version))
@@ -506,6 +529,32 @@ public abstract class BetterBanSystem {
      */
     public abstract Object getRunningPlugin();
 
+    /**
+     * Runs the given task on the server thread of the running platform.
+     * On Spigot, the task is scheduled for the next tick unless the caller already is on the server thread.
+     * Once the plugin is disabled, no task can be scheduled anymore, so tasks of other threads are dropped then.
+     * BungeeCord has no server thread, so the task is run right away.
+     *
+     * @param runnable the task touching the server
+     */
+    public abstract void runSync(@NotNull Runnable runnable);
+
+    /**
+     * Shuts the plugin down.
+     * <p>
+     * The config file is no longer watched, the pending I/O tasks of the {@link TaskScheduler} are drained,
+     * the journals of the JSON files are folded into their snapshots and the database is disconnected afterward.
+     * The method is called by the onDisable method of the running platform.
+     */
+    public void shutdown() {
+        if (this.configWatcher != null)
+            this.configWatcher.close();
+        TaskScheduler.shutdown();
+        JsonEntryJournal.closeAll();
+        if (this.database != null)
+            this.database.disconnect();
+    }
+
     /**
      * Retrieves the database associated with this BetterBanSystem instance.
      *
@@ -579,15 +628,32 @@ public abstract class BetterBanSystem {
     }
 
     /**
-     * Reloads the configuration by loading the config file into the current {@code config} object.
+     * Reloads the configuration from the config file.
      * <p>
-     * If the {@code config} is null, a new instance of {@link BaseConfig} is created.
-     * After that, the {@link BaseConfig#load(File)} method is called to load the config file.
-     */
-    public void reloadConfig() {
-        if (this.config == null)
-            this.config = new BaseConfig();
-        this.config.load(this.configFile);
+     * The file is loaded into a new {@link BaseConfig} and a new {@link AutoModSettings} snapshot is built from it.
+     * Both replace the current objects only after they were built completely, so readers on other threads
+     * either see the old or the new settings, but never a partially loaded config.
+     * If the file can not be parsed or holds no values, the current config and settings are kept,
+     * so a half-saved or broken file does not reset the plugin to the defaults.
+     * The method is called by the {@link ConfigFileWatcher} whenever the config file is changed.
+     */
+    public synchronized void reloadConfig() {
+        BaseConfig loaded = new BaseConfig();
+        AutoModSettings settings;
+        try {
+            loaded.load(this.configFile);
+            if (loaded.isEmpty()) {
+                GlobalLogger.getLogger().warn("The config file", this.configFile.getName(), "is empty or could not be read. Keeping the previous config");
+                return;
+            }
+            settings = AutoModSettings.load(loaded);
+        } catch (RuntimeException e) {
+            GlobalLogger.getLogger().error("Failed to reload the config file", this.configFile.getName() + ". Keeping the previous config", e);
+            return;
+        }
+        this.config = loaded;
+        this.autoModSettings = settings;
+        GlobalLogger.getLogger().debug("Reloaded the config with", settings.chatFilters().size(), "chat filters");
     }
 
     /**
@@ -597,6 +663,16 @@ public abstract class BetterBanSystem {
         this.config.save(this.configFile);
     }
 
+    /**
+     * Returns the current snapshot of the AutoMod settings.
+     * The snapshot is immutable and replaced as a whole when the config is reloaded.
+     *
+     * @return the AutoMod settings
+     */
+    public @NotNull AutoModSettings getAutoModSettings() {
+        return this.autoModSettings;
+    }
+
     /**
      * Returns the data folder for the plugin.
      *
@@ -0,0 +1,222 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The AutoModRateLimiter class keeps the per-player state of the chat AutoMod: the recent messages, the last message and the recent actions.
+ * <p>
+ * Rates are tracked with sliding windows, which store the timestamps of the recent events in a ring buffer.
+ * Recording and counting events never locks and never schedules a task, old events simply fall out of the window.
+ * The state of a player is held until {@link #remove(UUID)} is called when the player leaves.
+ */
+public final class AutoModRateLimiter {
+
+    /**
+     * The time window in nanoseconds in which the messages of a player are counted.
+     */
+    public static final long MESSAGE_WINDOW = TimeUnit.SECONDS.toNanos(3);
+    /**
+     * The time window in nanoseconds in which the AutoMod actions against a player are counted.
+     */
+    public static final long ACTION_WINDOW = TimeUnit.SECONDS.toNanos(6);
+    /**
+     * The key of the window counting the messages of a player.
+     */
+    private static final Object MESSAGES = new Object();
+
+    /**
+     * The state of every player who chatted since joining.
+     */
+    private final Map<UUID, PlayerState> players = new ConcurrentHashMap<>();
+
+    /**
+     * Records a message of the player and counts the messages sent within the last {@link #MESSAGE_WINDOW}.
+     *
+     * @param uuid  the UUID of the player
+     * @param limit the configured maximum amount of messages, the count is exact up to one message above it
+     * @return the amount of messages within the window, including this message
+     */
+    public int recordMessage(@NotNull UUID uuid, int limit) {
+        return this.window(uuid, MESSAGES, limit + 1, MESSAGE_WINDOW).record(System.nanoTime());
+    }
+
+    /**
+     * Stores the message as last message of the player and checks whether it equals the previous message, ignoring case.
+     *
+     * @param uuid    the UUID of the player
+     * @param message the message
+     * @return true if the previous message of the player is the same message, false otherwise
+     */
+    public boolean isDuplicate(@NotNull UUID uuid, @NotNull String message) {
+        String previous = this.state(uuid).lastMessage.getAndSet(message);
+        return previous != null && previous.equalsIgnoreCase(message);
+    }
+
+    /**
+     * Records an AutoMod action against the player and counts the same actions within the last {@link #ACTION_WINDOW}.
+     *
+     * @param uuid   the UUID of the player
+     * @param action the action
+     * @return the amount of the actions within the window, including this action
+     */
+    public int recordAction(@NotNull UUID uuid, @NotNull AutoModAction action) {
+        return this.window(uuid, action, Math.max(1, action.getActionLimit()), ACTION_WINDOW).record(System.nanoTime());
+    }
+
+    /**
+     * Counts the AutoMod actions against the player within the last {@link #ACTION_WINDOW}, without recording a new action.
+     *
+     * @param uuid   the UUID of the player
+     * @param action the action
+     * @return the amount of the actions within the window
+     */
+    public int countActions(@NotNull UUID uuid, @NotNull AutoModAction action) {
+        return this.window(uuid, action, Math.max(1, action.getActionLimit()), ACTION_WINDOW).count(System.nanoTime());
+    }
+
+    /**
+     * Removes the state of the player. Called when the player leaves.
+     *
+     * @param uuid the UUID of the player
+     */
+    public void remove(@NotNull UUID uuid) {
+        this.players.remove(uuid);
+    }
+
+    /**
+     * Returns the amount of players with a state.
+     *
+     * @return the amount of tracked players
+     */
+    public int size() {
+        return this.players.size();
+    }
+
+    /**
+     * Returns the state of the player, creating it if the player has none.
+     *
+     * @param uuid the UUID of the player
+     * @return the state of the player
+     */
+    private @NotNull PlayerState state(@NotNull UUID uuid) {
+        PlayerState state = this.players.get(uuid);
+        return state != null ? state : this.players.computeIfAbsent(uuid, key -> new PlayerState());
+    }
+
+    /**
+     * Returns the window of the player with the given key. The window is replaced if the configured limit changed.
+     *
+     * @param uuid     the UUID of the player
+     * @param key      the key of the window
+     * @param capacity the amount of events the window has to hold
+     * @param length   the length of the window in nanoseconds
+     * @return the window
+     */
+    private @NotNull SlidingWindow window(@NotNull UUID uuid, @NotNull Object key, int capacity, long length) {
+        Map<Object, SlidingWindow> windows = this.state(uuid).windows;
+        SlidingWindow window = windows.get(key);
+        if (window != null && window.capacity() == capacity)
+            return window;
+        return windows.compute(key, (ignored, current) -> current != null && current.capacity() == capacity ? current : new SlidingWindow(capacity, length));
+    }
+
+    /**
+     * The AutoMod state of a single player.
+     */
+    private static final class PlayerState {
+        /**
+         * The sliding windows of the player, keyed by {@link #MESSAGES} or by the {@link AutoModAction}.
+         */
+        private final Map<Object, SlidingWindow> windows = new ConcurrentHashMap<>();
+        /**
+         * The last message of the player.
+         */
+        private final AtomicReference<String> lastMessage = new AtomicReference<>();
+    }
+
+    /**
+     * A sliding window counting the events of the last {@link #length} nanoseconds.
+     * The timestamps of the events are stored in a ring buffer, so the window counts at most {@link #capacity()} events.
+     */
+    private static final class SlidingWindow {
+        /**
+         * The value of a slot which never held an event.
+         */
+        private static final long EMPTY = Long.MIN_VALUE;
+        /**
+         * The timestamps of the recent events, from {@link System#nanoTime()}.
+         */
+        private final AtomicLongArray timestamps;
+        /**
+         * The index of the next slot to write, growing with every event.
+         */
+        private final AtomicInteger cursor = new AtomicInteger();
+        /**
+         * The length of the window in nanoseconds.
+         */
+        private final long length;
+
+        /**
+         * Creates a new SlidingWindow.
+         *
+         * @param capacity the maximum amount of counted events
+         * @param length   the length of the window in nanoseconds
+         */
+        private SlidingWindow(int capacity, long length) {
+            this.timestamps = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                this.timestamps.set(i, EMPTY);
+            }
+            this.length = length;
+        }
+
+        /**
+         * Returns the maximum amount of counted events.
+         *
+         * @return the capacity of the ring buffer
+         */
+        private int capacity() {
+            return this.timestamps.length();
+        }
+
+        /**
+         * Records an event, overwriting the oldest event, and counts the events within the window.
+         *
+         * @param now the current {@link System#nanoTime()}
+         * @return the amount of events within the window, including the recorded event
+         */
+        private int record(long now) {
+            int slot = Math.floorMod(this.cursor.getAndIncrement(), this.capacity());
+            this.timestamps.set(slot, now);
+            return this.count(now);
+        }
+
+        /**
+         * Counts the events within the window.
+         *
+         * @param now the current {@link System#nanoTime()}
+         * @return the amount of events within the window
+         */
+        private int count(long now) {
+            int count = 0;
+            for (int i = 0; i < this.capacity(); i++) {
+                long timestamp = this.timestamps.get(i);
+                if (timestamp != EMPTY && now - timestamp < this.length)
+                    count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The BadWordChatFilter class runs a {@link ProfanityFilter} inside the {@link ChatFilterPipeline}.
+ * <p>
+ * If bad words are replaced, every bad word is masked in the verdict and the message does not violate the filter.
+ * Otherwise, the message violates the filter as soon as it contains a bad word.
+ * The state of the filter is the node of the automaton of the profanity filter.
+ */
+public final class BadWordChatFilter implements ChatFilter {
+
+    /**
+     * The state after a bad word was found, if bad words are not replaced.
+     */
+    private static final long FOUND = -1L;
+
+    /**
+     * The compiled bad words.
+     */
+    private final ProfanityFilter profanityFilter;
+    /**
+     * Whether bad words are masked instead of reported.
+     */
+    private final boolean replaceWords;
+
+    /**
+     * Creates a new BadWordChatFilter.
+     *
+     * @param profanityFilter the compiled bad words
+     * @param replaceWords    whether bad words are masked instead of reported
+     */
+    @Contract(pure = true)
+    public BadWordChatFilter(@NotNull ProfanityFilter profanityFilter, boolean replaceWords) {
+        this.profanityFilter = profanityFilter;
+        this.replaceWords = replaceWords;
+    }
+
+    /**
+     * Returns {@link ChatModule#BADWORDS}.
+     *
+     * @return the chat module
+     */
+    @Override
+    public @NotNull ChatModule module() {
+        return ChatModule.BADWORDS;
+    }
+
+    /**
+     * Advances the automaton by one character and masks or reports a bad word ending at the character.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param state   the node before the character
+     * @param index   the index of the character
+     * @param c       the character
+     * @return the node after the character, or {@link #FOUND}
+     */
+    @Override
+    public long step(@NotNull ChatVerdict verdict, long state, int index, char c) {
+        if (state == FOUND)
+            return FOUND;
+        int node = this.profanityFilter.next((int) state, c);
+        int start = this.profanityFilter.matchStart(verdict.getOriginalMessage(), node, index + 1);
+        if (start < 0)
+            return node;
+        if (!this.replaceWords)
+            return FOUND;
+        verdict.mask(start, index + 1);
+        return node;
+    }
+
+    /**
+     * Checks whether a bad word was found, if bad words are not replaced.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param state   the state after the last character
+     * @return true if the message contains a bad word which was not masked
+     */
+    @Override
+    public boolean isViolated(@NotNull ChatVerdict verdict, long state) {
+        return state == FOUND;
+    }
+}
@@ -0,0 +1,72 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The CapsLockChatFilter class checks whether the share of capital letters in a message reaches a maximum percentage.
+ * The state of the filter is the amount of capital letters seen so far.
+ */
+public final class CapsLockChatFilter implements ChatFilter {
+
+    /**
+     * The default maximum percentage of capital letters.
+     */
+    public static final int DEFAULT_MAX_PERCENTAGE = 70;
+
+    /**
+     * The percentage of capital letters, relative to the length of the message, at which a message violates the filter.
+     */
+    private final int maxPercentage;
+
+    /**
+     * Creates a new CapsLockChatFilter.
+     *
+     * @param maxPercentage the percentage of capital letters at which a message violates the filter
+     */
+    @Contract(pure = true)
+    public CapsLockChatFilter(int maxPercentage) {
+        this.maxPercentage = maxPercentage;
+    }
+
+    /**
+     * Returns {@link ChatModule#CAPSLOCK}.
+     *
+     * @return the chat module
+     */
+    @Override
+    public @NotNull ChatModule module() {
+        return ChatModule.CAPSLOCK;
+    }
+
+    /**
+     * Counts the character if it is a capital letter.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param state   the amount of capital letters before the character
+     * @param index   the index of the character
+     * @param c       the character
+     * @return the amount of capital letters including the character
+     */
+    @Override
+    public long step(@NotNull ChatVerdict verdict, long state, int index, char c) {
+        return Character.isUpperCase(c) ? state + 1 : state;
+    }
+
+    /**
+     * Checks whether the percentage of capital letters reaches the maximum percentage.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param state   the amount of capital letters in the message
+     * @return true if the message has too many capital letters
+     */
+    @Override
+    public boolean isViolated(@NotNull ChatVerdict verdict, long state) {
+        int length = verdict.getOriginalMessage().length();
+        return length > 0 && state * 100 / length >= this.maxPercentage;
+    }
+}
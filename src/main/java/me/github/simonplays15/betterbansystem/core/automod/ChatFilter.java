@@ -0,0 +1,65 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The ChatFilter interface represents one check of the chat AutoMod, such as the caps, link or bad word check.
+ * <p>
+ * Filters are run by the {@link ChatFilterPipeline}, which scans a message once and feeds every character to every filter.
+ * A filter keeps its progress in a single {@code long} state, which the pipeline passes from character to character,
+ * so a filter is immutable and can be shared by all threads.
+ */
+public interface ChatFilter {
+
+    /**
+     * Checks whether the character belongs to a word, in the sense of the word boundaries of the chat filters.
+     *
+     * @param c the character
+     * @return true if the character is a letter, a digit or an underscore
+     */
+    @Contract(pure = true)
+    static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Returns the chat module the filter belongs to, which is reported in the verdict if the message violates the filter.
+     *
+     * @return the chat module
+     */
+    @NotNull ChatModule module();
+
+    /**
+     * Returns the state of the filter before the first character of a message.
+     *
+     * @return the initial state
+     */
+    default long initialState() {
+        return 0L;
+    }
+
+    /**
+     * Processes the next character of the message.
+     *
+     * @param verdict the verdict of the scanned message, which holds the message and collects masked ranges
+     * @param state   the state after the previous character
+     * @param index   the index of the character in the message
+     * @param c       the character
+     * @return the state after the character
+     */
+    long step(@NotNull ChatVerdict verdict, long state, int index, char c);
+
+    /**
+     * Checks whether the scanned message violates the filter.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param state   the state after the last character
+     * @return true if the message violates the filter, false otherwise
+     */
+    boolean isViolated(@NotNull ChatVerdict verdict, long state);
+}
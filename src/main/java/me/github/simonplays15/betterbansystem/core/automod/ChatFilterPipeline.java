@@ -0,0 +1,97 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.api.files.BaseConfig;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ChatFilterPipeline class runs the content checks of the chat AutoMod over a message.
+ * <p>
+ * The pipeline is compiled once from the config and shared by the Spigot and BungeeCord chat listeners.
+ * A message is scanned exactly once: every character is passed to every {@link ChatFilter} in the same loop,
+ * and the result is collected in a {@link ChatVerdict}.
+ */
+public final class ChatFilterPipeline {
+
+    /**
+     * A pipeline without filters, which considers every message clean.
+     */
+    public static final ChatFilterPipeline EMPTY = new ChatFilterPipeline(List.of());
+
+    /**
+     * The filters of the pipeline, in the order their violations are handled.
+     */
+    private final ChatFilter[] filters;
+
+    /**
+     * Creates a new ChatFilterPipeline.
+     *
+     * @param filters the filters of the pipeline
+     */
+    public ChatFilterPipeline(@NotNull List<? extends ChatFilter> filters) {
+        this.filters = filters.toArray(new ChatFilter[0]);
+    }
+
+    /**
+     * Compiles the pipeline from the chat modules enabled in the config.
+     *
+     * @param config the config of the plugin
+     * @return the compiled pipeline
+     */
+    public static @NotNull ChatFilterPipeline compile(@NotNull BaseConfig config) {
+        List<ChatFilter> filters = new ArrayList<>();
+        if (config.getBoolean(ChatModule.CAPSLOCK.getPath() + ".use"))
+            filters.add(new CapsLockChatFilter(CapsLockChatFilter.DEFAULT_MAX_PERCENTAGE));
+        if (config.getBoolean(ChatModule.LINKS.getPath() + ".use"))
+            filters.add(new LinkChatFilter());
+        if (config.getBoolean(ChatModule.BADWORDS.getPath() + ".use")) {
+            ProfanityFilter profanityFilter = ProfanityFilter.compile(config.getStringList(ChatModule.BADWORDS.getPath() + ".badWordList"));
+            filters.add(new BadWordChatFilter(profanityFilter, config.getBoolean(ChatModule.BADWORDS.getPath() + ".replaceWords")));
+        }
+        return new ChatFilterPipeline(filters);
+    }
+
+    /**
+     * Scans the message with all filters.
+     *
+     * @param message the message
+     * @return the verdict with the violated chat modules and the masked message
+     */
+    public @NotNull ChatVerdict scan(@NotNull String message) {
+        ChatVerdict verdict = new ChatVerdict(message);
+        if (this.filters.length == 0)
+            return verdict;
+        long[] states = new long[this.filters.length];
+        for (int f = 0; f < this.filters.length; f++) {
+            states[f] = this.filters[f].initialState();
+        }
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            for (int f = 0; f < this.filters.length; f++) {
+                states[f] = this.filters[f].step(verdict, states[f], i, c);
+            }
+        }
+        for (int f = 0; f < this.filters.length; f++) {
+            if (this.filters[f].isViolated(verdict, states[f]))
+                verdict.violate(this.filters[f].module());
+        }
+        return verdict;
+    }
+
+    /**
+     * Returns the amount of filters of the pipeline.
+     *
+     * @return the amount of filters
+     */
+    @Contract(pure = true)
+    public int size() {
+        return this.filters.length;
+    }
+}
@@ -0,0 +1,78 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Enum class representing the chat modules of the AutoMod whose checks inspect the content of a message.
+ * Every module has its own section {@code automod.modules.chat.<key>} in the config.
+ */
+public enum ChatModule {
+    /**
+     * The module checking for messages written mostly in capital letters.
+     */
+    CAPSLOCK("capslock", "§ePlease do not use excessive caps in Chat!"),
+    /**
+     * The module checking for links in messages.
+     */
+    LINKS("links", "§ePlease do not share links in Chat!"),
+    /**
+     * The module checking for bad words in messages.
+     */
+    BADWORDS("badwords", "§ePlease do not use inappropriate language in Chat!");
+
+    /**
+     * The key of the module in the config.
+     */
+    private final String key;
+    /**
+     * The message sent to a player whose message violates the module.
+     */
+    private final String warning;
+
+    /**
+     * Creates a new ChatModule.
+     *
+     * @param key     the key of the module in the config
+     * @param warning the message sent to a player whose message violates the module
+     */
+    @Contract(pure = true)
+    ChatModule(@NotNull String key, @NotNull String warning) {
+        this.key = key;
+        this.warning = warning;
+    }
+
+    /**
+     * Returns the config path of the module.
+     *
+     * @return the path, e.g. {@code automod.modules.chat.links}
+     */
+    @Contract(pure = true)
+    public @NotNull String getPath() {
+        return "automod.modules.chat." + this.key;
+    }
+
+    /**
+     * Returns the config path of the actions which are executed if a message violates the module.
+     *
+     * @return the path of the actions
+     */
+    @Contract(pure = true)
+    public @NotNull String getActionPath() {
+        return this.getPath() + ".action";
+    }
+
+    /**
+     * Returns the message sent to a player whose message violates the module.
+     *
+     * @return the warning, without prefix
+     */
+    @Contract(pure = true)
+    public @NotNull String getWarning() {
+        return this.warning;
+    }
+}
@@ -0,0 +1,111 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The ChatVerdict class is the result of scanning a message with the {@link ChatFilterPipeline}.
+ * It holds the chat modules the message violates and the message with all masked ranges replaced.
+ */
+public final class ChatVerdict {
+
+    /**
+     * The scanned message.
+     */
+    private final String message;
+    /**
+     * The characters of the message with the masked ranges replaced, or null if nothing was masked.
+     */
+    private char[] masked;
+    /**
+     * The violated chat modules, as bits of their ordinals.
+     */
+    private int violations;
+
+    /**
+     * Creates a new ChatVerdict for the message.
+     *
+     * @param message the scanned message
+     */
+    @Contract(pure = true)
+    ChatVerdict(@NotNull String message) {
+        this.message = message;
+    }
+
+    /**
+     * Replaces a range of the message with {@link ProfanityFilter#MASK}.
+     *
+     * @param start the inclusive start index of the range
+     * @param end   the exclusive end index of the range
+     */
+    public void mask(int start, int end) {
+        if (this.masked == null)
+            this.masked = this.message.toCharArray();
+        Arrays.fill(this.masked, start, end, ProfanityFilter.MASK);
+    }
+
+    /**
+     * Marks the chat module as violated.
+     *
+     * @param module the violated chat module
+     */
+    void violate(@NotNull ChatModule module) {
+        this.violations |= 1 << module.ordinal();
+    }
+
+    /**
+     * Returns the scanned message, as it was sent.
+     *
+     * @return the original message
+     */
+    @Contract(pure = true)
+    public @NotNull String getOriginalMessage() {
+        return this.message;
+    }
+
+    /**
+     * Returns the message with all masked ranges replaced.
+     *
+     * @return the masked message, or the original message if nothing was masked
+     */
+    public @NotNull String getMessage() {
+        return this.masked == null ? this.message : new String(this.masked);
+    }
+
+    /**
+     * Checks whether a range of the message was masked.
+     *
+     * @return true if the message was masked, false otherwise
+     */
+    @Contract(pure = true)
+    public boolean isMasked() {
+        return this.masked != null;
+    }
+
+    /**
+     * Checks whether the message violates the chat module.
+     *
+     * @param module the chat module
+     * @return true if the message violates the module, false otherwise
+     */
+    @Contract(pure = true)
+    public boolean isViolated(@NotNull ChatModule module) {
+        return (this.violations & (1 << module.ordinal())) != 0;
+    }
+
+    /**
+     * Checks whether the message violates no chat module.
+     *
+     * @return true if the message violates no module, false otherwise
+     */
+    @Contract(pure = true)
+    public boolean isClean() {
+        return this.violations == 0;
+    }
+}
@@ -0,0 +1,115 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The LinkChatFilter class checks whether a message contains a http or https link.
+ * <p>
+ * A link starts with {@code http://} or {@code https://} at the beginning of a word and continues with at least one
+ * word character before the next space, which is what the regular expression {@code \bhttps?://[^ ]*\b} matches.
+ * The state of the filter is the amount of matched characters of the link prefix.
+ */
+public final class LinkChatFilter implements ChatFilter {
+
+    /**
+     * The state after the prefix {@code http}, which continues with either {@code s} or {@code :}.
+     */
+    private static final int AFTER_HTTP = 4;
+    /**
+     * The state after the optional {@code s} of {@code https}.
+     */
+    private static final int AFTER_S = 5;
+    /**
+     * The state after the whole prefix, inside the link.
+     */
+    private static final int IN_LINK = 8;
+    /**
+     * The state after a link was found.
+     */
+    private static final long FOUND = -1L;
+
+    /**
+     * Returns {@link ChatModule#LINKS}.
+     *
+     * @return the chat module
+     */
+    @Override
+    public @NotNull ChatModule module() {
+        return ChatModule.LINKS;
+    }
+
+    /**
+     * Advances the prefix match by one character.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param state   the state before the character
+     * @param index   the index of the character
+     * @param c       the character
+     * @return the state after the character
+     */
+    @Override
+    public long step(@NotNull ChatVerdict verdict, long state, int index, char c) {
+        if (state == FOUND)
+            return FOUND;
+        int matched = (int) state;
+        switch (matched) {
+            case 1, 2, 3 -> {
+                if (c == "http".charAt(matched))
+                    return matched + 1;
+            }
+            case AFTER_HTTP -> {
+                if (c == 's')
+                    return AFTER_S;
+                if (c == ':')
+                    return AFTER_S + 1;
+            }
+            case AFTER_S -> {
+                if (c == ':')
+                    return AFTER_S + 1;
+            }
+            case AFTER_S + 1, AFTER_S + 2 -> {
+                if (c == '/')
+                    return matched + 1;
+            }
+            case IN_LINK -> {
+                if (ChatFilter.isWordChar(c))
+                    return FOUND;
+                if (c != ' ')
+                    return IN_LINK;
+            }
+            default -> {
+            }
+        }
+        return this.start(verdict, index, c);
+    }
+
+    /**
+     * Checks whether a link was found.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param state   the state after the last character
+     * @return true if the message contains a link
+     */
+    @Override
+    public boolean isViolated(@NotNull ChatVerdict verdict, long state) {
+        return state == FOUND;
+    }
+
+    /**
+     * Checks whether a link starts with the character.
+     *
+     * @param verdict the verdict of the scanned message
+     * @param index   the index of the character
+     * @param c       the character
+     * @return 1 if the character starts a link at the beginning of a word, 0 otherwise
+     */
+    private long start(@NotNull ChatVerdict verdict, int index, char c) {
+        if (c != 'h')
+            return 0;
+        return index == 0 || !ChatFilter.isWordChar(verdict.getOriginalMessage().charAt(index - 1)) ? 1 : 0;
+    }
+}
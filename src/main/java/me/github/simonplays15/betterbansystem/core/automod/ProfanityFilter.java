@@ -0,0 +1,285 @@
+package me.github.simonplays15.betterbansystem.core.automod;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The ProfanityFilter class finds and masks bad words in chat messages.
+ * <p>
+ * The bad words are compiled once into an Aho-Corasick automaton, so a message is scanned in a single pass,
+ * independent of the amount of bad words. Matching ignores case and only accepts whole words: a bad word must be
+ * surrounded by word boundaries, just like the regular expression {@code \bword\b}.
+ * <p>
+ * A ProfanityFilter is immutable and can be used by multiple threads.
+ */
+public final class ProfanityFilter {
+
+    /**
+     * A filter without bad words, which never matches.
+     */
+    public static final ProfanityFilter EMPTY = compile(Collections.emptyList());
+    /**
+     * The character bad words are masked with.
+     */
+    public static final char MASK = '*';
+
+    /**
+     * The characters of the transitions of every node, sorted ascending.
+     */
+    private final char[][] keys;
+    /**
+     * The target nodes of the transitions of every node, in the order of {@link #keys}.
+     */
+    private final int[][] targets;
+    /**
+     * The failure link of every node, pointing at the node of the longest proper suffix which is also in the automaton.
+     */
+    private final int[] failure;
+    /**
+     * The length of the bad word ending at every node, or 0 if no bad word ends at the node.
+     */
+    private final int[] output;
+    /**
+     * The next node along the failure links at which a bad word ends, or -1 if there is none.
+     */
+    private final int[] outputLink;
+    /**
+     * The amount of distinct bad words.
+     */
+    private final int size;
+
+    /**
+     * Creates a new ProfanityFilter from the arrays of a compiled automaton.
+     *
+     * @param keys       the characters of the transitions
+     * @param targets    the target nodes of the transitions
+     * @param failure    the failure links
+     * @param output     the lengths of the bad words ending at the nodes
+     * @param outputLink the output links
+     * @param size       the amount of distinct bad words
+     */
+    @Contract(pure = true)
+    private ProfanityFilter(char[][] keys, int[][] targets, int[] failure, int[] output, int[] outputLink, int size) {
+        this.keys = keys;
+        this.targets = targets;
+        this.failure = failure;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.size = size;
+    }
+
+    /**
+     * Compiles the bad words into a ProfanityFilter. Blank words are ignored, the others are trimmed.
+     *
+     * @param words the bad words
+     * @return the compiled filter
+     */
+    public static @NotNull ProfanityFilter compile(@NotNull Collection<String> words) {
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        children.add(new HashMap<>());
+        lengths.add(0);
+        int size = 0;
+        for (String word : words) {
+            if (word == null || word.isBlank())
+                continue;
+            String trimmed = word.trim();
+            int node = 0;
+            for (int i = 0; i < trimmed.length(); i++) {
+                char c = fold(trimmed.charAt(i));
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(c, next);
+                    children.add(new HashMap<>());
+                    lengths.add(0);
+                }
+                node = next;
+            }
+            if (lengths.get(node) == 0) {
+                lengths.set(node, trimmed.length());
+                size++;
+            }
+        }
+
+        int nodes = children.size();
+        char[][] keys = new char[nodes][];
+        int[][] targets = new int[nodes][];
+        for (int node = 0; node < nodes; node++) {
+            List<Character> sorted = new ArrayList<>(children.get(node).keySet());
+            Collections.sort(sorted);
+            keys[node] = new char[sorted.size()];
+            targets[node] = new int[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                keys[node][i] = sorted.get(i);
+                targets[node][i] = children.get(node).get(sorted.get(i));
+            }
+        }
+
+        int[] output = new int[nodes];
+        for (int node = 0; node < nodes; node++) {
+            output[node] = lengths.get(node);
+        }
+        int[] failure = new int[nodes];
+        int[] outputLink = new int[nodes];
+        outputLink[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < keys[node].length; i++) {
+                char c = keys[node][i];
+                int child = targets[node][i];
+                int fallback = failure[node];
+                while (fallback != 0 && transition(keys, targets, fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int link = transition(keys, targets, fallback, c);
+                failure[child] = link < 0 ? 0 : link;
+                outputLink[child] = output[failure[child]] > 0 ? failure[child] : outputLink[failure[child]];
+                queue.add(child);
+            }
+        }
+        return new ProfanityFilter(keys, targets, failure, output, outputLink, size);
+    }
+
+    /**
+     * Looks up the transition of a node.
+     *
+     * @param keys    the characters of the transitions
+     * @param targets the target nodes of the transitions
+     * @param node    the node
+     * @param c       the folded character
+     * @return the target node, or -1 if the node has no transition for the character
+     */
+    private static int transition(char[][] keys, int[][] targets, int node, char c) {
+        int index = Arrays.binarySearch(keys[node], c);
+        return index < 0 ? -1 : targets[node][index];
+    }
+
+    /**
+     * Folds the case of a character, so matching ignores case.
+     *
+     * @param c the character
+     * @return the folded character
+     */
+    @Contract(pure = true)
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Checks whether there is a word boundary before the index, which is the case if exactly one of the characters
+     * around the index belongs to a word.
+     *
+     * @param message the message
+     * @param index   the index, between 0 and the length of the message
+     * @return true if there is a word boundary before the index
+     */
+    private static boolean isBoundary(@NotNull String message, int index) {
+        boolean before = index > 0 && ChatFilter.isWordChar(message.charAt(index - 1));
+        boolean after = index < message.length() && ChatFilter.isWordChar(message.charAt(index));
+        return before != after;
+    }
+
+    /**
+     * Checks whether the message contains a bad word.
+     *
+     * @param message the message
+     * @return true if the message contains a bad word, false otherwise
+     */
+    public boolean containsProfanity(@NotNull String message) {
+        return this.scan(message, null);
+    }
+
+    /**
+     * Masks every bad word in the message with {@link #MASK}.
+     *
+     * @param message the message
+     * @return the masked message, or the message itself if it contains no bad word
+     */
+    public @NotNull String mask(@NotNull String message) {
+        char[] masked = message.toCharArray();
+        return this.scan(message, masked) ? new String(masked) : message;
+    }
+
+    /**
+     * Scans the message for bad words.
+     *
+     * @param message the message
+     * @param masked  the characters of the message to mask the bad words in, or null to stop at the first bad word
+     * @return true if the message contains a bad word, false otherwise
+     */
+    private boolean scan(@NotNull String message, char[] masked) {
+        if (this.size == 0)
+            return false;
+        boolean found = false;
+        int node = 0;
+        for (int i = 0; i < message.length(); i++) {
+            node = this.next(node, message.charAt(i));
+            int start = this.matchStart(message, node, i + 1);
+            if (start < 0)
+                continue;
+            if (masked == null)
+                return true;
+            found = true;
+            Arrays.fill(masked, start, i + 1, MASK);
+        }
+        return found;
+    }
+
+    /**
+     * Advances the automaton by one character of a message. Scanning a message starts at node 0.
+     *
+     * @param node the current node
+     * @param c    the next character of the message
+     * @return the node after the character
+     */
+    public int next(int node, char c) {
+        char folded = fold(c);
+        int next = transition(this.keys, this.targets, node, folded);
+        while (next < 0 && node != 0) {
+            node = this.failure[node];
+            next = transition(this.keys, this.targets, node, folded);
+        }
+        return Math.max(next, 0);
+    }
+
+    /**
+     * Finds the longest bad word ending at the given index of the message, which is surrounded by word boundaries.
+     *
+     * @param message the message
+     * @param node    the node reached after the character before the end index
+     * @param end     the exclusive end index of the bad word
+     * @return the start index of the bad word, or -1 if no whole bad word ends at the index
+     */
+    public int matchStart(@NotNull String message, int node, int end) {
+        if (!isBoundary(message, end))
+            return -1;
+        for (int match = this.output[node] > 0 ? node : this.outputLink[node]; match >= 0; match = this.outputLink[match]) {
+            int start = end - this.output[match];
+            if (isBoundary(message, start))
+                return start;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the amount of distinct bad words of the filter.
+     *
+     * @return the amount of bad words
+     */
+    @Contract(pure = true)
+    public int size() {
+        return this.size;
+    }
+}
@@ -4,21 +4,20 @@ package me.github.simonplays15.betterbansystem.core.ban;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import me.github.simonplays15.betterbansystem.api.files.JsonEntryJournal;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
-import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
+import me.github.simonplays15.betterbansystem.core.expiry.ExpiryQueue;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
+import me.github.simonplays15.betterbansystem.core.transfer.TransferSpec;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
-import java.lang.reflect.Type;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -29,25 +28,6 @@ import java.util.*;
 public record BanEntry(UUID uuid, String name, String source, Date created,
                        Object expires, String reason)
         implements IBanEntry {
-    /**
-     * Gson object for serializing and deserializing IBanEntry objects in JSON format.
-     *
-     * <p>
-     * This {@code Gson} instance is created with the following configuration:
-     * <ul>
-     *   <li>PrettyPrinting: enabled</li>
-     *   <li>Date Format: "yyyy-MM-dd HH:mm:ss Z"</li>
-     *   <li>Type Adapter: IBanEntryAdapter</li>
-     * </ul>
-     * </p>
-     *
-     * @see Gson
-     * @see GsonBuilder
-     * @see TypeAdapter
-     * @see IBanEntry
-     * @see IBanEntryAdapter
-     */
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().setDateFormat("yyyy-MM-dd HH:mm:ss Z").registerTypeAdapter(IBanEntry.class, new IBanEntryAdapter()).create();
     /**
      * Represents a File object for the "banned-players.json" file.
      * This file is used to store information about banned players.
@@ -56,59 +36,33 @@ public record BanEntry(UUID uuid, String name, String source, Date created,
      */
     private static final File file = new File("banned-players.json");
     /**
-     * A private static final SimpleDateFormat object used for formatting dates and times.
-     * The format follows the pattern "yyyy-MM-dd HH:mm:ss Z" and uses the US locale.
+     * The journal holding all ban entries of the flat file backend.
+     * The entries are stored in banned-players.json, changes are appended to banned-players.json.journal until they are compacted.
      */
-    private static final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z", Locale.US);
+    private static final JsonEntryJournal<IBanEntry> journal = new JsonEntryJournal<>(file, new IBanEntryAdapter(), entry -> entry.uuid().toString());
     /**
      * The variable BANNED_PLAYERS_TABLE represents the name of the table that stores information about banned players.
      * It is a private static final String.
      */
     private static final String BANNED_PLAYERS_TABLE = "bannedplayers";
+    /**
+     * Describes how the bans are moved between the json file and the database by the PunishmentTransfer.
+     */
+    public static final TransferSpec<IBanEntry> TRANSFER = new TransferSpec<>("bans", journal, BANNED_PLAYERS_TABLE, "uuid", BanEntry::toRow, BanEntry::fromRow);
 
     /**
      * Saves an IBanEntry object to a JSON file or a database table.
-     * If a database is available, the entry is inserted into the "BANNED_PLAYERS_TABLE" table.
+     * If a database is available, the entry is upserted into the "BANNED_PLAYERS_TABLE" table, replacing an existing ban of the player.
      * If a database is not available, the entry is added to a JSON file.
      *
      * @param entry The IBanEntry object to be saved.
      */
     public static void saveToJson(IBanEntry entry) {
         if (BetterBanSystem.getInstance().getDatabase() != null) {
-            BetterBanSystem.getInstance().getDatabase().insert(BANNED_PLAYERS_TABLE, Map.of("uuid", entry.uuid().toString(), "name", entry.name(), "source", entry.source(), "created", format.format(entry.created()), "expires", (entry.expires() instanceof Date ? format.format(entry.expires()) : entry.expires()), "reason", entry.reason()));
+            BetterBanSystem.getInstance().getDatabase().upsert(BANNED_PLAYERS_TABLE, "uuid", List.of(toRow(entry)));
             return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IBanEntry> entries;
-        if (file.length() != 0) {
-            try (Reader reader = new FileReader(file.getName())) {
-                Type listType = new TypeToken<ArrayList<IBanEntry>>() {
-                }.getType();
-                entries = gson.fromJson(reader, listType);
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-                return;
-            }
-        } else {
-            entries = new ArrayList<>();
-        }
-
-        List<IBanEntry> tempEntries = new ArrayList<>(entries);
-        tempEntries.add(entry);
-
-        try (Writer writer = new FileWriter(file.getName())) {
-            gson.toJson(tempEntries, writer);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
+        journal.put(entry);
     }
 
     /**
@@ -130,36 +84,7 @@ public record BanEntry(UUID uuid, String name, String source, Date created,
             BetterBanSystem.getInstance().getDatabase().delete(BANNED_PLAYERS_TABLE, "uuid", targetUUID.toString());
             return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IBanEntry> entries;
-        List<IBanEntry> tempEntries;
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IBanEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-            tempEntries = new ArrayList<>(entries);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-            return;
-        }
-        tempEntries.removeIf(entry -> entry.uuid().equals(targetUUID));
-        if (entries.size() != tempEntries.size()) {
-            entries.clear();
-            entries.addAll(tempEntries);
-            try (Writer writer = new FileWriter(file.getName())) {
-                gson.toJson(entries, writer);
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
+        journal.remove(targetUUID.toString());
     }
 
     /**
@@ -172,41 +97,11 @@ public record BanEntry(UUID uuid, String name, String source, Date created,
             List<Map<String, Object>> potentialEntries = BetterBanSystem.getInstance().getDatabase().selectAll(BANNED_PLAYERS_TABLE);
             List<IBanEntry> entries = new ArrayList<>();
             for (Map<String, Object> potentialEntry : potentialEntries) {
-                UUID uuid = UUID.fromString((String) potentialEntry.get("uuid"));
-                String name = (String) potentialEntry.get("name");
-                String source = (String) potentialEntry.get("source");
-                Date created = null;
-                try {
-                    created = format.parse((String) potentialEntry.get("created"));
-                } catch (ParseException e) {
-                    GlobalLogger.getLogger().error(e);
-                }
-                Object expires = potentialEntry.get("expires");
-                String reason = (String) potentialEntry.get("reason");
-                entries.add(new BanEntry(uuid, name, source, created, expires, reason));
+                entries.add(fromRow(potentialEntry));
             }
             return entries;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IBanEntry> entries = new ArrayList<>();
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IBanEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
-        if (entries == null)
-            entries = new ArrayList<>();
-        return entries;
+        return journal.values();
     }
 
     /**
@@ -216,11 +111,70 @@ public record BanEntry(UUID uuid, String name, String source, Date created,
      * @return the found IBanEntry, or null if no entry is found
      */
     public static IBanEntry findEntry(UUID targetUUID) {
-        List<IBanEntry> entries = getAllEntries();
-        return entries.stream()
-                .filter(entry -> entry.uuid().equals(targetUUID))
-                .findFirst()
-                .orElse(null);
+        if (BetterBanSystem.getInstance().getDatabase() == null)
+            return journal.get(targetUUID.toString());
+        Map<String, Object> row = BetterBanSystem.getInstance().getDatabase().selectOne(BANNED_PLAYERS_TABLE, Map.of("uuid", targetUUID.toString()));
+        return row == null ? null : fromRow(row);
+    }
+
+    /**
+     * Retrieves the ban entries which expire at or before the given time, ordered by their expiry.
+     * With a database the expiry is compared by the database, so only the matching rows are read.
+     *
+     * @param time  the time in milliseconds since the epoch
+     * @param limit the maximum amount of entries
+     * @return the expiring ban entries
+     */
+    public static @NotNull List<IBanEntry> findExpired(long time, int limit) {
+        if (BetterBanSystem.getInstance().getDatabase() == null)
+            return journal.values().stream()
+                    .filter(entry -> {
+                        long deadline = ExpiryQueue.deadlineOf(entry.expires());
+                        return deadline >= 0 && deadline <= time;
+                    })
+                    .sorted(Comparator.comparingLong(entry -> ExpiryQueue.deadlineOf(entry.expires())))
+                    .limit(limit)
+                    .toList();
+        List<IBanEntry> entries = new ArrayList<>();
+        for (Map<String, Object> row : BetterBanSystem.getInstance().getDatabase().findExpired(BANNED_PLAYERS_TABLE, time, limit)) {
+            entries.add(fromRow(row));
+        }
+        return entries;
+    }
+
+    /**
+     * Converts a ban entry into a row of the banned players table.
+     *
+     * @param entry the ban entry to convert
+     * @return the row representing the entry
+     */
+    @Contract("_ -> new")
+    private static @NotNull Map<String, Object> toRow(@NotNull IBanEntry entry) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("uuid", entry.uuid().toString());
+        row.put("name", entry.name());
+        row.put("source", entry.source());
+        row.put("created", ColumnValues.toMillis(entry.created()));
+        row.put("expires", ColumnValues.expiresToColumn(entry.expires()));
+        row.put("reason", entry.reason());
+        return row;
+    }
+
+    /**
+     * Converts a database row into a ban entry.
+     *
+     * @param potentialEntry the row read from the database
+     * @return the ban entry represented by the row
+     */
+    @Contract("_ -> new")
+    private static @NotNull IBanEntry fromRow(@NotNull Map<String, Object> potentialEntry) {
+        UUID uuid = UUID.fromString((String) potentialEntry.get("uuid"));
+        String name = (String) potentialEntry.get("name");
+        String source = (String) potentialEntry.get("source");
+        Date created = ColumnValues.toDate(potentialEntry.get("created"));
+        Object expires = ColumnValues.expiresFromColumn(potentialEntry.get("expires"));
+        String reason = (String) potentialEntry.get("reason");
+        return new BanEntry(uuid, name, source, created, expires, reason);
     }
 
     /**
@@ -260,9 +214,9 @@ public record BanEntry(UUID uuid, String name, String source, Date created,
             writer.name("uuid").value(entry.uuid().toString());
             writer.name("name").value(entry.name());
             writer.name("source").value(entry.source());
-            writer.name("created").value(format.format(entry.created()));
-            if (entry.expires() instanceof Date) {
-                writer.name("expires").value(format.format(entry.expires()));
+            writer.name("created").value(TimeFormats.formatStorage(entry.created()));
+            if (entry.expires() instanceof Date expires) {
+                writer.name("expires").value(TimeFormats.formatStorage(expires));
             } else {
                 writer.name("expires").value(entry.expires().toString());
             }
@@ -302,16 +256,16 @@ public record BanEntry(UUID uuid, String name, String source, Date created,
                     case "created":
                         String dateString = reader.nextString();
                         try {
-                            created = format.parse(dateString);
-                        } catch (ParseException e) {
+                            created = TimeFormats.parseStorage(dateString);
+                        } catch (DateTimeParseException e) {
                             throw new RuntimeException(e);
                         }
                         break;
                     case "expires":
                         String expiredString = reader.nextString();
                         try {
-                            expires = format.parse(expiredString);
-                        } catch (ParseException e) {
+                            expires = TimeFormats.parseStorage(expiredString);
+                        } catch (DateTimeParseException e) {
                             expires = expiredString;
                         }
                         break;
@@ -48,6 +48,8 @@ public class BanHandler {
     public static void removeBan(String target) {
         UUID targetUUID = UUIDFetcher.getUUIDOrOfflineUUID(target);
         BanEntry.removeFromJson(targetUUID);
+        PunishmentIndex.removeBan(targetUUID);
+        BanManager.cancelBan(targetUUID);
     }
 
     /**
@@ -57,7 +59,7 @@ public class BanHandler {
      * @return the ban entry for the given UUID
      */
     public static IBanEntry findBanEntry(UUID uuid) {
-        return BanEntry.findEntry(uuid);
+        return PunishmentIndex.getBan(uuid);
     }
 
     /**
@@ -77,7 +79,7 @@ public class BanHandler {
      * @return The IP ban entry matching the given IP address, or null if no match is found.
      */
     public static IIPBanEntry findIPBanEntry(String ipAddress) {
-        return IPBanEntry.findEntry(ipAddress);
+        return PunishmentIndex.getIpBan(ipAddress);
     }
 
     /**
@@ -87,6 +89,8 @@ public class BanHandler {
      */
     public static void removeIpBan(String target) {
         IPBanEntry.removeFromJson(target);
+        PunishmentIndex.removeIpBan(target);
+        BanManager.cancelIpBan(target);
     }
 
     /**
@@ -111,6 +115,8 @@ public class BanHandler {
      */
     private static void addIpBanEntry(IPBanEntry entry) {
         IPBanEntry.saveToJson(entry);
+        PunishmentIndex.put(entry);
+        BanManager.schedule(entry);
     }
 
     /**
@@ -120,6 +126,8 @@ public class BanHandler {
      */
     private static void addBanEntry(IBanEntry entry) {
         BanEntry.saveToJson(entry);
+        PunishmentIndex.put(entry);
+        BanManager.schedule(entry);
     }
 
     /**
@@ -4,75 +4,165 @@ package me.github.simonplays15.betterbansystem.core.ban;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
+import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.expiry.ExpiryQueue;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.Date;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
- * BanManager class is responsible for managing bans and checking for expired ban entries.
+ * BanManager class is responsible for managing bans and removing expired ban entries.
+ * <p>
+ * Temporary bans are kept in an {@link ExpiryQueue} ordered by their expiry date and kept up to date by the {@link BanHandler},
+ * so the scheduler only wakes up when the next ban is due. With a database, the queue is filled by periodic sweeps which
+ * let the database select the bans expiring soon. Without a database, the queue is loaded once on start.
  */
 public class BanManager {
 
     /**
-     * The scheduled executor service used for scheduling tasks to be executed at fixed intervals or delays.
-     *
-     * @see BanManager
-     * @since 1.0
+     * The interval in seconds of the sweeps for expiring bans, if a database is used.
+     */
+    private static final long SWEEP_INTERVAL = 30;
+    /**
+     * The maximum amount of bans and IP bans read by one sweep.
+     */
+    private static final int SWEEP_LIMIT = 500;
+    /**
+     * The temporary ban entries, keyed by the UUID of the banned player and ordered by their expiry date.
+     */
+    private static final ExpiryQueue<UUID, IBanEntry> bans = new ExpiryQueue<>(TaskScheduler.timer(), entry -> TaskScheduler.execute(() -> expireBan(entry)));
+    /**
+     * The temporary IP ban entries, keyed by the banned IP address and ordered by their expiry date.
      */
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private static final ExpiryQueue<String, IIPBanEntry> ipBans = new ExpiryQueue<>(TaskScheduler.timer(), entry -> TaskScheduler.execute(() -> expireIpBan(entry)));
 
     /**
-     * BanManager is responsible for managing bans and checking for expired ban entries.
-     * It has a start method that schedules tasks to check for expired ban entries periodically,
-     * and a stop method to shut down the scheduler.
+     * BanManager is responsible for managing bans and removing expired ban entries.
+     * It has a start method that loads the temporary bans into the expiry queues.
+     * The expiry queues are driven by the timer of the {@link TaskScheduler}, which is shut down together with the plugin.
      */
     public BanManager() {
-        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
     }
 
     /**
-     * Starts the BanManager and schedules tasks to check for expired ban entries.
+     * Schedules the removal of the given ban entry. Permanent bans are ignored.
+     *
+     * @param entry the ban entry
      */
-    public void start() {
-        Runnable checkExpiredBanEntry = () -> {
-            for (IBanEntry entry : BanEntry.getAllEntries()) {
-                if (entry.expires() instanceof Date && ((Date) entry.expires()).before(new Date())) {
-                    BanEntry.removeEntry(entry);
-                    GlobalLogger.getLogger().debug("TimeBan from", entry.name(), "expired.", entry.toString());
-                }
-            }
-        };
+    public static void schedule(@NotNull IBanEntry entry) {
+        bans.schedule(entry.uuid(), entry, ExpiryQueue.deadlineOf(entry.expires()));
+    }
+
+    /**
+     * Schedules the removal of the given IP ban entry. Permanent bans are ignored.
+     *
+     * @param entry the IP ban entry
+     */
+    public static void schedule(@NotNull IIPBanEntry entry) {
+        ipBans.schedule(entry.ip(), entry, ExpiryQueue.deadlineOf(entry.expires()));
+    }
+
+    /**
+     * Cancels the scheduled removal of the ban of the given player.
+     *
+     * @param uuid the UUID of the banned player
+     */
+    public static void cancelBan(@NotNull UUID uuid) {
+        bans.cancel(uuid);
+    }
+
+    /**
+     * Cancels the scheduled removal of the ban of the given IP address.
+     *
+     * @param ipAddress the banned IP address
+     */
+    public static void cancelIpBan(@NotNull String ipAddress) {
+        ipBans.cancel(ipAddress);
+    }
 
-        Runnable checkExpiredIPBanEntry = () -> {
-            for (IIPBanEntry entry : IPBanEntry.getAllEntries()) {
-                if (entry.expires() instanceof Date && ((Date) entry.expires()).before(new Date())) {
-                    IPBanEntry.removeEntry(entry);
-                    GlobalLogger.getLogger().debug("TimeBan from", entry.ip(), "expired.", entry.toString());
-                }
-            }
-        };
-        scheduler.scheduleAtFixedRate(checkExpiredBanEntry, 6, 1, TimeUnit.SECONDS);
-        scheduler.scheduleAtFixedRate(checkExpiredIPBanEntry, 6, 1, TimeUnit.SECONDS);
+    /**
+     * Removes the given ban entry if it is still stored and expired.
+     * If the entry is no longer stored, it is only removed from the {@link PunishmentIndex}.
+     * If the stored entry has been replaced by a ban with a later expiry date, the new ban is scheduled instead.
+     *
+     * @param entry the due ban entry
+     */
+    private static void expireBan(@NotNull IBanEntry entry) {
+        IBanEntry current = BanEntry.findEntry(entry.uuid());
+        if (current == null) {
+            // Removed by another server or, on MongoDB, by the TTL index
+            PunishmentIndex.removeBan(entry.uuid());
+            return;
+        }
+        long deadline = ExpiryQueue.deadlineOf(current.expires());
+        if (deadline < 0 || deadline > System.currentTimeMillis()) {
+            schedule(current);
+            return;
+        }
+        BanEntry.removeEntry(current);
+        PunishmentIndex.removeBan(current.uuid());
+        GlobalLogger.getLogger().debug("TimeBan from", current.name(), "expired.", current.toString());
     }
 
     /**
-     * Shuts down the scheduler and ensures all scheduled tasks are completed or canceled within 5 seconds.
-     * If the tasks do not complete within 5 seconds, the scheduler is forcibly shutdown.
-     * <p>
-     * If an InterruptedException occurs during the termination process, the scheduler is forcibly shutdown and an error message is written to the logger.
+     * Removes the given IP ban entry if it is still stored and expired.
+     * If the entry is no longer stored, it is only removed from the {@link PunishmentIndex}.
+     * If the stored entry has been replaced by a ban with a later expiry date, the new ban is scheduled instead.
+     *
+     * @param entry the due IP ban entry
      */
-    public void stop() {
-        scheduler.shutdown();
-        try {
-            if (scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            GlobalLogger.getLogger().error(e.getMessage());
+    private static void expireIpBan(@NotNull IIPBanEntry entry) {
+        IIPBanEntry current = IPBanEntry.findEntry(entry.ip());
+        if (current == null) {
+            PunishmentIndex.removeIpBan(entry.ip());
+            return;
+        }
+        long deadline = ExpiryQueue.deadlineOf(current.expires());
+        if (deadline < 0 || deadline > System.currentTimeMillis()) {
+            schedule(current);
+            return;
+        }
+        IPBanEntry.removeEntry(current);
+        PunishmentIndex.removeIpBan(current.ip());
+        GlobalLogger.getLogger().debug("TimeBan from", current.ip(), "expired.", current.toString());
+    }
+
+    /**
+     * Schedules the bans which expire within the next {@link #SWEEP_INTERVAL} seconds.
+     * Only the rows of these bans are read from the database, including bans created by other servers sharing the database.
+     * If more than {@link #SWEEP_LIMIT} bans are due, the remaining bans are scheduled by one of the next sweeps.
+     */
+    private static void sweep() {
+        long horizon = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(SWEEP_INTERVAL);
+        for (IBanEntry entry : BanEntry.findExpired(horizon, SWEEP_LIMIT)) {
+            schedule(entry);
+        }
+        for (IIPBanEntry entry : IPBanEntry.findExpired(horizon, SWEEP_LIMIT)) {
+            schedule(entry);
+        }
+    }
+
+    /**
+     * Starts the BanManager.
+     * With a database the bans due soon are scheduled by a sweep every {@link #SWEEP_INTERVAL} seconds.
+     * Otherwise, all temporary ban entries of the json files are loaded into the expiry queues once.
+     * Entries which expired while the server was offline are removed right away.
+     */
+    public void start() {
+        if (BetterBanSystem.getInstance().getDatabase() != null) {
+            TaskScheduler.scheduleAsync(BanManager::sweep, 0, SWEEP_INTERVAL, TimeUnit.SECONDS);
+            GlobalLogger.getLogger().debug("BanManager sweeps the database for expiring bans every", SWEEP_INTERVAL, "seconds.");
+            return;
+        }
+        for (IBanEntry entry : BanEntry.getAllEntries()) {
+            schedule(entry);
+        }
+        for (IIPBanEntry entry : IPBanEntry.getAllEntries()) {
+            schedule(entry);
         }
+        GlobalLogger.getLogger().debug("BanManager scheduled", bans.size(), "bans and", ipBans.size(), "ip bans for expiry.");
     }
 }
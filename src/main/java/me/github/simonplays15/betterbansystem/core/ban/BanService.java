@@ -0,0 +1,108 @@
+package me.github.simonplays15.betterbansystem.core.ban;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The BanService class is the asynchronous counterpart of the {@link BanHandler}.
+ * <p>
+ * Every method runs the storage access and the UUID lookup on the I/O executor of the {@link TaskScheduler}
+ * and returns a future, so the calling thread is never blocked. Work touching the server, like kicking the banned player,
+ * should be continued on {@link TaskScheduler#sync()}.
+ */
+public final class BanService {
+
+    /**
+     * The BanService class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private BanService() {
+    }
+
+    /**
+     * Bans the given player.
+     *
+     * @param sender  the sender who is adding the ban
+     * @param target  the name of the target player
+     * @param reason  the reason for the ban
+     * @param expires the expiration date of the ban, null for a permanent ban
+     * @return a future completed with the added ban entry
+     */
+    public static @NotNull CompletableFuture<IBanEntry> banAsync(@NotNull BaseCommandSender sender, @NotNull String target, String reason, @Nullable Date expires) {
+        return TaskScheduler.supplyAsync(() -> BanHandler.addBan(sender, target, reason, expires));
+    }
+
+    /**
+     * Removes the ban of the given player.
+     *
+     * @param target the name of the banned player
+     * @return a future completed once the ban is removed
+     */
+    public static @NotNull CompletableFuture<Void> unbanAsync(@NotNull String target) {
+        return TaskScheduler.runAsync(() -> BanHandler.removeBan(target));
+    }
+
+    /**
+     * Finds the ban entry of the given player.
+     *
+     * @param playerName the name of the player
+     * @return a future completed with the ban entry, or with null if the player is not banned
+     */
+    public static @NotNull CompletableFuture<IBanEntry> findBanAsync(@NotNull String playerName) {
+        return TaskScheduler.supplyAsync(() -> BanHandler.findBanEntry(playerName));
+    }
+
+    /**
+     * Finds the ban entry of the given player.
+     *
+     * @param uuid the UUID of the player
+     * @return a future completed with the ban entry, or with null if the player is not banned
+     */
+    public static @NotNull CompletableFuture<IBanEntry> findBanAsync(@NotNull UUID uuid) {
+        return TaskScheduler.supplyAsync(() -> BanHandler.findBanEntry(uuid));
+    }
+
+    /**
+     * Bans the given IP address.
+     *
+     * @param sender    the sender who is adding the ban
+     * @param ipAddress the IP address to ban
+     * @param reason    the reason for the ban
+     * @param expires   the expiration date of the ban, null for a permanent ban
+     * @return a future completed with the added IP ban entry
+     */
+    public static @NotNull CompletableFuture<IIPBanEntry> ipBanAsync(@NotNull BaseCommandSender sender, @NotNull String ipAddress, String reason, @Nullable Date expires) {
+        return TaskScheduler.supplyAsync(() -> BanHandler.addIpBan(sender, ipAddress, reason, expires));
+    }
+
+    /**
+     * Removes the ban of the given IP address.
+     *
+     * @param ipAddress the banned IP address
+     * @return a future completed once the ban is removed
+     */
+    public static @NotNull CompletableFuture<Void> unbanIpAsync(@NotNull String ipAddress) {
+        return TaskScheduler.runAsync(() -> BanHandler.removeIpBan(ipAddress));
+    }
+
+    /**
+     * Finds the IP ban entry of the given IP address.
+     *
+     * @param ipAddress the IP address
+     * @return a future completed with the IP ban entry, or with null if the IP address is not banned
+     */
+    public static @NotNull CompletableFuture<IIPBanEntry> findIpBanAsync(@NotNull String ipAddress) {
+        return TaskScheduler.supplyAsync(() -> BanHandler.findIPBanEntry(ipAddress));
+    }
+}
@@ -4,21 +4,22 @@ package me.github.simonplays15.betterbansystem.core.ban;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.common.net.InetAddresses;
 import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import me.github.simonplays15.betterbansystem.api.files.JsonEntryJournal;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
+import me.github.simonplays15.betterbansystem.core.expiry.ExpiryQueue;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
+import me.github.simonplays15.betterbansystem.core.transfer.TransferSpec;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
-import java.lang.reflect.Type;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -27,24 +28,24 @@ import java.util.*;
 public record IPBanEntry(String ip, String source, Date created,
                          Object expires, String reason)
         implements IIPBanEntry {
-    /**
-     * The variable gson represents an instance of Gson, a library for converting Java objects to JSON representation and vice versa.
-     */
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().setDateFormat("yyyy-MM-dd HH:mm:ss Z").registerTypeAdapter(IIPBanEntry.class, new IIPBanEntryAdapter()).create();
     /**
      * Represents the file "banned-ips.json".
      */
     private static final File file = new File("banned-ips.json");
+    /**
+     * The journal holding all IP ban entries of the flat file backend.
+     * The entries are stored in banned-ips.json, changes are appended to banned-ips.json.journal until they are compacted.
+     */
+    private static final JsonEntryJournal<IIPBanEntry> journal = new JsonEntryJournal<>(file, new IIPBanEntryAdapter(), IIPBanEntry::ip);
     /**
      * The constant BANNED_IPS_TABLENAME represents the name of the table where banned IP addresses are stored.
      * It is used to identify the table in the database.
      */
     private static final String BANNED_IPS_TABLENAME = "bannedips";
     /**
-     * The IPBanEntry class represents an entry in an IP ban list.
-     * It implements the IIPBanEntry interface.
+     * Describes how the ip bans are moved between the json file and the database by the PunishmentTransfer.
      */
-    private static final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z", Locale.US);
+    public static final TransferSpec<IIPBanEntry> TRANSFER = new TransferSpec<>("ipbans", journal, BANNED_IPS_TABLENAME, "ip", IPBanEntry::toRow, IPBanEntry::fromRow);
 
     /**
      * Creates a new IPBanEntry object and checks if the associated file exists.
@@ -71,35 +72,10 @@ public record IPBanEntry(String ip, String source, Date created,
      */
     public static void saveToJson(IIPBanEntry entry) {
         if (BetterBanSystem.getInstance().getDatabase() != null) {
-            BetterBanSystem.getInstance().getDatabase().insert(BANNED_IPS_TABLENAME, Map.of("ip", entry.ip(), "source", entry.source(), "created", format.format(entry.created()), "expires", (entry.expires() instanceof Date ? format.format(entry.expires()) : entry.expires()), "reason", entry.reason()));
+            BetterBanSystem.getInstance().getDatabase().upsert(BANNED_IPS_TABLENAME, "ip", List.of(toRow(entry)));
             return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IIPBanEntry> entries = new ArrayList<>();
-
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IIPBanEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
-        if (entries == null)
-            entries = new ArrayList<>();
-        entries.add(entry);
-        try (Writer writer = new FileWriter(file.getName())) {
-            gson.toJson(entries, writer);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
+        journal.put(entry);
     }
 
     /**
@@ -118,33 +94,11 @@ public record IPBanEntry(String ip, String source, Date created,
      */
     public static void removeFromJson(String ipAddress) {
         if (BetterBanSystem.getInstance().getDatabase() != null) {
-            BetterBanSystem.getInstance().getDatabase().delete(BANNED_IPS_TABLENAME, "ip", ipAddress);
+            if (InetAddresses.isInetAddress(ipAddress))
+                BetterBanSystem.getInstance().getDatabase().delete(BANNED_IPS_TABLENAME, "ip", ColumnValues.ipToColumn(ipAddress));
             return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IIPBanEntry> entries = new ArrayList<>();
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IIPBanEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
-
-        entries.removeIf(entry -> entry.ip().equals(ipAddress));
-        try (Writer writer = new FileWriter(file.getName())) {
-            gson.toJson(entries, writer);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
+        journal.remove(ipAddress);
     }
 
     /**
@@ -157,40 +111,11 @@ public record IPBanEntry(String ip, String source, Date created,
             List<Map<String, Object>> potentialEntries = BetterBanSystem.getInstance().getDatabase().selectAll(BANNED_IPS_TABLENAME);
             List<IIPBanEntry> entries = new ArrayList<>();
             for (Map<String, Object> potentialEntry : potentialEntries) {
-                String ip = (String) potentialEntry.get("ip");
-                String source = (String) potentialEntry.get("source");
-                Date created = null;
-                try {
-                    created = format.parse((String) potentialEntry.get("created"));
-                } catch (ParseException e) {
-                    GlobalLogger.getLogger().error(e);
-                }
-                Object expires = potentialEntry.get("expires");
-                String reason = (String) potentialEntry.get("reason");
-                entries.add(new IPBanEntry(ip, source, created, expires, reason));
+                entries.add(fromRow(potentialEntry));
             }
             return entries;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IIPBanEntry> entries = new ArrayList<>();
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IIPBanEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
-        if (entries == null)
-            entries = new ArrayList<>();
-        return entries;
+        return journal.values();
     }
 
     /**
@@ -200,11 +125,70 @@ public record IPBanEntry(String ip, String source, Date created,
      * @return The IP ban entry matching the given IP address, or null if no match is found.
      */
     public static IIPBanEntry findEntry(String ipAddress) {
-        List<IIPBanEntry> entries = getAllEntries();
-        return entries.stream()
-                .filter(entry -> entry.ip().equals(ipAddress))
-                .findFirst()
-                .orElse(null);
+        if (BetterBanSystem.getInstance().getDatabase() == null)
+            return journal.get(ipAddress);
+        if (!InetAddresses.isInetAddress(ipAddress))
+            return null;
+        Map<String, Object> row = BetterBanSystem.getInstance().getDatabase().selectOne(BANNED_IPS_TABLENAME, Map.of("ip", ColumnValues.ipToColumn(ipAddress)));
+        return row == null ? null : fromRow(row);
+    }
+
+    /**
+     * Retrieves the IP ban entries which expire at or before the given time, ordered by their expiry.
+     * With a database the expiry is compared by the database, so only the matching rows are read.
+     *
+     * @param time  the time in milliseconds since the epoch
+     * @param limit the maximum amount of entries
+     * @return the expiring IP ban entries
+     */
+    public static @NotNull List<IIPBanEntry> findExpired(long time, int limit) {
+        if (BetterBanSystem.getInstance().getDatabase() == null)
+            return journal.values().stream()
+                    .filter(entry -> {
+                        long deadline = ExpiryQueue.deadlineOf(entry.expires());
+                        return deadline >= 0 && deadline <= time;
+                    })
+                    .sorted(Comparator.comparingLong(entry -> ExpiryQueue.deadlineOf(entry.expires())))
+                    .limit(limit)
+                    .toList();
+        List<IIPBanEntry> entries = new ArrayList<>();
+        for (Map<String, Object> row : BetterBanSystem.getInstance().getDatabase().findExpired(BANNED_IPS_TABLENAME, time, limit)) {
+            entries.add(fromRow(row));
+        }
+        return entries;
+    }
+
+    /**
+     * Converts an ip ban entry into a row of the banned ips table.
+     *
+     * @param entry the ip ban entry to convert
+     * @return the row representing the entry
+     */
+    @Contract("_ -> new")
+    private static @NotNull Map<String, Object> toRow(@NotNull IIPBanEntry entry) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ip", ColumnValues.ipToColumn(entry.ip()));
+        row.put("source", entry.source());
+        row.put("created", ColumnValues.toMillis(entry.created()));
+        row.put("expires", ColumnValues.expiresToColumn(entry.expires()));
+        row.put("reason", entry.reason());
+        return row;
+    }
+
+    /**
+     * Converts a database row into a IP ban entry.
+     *
+     * @param potentialEntry the row read from the database
+     * @return the IP ban entry represented by the row
+     */
+    @Contract("_ -> new")
+    private static @NotNull IIPBanEntry fromRow(@NotNull Map<String, Object> potentialEntry) {
+        String ip = ColumnValues.ipFromColumn(potentialEntry.get("ip"));
+        String source = (String) potentialEntry.get("source");
+        Date created = ColumnValues.toDate(potentialEntry.get("created"));
+        Object expires = ColumnValues.expiresFromColumn(potentialEntry.get("expires"));
+        String reason = (String) potentialEntry.get("reason");
+        return new IPBanEntry(ip, source, created, expires, reason);
     }
 
     /**
@@ -242,9 +226,9 @@ public record IPBanEntry(String ip, String source, Date created,
             writer.beginObject();
             writer.name("ip").value(entry.ip());
             writer.name("source").value(entry.source());
-            writer.name("created").value(format.format(entry.created()));
-            if (entry.expires() instanceof Date) {
-                writer.name("expires").value(format.format(entry.expires()));
+            writer.name("created").value(TimeFormats.formatStorage(entry.created()));
+            if (entry.expires() instanceof Date expires) {
+                writer.name("expires").value(TimeFormats.formatStorage(expires));
             } else {
                 writer.name("expires").value(entry.expires().toString());
             }
@@ -279,16 +263,16 @@ public record IPBanEntry(String ip, String source, Date created,
                         break;
                     case "created":
                         try {
-                            created = format.parse(reader.nextString());
-                        } catch (ParseException e) {
+                            created = TimeFormats.parseStorage(reader.nextString());
+                        } catch (DateTimeParseException e) {
                             throw new RuntimeException(e);
                         }
                         break;
                     case "expires":
                         String g = reader.nextString();
                         try {
-                            expires = format.parse(g);
-                        } catch (ParseException e) {
+                            expires = TimeFormats.parseStorage(g);
+                        } catch (DateTimeParseException e) {
                             expires = g;
                         }
                         break;
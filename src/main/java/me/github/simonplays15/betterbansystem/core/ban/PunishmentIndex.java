@@ -0,0 +1,298 @@
+package me.github.simonplays15.betterbansystem.core.ban;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PunishmentIndex class keeps all active ban and IP ban entries in memory, keyed by UUID and by IP address.
+ * <p>
+ * The index is loaded once at startup and kept up to date by the {@link BanHandler} and the {@link BanManager},
+ * so login checks are simple hash lookups without any file or database round trip.
+ * <p>
+ * If the configured memory cap is reached, the index stops accepting new entries and is marked as incomplete.
+ * Lookups that miss an incomplete index fall back to the underlying storage.
+ * <p>
+ * A database may be shared by several servers, so with a database the index is reloaded every
+ * {@code bans.index.refreshInterval} seconds. The reload reads the cached results of the storage, so bans and unbans
+ * of other servers are seen after the refresh interval plus {@code database.cache.expireAfter} seconds at the latest.
+ * Changes made by this server while a reload is running are kept, even if the reload read the storage before them.
+ */
+public final class PunishmentIndex {
+
+    /**
+     * Holds the ban entries currently known by the index, keyed by the UUID of the banned player.
+     */
+    private static final Map<UUID, IBanEntry> bansByUUID = new ConcurrentHashMap<>();
+    /**
+     * Holds the IP ban entries currently known by the index, keyed by the banned IP address.
+     */
+    private static final Map<String, IIPBanEntry> bansByIp = new ConcurrentHashMap<>();
+    /**
+     * The maximum amount of entries (bans and IP bans combined) kept in memory. A value of 0 or less disables the cap.
+     */
+    private static volatile int maxEntries = 0;
+    /**
+     * Indicates whether the index holds every entry of the underlying storage.
+     * If false, a lookup miss has to be confirmed by the storage.
+     */
+    private static volatile boolean complete = false;
+    /**
+     * The keys (UUIDs and IP addresses) changed by this server while a refresh is running.
+     * The refresh does not overwrite or remove these keys, as it may have read the storage before the change.
+     * Null if no refresh is running.
+     */
+    private static volatile Set<Object> changedDuringRefresh = null;
+    /**
+     * The periodic refresh of the index, if the entries are stored in a database. Null otherwise.
+     */
+    private static ScheduledFuture<?> refreshTask = null;
+
+    /**
+     * The PunishmentIndex class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private PunishmentIndex() {
+    }
+
+    /**
+     * Loads all ban and IP ban entries from the current storage into the index.
+     * Any previously indexed entries are discarded. If the entries are stored in a database, the index is
+     * reloaded every {@code refreshInterval} seconds to pick up the changes of other servers sharing the database.
+     *
+     * @param cap             the maximum amount of entries kept in memory, 0 or less for no limit
+     * @param refreshInterval the interval in seconds in which the index is reloaded from a database, 0 or less to never reload it
+     */
+    public static synchronized void load(int cap, long refreshInterval) {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+        maxEntries = cap;
+        bansByUUID.clear();
+        bansByIp.clear();
+        complete = true;
+
+        try {
+            List<IBanEntry> banEntries = BanEntry.getAllEntries();
+            for (IBanEntry entry : banEntries) {
+                index(entry);
+            }
+            List<IIPBanEntry> ipBanEntries = IPBanEntry.getAllEntries();
+            for (IIPBanEntry entry : ipBanEntries) {
+                index(entry);
+            }
+            if (!complete)
+                GlobalLogger.getLogger().warn("PunishmentIndex reached its limit of", maxEntries, "entries. Lookups for not indexed entries will use the storage.");
+            GlobalLogger.getLogger().debug("PunishmentIndex loaded", bansByUUID.size(), "bans and", bansByIp.size(), "ip bans.");
+        } catch (UncheckedIOException ex) {
+            bansByUUID.clear();
+            bansByIp.clear();
+            complete = false;
+            GlobalLogger.getLogger().error("PunishmentIndex could not load the bans, lookups will use the storage.", ex);
+        }
+
+        if (BetterBanSystem.getInstance().getDatabase() != null && refreshInterval > 0) {
+            refreshTask = TaskScheduler.scheduleAsync(PunishmentIndex::refresh, refreshInterval, refreshInterval, TimeUnit.SECONDS);
+            GlobalLogger.getLogger().debug("PunishmentIndex reloads the bans from the database every", refreshInterval, "seconds.");
+        }
+    }
+
+    /**
+     * Reloads the index from the database, so bans and unbans of other servers sharing the database are seen.
+     * Entries are added, replaced and removed in place, so lookups keep working during the reload.
+     * Keys changed by this server while the reload runs are left untouched.
+     */
+    private static void refresh() {
+        changedDuringRefresh = ConcurrentHashMap.newKeySet();
+        try {
+            List<IBanEntry> banEntries = BanEntry.getAllEntries();
+            List<IIPBanEntry> ipBanEntries = IPBanEntry.getAllEntries();
+            synchronized (PunishmentIndex.class) {
+                Set<Object> changed = changedDuringRefresh;
+                Set<UUID> uuids = new HashSet<>();
+                Set<String> ips = new HashSet<>();
+                for (IBanEntry entry : banEntries)
+                    uuids.add(entry.uuid());
+                for (IIPBanEntry entry : ipBanEntries)
+                    ips.add(entry.ip());
+                bansByUUID.keySet().removeIf(uuid -> !uuids.contains(uuid) && !changed.contains(uuid));
+                bansByIp.keySet().removeIf(ip -> !ips.contains(ip) && !changed.contains(ip));
+                complete = true;
+                for (IBanEntry entry : banEntries) {
+                    if (!changed.contains(entry.uuid()))
+                        index(entry);
+                }
+                for (IIPBanEntry entry : ipBanEntries) {
+                    if (!changed.contains(entry.ip()))
+                        index(entry);
+                }
+                GlobalLogger.getLogger().debug("PunishmentIndex reloaded", uuids.size(), "bans and", ips.size(), "ip bans.");
+            }
+        } catch (UncheckedIOException ex) {
+            GlobalLogger.getLogger().error("PunishmentIndex could not reload the bans, keeping the current index.", ex);
+        } finally {
+            changedDuringRefresh = null;
+        }
+    }
+
+    /**
+     * Remembers that this server changed the given key while a refresh is running.
+     *
+     * @param key the UUID or IP address of the changed entry
+     */
+    private static void markChanged(@NotNull Object key) {
+        Set<Object> changed = changedDuringRefresh;
+        if (changed != null)
+            changed.add(key);
+    }
+
+    /**
+     * Adds or replaces a ban entry in the index.
+     *
+     * @param entry the ban entry to index
+     */
+    public static synchronized void put(@NotNull IBanEntry entry) {
+        markChanged(entry.uuid());
+        index(entry);
+    }
+
+    /**
+     * Adds or replaces an IP ban entry in the index.
+     *
+     * @param entry the IP ban entry to index
+     */
+    public static synchronized void put(@NotNull IIPBanEntry entry) {
+        markChanged(entry.ip());
+        index(entry);
+    }
+
+    /**
+     * Adds or replaces a ban entry in the index, unless the memory cap is reached.
+     *
+     * @param entry the ban entry to index
+     */
+    private static void index(@NotNull IBanEntry entry) {
+        if (!bansByUUID.containsKey(entry.uuid()) && isFull()) {
+            complete = false;
+            return;
+        }
+        bansByUUID.put(entry.uuid(), entry);
+    }
+
+    /**
+     * Adds or replaces an IP ban entry in the index, unless the memory cap is reached.
+     *
+     * @param entry the IP ban entry to index
+     */
+    private static void index(@NotNull IIPBanEntry entry) {
+        if (!bansByIp.containsKey(entry.ip()) && isFull()) {
+            complete = false;
+            return;
+        }
+        bansByIp.put(entry.ip(), entry);
+    }
+
+    /**
+     * Removes the ban entry of the given UUID from the index.
+     *
+     * @param uuid the UUID of the banned player
+     */
+    public static synchronized void removeBan(@NotNull UUID uuid) {
+        markChanged(uuid);
+        bansByUUID.remove(uuid);
+    }
+
+    /**
+     * Removes the IP ban entry of the given IP address from the index.
+     *
+     * @param ipAddress the banned IP address
+     */
+    public static synchronized void removeIpBan(@NotNull String ipAddress) {
+        markChanged(ipAddress);
+        bansByIp.remove(ipAddress);
+    }
+
+    /**
+     * Finds the ban entry for the given UUID.
+     * If the index is incomplete and does not contain the UUID, the storage is queried and the result is indexed.
+     *
+     * @param uuid the UUID of the player
+     * @return the ban entry for the given UUID, or null if the player is not banned
+     */
+    public static @Nullable IBanEntry getBan(@NotNull UUID uuid) {
+        IBanEntry entry = bansByUUID.get(uuid);
+        if (entry != null || complete)
+            return entry;
+        entry = BanEntry.findEntry(uuid);
+        if (entry != null)
+            put(entry);
+        return entry;
+    }
+
+    /**
+     * Finds the IP ban entry for the given IP address.
+     * If the index is incomplete and does not contain the IP address, the storage is queried and the result is indexed.
+     *
+     * @param ipAddress the IP address to search for
+     * @return the IP ban entry for the given IP address, or null if the IP address is not banned
+     */
+    public static @Nullable IIPBanEntry getIpBan(@NotNull String ipAddress) {
+        IIPBanEntry entry = bansByIp.get(ipAddress);
+        if (entry != null || complete)
+            return entry;
+        entry = IPBanEntry.findEntry(ipAddress);
+        if (entry != null)
+            put(entry);
+        return entry;
+    }
+
+    /**
+     * Returns the amount of entries (bans and IP bans combined) currently held in memory.
+     *
+     * @return the size of the index
+     */
+    public static int size() {
+        return bansByUUID.size() + bansByIp.size();
+    }
+
+    /**
+     * Returns whether the index holds every entry of the underlying storage.
+     *
+     * @return true if a lookup miss means that no entry exists, false otherwise
+     */
+    public static boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the configured maximum amount of entries kept in memory.
+     *
+     * @return the memory cap of the index, 0 or less if unlimited
+     */
+    public static int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Checks whether the index has reached its configured memory cap.
+     *
+     * @return true if no further entries may be added, false otherwise
+     */
+    private static boolean isFull() {
+        return maxEntries > 0 && size() >= maxEntries;
+    }
+}
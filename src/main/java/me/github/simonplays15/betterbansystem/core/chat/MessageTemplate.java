@@ -0,0 +1,139 @@
+package me.github.simonplays15.betterbansystem.core.chat;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MessageTemplate class is a message compiled into literal segments and named placeholder slots.
+ * <p>
+ * Placeholders are written as {@code {name}}. The alternate color codes of the literal segments are translated once
+ * when the template is compiled, so rendering only appends the segments and the placeholder values to a single buffer.
+ * A template without placeholders renders to the same string instance every time.
+ * <p>
+ * A MessageTemplate is immutable and can be used by multiple threads.
+ */
+public final class MessageTemplate {
+
+    /**
+     * The character of the alternate color codes.
+     */
+    public static final char ALT_COLOR_CHAR = '&';
+
+    /**
+     * The literal segments of the message. The segment at index i is followed by the placeholder at index i,
+     * the last segment is followed by no placeholder.
+     */
+    private final String[] literals;
+    /**
+     * The names of the placeholders, one less than the literal segments.
+     */
+    private final String[] placeholders;
+    /**
+     * The combined length of the literal segments.
+     */
+    private final int literalLength;
+    /**
+     * The rendered message if the template has no placeholders, null otherwise.
+     */
+    private final String constant;
+
+    /**
+     * Creates a new MessageTemplate.
+     *
+     * @param literals     the literal segments with translated colors
+     * @param placeholders the names of the placeholders
+     */
+    private MessageTemplate(String @NotNull [] literals, String @NotNull [] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.constant = placeholders.length == 0 ? literals[0] : null;
+    }
+
+    /**
+     * Compiles a message into a template.
+     *
+     * @param message the message with placeholders and alternate color codes
+     * @return the compiled template
+     */
+    public static @NotNull MessageTemplate compile(@NotNull String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int segmentStart = 0;
+        int open = message.indexOf('{');
+        while (open >= 0) {
+            int close = message.indexOf('}', open + 1);
+            if (close < 0)
+                break;
+            int nested = message.lastIndexOf('{', close);
+            if (nested > open) {
+                open = nested;
+                continue;
+            }
+            literals.add(ChatColor.translateAlternateColorCodes(ALT_COLOR_CHAR, message.substring(segmentStart, open)));
+            placeholders.add(message.substring(open + 1, close));
+            segmentStart = close + 1;
+            open = message.indexOf('{', segmentStart);
+        }
+        literals.add(ChatColor.translateAlternateColorCodes(ALT_COLOR_CHAR, message.substring(segmentStart)));
+        return new MessageTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    /**
+     * Renders the message with the given placeholder values.
+     * Placeholders without a value are kept as {@code {name}}. Color codes in the values are translated.
+     *
+     * @param values the values of the placeholders, keyed by name
+     * @return the rendered message
+     */
+    public @NotNull String render(@NotNull Map<String, String> values) {
+        if (this.constant != null)
+            return this.constant;
+        StringBuilder builder = new StringBuilder(this.literalLength + this.placeholders.length * 16);
+        for (int i = 0; i < this.placeholders.length; i++) {
+            builder.append(this.literals[i]);
+            String name = this.placeholders[i];
+            String value = values.get(name);
+            if (value == null && !values.containsKey(name))
+                builder.append('{').append(name).append('}');
+            else
+                appendValue(builder, String.valueOf(value));
+        }
+        return builder.append(this.literals[this.placeholders.length]).toString();
+    }
+
+    /**
+     * Appends a placeholder value, translating its color codes if it contains any.
+     *
+     * @param builder the buffer of the rendered message
+     * @param value   the value
+     */
+    private static void appendValue(@NotNull StringBuilder builder, @NotNull String value) {
+        if (value.indexOf(ALT_COLOR_CHAR) < 0)
+            builder.append(value);
+        else
+            builder.append(ChatColor.translateAlternateColorCodes(ALT_COLOR_CHAR, value));
+    }
+
+    /**
+     * Checks whether the template has placeholders.
+     *
+     * @return true if the template has no placeholders and always renders to the same message
+     */
+    @Contract(pure = true)
+    public boolean isConstant() {
+        return this.constant != null;
+    }
+}
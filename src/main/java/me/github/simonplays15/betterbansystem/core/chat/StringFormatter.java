@@ -6,11 +6,12 @@ package me.github.simonplays15.betterbansystem.core.chat;
 
 import me.github.simonplays15.betterbansystem.core.ban.IBanEntry;
 import me.github.simonplays15.betterbansystem.core.ban.IIPBanEntry;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Map;
 
 /**
  * The StringFormatter class provides methods for formatting messages related to bans and kicks.
@@ -31,23 +32,15 @@ public class StringFormatter {
      * @see StringFormatter
      */
     private static final String SEPARATOR = "\n";
-    /**
-     * The dateFormat variable is an instance of the SimpleDateFormat class. It is used to format dates and times in a specific pattern.
-     * The pattern used for formatting is "HH:mm:ss | dd.MM.yyyy", which represents hours (24-hour format), minutes, seconds, day of the month, month, and year.
-     * <p>
-     * Example usage:
-     * String formattedDate = dateFormat.format(date);
-     */
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss | dd.MM.yyyy");
     /**
      * This variable represents the template for a kick message.
      * It is used to format the kick message with specific information such as the sender and reason.
      */
-    private static final String KICK_MESSAGE_TEMPLATE = HEADER + SEPARATOR +
+    private static final MessageTemplate KICK_MESSAGE_TEMPLATE = MessageTemplate.compile(HEADER + SEPARATOR +
             "§cYou have been kicked" + SEPARATOR +
-            "§6By:§4 %s" + SEPARATOR +
-            "§6For:§f %s" + SEPARATOR +
-            HEADER;
+            "§6By:§4 {source}" + SEPARATOR +
+            "§6For:§f {reason}" + SEPARATOR +
+            HEADER);
 
     /**
      * The BAN_MESSAGE_TEMPLATE variable is a template for formatting ban messages.
@@ -59,16 +52,16 @@ public class StringFormatter {
      * <p>
      * Example usage:
      * ```
-     * String banMessage = String.format(BAN_MESSAGE_TEMPLATE, banSource, banReason, banExpiration, banDate);
+     * String banMessage = BAN_MESSAGE_TEMPLATE.render(Map.of("source", banSource, "reason", banReason, "expires", banExpiration, "created", banDate));
      * ```
      */
-    private static final String BAN_MESSAGE_TEMPLATE = HEADER + SEPARATOR +
+    private static final MessageTemplate BAN_MESSAGE_TEMPLATE = MessageTemplate.compile(HEADER + SEPARATOR +
             "§4You have been banned" + SEPARATOR +
-            "§6By:§c %s" + SEPARATOR +
-            "§6For:§c %s" + SEPARATOR +
-            "§6Until:§a %s" + SEPARATOR +
-            "§6Date of ban:§c %s" + SEPARATOR +
-            HEADER;
+            "§6By:§c {source}" + SEPARATOR +
+            "§6For:§c {reason}" + SEPARATOR +
+            "§6Until:§a {expires}" + SEPARATOR +
+            "§6Date of ban:§c {created}" + SEPARATOR +
+            HEADER);
 
     /**
      * IPBAN_MESSAGE_TEMPLATE is a constant variable that stores the message template for an IP ban message. This message template is used to format the IP ban message that is sent
@@ -79,25 +72,25 @@ public class StringFormatter {
      * .
      * 2. SEPARATOR - A constant string that represents a new line character, which is "\n". This separator is used to separate different sections of the message.
      * 3. "§4You have been IP banned" - This string is displayed as the first line of the message and informs the player that they have been IP banned.
-     * 4. "§6By:§c %s" - This string is displayed as the second line of the message and specifies the source of the ban. The "%s" is a placeholder that will be replaced with the source
-     * of the ban.
-     * 5. "§6For:§c %s" - This string is displayed as the third line of the message and specifies the reason for the ban. The "%s" is a placeholder that will be replaced with the
-     * reason for the ban.
-     * 6. "§6Until:§a %s" - This string is displayed as the fourth line of the message and specifies the expiration date of the ban. The "%s" is a placeholder that will be replaced
-     * with the expiration date of the ban.
-     * 7. "§6Date of ban:§c %s" - This string is displayed as the fifth line of the message and specifies the date when the ban was created. The "%s" is a placeholder that will be
-     * replaced with the date of the ban.
+     * 4. "§6By:§c {source}" - This string is displayed as the second line of the message and specifies the source of the ban. The "{source}" is a placeholder that will be replaced
+     * with the source of the ban.
+     * 5. "§6For:§c {reason}" - This string is displayed as the third line of the message and specifies the reason for the ban. The "{reason}" is a placeholder that will be replaced
+     * with the reason for the ban.
+     * 6. "§6Until:§a {expires}" - This string is displayed as the fourth line of the message and specifies the expiration date of the ban. The "{expires}" is a placeholder that will
+     * be replaced with the expiration date of the ban.
+     * 7. "§6Date of ban:§c {created}" - This string is displayed as the fifth line of the message and specifies the date when the ban was created. The "{created}" is a placeholder
+     * that will be replaced with the date of the ban.
      * 8. HEADER - The same header string is displayed at the bottom of the message.
      * <p>
      * The IPBAN_MESSAGE_TEMPLATE is used by the formatIpBanMessage method in the StringFormatter class to format the IP ban message.
      */
-    private static final String IPBAN_MESSAGE_TEMPLATE = HEADER + SEPARATOR +
+    private static final MessageTemplate IPBAN_MESSAGE_TEMPLATE = MessageTemplate.compile(HEADER + SEPARATOR +
             "§4You have been IP banned" + SEPARATOR +
-            "§6By:§c %s" + SEPARATOR +
-            "§6For:§c %s" + SEPARATOR +
-            "§6Until:§a %s" + SEPARATOR +
-            "§6Date of ban:§c %s" + SEPARATOR +
-            HEADER;
+            "§6By:§c {source}" + SEPARATOR +
+            "§6For:§c {reason}" + SEPARATOR +
+            "§6Until:§a {expires}" + SEPARATOR +
+            "§6Date of ban:§c {created}" + SEPARATOR +
+            HEADER);
 
     /**
      * Formats a kick message by replacing placeholders in the kick message template with the sender and reason.
@@ -108,7 +101,7 @@ public class StringFormatter {
      */
     @Contract("_, _ -> new")
     public static @NotNull String formatKickMessage(String sender, String reason) {
-        return ChatColor.translateAlternateColorCodes('&', String.format(KICK_MESSAGE_TEMPLATE, sender, reason));
+        return KICK_MESSAGE_TEMPLATE.render(Map.of("source", String.valueOf(sender), "reason", String.valueOf(reason)));
     }
 
     /**
@@ -119,7 +112,7 @@ public class StringFormatter {
      */
     @Contract("_, -> new")
     public static @NotNull String formatBanMessage(@NotNull IBanEntry entry) {
-        return ChatColor.translateAlternateColorCodes('&', String.format(BAN_MESSAGE_TEMPLATE, entry.source(), entry.reason(), (entry.expires() instanceof Date ? dateFormat.format(entry.expires()) : entry.expires()), dateFormat.format(entry.created())));
+        return BAN_MESSAGE_TEMPLATE.render(banPlaceholders(entry.source(), entry.reason(), entry.expires(), entry.created()));
     }
 
     /**
@@ -130,6 +123,22 @@ public class StringFormatter {
      */
     @Contract("_, -> new")
     public static @NotNull String formatIpBanMessage(@NotNull IIPBanEntry entry) {
-        return ChatColor.translateAlternateColorCodes('&', String.format(BAN_MESSAGE_TEMPLATE, entry.source(), entry.reason(), (entry.expires() instanceof Date ? dateFormat.format(entry.expires()) : entry.expires()), dateFormat.format(entry.created())));
+        return IPBAN_MESSAGE_TEMPLATE.render(banPlaceholders(entry.source(), entry.reason(), entry.expires(), entry.created()));
+    }
+
+    /**
+     * Builds the placeholder values of a ban message.
+     *
+     * @param source  the source of the ban
+     * @param reason  the reason of the ban
+     * @param expires the expiration date of the ban, or "forever"
+     * @param created the creation date of the ban
+     * @return the placeholder values keyed by name
+     */
+    private static @NotNull Map<String, String> banPlaceholders(Object source, Object reason, Object expires, Date created) {
+        return Map.of("source", String.valueOf(source),
+                "reason", String.valueOf(reason),
+                "expires", TimeFormats.formatDisplay(expires),
+                "created", TimeFormats.formatDisplay(created));
     }
 }
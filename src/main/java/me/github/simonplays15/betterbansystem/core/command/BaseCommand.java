@@ -9,8 +9,10 @@ import me.github.simonplays15.betterbansystem.api.exceptions.InvalidDescriptionE
 import me.github.simonplays15.betterbansystem.api.files.BasePluginDescription;
 import me.github.simonplays15.betterbansystem.api.runtimeservice.RuntimeService;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
 import me.github.simonplays15.betterbansystem.core.permissions.PermissionsManager;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
@@ -258,6 +260,21 @@ public abstract class BaseCommand {
         return manager;
     }
 
+    /**
+     * Handles a failed asynchronous step of this command.
+     * The error is logged and the sender is informed on the server thread with the {@code defaults.internalError} message.
+     * Meant to be used with {@link java.util.concurrent.CompletableFuture#exceptionally}.
+     *
+     * @param sender    the sender who executed the command
+     * @param throwable the error of the failed step
+     * @return always null
+     */
+    protected Void handleAsyncFailure(@NotNull BaseCommandSender sender, Throwable throwable) {
+        GlobalLogger.getLogger().error("Failed to execute command", this.commandName, throwable);
+        TaskScheduler.runSync(() -> sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.internalError")));
+        return null;
+    }
+
 
     /**
      * Compares this {@code BaseCommand} object with the specified object for equality.
@@ -62,6 +62,7 @@ public class BaseCommandHandler {
         registerCommand(new DelWarnCommand());
         registerCommand(new MuteCommand());
         registerCommand(new UnmuteCommand());
+        registerCommand(new TransferCommand());
     }
 
     /**
@@ -5,6 +5,7 @@ package me.github.simonplays15.betterbansystem.core.command.commands;
  */
 
 import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
+import me.github.simonplays15.betterbansystem.api.uuid.UUIDFetcher;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.ban.BanEntry;
 import me.github.simonplays15.betterbansystem.core.ban.IBanEntry;
@@ -13,25 +14,22 @@ import me.github.simonplays15.betterbansystem.core.ban.IPBanEntry;
 import me.github.simonplays15.betterbansystem.core.chat.HoverMessageUtil;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
 import net.md_5.bungee.api.chat.ComponentBuilder;
 import net.md_5.bungee.api.chat.HoverEvent;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.jetbrains.annotations.NotNull;
 
-import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The BanListCommand class extends BaseCommand and represents a command to list banned players or IPs.
+ * If player names are given after the type, only the bans of these players are listed.
  */
 public class BanListCommand extends BaseCommand {
 
-    /**
-     * Represents the date format used in the BanListCommand class.
-     * The format is "HH:mm:ss | dd.MM.yyyy".
-     */
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss | dd.MM.yyyy");
-
     /**
      * Represents a command that retrieves and displays the ban list.
      */
@@ -58,6 +56,10 @@ public class BanListCommand extends BaseCommand {
             sender.sendMessage(args[0] + " is not an correctly list parameter.");
         }
 
+        if (args.length > 1 && args[0].equalsIgnoreCase("players")) {
+            sendBansOf(sender, Arrays.asList(args).subList(1, args.length));
+            return true;
+        }
         sendBanList(sender, type);
         return true;
     }
@@ -70,7 +72,6 @@ public class BanListCommand extends BaseCommand {
      */
     private void sendBanList(@NotNull BaseCommandSender sender, @NotNull String type) {
         List<TextComponent> banList = new ArrayList<>();
-        Object player = BetterBanSystem.getPlayer(sender.getName());
         if (type.equalsIgnoreCase("players")) {
             List<IBanEntry> entries = BanEntry.getAllEntries();
             for (IBanEntry entry : entries) {
@@ -83,7 +84,55 @@ public class BanListCommand extends BaseCommand {
                 banList.add(new TextComponent(getHoverableComponent("§c" + entry.ip(), getIpBanInfo(entry))));
             }
         }
+        sendComponents(sender, type, banList);
+    }
+
+    /**
+     * Sends the bans of the given players.
+     * The names are resolved with {@link UUIDFetcher#resolveAll(Collection)}, so many names only cost a few bulk requests.
+     * Names whose lookup failed are reported to the sender instead of being matched with their offline UUID.
+     *
+     * @param sender the sender
+     * @param names  the names of the players
+     */
+    private void sendBansOf(@NotNull BaseCommandSender sender, @NotNull List<String> names) {
+        Map<String, CompletableFuture<UUID>> lookups = UUIDFetcher.resolveAll(names);
+        CompletableFuture.allOf(lookups.values().stream().map(lookup -> lookup.exceptionally(throwable -> null)).toArray(CompletableFuture[]::new))
+                .thenApplyAsync(ignored -> {
+                    List<IBanEntry> entries = new ArrayList<>();
+                    for (CompletableFuture<UUID> lookup : lookups.values()) {
+                        UUID uuid = lookup.exceptionally(throwable -> null).join();
+                        IBanEntry entry = uuid == null ? null : BanEntry.findEntry(uuid);
+                        if (entry != null)
+                            entries.add(entry);
+                    }
+                    return entries;
+                }, TaskScheduler.io())
+                .thenAcceptAsync(entries -> {
+                    List<String> unresolved = new ArrayList<>();
+                    lookups.forEach((name, lookup) -> {
+                        if (lookup.isCompletedExceptionally())
+                            unresolved.add(name);
+                    });
+                    if (!unresolved.isEmpty())
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("banlist.unresolved", Map.of("names", String.join(", ", unresolved))));
+                    List<TextComponent> banList = new ArrayList<>();
+                    for (IBanEntry entry : entries) {
+                        banList.add(new TextComponent(getHoverableComponent("§c" + entry.name(), getBanInfo(entry))));
+                    }
+                    sendComponents(sender, "players", banList);
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
+    }
 
+    /**
+     * Sends the given entries of the ban list.
+     *
+     * @param sender  the sender
+     * @param type    the type
+     * @param banList the entries
+     */
+    private void sendComponents(@NotNull BaseCommandSender sender, @NotNull String type, @NotNull List<TextComponent> banList) {
         if (banList.isEmpty()) {
             sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("banlist.nobans", Map.of("type", type)));
             return;
@@ -99,7 +148,7 @@ public class BanListCommand extends BaseCommand {
         if (sender.isConsole())
             sender.sendMessage(message.toPlainText());
         else
-            HoverMessageUtil.sendHoverableMessage(player, message);
+            HoverMessageUtil.sendHoverableMessage(BetterBanSystem.getPlayer(sender.getName()), message);
 
     }
 
@@ -125,8 +174,8 @@ public class BanListCommand extends BaseCommand {
     private String getIpBanInfo(@NotNull IIPBanEntry entry) {
         return new StringJoiner("\n", "§c", "")
                 .add("§bReason: §f" + entry.reason().substring(0, 20))
-                .add("§bCreated: §6" + dateFormat.format(entry.created()))
-                .add("§bExpires: §6" + (entry.expires() instanceof Date ? dateFormat.format(entry.expires()) : entry.expires()))
+                .add("§bCreated: §6" + TimeFormats.formatDisplay(entry.created()))
+                .add("§bExpires: §6" + TimeFormats.formatDisplay(entry.expires()))
                 .add("§bBanned by: §c" + entry.source())
                 .toString();
     }
@@ -140,8 +189,8 @@ public class BanListCommand extends BaseCommand {
     private String getBanInfo(@NotNull IBanEntry entry) {
         return new StringJoiner("\n", "§c", "")
                 .add("§bReason: §f" + entry.reason().substring(0, 20))
-                .add("§bCreated: §6" + dateFormat.format(entry.created()))
-                .add("§bExpires: §6" + (entry.expires() instanceof Date ? dateFormat.format(entry.expires()) : entry.expires()))
+                .add("§bCreated: §6" + TimeFormats.formatDisplay(entry.created()))
+                .add("§bExpires: §6" + TimeFormats.formatDisplay(entry.expires()))
                 .add("§bBanned by: §c" + entry.source())
                 .toString();
     }
@@ -5,16 +5,15 @@ package me.github.simonplays15.betterbansystem.core.command.commands;
  */
 
 import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
-import me.github.simonplays15.betterbansystem.api.uuid.UUIDFetcher;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
-import me.github.simonplays15.betterbansystem.core.warn.IWarnEntry;
-import me.github.simonplays15.betterbansystem.core.warn.WarnEntry;
-import me.github.simonplays15.betterbansystem.core.warn.WarnHandler;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import me.github.simonplays15.betterbansystem.core.warn.WarnService;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,14 +52,16 @@ public class DelWarnCommand extends BaseCommand {
         }
         int id = Integer.parseInt(args[1]);
 
-        IWarnEntry entry = WarnEntry.findEntry(UUIDFetcher.getUUIDOrOfflineUUID(target));
-        if (entry == null) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("delwarn.nowarns", Map.of("target", target)));
-            return true;
-        }
-
-        WarnHandler.removeWarn(target, id);
-        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("delwarn.success", Map.of("id", String.valueOf(id), "target", target)));
+        WarnService.findWarnsAsync(target)
+                .thenCompose(entry -> entry == null ? CompletableFuture.completedFuture(false) : WarnService.removeWarnAsync(target, id).thenApply(ignored -> true))
+                .thenAcceptAsync(removed -> {
+                    if (!removed) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("delwarn.nowarns", Map.of("target", target)));
+                        return;
+                    }
+                    sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("delwarn.success", Map.of("id", String.valueOf(id), "target", target)));
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
         return true;
     }
 }
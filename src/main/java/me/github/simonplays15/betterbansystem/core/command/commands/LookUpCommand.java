@@ -11,12 +11,12 @@ import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.ban.BanHandler;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
 import me.github.simonplays15.betterbansystem.core.warn.IWarnEntry;
 import me.github.simonplays15.betterbansystem.core.warn.Warn;
 import me.github.simonplays15.betterbansystem.core.warn.WarnEntry;
 import org.jetbrains.annotations.NotNull;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -65,10 +65,9 @@ public class LookUpCommand extends BaseCommand {
                 return true;
             }
             // ID: # | Date: # | Source: # | Reason
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
             List<String> g = new ArrayList<>();
             for (Warn warn : warnEntry.warns()) {
-                g.add("§7ID: §a" + warn.id() + " §7| Date: §a" + dateFormat.format(warn.created()) + " §7| Source: §a" + warn.source() + " §7| Reason: §a" + warn.reason());
+                g.add("§7ID: §a" + warn.id() + " §7| Date: §a" + TimeFormats.format(TimeFormats.LOOKUP, warn.created()) + " §7| Source: §a" + warn.source() + " §7| Reason: §a" + warn.reason());
             }
             g.forEach(sender::sendMessage);
             return true;
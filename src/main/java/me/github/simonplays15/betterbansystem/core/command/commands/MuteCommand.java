@@ -5,19 +5,21 @@ package me.github.simonplays15.betterbansystem.core.command.commands;
  */
 
 import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
-import me.github.simonplays15.betterbansystem.api.uuid.UUIDFetcher;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
-import me.github.simonplays15.betterbansystem.core.mute.MuteHandler;
+import me.github.simonplays15.betterbansystem.core.mute.IMuteEntry;
+import me.github.simonplays15.betterbansystem.core.mute.MuteService;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -90,11 +92,6 @@ public class MuteCommand extends BaseCommand {
         }
 
         String target = args[0];
-        if (MuteHandler.findMuteEntry(target) != null) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("mute.alreadyMuted", Map.of("target", target)));
-            return true;
-        }
-
         String reason = args.length < 3 ? BetterBanSystem.getInstance().getLanguageFile().getMessage("mute.reason") : Arrays.stream(args).skip(2).collect(Collectors.joining(" "));
 
         if (sender.isPlayer() && (this.getPermManager().hasPermission(target, "betterbansystem.exempt.mute") || BetterBanSystem.getInstance().getConfig().getStringList("exempted-mute-players").contains(target))) {
@@ -109,19 +106,27 @@ public class MuteCommand extends BaseCommand {
             return true;
         }
 
-        Object targetPlayer = BetterBanSystem.getPlayer(target);
-        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss dd.MM.yyyy");
-        if (targetPlayer != null) {
-            BetterBanSystem.sendMessage(targetPlayer, BetterBanSystem.getInstance().getLanguageFile().getMessage("mute.playerMessage", Map.of("date", format.format(parsed))));
-        }
-
-        Object offlinePlayer = BetterBanSystem.getOfflinePlayer(UUIDFetcher.getUUIDOrOfflineUUID(target));
-        if (offlinePlayer != null && !BetterBanSystem.hasPlayedBefore(offlinePlayer)) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.warning", Map.of("target", target)));
-        }
-
-        MuteHandler.addMute(sender, target, reason, parsed);
-        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("mute.success", Map.of("target", target, "date", format.format(parsed))));
+        MuteService.findMuteAsync(target)
+                .thenCompose(existing -> existing != null ? CompletableFuture.<IMuteEntry>completedFuture(null) : MuteService.muteAsync(sender, target, reason, parsed))
+                .thenAcceptAsync(entry -> {
+                    if (entry == null) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("mute.alreadyMuted", Map.of("target", target)));
+                        return;
+                    }
+                    String date = TimeFormats.format(TimeFormats.FEEDBACK, parsed);
+                    Object targetPlayer = BetterBanSystem.getPlayer(target);
+                    if (targetPlayer != null) {
+                        BetterBanSystem.sendMessage(targetPlayer, BetterBanSystem.getInstance().getLanguageFile().getMessage("mute.playerMessage", Map.of("date", date)));
+                    }
+
+                    Object offlinePlayer = BetterBanSystem.getOfflinePlayer(entry.uuid());
+                    if (offlinePlayer != null && !BetterBanSystem.hasPlayedBefore(offlinePlayer)) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.warning", Map.of("target", target)));
+                    }
+
+                    sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("mute.success", Map.of("target", target, "date", date)));
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
 
         return true;
     }
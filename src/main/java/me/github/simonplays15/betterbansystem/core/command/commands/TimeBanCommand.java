@@ -5,21 +5,22 @@ package me.github.simonplays15.betterbansystem.core.command.commands;
  */
 
 import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
-import me.github.simonplays15.betterbansystem.api.uuid.UUIDFetcher;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
-import me.github.simonplays15.betterbansystem.core.ban.BanHandler;
+import me.github.simonplays15.betterbansystem.core.ban.BanService;
 import me.github.simonplays15.betterbansystem.core.ban.IBanEntry;
 import me.github.simonplays15.betterbansystem.core.chat.StringFormatter;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -92,12 +93,6 @@ public class TimeBanCommand extends BaseCommand {
         }
 
         String target = args[0];
-
-        if (BanHandler.findBanEntry(target) != null) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("ban.alreadybanned", Map.of("target", target)));
-            return true;
-        }
-
         String reason = args.length < 3 ? BetterBanSystem.getInstance().getLanguageFile().getMessage("ban.defaults.banreason") : Arrays.stream(args).skip(2).collect(Collectors.joining(" "));
 
         if (sender.isPlayer() && (this.getPermManager().hasPermission(target, "betterbansystem.exempt.ban") || BetterBanSystem.getInstance().getConfig().getStringList("exempted-players").contains(target))) {
@@ -112,20 +107,26 @@ public class TimeBanCommand extends BaseCommand {
             return true;
         }
 
-        IBanEntry entry = BanHandler.addBan(sender, target, reason, parsed);
-
-        Object targetPlayer = BetterBanSystem.getPlayer(target);
-        if (targetPlayer != null) {
-            BetterBanSystem.kickPlayer(target, StringFormatter.formatBanMessage(entry));
-        }
-
-        Object offlinePlayer = BetterBanSystem.getOfflinePlayer(UUIDFetcher.getUUIDOrOfflineUUID(target));
-        if (offlinePlayer != null && !BetterBanSystem.hasPlayedBefore(offlinePlayer)) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.warning", Map.of("target", target)));
-        }
-
-
-        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("ban.timebanSuccess", Map.of("target", target, "date", new SimpleDateFormat("HH:mm:ss dd.MM.yyyy").format(parsed))));
+        BanService.findBanAsync(target)
+                .thenCompose(existing -> existing != null ? CompletableFuture.<IBanEntry>completedFuture(null) : BanService.banAsync(sender, target, reason, parsed))
+                .thenAcceptAsync(entry -> {
+                    if (entry == null) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("ban.alreadybanned", Map.of("target", target)));
+                        return;
+                    }
+                    Object targetPlayer = BetterBanSystem.getPlayer(target);
+                    if (targetPlayer != null) {
+                        BetterBanSystem.kickPlayer(targetPlayer, StringFormatter.formatBanMessage(entry));
+                    }
+
+                    Object offlinePlayer = BetterBanSystem.getOfflinePlayer(entry.uuid());
+                    if (offlinePlayer != null && !BetterBanSystem.hasPlayedBefore(offlinePlayer)) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.warning", Map.of("target", target)));
+                    }
+
+                    sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("ban.timebanSuccess", Map.of("target", target, "date", TimeFormats.format(TimeFormats.FEEDBACK, parsed))));
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
 
         return true;
     }
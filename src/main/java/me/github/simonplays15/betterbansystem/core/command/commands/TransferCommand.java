@@ -0,0 +1,161 @@
+package me.github.simonplays15.betterbansystem.core.command.commands;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
+import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
+import me.github.simonplays15.betterbansystem.core.database.IDatabase;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import me.github.simonplays15.betterbansystem.core.transfer.PunishmentTransfer;
+import me.github.simonplays15.betterbansystem.core.transfer.TransferProgress;
+import me.github.simonplays15.betterbansystem.core.transfer.TransferSpec;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * The TransferCommand class moves the punishments between the json files and the configured database.
+ * It can only be executed by the console, and only one transfer runs at a time.
+ */
+public class TransferCommand extends BaseCommand {
+
+    /**
+     * Indicates whether a transfer is running.
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Instantiates a new Transfer command.
+     */
+    public TransferCommand() {
+        super("bbstransfer");
+    }
+
+    /**
+     * Starts the import or export of the given punishment types on the I/O executor.
+     *
+     * @param sender the sender
+     * @param args   the direction, optionally followed by the punishment type and the chunk size
+     * @return false if the arguments are invalid, true otherwise
+     * @throws CommandException the command exception
+     */
+    @Override
+    public boolean runCommand(BaseCommandSender sender, String @NotNull [] args) throws CommandException {
+        if (!sender.isConsole()) {
+            sender.sendMessage("§cThis command can only be executed by the console.");
+            return true;
+        }
+        if (args.length == 0 || (!args[0].equalsIgnoreCase("import") && !args[0].equalsIgnoreCase("export")))
+            return false;
+        boolean importing = args[0].equalsIgnoreCase("import");
+
+        List<TransferSpec<?>> specs = new ArrayList<>();
+        if (args.length < 2 || args[1].equalsIgnoreCase("all")) {
+            specs.addAll(PunishmentTransfer.specs());
+        } else {
+            TransferSpec<?> spec = PunishmentTransfer.findSpec(args[1]);
+            if (spec == null) {
+                sender.sendMessage("§cUnknown punishment type " + args[1] + ".");
+                return true;
+            }
+            specs.add(spec);
+        }
+
+        int chunkSize = BetterBanSystem.getInstance().getConfig().getInt("storage.transfer.chunkSize", PunishmentTransfer.DEFAULT_CHUNK_SIZE);
+        if (args.length >= 3) {
+            try {
+                chunkSize = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§cInvalid chunk size " + args[2] + ".");
+                return true;
+            }
+        }
+        if (chunkSize < 1) {
+            sender.sendMessage("§cThe chunk size has to be at least 1.");
+            return true;
+        }
+
+        IDatabase database = BetterBanSystem.getInstance().getDatabase();
+        if (database == null) {
+            sender.sendMessage("§cNo database is configured.");
+            return true;
+        }
+        if (!this.running.compareAndSet(false, true)) {
+            sender.sendMessage("§cA transfer is already running.");
+            return true;
+        }
+
+        int size = chunkSize;
+        TaskScheduler.runAsync(() -> {
+            for (TransferSpec<?> spec : specs) {
+                if (!this.transfer(sender, database, spec, importing, size))
+                    break;
+            }
+        }).whenComplete((ignored, throwable) -> this.running.set(false))
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
+        return true;
+    }
+
+    /**
+     * Transfers a single punishment type and reports the progress to the sender.
+     *
+     * @param sender    the sender who executed the command
+     * @param database  the configured database
+     * @param spec      the punishment type to transfer
+     * @param importing true to import the json file into the database, false to export the database into the json file
+     * @param chunkSize the amount of records per chunk
+     * @param <T>       the type of the entries
+     * @return true if the remaining punishment types may be transferred, false if the transfer failed
+     */
+    private <T> boolean transfer(@NotNull BaseCommandSender sender, @NotNull IDatabase database, @NotNull TransferSpec<T> spec, boolean importing, int chunkSize) {
+        Consumer<TransferProgress> listener = progress -> TaskScheduler.runSync(() -> sender.sendMessage(
+                "§7" + (importing ? "Imported " : "Exported ") + progress.records() + " " + progress.name() + " in " + progress.elapsedMillis() + "ms (" + progress.recordsPerSecond() + "/s)"
+                        + (progress.finished() ? "." : "...")));
+        try {
+            if (importing)
+                PunishmentTransfer.importFromJson(database, spec, chunkSize, listener);
+            else
+                PunishmentTransfer.exportToJson(database, spec, chunkSize, listener);
+        } catch (IllegalStateException e) {
+            TaskScheduler.runSync(() -> sender.sendMessage("§cSkipping " + spec.name() + ": " + e.getMessage() + "."));
+        } catch (IOException e) {
+            GlobalLogger.getLogger().error("Failed to transfer", spec.name(), e);
+            TaskScheduler.runSync(() -> sender.sendMessage("§cFailed to " + (importing ? "import " : "export ") + spec.name() + ": " + e.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Completes the direction and the punishment type.
+     *
+     * @param sender The command sender initiating the tab completion.
+     * @param args   The arguments provided after the command.
+     * @return A list of tab completion options.
+     */
+    @Override
+    public List<String> onTabComplete(BaseCommandSender sender, String @NotNull [] args) {
+        List<String> options = new ArrayList<>();
+        if (!sender.isConsole())
+            return options;
+        if (args.length == 1) {
+            options.add("import");
+            options.add("export");
+        } else if (args.length == 2) {
+            options.add("all");
+            for (TransferSpec<?> spec : PunishmentTransfer.specs()) {
+                options.add(spec.name());
+            }
+        }
+        return options;
+    }
+}
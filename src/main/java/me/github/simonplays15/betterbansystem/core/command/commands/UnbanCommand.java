@@ -6,11 +6,13 @@ package me.github.simonplays15.betterbansystem.core.command.commands;
 
 import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
-import me.github.simonplays15.betterbansystem.core.ban.BanHandler;
+import me.github.simonplays15.betterbansystem.core.ban.BanService;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 
 /**
  * The type Unban command.
@@ -37,13 +39,16 @@ public class UnbanCommand extends BaseCommand {
             return false;
         }
         String target = args[0];
-        if (BanHandler.findBanEntry(target) == null) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.notBanned", Map.of("target", target)));
-            return true;
-        }
-
-        BanHandler.removeBan(target);
-        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unban.unbanmessage", Map.of("target", target)));
+        BanService.findBanAsync(target)
+                .thenCompose(existing -> existing == null ? CompletableFuture.completedFuture(false) : BanService.unbanAsync(target).thenApply(ignored -> true))
+                .thenAcceptAsync(removed -> {
+                    if (!removed) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.notBanned", Map.of("target", target)));
+                        return;
+                    }
+                    sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unban.unbanmessage", Map.of("target", target)));
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
 
         return true;
     }
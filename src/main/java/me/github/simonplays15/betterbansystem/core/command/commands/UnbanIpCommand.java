@@ -6,13 +6,15 @@ package me.github.simonplays15.betterbansystem.core.command.commands;
 
 import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
-import me.github.simonplays15.betterbansystem.core.ban.BanHandler;
+import me.github.simonplays15.betterbansystem.core.ban.BanService;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 
 /**
  * The type Unban ip command.
@@ -48,13 +50,16 @@ public class UnbanIpCommand extends BaseCommand {
             return true;
         }
 
-        if (BanHandler.findIPBanEntry(target) == null) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.notBanned", Map.of("target", target)));
-            return true;
-        }
-
-        BanHandler.removeIpBan(target);
-        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unban.unbanmessage", Map.of("target", target)));
+        BanService.findIpBanAsync(target)
+                .thenCompose(existing -> existing == null ? CompletableFuture.completedFuture(false) : BanService.unbanIpAsync(target).thenApply(ignored -> true))
+                .thenAcceptAsync(removed -> {
+                    if (!removed) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("defaults.notBanned", Map.of("target", target)));
+                        return;
+                    }
+                    sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unban.unbanmessage", Map.of("target", target)));
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
 
         return true;
     }
@@ -7,11 +7,13 @@ package me.github.simonplays15.betterbansystem.core.command.commands;
 import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
-import me.github.simonplays15.betterbansystem.core.mute.MuteHandler;
+import me.github.simonplays15.betterbansystem.core.mute.MuteService;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The type Unmute command.
@@ -38,18 +40,20 @@ public class UnmuteCommand extends BaseCommand {
             return false;
         }
         String target = args[0];
-        if (MuteHandler.findMuteEntry(target) == null) {
-            sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unmute.notmuted", Map.of("target", target)));
-            return true;
-        }
-
-        Object targetPlayer = BetterBanSystem.getPlayer(target);
-        if (targetPlayer != null) {
-            BetterBanSystem.sendMessage(targetPlayer, BetterBanSystem.getInstance().getLanguageFile().getMessage("unmute.playerMessage"));
-        }
-
-        MuteHandler.removeMute(target);
-        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unmute.success", Map.of("target", target)));
+        MuteService.findMuteAsync(target)
+                .thenCompose(existing -> existing == null ? CompletableFuture.completedFuture(false) : MuteService.unmuteAsync(target).thenApply(ignored -> true))
+                .thenAcceptAsync(removed -> {
+                    if (!removed) {
+                        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unmute.notmuted", Map.of("target", target)));
+                        return;
+                    }
+                    Object targetPlayer = BetterBanSystem.getPlayer(target);
+                    if (targetPlayer != null) {
+                        BetterBanSystem.sendMessage(targetPlayer, BetterBanSystem.getInstance().getLanguageFile().getMessage("unmute.playerMessage"));
+                    }
+                    sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("unmute.success", Map.of("target", target)));
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
 
         return true;
     }
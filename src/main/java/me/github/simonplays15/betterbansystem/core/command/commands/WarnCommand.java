@@ -8,7 +8,8 @@ import me.github.simonplays15.betterbansystem.api.exceptions.CommandException;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.command.BaseCommand;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
-import me.github.simonplays15.betterbansystem.core.warn.WarnHandler;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import me.github.simonplays15.betterbansystem.core.warn.WarnService;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
@@ -50,13 +51,15 @@ public class WarnCommand extends BaseCommand {
 
         String reason = args.length == 1 ? "No reason provided" : Arrays.stream(args).skip(1).collect(Collectors.joining(" "));
 
-        WarnHandler.addWarn(sender, target, reason);
+        WarnService.warnAsync(sender, target, reason)
+                .thenRunAsync(() -> {
+                    Object targetPlayer = BetterBanSystem.getPlayer(target);
+                    if (targetPlayer != null)
+                        BetterBanSystem.sendMessage(targetPlayer, BetterBanSystem.getInstance().getLanguageFile().getMessage("warn.playerMessage", Map.of("reason", reason)));
 
-        Object targetPlayer = BetterBanSystem.getPlayer(target);
-        if (targetPlayer != null)
-            BetterBanSystem.sendMessage(targetPlayer, BetterBanSystem.getInstance().getLanguageFile().getMessage("warn.playerMessage", Map.of("reason", reason)));
-
-        sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("warn.success", Map.of("target", target)));
+                    sender.sendMessage(BetterBanSystem.getInstance().getLanguageFile().getMessage("warn.success", Map.of("target", target)));
+                }, TaskScheduler.sync())
+                .exceptionally(throwable -> this.handleAsyncFailure(sender, throwable));
 
         return true;
     }
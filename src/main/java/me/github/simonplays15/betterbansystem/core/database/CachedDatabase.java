@@ -0,0 +1,561 @@
+package me.github.simonplays15.betterbansystem.core.database;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The CachedDatabase class is a caching decorator around any {@link IDatabase} implementation.
+ * <p>
+ * Read results are stored in a concurrent, size bounded cache with LRU and time based eviction.
+ * Every table has a generation counter which is part of each cache key. A write to a table only increments its counter,
+ * so all cached results of the table become unreachable in O(1) and age out of the cache on their own.
+ * Raw queries of {@link #executeQuery(String)} are never cached, because the tables they read or write are unknown.
+ * <p>
+ * All returned results are immutable, so callers can not corrupt the cached rows.
+ */
+public class CachedDatabase implements IDatabase {
+
+    /**
+     * The database all calls are delegated to.
+     */
+    private final IDatabase delegate;
+    /**
+     * The cached read results, keyed by the query and the generation of the queried table.
+     */
+    private final Cache<CacheKey, Optional<Object>> cache;
+    /**
+     * The generation counter of every table. A write to a table increments its counter.
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new caching decorator.
+     *
+     * @param delegate            the database all calls are delegated to
+     * @param maximumSize         the maximum amount of cached results
+     * @param expireAfterSeconds  the time in seconds after which a cached result expires
+     */
+    public CachedDatabase(@NotNull IDatabase delegate, long maximumSize, long expireAfterSeconds) {
+        this.delegate = delegate;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(1, maximumSize))
+                .expireAfterWrite(Math.max(1, expireAfterSeconds), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the database all calls are delegated to.
+     *
+     * @return the underlying database
+     */
+    @Contract(pure = true)
+    public @NotNull IDatabase getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * Creates the database and associated tables.
+     */
+    @Override
+    public void createDatabaseAndTables() {
+        this.delegate.createDatabaseAndTables();
+        this.invalidateAll();
+    }
+
+    /**
+     * Establishes a connection to the database.
+     *
+     * @param connectionstring A string containing the connection details for the database.
+     * @param username         The username for the database connection.
+     * @param password         The password for the database connection.
+     */
+    @Override
+    public void connect(String connectionstring, String username, String password) {
+        this.delegate.connect(connectionstring, username, password);
+    }
+
+    /**
+     * Disconnects from the database and clears the cache.
+     */
+    @Override
+    public void disconnect() {
+        this.delegate.disconnect();
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Inserts data into the specified table and invalidates the cached results of the table.
+     *
+     * @param tableName the name of the table
+     * @param data      a map containing the column names and their corresponding values to be inserted
+     */
+    @Override
+    public void insert(String tableName, Map<String, Object> data) {
+        this.delegate.insert(tableName, data);
+        this.invalidate(tableName);
+    }
+
+    /**
+     * Inserts multiple rows into the specified table and invalidates the cached results of the table once.
+     *
+     * @param tableName the name of the table
+     * @param rows      the rows to insert
+     * @return the amount of inserted rows
+     */
+    @Override
+    public int insertBatch(String tableName, List<Map<String, Object>> rows) {
+        int inserted = this.delegate.insertBatch(tableName, rows);
+        this.invalidate(tableName);
+        return inserted;
+    }
+
+    /**
+     * Inserts or replaces multiple rows in the specified table and invalidates the cached results of the table once.
+     *
+     * @param tableName  the name of the table
+     * @param primaryKey the name of the primary key column
+     * @param rows       the rows to insert or replace
+     * @return the amount of affected rows
+     */
+    @Override
+    public int upsert(String tableName, String primaryKey, List<Map<String, Object>> rows) {
+        int affected = this.delegate.upsert(tableName, primaryKey, rows);
+        this.invalidate(tableName);
+        return affected;
+    }
+
+    /**
+     * Updates a record in the specified table and invalidates the cached results of the table.
+     *
+     * @param tableName       the name of the table to update
+     * @param primaryKey      the name of the primary key column
+     * @param primaryKeyValue the value of the primary key for the record to update
+     * @param newData         a map of column names to new values for the record
+     */
+    @Override
+    public void update(String tableName, String primaryKey, Object primaryKeyValue, Map<String, Object> newData) {
+        this.delegate.update(tableName, primaryKey, primaryKeyValue, newData);
+        this.invalidate(tableName);
+    }
+
+    /**
+     * Deletes a record from the specified table and invalidates the cached results of the table.
+     *
+     * @param tableName       the name of the table from which to delete the record
+     * @param primaryKey      the name of the primary key column in the table
+     * @param primaryKeyValue the value of the primary key to identify the record to be deleted
+     */
+    @Override
+    public void delete(String tableName, String primaryKey, Object primaryKeyValue) {
+        this.delegate.delete(tableName, primaryKey, primaryKeyValue);
+        this.invalidate(tableName);
+    }
+
+    /**
+     * Deletes multiple records from the specified table and invalidates the cached results of the table once.
+     *
+     * @param tableName        the name of the table from which to delete the records
+     * @param primaryKey       the name of the primary key column in the table
+     * @param primaryKeyValues the values of the primary key to identify the records to be deleted
+     * @return the amount of deleted records
+     */
+    @Override
+    public int deleteBatch(String tableName, String primaryKey, Collection<?> primaryKeyValues) {
+        int deleted = this.delegate.deleteBatch(tableName, primaryKey, primaryKeyValues);
+        this.invalidate(tableName);
+        return deleted;
+    }
+
+    /**
+     * Deletes all records whose column value is less than the given value and invalidates the cached results of the table.
+     *
+     * @param tableName the name of the table from which to delete the records
+     * @param column    the name of the column to compare
+     * @param value     the exclusive upper bound of the column value
+     */
+    @Override
+    public void deleteLessThan(String tableName, String column, Object value) {
+        this.delegate.deleteLessThan(tableName, column, value);
+        this.invalidate(tableName);
+    }
+
+    /**
+     * Deletes all records without a record in the child table and invalidates the cached results of the table.
+     *
+     * @param tableName  the name of the table from which to delete the records
+     * @param childTable the name of the child table
+     * @param joinColumn the name of the column both tables are joined on
+     * @return the amount of deleted records
+     */
+    @Override
+    public int deleteOrphans(String tableName, String childTable, String joinColumn) {
+        int deleted = this.delegate.deleteOrphans(tableName, childTable, joinColumn);
+        this.invalidate(tableName);
+        return deleted;
+    }
+
+    /**
+     * Retrieves the expired records of the specified table. The result depends on the time and is never cached.
+     *
+     * @param tableName the name of the table to select from
+     * @param now       the time in milliseconds since the epoch
+     * @param limit     the maximum amount of records
+     * @return the expired records
+     */
+    @Override
+    public List<Map<String, Object>> findExpired(String tableName, long now, int limit) {
+        return this.delegate.findExpired(tableName, now, limit);
+    }
+
+    /**
+     * Executes a SELECT query with a condition, using the cached result if available.
+     *
+     * @param tableName the name of the table to select from
+     * @param condition the condition to apply in the WHERE clause
+     * @return an immutable list of immutable rows
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> select(String tableName, String condition) {
+        return (List<Map<String, Object>>) this.cached(this.tableKey(tableName, "select", condition), () -> immutableRows(this.delegate.select(tableName, condition)));
+    }
+
+    /**
+     * Executes a parameterized SELECT query, using the cached result if available.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @return an immutable list of immutable rows
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> select(String tableName, Map<String, Object> equals) {
+        return (List<Map<String, Object>>) this.cached(this.tableKey(tableName, "selectEquals", keyArguments(equals)), () -> immutableRows(this.delegate.select(tableName, equals)));
+    }
+
+    /**
+     * Selects the rows whose column equals one of the given values from the underlying database.
+     * The result is not cached, as the method is used to read the rows of a table chunk by chunk, every chunk only once.
+     *
+     * @param tableName the name of the table to select from
+     * @param column    the name of the column to compare
+     * @param values    the values the column may be equal to
+     * @return the selected rows
+     */
+    @Override
+    public List<Map<String, Object>> selectIn(String tableName, String column, Collection<?> values) {
+        return this.delegate.selectIn(tableName, column, values);
+    }
+
+    /**
+     * Returns the first row matching the given values, using the cached result if available.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @return an immutable row, or null if no row matches
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable Map<String, Object> selectOne(String tableName, Map<String, Object> equals) {
+        return (Map<String, Object>) this.cached(this.tableKey(tableName, "selectOne", keyArguments(equals)), () -> {
+            Map<String, Object> row = this.delegate.selectOne(tableName, equals);
+            return row == null ? null : Collections.unmodifiableMap(new HashMap<>(row));
+        });
+    }
+
+    /**
+     * Retrieves all records from the specified table, using the cached result if available.
+     *
+     * @param tableName the name of the table from which to retrieve the records
+     * @return an immutable list of immutable rows
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> selectAll(String tableName) {
+        return (List<Map<String, Object>>) this.cached(this.tableKey(tableName, "selectAll", null), () -> immutableRows(this.delegate.selectAll(tableName)));
+    }
+
+    /**
+     * Reads all records of the specified table one by one. The records are streamed from the database and never cached.
+     *
+     * @param tableName the name of the table to read
+     * @param orderBy   the name of the column to order the records by
+     * @param fetchSize the amount of records fetched from the database at once
+     * @param consumer  the consumer receiving every record
+     * @return the amount of read records
+     */
+    @Override
+    public long scan(String tableName, String orderBy, int fetchSize, Consumer<Map<String, Object>> consumer) {
+        return this.delegate.scan(tableName, orderBy, fetchSize, consumer);
+    }
+
+    /**
+     * Selects the rows of a table together with their child rows, using the cached result if available.
+     * The cached result depends on both tables, so the generation of the child table is part of the key.
+     *
+     * @param tableName  the name of the table to select from
+     * @param childTable the name of the child table to join
+     * @param joinColumn the name of the column both tables are joined on
+     * @param equals     the column names of the parent table and the values they have to be equal to
+     * @return an immutable list of immutable rows, each containing an immutable list of its child rows
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> selectWithChildren(String tableName, String childTable, String joinColumn, Map<String, Object> equals) {
+        List<Object> arguments = List.of(childTable, this.generation(childTable).get(), joinColumn, keyArguments(equals));
+        return (List<Map<String, Object>>) this.cached(this.tableKey(tableName, "selectWithChildren", arguments), () -> {
+            List<Map<String, Object>> rows = this.delegate.selectWithChildren(tableName, childTable, joinColumn, equals);
+            List<Map<String, Object>> result = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> copy = new HashMap<>(row);
+                copy.put(childTable, immutableRows((List<Map<String, Object>>) row.get(childTable)));
+                result.add(Collections.unmodifiableMap(copy));
+            }
+            return Collections.unmodifiableList(result);
+        });
+    }
+
+    /**
+     * Executes a query on the underlying database. The result is never cached, because the tables the query reads are unknown.
+     * The query may also change any table, e.g. a MongoDB command, so all cached results are invalidated.
+     *
+     * @param queryString the query to be executed
+     * @return the rows returned by the query
+     */
+    @Override
+    public List<Map<String, Object>> executeQuery(String queryString) {
+        List<Map<String, Object>> rows = this.delegate.executeQuery(queryString);
+        this.invalidateAll();
+        return rows;
+    }
+
+    /**
+     * Executes a query which may change any table and invalidates all cached results.
+     *
+     * @param queryString the query string to execute
+     */
+    @Override
+    public void query(String queryString) {
+        this.delegate.query(queryString);
+        this.invalidateAll();
+    }
+
+    /**
+     * Creates an index on a specified field in a collection.
+     *
+     * @param collectionName The name of the collection on which to create the index.
+     * @param fieldName      The name of the field on which to create the index.
+     * @param unique         True if the index should be unique, false otherwise.
+     */
+    @Override
+    public void createIndex(String collectionName, String fieldName, boolean unique) {
+        this.delegate.createIndex(collectionName, fieldName, unique);
+    }
+
+    /**
+     * Returns whether the underlying database supports transactions.
+     *
+     * @return true if transactions are supported, false otherwise
+     */
+    @Override
+    public boolean supportsTransactions() {
+        return this.delegate.supportsTransactions();
+    }
+
+    /**
+     * Starts a new transaction.
+     */
+    @Override
+    public void startTransaction() {
+        this.delegate.startTransaction();
+    }
+
+    /**
+     * Commits the current transaction.
+     */
+    @Override
+    public void commitTransaction() {
+        this.delegate.commitTransaction();
+    }
+
+    /**
+     * Rolls back the current transaction. The rolled back writes already invalidated their tables,
+     * but results read inside the transaction may have been cached, so all cached results are invalidated.
+     */
+    @Override
+    public void rollbackTransaction() {
+        this.delegate.rollbackTransaction();
+        this.invalidateAll();
+    }
+
+    /**
+     * Returns the amount of reads answered from the cache.
+     *
+     * @return the amount of cache hits
+     */
+    public long getHitCount() {
+        return this.cache.stats().hitCount();
+    }
+
+    /**
+     * Returns the amount of reads which had to query the database.
+     *
+     * @return the amount of cache misses
+     */
+    public long getMissCount() {
+        return this.cache.stats().missCount();
+    }
+
+    /**
+     * Returns the amount of results which were removed from the cache because of its size or time limit.
+     *
+     * @return the amount of evictions
+     */
+    public long getEvictionCount() {
+        return this.cache.stats().evictionCount();
+    }
+
+    /**
+     * Returns the statistics of the cache.
+     *
+     * @return the cache statistics
+     */
+    public @NotNull CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    /**
+     * Returns the approximate amount of cached results.
+     *
+     * @return the size of the cache
+     */
+    public long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Invalidates all cached results of the given table by incrementing its generation.
+     *
+     * @param tableName the name of the written table
+     */
+    protected void invalidate(@NotNull String tableName) {
+        this.generation(tableName).incrementAndGet();
+    }
+
+    /**
+     * Invalidates all cached results of all tables.
+     */
+    protected void invalidateAll() {
+        for (AtomicLong generation : this.generations.values()) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the cached result for the given key or loads and caches it.
+     *
+     * @param key    the cache key
+     * @param loader the function loading the result from the database
+     * @return the cached or loaded result, may be null
+     */
+    private @Nullable Object cached(@NotNull CacheKey key, @NotNull Loader loader) {
+        Optional<Object> cached = this.cache.getIfPresent(key);
+        if (cached != null)
+            return cached.orElse(null);
+        Object result = loader.load();
+        this.cache.put(key, Optional.ofNullable(result));
+        return result;
+    }
+
+    /**
+     * Creates the cache key of a query on the given table, using the current generation of the table.
+     *
+     * @param tableName the name of the queried table
+     * @param kind      the kind of query
+     * @param arguments the arguments of the query
+     * @return the cache key
+     */
+    @Contract("_, _, _ -> new")
+    private @NotNull CacheKey tableKey(@NotNull String tableName, @NotNull String kind, @Nullable Object arguments) {
+        return new CacheKey(tableName, this.generation(tableName).get(), kind, arguments);
+    }
+
+    /**
+     * Returns the generation counter of the given table, creating it if necessary.
+     *
+     * @param tableName the name of the table
+     * @return the generation counter
+     */
+    private @NotNull AtomicLong generation(@NotNull String tableName) {
+        return this.generations.computeIfAbsent(tableName.toLowerCase(Locale.ROOT), key -> new AtomicLong());
+    }
+
+    /**
+     * Copies the compared values of a query into the arguments of a cache key.
+     * Byte arrays, like the values of IP address columns, are wrapped so they are compared by their content.
+     *
+     * @param equals the columns and the values to compare
+     * @return a copy usable as arguments of a cache key
+     */
+    private static @NotNull Map<String, Object> keyArguments(@NotNull Map<String, Object> equals) {
+        Map<String, Object> arguments = new HashMap<>(equals);
+        arguments.replaceAll((column, value) -> value instanceof byte[] bytes ? ByteBuffer.wrap(bytes.clone()) : value);
+        return arguments;
+    }
+
+    /**
+     * Converts the given rows into an immutable list of immutable rows.
+     *
+     * @param rows the rows to convert
+     * @return the immutable rows
+     */
+    private static @NotNull List<Map<String, Object>> immutableRows(@Nullable List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty())
+            return List.of();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            result.add(Collections.unmodifiableMap(new HashMap<>(row)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Loads a result from the database.
+     */
+    @FunctionalInterface
+    private interface Loader {
+        /**
+         * Loads the result.
+         *
+         * @return the result, may be null
+         */
+        @Nullable Object load();
+    }
+
+    /**
+     * The key of a cached result.
+     *
+     * @param tableName  the queried table, or * for queries on any table
+     * @param generation the generation of the table when the query was executed
+     * @param kind       the kind of query
+     * @param arguments  the arguments of the query
+     */
+    private record CacheKey(String tableName, long generation, String kind, Object arguments) {
+    }
+}
@@ -0,0 +1,142 @@
+package me.github.simonplays15.betterbansystem.core.database;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import com.google.common.net.InetAddresses;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * The ColumnValues class converts the values of the entries from and to the typed database columns.
+ * <p>
+ * Dates are stored as milliseconds since the epoch in BIGINT columns, a permanent expiry is stored as NULL,
+ * and IP addresses are stored as 16 bytes, with IPv4 addresses mapped into the IPv6 address space.
+ * Values of the old schema, which stored dates as formatted text and IP addresses as text, are still understood when read.
+ */
+public final class ColumnValues {
+
+    /**
+     * The expiry value of entries which never expire.
+     */
+    public static final String FOREVER = "forever";
+    /**
+     * The first 12 bytes of an IPv4-mapped IPv6 address.
+     */
+    private static final byte[] IPV4_MAPPED_PREFIX = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xff, (byte) 0xff};
+
+    /**
+     * The ColumnValues class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private ColumnValues() {
+    }
+
+    /**
+     * Converts a date into the value of a timestamp column.
+     *
+     * @param date the date
+     * @return the milliseconds since the epoch, or null if the date is null
+     */
+    @Contract(value = "null -> null; !null -> !null", pure = true)
+    public static @Nullable Long toMillis(@Nullable Date date) {
+        return date == null ? null : date.getTime();
+    }
+
+    /**
+     * Converts the value of a timestamp column into a date.
+     *
+     * @param value the value of the column, either milliseconds since the epoch or text of the old schema
+     * @return the date, or null if the value is null or can not be parsed
+     */
+    public static @Nullable Date toDate(@Nullable Object value) {
+        if (value instanceof Number number)
+            return new Date(number.longValue());
+        if (value instanceof String text) {
+            Long millis = parseLegacyDate(text);
+            return millis == null ? null : new Date(millis);
+        }
+        return null;
+    }
+
+    /**
+     * Converts the expiry value of an entry into the value of the expires column.
+     *
+     * @param expires the expiry value, either a date or text
+     * @return the milliseconds since the epoch, or null if the entry never expires
+     */
+    public static @Nullable Long expiresToColumn(@Nullable Object expires) {
+        if (expires instanceof Date date)
+            return date.getTime();
+        if (expires instanceof Number number)
+            return number.longValue();
+        if (expires instanceof String text)
+            return parseLegacyDate(text);
+        return null;
+    }
+
+    /**
+     * Converts the value of the expires column into the expiry value of an entry.
+     *
+     * @param value the value of the column
+     * @return the date the entry expires at, or {@link #FOREVER} if the entry never expires
+     */
+    public static @NotNull Object expiresFromColumn(@Nullable Object value) {
+        if (value instanceof String text && text.equalsIgnoreCase(FOREVER))
+            return FOREVER;
+        Date date = toDate(value);
+        return date == null ? FOREVER : date;
+    }
+
+    /**
+     * Parses a date in the text format of the old schema, which is the {@link TimeFormats#STORAGE} format.
+     *
+     * @param text the formatted date
+     * @return the milliseconds since the epoch, or null if the text is not a formatted date
+     */
+    public static @Nullable Long parseLegacyDate(@NotNull String text) {
+        return TimeFormats.parseStorageMillis(text);
+    }
+
+    /**
+     * Converts an IP address into the value of an IP address column.
+     *
+     * @param ip the textual IPv4 or IPv6 address
+     * @return the 16 bytes of the address
+     * @throws IllegalArgumentException if the text is not an IP address
+     */
+    public static byte @NotNull [] ipToColumn(@NotNull String ip) {
+        byte[] address = InetAddresses.forString(ip).getAddress();
+        if (address.length == 16)
+            return address;
+        byte[] mapped = Arrays.copyOf(IPV4_MAPPED_PREFIX, 16);
+        System.arraycopy(address, 0, mapped, 12, 4);
+        return mapped;
+    }
+
+    /**
+     * Converts the value of an IP address column into the textual address.
+     *
+     * @param value the value of the column, either the 16 bytes of the address or text of the old schema
+     * @return the textual address, IPv4-mapped addresses are returned as IPv4 address
+     */
+    public static @Nullable String ipFromColumn(@Nullable Object value) {
+        if (!(value instanceof byte[] bytes))
+            return value == null ? null : value.toString();
+        try {
+            if (bytes.length == 16 && Arrays.equals(bytes, 0, 12, IPV4_MAPPED_PREFIX, 0, 12))
+                return InetAddress.getByAddress(Arrays.copyOfRange(bytes, 12, 16)).getHostAddress();
+            return InetAddresses.toAddrString(InetAddress.getByAddress(bytes));
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid IP address of length " + bytes.length, e);
+        }
+    }
+}
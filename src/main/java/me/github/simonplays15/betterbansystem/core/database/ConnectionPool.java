@@ -0,0 +1,729 @@
+package me.github.simonplays15.betterbansystem.core.database;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConnectionPool class is a bounded pool of JDBC connections.
+ * <p>
+ * Connections are leased with {@link #getConnection()} and returned to the pool by closing the leased connection,
+ * so the usual try-with-resources blocks can be used. Connections which have been idle for longer than the
+ * validation interval are validated before they are handed out, so busy connections skip the extra round trip.
+ * Connections which have not been used for longer than the idle timeout are closed in the background.
+ * <p>
+ * Every connection keeps a bounded LRU cache of its prepared statements, so each distinct SQL statement is only
+ * prepared once per connection. Closing a cached statement only clears its parameters.
+ * <p>
+ * A transaction started with {@link #beginTransaction()} pins one connection to the calling thread until
+ * {@link #commitTransaction()} or {@link #rollbackTransaction()} is called. All leases of that thread use the pinned connection.
+ */
+public class ConnectionPool {
+
+    /**
+     * The JDBC url used to open new connections.
+     */
+    private final String url;
+    /**
+     * The username used to open new connections, may be null.
+     */
+    private final String username;
+    /**
+     * The password used to open new connections, may be null.
+     */
+    private final String password;
+    /**
+     * An optional SQL statement executed on every newly opened connection.
+     */
+    private final String connectionInitSql;
+    /**
+     * The settings of this pool.
+     */
+    private final ConnectionPoolSettings settings;
+    /**
+     * The idle connections, the most recently used connection first.
+     */
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    /**
+     * Limits the amount of connections which are leased at the same time.
+     */
+    private final Semaphore permits;
+    /**
+     * The amount of currently leased connections.
+     */
+    private final AtomicInteger active = new AtomicInteger();
+    /**
+     * The amount of currently open connections, leased or idle.
+     */
+    private final AtomicInteger total = new AtomicInteger();
+    /**
+     * The amount of leases handed out so far.
+     */
+    private final LongAdder borrowCount = new LongAdder();
+    /**
+     * The summed up time in nanoseconds callers waited for a connection.
+     */
+    private final LongAdder waitTimeNanos = new LongAdder();
+    /**
+     * The longest time in nanoseconds a caller waited for a connection.
+     */
+    private final AtomicLong maxWaitTimeNanos = new AtomicLong();
+    /**
+     * The amount of prepared statements served from the statement caches.
+     */
+    private final LongAdder statementCacheHits = new LongAdder();
+    /**
+     * The amount of prepared statements which had to be prepared by the driver.
+     */
+    private final LongAdder statementCacheMisses = new LongAdder();
+    /**
+     * Holds the connection pinned to a thread by a running transaction.
+     */
+    private final ThreadLocal<PooledConnection> transaction = new ThreadLocal<>();
+    /**
+     * The scheduled idle eviction task of this pool.
+     */
+    private final ScheduledFuture<?> evictionTask;
+    /**
+     * Indicates whether the pool has been closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new connection pool and opens the configured amount of idle connections.
+     *
+     * @param url               the JDBC url
+     * @param username          the username, may be null
+     * @param password          the password, may be null
+     * @param connectionInitSql an SQL statement executed on every new connection, may be null
+     * @param settings          the settings of the pool
+     * @throws SQLException if one of the idle connections can not be opened. The connections opened before are closed again.
+     */
+    public ConnectionPool(@NotNull String url, @Nullable String username, @Nullable String password, @Nullable String connectionInitSql, @NotNull ConnectionPoolSettings settings) throws SQLException {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.connectionInitSql = connectionInitSql;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maximumPoolSize(), true);
+        try {
+            this.idle.offerFirst(this.open());
+            for (int i = 1; i < settings.minimumIdle(); i++) {
+                this.idle.offerFirst(this.open());
+            }
+        } catch (SQLException | RuntimeException ex) {
+            PooledConnection pooled;
+            while ((pooled = this.idle.pollFirst()) != null) {
+                this.discard(pooled);
+            }
+            throw ex;
+        }
+        long period = Math.max(1000, settings.idleTimeout() / 4);
+        this.evictionTask = TaskScheduler.scheduleAsync(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leases a connection from the pool. Closing the returned connection gives it back to the pool.
+     * If the calling thread runs a transaction, the pinned connection is returned and closing it has no effect.
+     *
+     * @return a valid connection
+     * @throws SQLException if the pool is closed, no connection got free in time or a new connection can not be opened
+     */
+    public @NotNull Connection getConnection() throws SQLException {
+        PooledConnection pinned = this.transaction.get();
+        if (pinned != null)
+            return this.lease(pinned, true);
+        return this.lease(this.borrow(), false);
+    }
+
+    /**
+     * Starts a transaction by pinning a connection with disabled auto-commit to the calling thread.
+     *
+     * @throws SQLException if no connection could be leased or a transaction is already running on this thread
+     */
+    public void beginTransaction() throws SQLException {
+        if (this.transaction.get() != null)
+            throw new SQLException("A transaction is already running on this thread");
+        PooledConnection pooled = this.borrow();
+        try {
+            pooled.connection.setAutoCommit(false);
+        } catch (SQLException ex) {
+            this.release(pooled);
+            throw ex;
+        }
+        this.transaction.set(pooled);
+    }
+
+    /**
+     * Commits the transaction of the calling thread and returns the pinned connection to the pool.
+     *
+     * @throws SQLException if no transaction is running or the commit fails
+     */
+    public void commitTransaction() throws SQLException {
+        PooledConnection pooled = this.endTransaction();
+        try {
+            pooled.connection.commit();
+        } finally {
+            this.release(pooled);
+        }
+    }
+
+    /**
+     * Rolls back the transaction of the calling thread and returns the pinned connection to the pool.
+     *
+     * @throws SQLException if no transaction is running or the rollback fails
+     */
+    public void rollbackTransaction() throws SQLException {
+        PooledConnection pooled = this.endTransaction();
+        try {
+            pooled.connection.rollback();
+        } finally {
+            this.release(pooled);
+        }
+    }
+
+    /**
+     * Closes the pool and all idle connections. Leased connections are closed as soon as they are returned.
+     */
+    public void close() {
+        this.closed = true;
+        this.evictionTask.cancel(false);
+        PooledConnection pooled;
+        while ((pooled = this.idle.pollFirst()) != null) {
+            this.discard(pooled);
+        }
+    }
+
+    /**
+     * Returns the amount of currently leased connections.
+     *
+     * @return the amount of active connections
+     */
+    public int getActiveConnections() {
+        return this.active.get();
+    }
+
+    /**
+     * Returns the amount of open connections which are currently not leased.
+     *
+     * @return the amount of idle connections
+     */
+    public int getIdleConnections() {
+        return this.idle.size();
+    }
+
+    /**
+     * Returns the amount of open connections, leased or idle.
+     *
+     * @return the amount of open connections
+     */
+    public int getTotalConnections() {
+        return this.total.get();
+    }
+
+    /**
+     * Returns the amount of callers currently waiting for a free connection.
+     *
+     * @return the amount of waiting callers
+     */
+    public int getWaitingThreads() {
+        return this.permits.getQueueLength();
+    }
+
+    /**
+     * Returns the average time in milliseconds callers waited for a connection.
+     *
+     * @return the average wait time in milliseconds
+     */
+    public double getAverageWaitTimeMillis() {
+        long count = this.borrowCount.sum();
+        return count == 0 ? 0 : this.waitTimeNanos.sum() / (double) count / 1_000_000D;
+    }
+
+    /**
+     * Returns the longest time in milliseconds a caller waited for a connection.
+     *
+     * @return the maximum wait time in milliseconds
+     */
+    public double getMaxWaitTimeMillis() {
+        return this.maxWaitTimeNanos.get() / 1_000_000D;
+    }
+
+    /**
+     * Returns the amount of prepared statements served from the statement caches.
+     *
+     * @return the amount of statement cache hits
+     */
+    public long getStatementCacheHits() {
+        return this.statementCacheHits.sum();
+    }
+
+    /**
+     * Returns the amount of prepared statements which had to be prepared by the driver.
+     *
+     * @return the amount of statement cache misses
+     */
+    public long getStatementCacheMisses() {
+        return this.statementCacheMisses.sum();
+    }
+
+    /**
+     * Returns the settings of this pool.
+     *
+     * @return the pool settings
+     */
+    public @NotNull ConnectionPoolSettings getSettings() {
+        return this.settings;
+    }
+
+    /**
+     * Takes a connection out of the pool, opening a new one if no idle connection is available.
+     * Connections which have been idle for longer than the validation interval are validated first.
+     *
+     * @return the borrowed connection
+     * @throws SQLException if the pool is closed, no connection got free in time or a new connection can not be opened
+     */
+    private @NotNull PooledConnection borrow() throws SQLException {
+        if (this.closed)
+            throw new SQLException("The connection pool is closed");
+        long start = System.nanoTime();
+        try {
+            if (!this.permits.tryAcquire(this.settings.connectionTimeout(), TimeUnit.MILLISECONDS))
+                throw new SQLException("Timed out after " + this.settings.connectionTimeout() + "ms waiting for a database connection");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        this.waitTimeNanos.add(waited);
+        this.maxWaitTimeNanos.accumulateAndGet(waited, Math::max);
+        this.borrowCount.increment();
+        try {
+            PooledConnection pooled;
+            long validationDeadline = System.currentTimeMillis() - this.settings.validationInterval();
+            while ((pooled = this.idle.pollFirst()) != null) {
+                if (pooled.lastUsed > validationDeadline || this.isValid(pooled)) {
+                    this.active.incrementAndGet();
+                    return pooled;
+                }
+                this.discard(pooled);
+            }
+            pooled = this.open();
+            this.active.incrementAndGet();
+            return pooled;
+        } catch (SQLException | RuntimeException ex) {
+            this.permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool. Broken connections and connections returned after the pool was closed are closed.
+     *
+     * @param pooled the borrowed connection
+     */
+    private void release(@NotNull PooledConnection pooled) {
+        this.active.decrementAndGet();
+        try {
+            if (this.closed || pooled.connection.isClosed()) {
+                this.discard(pooled);
+                return;
+            }
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            pooled.releaseStatements();
+            pooled.lastUsed = System.currentTimeMillis();
+            this.idle.offerFirst(pooled);
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to return a connection to the pool", ex);
+            this.discard(pooled);
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    /**
+     * Removes and returns the connection pinned to the calling thread and restores its auto-commit mode.
+     *
+     * @return the pinned connection
+     * @throws SQLException if no transaction is running on this thread
+     */
+    private @NotNull PooledConnection endTransaction() throws SQLException {
+        PooledConnection pooled = this.transaction.get();
+        if (pooled == null)
+            throw new SQLException("No transaction is running on this thread");
+        this.transaction.remove();
+        return pooled;
+    }
+
+    /**
+     * Opens a new physical connection and executes the init statement on it.
+     *
+     * @return the newly opened connection
+     * @throws SQLException if the connection can not be opened
+     */
+    private @NotNull PooledConnection open() throws SQLException {
+        Connection connection = this.username == null ? DriverManager.getConnection(this.url) : DriverManager.getConnection(this.url, this.username, this.password);
+        if (this.connectionInitSql != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(this.connectionInitSql);
+            }
+        }
+        this.total.incrementAndGet();
+        return new PooledConnection(connection, this.settings.statementCacheSize());
+    }
+
+    /**
+     * Checks whether the given connection is still usable.
+     *
+     * @param pooled the connection to check
+     * @return true if the connection answered within the validation timeout, false otherwise
+     */
+    private boolean isValid(@NotNull PooledConnection pooled) {
+        try {
+            return pooled.connection.isValid(this.settings.validationTimeout());
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the given connection without returning it to the pool.
+     *
+     * @param pooled the connection to close
+     */
+    private void discard(@NotNull PooledConnection pooled) {
+        this.total.decrementAndGet();
+        try {
+            pooled.connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Closes idle connections which have not been used for longer than the idle timeout, keeping the minimum amount of idle connections.
+     */
+    private void evictIdleConnections() {
+        long deadline = System.currentTimeMillis() - this.settings.idleTimeout();
+        Iterator<PooledConnection> iterator = this.idle.descendingIterator();
+        while (iterator.hasNext() && this.idle.size() > this.settings.minimumIdle()) {
+            PooledConnection pooled = iterator.next();
+            if (pooled.lastUsed < deadline && this.idle.removeLastOccurrence(pooled))
+                this.discard(pooled);
+        }
+    }
+
+    /**
+     * Wraps the given connection into a proxy which returns the connection to the pool when it is closed.
+     *
+     * @param pooled the connection to wrap
+     * @param pinned whether the connection is pinned by a transaction, closing it has no effect then
+     * @return the leased connection
+     */
+    private @NotNull Connection lease(@NotNull PooledConnection pooled, boolean pinned) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class}, new LeaseHandler(pooled, pinned));
+    }
+
+    /**
+     * Holds a physical connection together with its statement cache and the time it was last returned to the pool.
+     */
+    private static final class PooledConnection {
+        /**
+         * The physical connection.
+         */
+        private final Connection connection;
+        /**
+         * The prepared statements of this connection, keyed by their SQL text and ordered by their last use.
+         */
+        private final Map<String, CachedStatement> statements;
+        /**
+         * The time in milliseconds the connection was last returned to the pool.
+         */
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        /**
+         * Creates a new pooled connection.
+         *
+         * @param connection         the physical connection
+         * @param statementCacheSize the maximum amount of cached prepared statements
+         */
+        private PooledConnection(Connection connection, int statementCacheSize) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75F, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (this.size() <= statementCacheSize)
+                        return false;
+                    eldest.getValue().evict();
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Marks all cached statements as free. Called when the connection is returned to the pool.
+         */
+        private void releaseStatements() {
+            for (CachedStatement cached : this.statements.values()) {
+                cached.inUse = false;
+            }
+        }
+    }
+
+    /**
+     * Holds a cached prepared statement and whether it is currently handed out.
+     */
+    private static final class CachedStatement {
+        /**
+         * The prepared statement.
+         */
+        private final PreparedStatement statement;
+        /**
+         * Whether the statement is currently handed out to a caller.
+         */
+        private boolean inUse = false;
+        /**
+         * Whether the statement has been removed from the cache and has to be closed once it is free.
+         */
+        private boolean evicted = false;
+
+        /**
+         * Creates a new cached statement.
+         *
+         * @param statement the prepared statement
+         */
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        /**
+         * Removes the statement from the cache. The statement is closed now or, if it is in use, once it is given back.
+         */
+        private void evict() {
+            this.evicted = true;
+            if (!this.inUse)
+                this.closeQuietly();
+        }
+
+        /**
+         * Gives the statement back to the cache after it has been used.
+         */
+        private void giveBack() {
+            this.inUse = false;
+            if (this.evicted) {
+                this.closeQuietly();
+                return;
+            }
+            try {
+                this.statement.clearParameters();
+                this.statement.clearBatch();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        /**
+         * Closes the statement and ignores any error.
+         */
+        private void closeQuietly() {
+            try {
+                this.statement.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * The invocation handler of a cached prepared statement. Closing the statement gives it back to the cache.
+     */
+    private static final class CachedStatementHandler implements InvocationHandler {
+        /**
+         * The cached statement.
+         */
+        private final CachedStatement cached;
+        /**
+         * Whether this handle has already been closed.
+         */
+        private boolean closed = false;
+
+        /**
+         * Creates a new cached statement handler.
+         *
+         * @param cached the cached statement
+         */
+        private CachedStatementHandler(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        /**
+         * Handles a method call on the cached statement.
+         *
+         * @param proxy  the proxy instance
+         * @param method the called method
+         * @param args   the arguments of the call
+         * @return the result of the call
+         * @throws Throwable the exception thrown by the prepared statement
+         */
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!this.closed) {
+                        this.closed = true;
+                        this.cached.giveBack();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return this.closed || this.cached.statement.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    if (this.closed)
+                        throw new SQLException("The statement has already been closed");
+                    try {
+                        return method.invoke(this.cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The invocation handler of a leased connection. Forwards every call to the physical connection except close and isClosed.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        /**
+         * The leased connection.
+         */
+        private final PooledConnection pooled;
+        /**
+         * Whether the connection is pinned by a transaction.
+         */
+        private final boolean pinned;
+        /**
+         * Whether this lease has already been closed.
+         */
+        private boolean released = false;
+
+        /**
+         * Creates a new lease handler.
+         *
+         * @param pooled the leased connection
+         * @param pinned whether the connection is pinned by a transaction
+         */
+        private LeaseHandler(PooledConnection pooled, boolean pinned) {
+            this.pooled = pooled;
+            this.pinned = pinned;
+        }
+
+        /**
+         * Handles a method call on the leased connection.
+         *
+         * @param proxy  the proxy instance
+         * @param method the called method
+         * @param args   the arguments of the call
+         * @return the result of the call
+         * @throws Throwable the exception thrown by the physical connection
+         */
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!this.released) {
+                        this.released = true;
+                        if (!this.pinned)
+                            release(this.pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return this.released || this.pooled.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "prepareStatement" -> {
+                    if (!this.released && args.length == 1 && settings.statementCacheSize() > 0)
+                        return this.prepareCached((String) args[0]);
+                    return this.forward(method, args);
+                }
+                default -> {
+                    return this.forward(method, args);
+                }
+            }
+        }
+
+        /**
+         * Returns the cached prepared statement for the given SQL, preparing and caching it if necessary.
+         * If the cached statement is already handed out, an uncached statement is prepared.
+         *
+         * @param sql the SQL statement
+         * @return the prepared statement, closing it gives it back to the cache
+         * @throws SQLException if the statement can not be prepared
+         */
+        private @NotNull PreparedStatement prepareCached(@NotNull String sql) throws SQLException {
+            CachedStatement cached = this.pooled.statements.get(sql);
+            if (cached != null && cached.inUse) {
+                statementCacheMisses.increment();
+                return this.pooled.connection.prepareStatement(sql);
+            }
+            if (cached == null || cached.statement.isClosed()) {
+                statementCacheMisses.increment();
+                cached = new CachedStatement(this.pooled.connection.prepareStatement(sql));
+                this.pooled.statements.put(sql, cached);
+            } else {
+                statementCacheHits.increment();
+            }
+            cached.inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class[]{PreparedStatement.class}, new CachedStatementHandler(cached));
+        }
+
+        /**
+         * Forwards a method call to the physical connection.
+         *
+         * @param method the called method
+         * @param args   the arguments of the call
+         * @return the result of the call
+         * @throws Throwable the exception thrown by the physical connection
+         */
+        private Object forward(@NotNull Method method, Object[] args) throws Throwable {
+            if (this.released)
+                throw new SQLException("The connection has already been returned to the pool");
+            try {
+                return method.invoke(this.pooled.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
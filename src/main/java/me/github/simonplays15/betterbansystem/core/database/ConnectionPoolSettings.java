@@ -0,0 +1,81 @@
+package me.github.simonplays15.betterbansystem.core.database;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.api.files.BaseConfig;
+import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The ConnectionPoolSettings record holds the configuration of a {@link ConnectionPool}.
+ *
+ * @param maximumPoolSize    the maximum amount of connections the pool opens at the same time
+ * @param minimumIdle        the amount of idle connections which are never evicted
+ * @param connectionTimeout  the time in milliseconds a caller waits for a free connection
+ * @param idleTimeout        the time in milliseconds after which an unused connection is closed
+ * @param validationTimeout  the time in seconds a connection has to answer the validation on borrow
+ * @param validationInterval the time in milliseconds a connection may be idle before it is validated on borrow
+ * @param statementCacheSize the amount of prepared statements cached per connection, 0 to disable the cache
+ */
+public record ConnectionPoolSettings(int maximumPoolSize, int minimumIdle, long connectionTimeout,
+                                     long idleTimeout, int validationTimeout, long validationInterval,
+                                     int statementCacheSize) {
+
+    /**
+     * Validates the settings and replaces invalid values.
+     */
+    public ConnectionPoolSettings {
+        maximumPoolSize = Math.max(1, maximumPoolSize);
+        minimumIdle = Math.max(0, Math.min(minimumIdle, maximumPoolSize));
+        connectionTimeout = Math.max(250, connectionTimeout);
+        idleTimeout = Math.max(10000, idleTimeout);
+        validationTimeout = Math.max(1, validationTimeout);
+        validationInterval = Math.max(0, validationInterval);
+        statementCacheSize = Math.max(0, statementCacheSize);
+    }
+
+    /**
+     * Returns the default settings, used if no configuration is available.
+     *
+     * @return the default connection pool settings
+     */
+    @Contract(" -> new")
+    public static @NotNull ConnectionPoolSettings defaults() {
+        return new ConnectionPoolSettings(10, 2, 30000, 600000, 5, 500, 64);
+    }
+
+    /**
+     * Reads the settings from the database.pool section of the given configuration.
+     *
+     * @param config the configuration to read from
+     * @return the connection pool settings
+     */
+    @Contract("_ -> new")
+    public static @NotNull ConnectionPoolSettings fromConfig(@NotNull BaseConfig config) {
+        ConnectionPoolSettings defaults = defaults();
+        return new ConnectionPoolSettings(
+                config.getInt("database.pool.maximumPoolSize", defaults.maximumPoolSize()),
+                config.getInt("database.pool.minimumIdle", defaults.minimumIdle()),
+                config.getLong("database.pool.connectionTimeout", defaults.connectionTimeout()),
+                config.getLong("database.pool.idleTimeout", defaults.idleTimeout()),
+                config.getInt("database.pool.validationTimeout", defaults.validationTimeout()),
+                config.getLong("database.pool.validationInterval", defaults.validationInterval()),
+                config.getInt("database.pool.statementCacheSize", defaults.statementCacheSize())
+        );
+    }
+
+    /**
+     * Returns the settings of the running BetterBanSystem instance, or the default settings if no instance is available.
+     *
+     * @return the connection pool settings
+     */
+    public static @NotNull ConnectionPoolSettings current() {
+        BetterBanSystem instance = BetterBanSystem.getInstance();
+        if (instance == null || instance.getConfig() == null)
+            return defaults();
+        return fromConfig(instance.getConfig());
+    }
+}
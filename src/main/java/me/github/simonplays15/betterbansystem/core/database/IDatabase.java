@@ -4,8 +4,12 @@ package me.github.simonplays15.betterbansystem.core.database;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * The IDatabase interface represents a generic database and provides methods to interact with the database.
@@ -42,6 +46,27 @@ public interface IDatabase {
      */
     void insert(String tableName, Map<String, Object> data);
 
+    /**
+     * Inserts multiple rows into the specified table with a single round trip and clears the corresponding cache entries.
+     * All rows have to contain the same columns.
+     *
+     * @param tableName the name of the table
+     * @param rows      the rows to insert, each a map of column names and their values
+     * @return the amount of inserted rows, which is less than the amount of given rows if an error occurred
+     */
+    int insertBatch(String tableName, List<Map<String, Object>> rows);
+
+    /**
+     * Inserts the given rows into the specified table, or replaces the rows with the same primary key value,
+     * with a single round trip, and clears the corresponding cache entries. All rows have to contain the same columns.
+     *
+     * @param tableName  the name of the table
+     * @param primaryKey the name of the primary key column, which every row has to contain
+     * @param rows       the rows to insert or replace, each a map of column names and their values
+     * @return the amount of affected rows as reported by the database, or 0 if an error occurred
+     */
+    int upsert(String tableName, String primaryKey, List<Map<String, Object>> rows);
+
     /**
      * Updates a record in the specified table with the given primary key and new data.
      *
@@ -61,6 +86,48 @@ public interface IDatabase {
      */
     void delete(String tableName, String primaryKey, Object primaryKeyValue);
 
+    /**
+     * Deletes all records from the specified table whose primary key value is one of the given values, with a single round trip.
+     *
+     * @param tableName        the name of the table from which to delete the records
+     * @param primaryKey       the name of the primary key column in the table
+     * @param primaryKeyValues the values of the primary key to identify the records to be deleted
+     * @return the amount of deleted records, or 0 if an error occurred
+     */
+    int deleteBatch(String tableName, String primaryKey, Collection<?> primaryKeyValues);
+
+    /**
+     * Deletes all records from the specified table whose column value is less than the given value.
+     *
+     * @param tableName the name of the table from which to delete the records
+     * @param column    the name of the column to compare
+     * @param value     the exclusive upper bound of the column value
+     */
+    void deleteLessThan(String tableName, String column, Object value);
+
+    /**
+     * Deletes all records from the specified table which no longer have a record in the child table.
+     * The comparison runs in the database, so no record is transferred.
+     *
+     * @param tableName  the name of the table from which to delete the records
+     * @param childTable the name of the child table
+     * @param joinColumn the name of the column both tables are joined on
+     * @return the amount of deleted records, or 0 if an error occurred
+     */
+    int deleteOrphans(String tableName, String childTable, String joinColumn);
+
+    /**
+     * Retrieves the records of the specified table which expired at the given time, ordered by their expiry.
+     * The comparison runs in the database on the indexed expires column, so only the expired records are transferred.
+     * Records with a NULL expires column never expire and are never returned.
+     *
+     * @param tableName the name of the table to select from
+     * @param now       the time in milliseconds since the epoch, records expiring at or before it are returned
+     * @param limit     the maximum amount of records
+     * @return a List of Map objects where each Map represents an expired record, or an empty list if an error occurred
+     */
+    List<Map<String, Object>> findExpired(String tableName, long now, int limit);
+
     /**
      * Executes a SELECT query on a specified table with a provided condition.
      *
@@ -71,6 +138,38 @@ public interface IDatabase {
      */
     List<Map<String, Object>> select(String tableName, String condition);
 
+    /**
+     * Executes a parameterized SELECT query on a specified table. Every given column is compared for equality with its value.
+     * The values are never inserted into the query text, so this method is safe to use with user input.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to, a null value matches NULL
+     * @return a List of Map objects where each Map represents a row in the result set, with column names as keys and column
+     * values as values
+     */
+    List<Map<String, Object>> select(String tableName, Map<String, Object> equals);
+
+    /**
+     * Executes a parameterized SELECT query on a specified table, returning the rows whose column equals one of the given values.
+     * The values are never inserted into the query text, so this method is safe to use with user input.
+     *
+     * @param tableName the name of the table to select from
+     * @param column    the name of the column to compare
+     * @param values    the values the column may be equal to, null values never match
+     * @return a List of Map objects where each Map represents a row in the result set, with column names as keys and column
+     * values as values
+     */
+    List<Map<String, Object>> selectIn(String tableName, String column, Collection<?> values);
+
+    /**
+     * Executes a parameterized SELECT query on a specified table and returns the first matching row.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to, a null value matches NULL
+     * @return a Map with column names as keys and column values as values, or null if no row matches
+     */
+    @Nullable Map<String, Object> selectOne(String tableName, Map<String, Object> equals);
+
     /**
      * Retrieves all records from the specified table.
      *
@@ -81,6 +180,30 @@ public interface IDatabase {
      */
     List<Map<String, Object>> selectAll(String tableName);
 
+    /**
+     * Reads all records of the specified table ordered by the given column and passes them one by one to the consumer.
+     * Unlike {@link #selectAll(String)}, the records are fetched in blocks of the given size and never held in memory at once.
+     *
+     * @param tableName the name of the table to read
+     * @param orderBy   the name of the column to order the records by
+     * @param fetchSize the amount of records fetched from the database at once
+     * @param consumer  the consumer receiving every record
+     * @return the amount of read records
+     */
+    long scan(String tableName, String orderBy, int fetchSize, Consumer<Map<String, Object>> consumer);
+
+    /**
+     * Selects the rows of a table together with the rows of a child table sharing the same join column value (left join),
+     * using a single query. Every returned row contains the list of its child rows under the name of the child table.
+     *
+     * @param tableName  the name of the table to select from
+     * @param childTable the name of the child table to join
+     * @param joinColumn the name of the column both tables are joined on
+     * @param equals     the column names of the parent table and the values they have to be equal to
+     * @return a list of maps representing the selected rows, each containing a list of its child rows
+     */
+    List<Map<String, Object>> selectWithChildren(String tableName, String childTable, String joinColumn, Map<String, Object> equals);
+
     /**
      * Executes a SQL query and returns the result as a List of Maps.
      *
@@ -106,6 +229,13 @@ public interface IDatabase {
      */
     void createIndex(String collectionName, String fieldName, boolean unique);
 
+    /**
+     * Returns whether this database supports {@link #startTransaction()}, {@link #commitTransaction()} and {@link #rollbackTransaction()}.
+     *
+     * @return true if transactions are supported, false otherwise
+     */
+    boolean supportsTransactions();
+
     /**
      * Starts a new transaction.
      * <p>
@@ -0,0 +1,323 @@
+package me.github.simonplays15.betterbansystem.core.database;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * The SQLStatementBuilder class provides helper methods to build parameterized SQL statements
+ * and to read their results. It is shared by the SQL based database implementations.
+ */
+public final class SQLStatementBuilder {
+
+    /**
+     * The pattern every table and column name has to match. Names are inserted into the SQL text,
+     * so only plain identifiers are allowed.
+     */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * The SQLStatementBuilder class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private SQLStatementBuilder() {
+    }
+
+    /**
+     * Checks whether the given name is a plain SQL identifier.
+     *
+     * @param name the table or column name to check
+     * @return the given name
+     * @throws IllegalArgumentException if the name is not a plain identifier
+     */
+    @Contract("_ -> param1")
+    public static @NotNull String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches())
+            throw new IllegalArgumentException("Invalid SQL identifier: " + name);
+        return name;
+    }
+
+    /**
+     * Builds a SELECT statement which compares every given column for equality with a placeholder.
+     * Columns with a null value are compared with IS NULL and do not get a placeholder.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the columns and values to compare, in the order of the placeholders
+     * @param limit     the maximum amount of rows, 0 or less for no limit
+     * @return the SQL statement
+     */
+    public static @NotNull String selectWhereEquals(String tableName, @NotNull Map<String, Object> equals, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(identifier(tableName));
+        sql.append(whereEquals(equals));
+        if (limit > 0)
+            sql.append(" LIMIT ").append(limit);
+        return sql.toString();
+    }
+
+    /**
+     * Builds a SELECT statement which returns the rows whose column equals one of the given amount of placeholders.
+     *
+     * @param tableName the name of the table to select from
+     * @param column    the name of the column to compare
+     * @param count     the amount of placeholders, at least 1
+     * @return the SQL statement
+     */
+    public static @NotNull String selectWhereIn(String tableName, String column, int count) {
+        return "SELECT * FROM " + identifier(tableName) + " WHERE " + identifier(column) + " IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    /**
+     * Builds a DELETE statement which removes the rows of a table without a row in the child table.
+     *
+     * @param tableName  the name of the table to delete from
+     * @param childTable the name of the child table
+     * @param joinColumn the name of the column both tables are joined on
+     * @return the SQL statement
+     */
+    public static @NotNull String deleteOrphans(String tableName, String childTable, String joinColumn) {
+        return "DELETE FROM " + identifier(tableName) + " WHERE NOT EXISTS (SELECT 1 FROM " + identifier(childTable)
+                + " WHERE " + identifier(childTable) + "." + identifier(joinColumn) + " = " + identifier(tableName) + "." + identifier(joinColumn) + ")";
+    }
+
+    /**
+     * Builds a SELECT statement which returns the rows whose expires column is at or before a placeholder, ordered by the expires column.
+     * Rows with a NULL expires column never match.
+     *
+     * @param tableName the name of the table to select from
+     * @param limit     the maximum amount of rows, 0 or less for no limit
+     * @return the SQL statement
+     */
+    public static @NotNull String selectExpired(String tableName, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(identifier(tableName))
+                .append(" WHERE expires <= ? ORDER BY expires");
+        if (limit > 0)
+            sql.append(" LIMIT ").append(limit);
+        return sql.toString();
+    }
+
+    /**
+     * Builds an INSERT statement with a placeholder for every given column.
+     *
+     * @param tableName the name of the table to insert into
+     * @param columns   the names of the columns, in the order of the placeholders
+     * @return the SQL statement
+     */
+    public static @NotNull String insertInto(String tableName, @NotNull List<String> columns) {
+        StringJoiner names = new StringJoiner(", ", " (", ")");
+        StringJoiner placeholders = new StringJoiner(", ", " VALUES (", ")");
+        for (String column : columns) {
+            names.add(identifier(column));
+            placeholders.add("?");
+        }
+        return "INSERT INTO " + identifier(tableName) + names + placeholders;
+    }
+
+    /**
+     * Returns the values of the given rows in the order of the given columns. Missing columns get a null value.
+     *
+     * @param rows    the rows
+     * @param columns the names of the columns
+     * @return a list containing the values of every row
+     */
+    public static @NotNull List<List<Object>> rowValues(@NotNull Collection<Map<String, Object>> rows, @NotNull List<String> columns) {
+        List<List<Object>> result = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            List<Object> values = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                values.add(row.get(column));
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    /**
+     * Executes the given statement once for every list of parameters as a single JDBC batch.
+     * If the connection is in auto-commit mode, the batch runs inside its own transaction, so it is applied completely or not at all.
+     * Otherwise, the batch is part of the running transaction.
+     *
+     * @param connection the connection to execute the batch on
+     * @param sql        the SQL statement
+     * @param parameters the parameters of every execution, in the order of the placeholders
+     * @return the sum of the update counts. Executions the driver reports as {@link Statement#SUCCESS_NO_INFO} count as one row
+     * @throws SQLException if the batch failed. The batch is rolled back if it ran inside its own transaction
+     */
+    public static int executeBatch(@NotNull Connection connection, @NotNull String sql, @NotNull Collection<? extends List<?>> parameters) throws SQLException {
+        if (parameters.isEmpty())
+            return 0;
+        boolean ownTransaction = connection.getAutoCommit();
+        if (ownTransaction)
+            connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (List<?> values : parameters) {
+                int index = 1;
+                for (Object value : values) {
+                    statement.setObject(index++, value);
+                }
+                statement.addBatch();
+            }
+            int total = 0;
+            for (int count : statement.executeBatch()) {
+                total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+            }
+            if (ownTransaction)
+                connection.commit();
+            return total;
+        } catch (SQLException ex) {
+            if (ownTransaction)
+                connection.rollback();
+            throw ex;
+        } finally {
+            if (ownTransaction)
+                connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Builds a SELECT statement which left joins the child table on the given column and orders the rows by it.
+     * The given columns of the parent table are compared for equality like in {@link #selectWhereEquals(String, Map, int)}.
+     *
+     * @param tableName  the name of the parent table
+     * @param childTable the name of the child table
+     * @param joinColumn the name of the column both tables are joined on
+     * @param equals     the columns of the parent table and the values to compare
+     * @return the SQL statement
+     */
+    public static @NotNull String selectLeftJoin(String tableName, String childTable, String joinColumn, @NotNull Map<String, Object> equals) {
+        String parent = identifier(tableName);
+        String child = identifier(childTable);
+        String column = identifier(joinColumn);
+        return "SELECT * FROM " + parent + " LEFT JOIN " + child + " ON " + child + "." + column + " = " + parent + "." + column +
+                whereEquals(parent + ".", equals) + " ORDER BY " + parent + "." + column;
+    }
+
+    /**
+     * Builds a WHERE clause which compares every given column for equality with a placeholder.
+     * Columns with a null value are compared with IS NULL and do not get a placeholder.
+     *
+     * @param equals the columns and values to compare
+     * @return the WHERE clause including a leading space, or an empty string if no columns are given
+     */
+    public static @NotNull String whereEquals(@NotNull Map<String, Object> equals) {
+        return whereEquals("", equals);
+    }
+
+    /**
+     * Builds a WHERE clause which compares every given column, qualified with the given prefix, for equality with a placeholder.
+     *
+     * @param prefix the prefix of every column name, e.g. the table name followed by a dot
+     * @param equals the columns and values to compare
+     * @return the WHERE clause including a leading space, or an empty string if no columns are given
+     */
+    private static @NotNull String whereEquals(@NotNull String prefix, @NotNull Map<String, Object> equals) {
+        if (equals.isEmpty())
+            return "";
+        StringJoiner joiner = new StringJoiner(" AND ", " WHERE ", "");
+        for (Map.Entry<String, Object> entry : equals.entrySet()) {
+            joiner.add(prefix + identifier(entry.getKey()) + (entry.getValue() == null ? " IS NULL" : " = ?"));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Binds the given values to the placeholders of the statement. Null values are skipped,
+     * as they are compared with IS NULL by {@link #whereEquals(Map)}.
+     *
+     * @param statement  the statement to bind the values to
+     * @param startIndex the index of the first placeholder
+     * @param values     the values to bind
+     * @return the index of the next free placeholder
+     * @throws SQLException if a value can not be bound
+     */
+    public static int bindValues(@NotNull PreparedStatement statement, int startIndex, @NotNull Collection<Object> values) throws SQLException {
+        int index = startIndex;
+        for (Object value : values) {
+            if (value != null)
+                statement.setObject(index++, value);
+        }
+        return index;
+    }
+
+    /**
+     * Reads all rows of the given result set.
+     *
+     * @param set the result set to read
+     * @return a list of maps, where each map represents a row with the column names as keys
+     * @throws SQLException if the result set can not be read
+     */
+    public static @NotNull List<Map<String, Object>> readRows(@NotNull ResultSet set) throws SQLException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        ResultSetMetaData metaData = set.getMetaData();
+        int c = metaData.getColumnCount();
+        while (set.next()) {
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 1; i <= c; i++) {
+                row.put(metaData.getColumnLabel(i), set.getObject(i));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the current row of the given result set.
+     *
+     * @param set      the result set positioned on a row
+     * @param metaData the metadata of the result set
+     * @return a map with the column names as keys
+     * @throws SQLException if the row can not be read
+     */
+    public static @NotNull Map<String, Object> readRow(@NotNull ResultSet set, @NotNull ResultSetMetaData metaData) throws SQLException {
+        int c = metaData.getColumnCount();
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 1; i <= c; i++) {
+            row.put(metaData.getColumnLabel(i), set.getObject(i));
+        }
+        return row;
+    }
+
+    /**
+     * Reads the rows of a statement built by {@link #selectLeftJoin(String, String, String, Map)}.
+     * The columns of the child table are collected into a list per parent row, which is stored under the name of the child table.
+     * Parent rows without any child row get an empty list.
+     *
+     * @param set        the result set to read
+     * @param childTable the name of the child table
+     * @param joinColumn the name of the column both tables are joined on
+     * @return a list of maps representing the parent rows
+     * @throws SQLException if the result set can not be read
+     */
+    public static @NotNull List<Map<String, Object>> readJoinedRows(@NotNull ResultSet set, @NotNull String childTable, @NotNull String joinColumn) throws SQLException {
+        Map<Object, Map<String, Object>> parents = new LinkedHashMap<>();
+        ResultSetMetaData metaData = set.getMetaData();
+        int c = metaData.getColumnCount();
+        boolean[] childColumns = new boolean[c + 1];
+        for (int i = 1; i <= c; i++) {
+            childColumns[i] = childTable.equalsIgnoreCase(metaData.getTableName(i));
+        }
+        while (set.next()) {
+            Map<String, Object> parent = new HashMap<>();
+            Map<String, Object> child = new HashMap<>();
+            for (int i = 1; i <= c; i++) {
+                (childColumns[i] ? child : parent).put(metaData.getColumnLabel(i), set.getObject(i));
+            }
+            Map<String, Object> row = parents.computeIfAbsent(parent.get(joinColumn), key -> {
+                parent.put(childTable, new ArrayList<Map<String, Object>>());
+                return parent;
+            });
+            if (child.get(joinColumn) != null) {
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> children = (List<Map<String, Object>>) row.get(childTable);
+                children.add(child);
+            }
+        }
+        return new ArrayList<>(parents.values());
+    }
+}
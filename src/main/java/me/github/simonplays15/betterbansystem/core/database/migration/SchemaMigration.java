@@ -0,0 +1,41 @@
+package me.github.simonplays15.betterbansystem.core.database.migration;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The SchemaMigration interface represents one step which upgrades the schema of a SQL database to the next version.
+ * Migrations are applied in the order of their versions by the {@link SchemaMigrator}, every migration exactly once.
+ */
+public interface SchemaMigration {
+
+    /**
+     * Returns the version the schema has after the migration was applied.
+     *
+     * @return the version, greater than the version of the previous migration
+     */
+    int version();
+
+    /**
+     * Returns a short description of the migration, which is logged and stored in the version table.
+     *
+     * @return the description
+     */
+    @NotNull String description();
+
+    /**
+     * Applies the migration.
+     * The connection is not in auto-commit mode, the {@link SchemaMigrator} commits once the migration returns and rolls back if it throws.
+     *
+     * @param connection the connection to the database
+     * @param dialect    the dialect of the database
+     * @throws SQLException if a statement of the migration failed
+     */
+    void apply(@NotNull Connection connection, @NotNull SqlDialect dialect) throws SQLException;
+}
@@ -0,0 +1,109 @@
+package me.github.simonplays15.betterbansystem.core.database.migration;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.*;
+import java.util.List;
+
+/**
+ * The SchemaMigrator class upgrades the schema of a SQL database to the latest version.
+ * <p>
+ * The applied versions are recorded in the {@link #VERSION_TABLE} table. A database without a recorded version has the
+ * {@link #BASELINE_VERSION baseline schema}, which is the schema the tables are created with. Every pending migration
+ * runs inside its own transaction and its version is recorded in the same transaction.
+ */
+public final class SchemaMigrator {
+
+    /**
+     * The name of the table recording the applied versions.
+     */
+    public static final String VERSION_TABLE = "schema_version";
+    /**
+     * The version of the schema the tables are created with.
+     */
+    public static final int BASELINE_VERSION = 1;
+    /**
+     * All migrations, in the order of their versions.
+     */
+    private static final List<SchemaMigration> MIGRATIONS = List.of(new TypedColumnsMigration());
+
+    /**
+     * The SchemaMigrator class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies all pending migrations.
+     *
+     * @param connection the connection to the database, in auto-commit mode
+     * @param dialect    the dialect of the database
+     * @return the version of the schema after the migrations were applied
+     * @throws SQLException if a migration failed. The failed migration is rolled back, as far as the database supports transactional DDL
+     */
+    public static int migrate(@NotNull Connection connection, @NotNull SqlDialect dialect) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + VERSION_TABLE + " (" +
+                    "version INT PRIMARY KEY," +
+                    "description TEXT," +
+                    "applied BIGINT" +
+                    ")");
+        }
+        int current = currentVersion(connection);
+        for (SchemaMigration migration : MIGRATIONS) {
+            if (migration.version() <= current)
+                continue;
+            GlobalLogger.getLogger().info("Migrating the database schema to version", migration.version() + ":", migration.description());
+            connection.setAutoCommit(false);
+            try {
+                migration.apply(connection, dialect);
+                try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + VERSION_TABLE + " (version, description, applied) VALUES (?, ?, ?)")) {
+                    statement.setInt(1, migration.version());
+                    statement.setString(2, migration.description());
+                    statement.setLong(3, System.currentTimeMillis());
+                    statement.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            current = migration.version();
+        }
+        return current;
+    }
+
+    /**
+     * Reads the current version of the schema.
+     *
+     * @param connection the connection to the database
+     * @return the highest recorded version, or {@link #BASELINE_VERSION} if no version is recorded
+     * @throws SQLException if the version table could not be read
+     */
+    public static int currentVersion(@NotNull Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT MAX(version) FROM " + VERSION_TABLE)) {
+            int version = set.next() ? set.getInt(1) : 0;
+            return Math.max(version, BASELINE_VERSION);
+        }
+    }
+
+    /**
+     * Returns the version of the schema after all migrations were applied.
+     *
+     * @return the latest version
+     */
+    @Contract(pure = true)
+    public static int latestVersion() {
+        return MIGRATIONS.isEmpty() ? BASELINE_VERSION : MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+}
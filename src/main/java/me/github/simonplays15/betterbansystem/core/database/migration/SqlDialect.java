@@ -0,0 +1,86 @@
+package me.github.simonplays15.betterbansystem.core.database.migration;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Enum class representing the SQL dialects the schema migrations are written for.
+ * The dialect provides the statements which differ between MySQL and SQLite.
+ */
+public enum SqlDialect {
+    /**
+     * The dialect of MySQL and MariaDB.
+     * <p>
+     * DDL statements cause an implicit commit on MySQL, so a migration can not be rolled back once it changed a table.
+     */
+    MYSQL("BINARY(16)") {
+        @Override
+        public @NotNull String renameColumn(@NotNull String tableName, @NotNull String from, @NotNull String to, @NotNull String type) {
+            return "ALTER TABLE " + tableName + " CHANGE COLUMN " + from + " " + to + " " + type;
+        }
+    },
+    /**
+     * The dialect of SQLite.
+     * <p>
+     * Dropping and renaming columns requires SQLite 3.35 or newer.
+     */
+    SQLITE("BLOB") {
+        @Override
+        public @NotNull String renameColumn(@NotNull String tableName, @NotNull String from, @NotNull String to, @NotNull String type) {
+            return "ALTER TABLE " + tableName + " RENAME COLUMN " + from + " TO " + to;
+        }
+    };
+
+    /**
+     * The column type storing the 16 bytes of an IP address.
+     */
+    private final String ipType;
+
+    /**
+     * Creates a new SqlDialect.
+     *
+     * @param ipType the column type storing the 16 bytes of an IP address
+     */
+    @Contract(pure = true)
+    SqlDialect(@NotNull String ipType) {
+        this.ipType = ipType;
+    }
+
+    /**
+     * Returns the column type storing the 16 bytes of an IP address.
+     *
+     * @return the column type
+     */
+    @Contract(pure = true)
+    public @NotNull String ipType() {
+        return this.ipType;
+    }
+
+    /**
+     * Builds the statement renaming a column.
+     *
+     * @param tableName the name of the table
+     * @param from      the current name of the column
+     * @param to        the new name of the column
+     * @param type      the type of the column, which MySQL requires to be repeated
+     * @return the SQL statement
+     */
+    public abstract @NotNull String renameColumn(@NotNull String tableName, @NotNull String from, @NotNull String to, @NotNull String type);
+
+    /**
+     * Builds the statement creating an index on a single column.
+     *
+     * @param indexName the name of the index
+     * @param tableName the name of the table
+     * @param column    the name of the indexed column
+     * @return the SQL statement
+     */
+    @Contract(pure = true)
+    public @NotNull String createIndex(@NotNull String indexName, @NotNull String tableName, @NotNull String column) {
+        return "CREATE INDEX " + indexName + " ON " + tableName + " (" + column + ")";
+    }
+}
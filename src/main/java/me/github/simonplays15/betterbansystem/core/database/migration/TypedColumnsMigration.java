@@ -0,0 +1,382 @@
+package me.github.simonplays15.betterbansystem.core.database.migration;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
+import me.github.simonplays15.betterbansystem.core.database.SQLStatementBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * The TypedColumnsMigration converts the text columns of the baseline schema into typed columns.
+ * <p>
+ * The created and expires columns are converted into BIGINT columns holding milliseconds since the epoch,
+ * a permanent expiry becomes NULL. The ip column of the bannedips table is converted into 16 bytes, which
+ * requires the table to be rebuilt because the column is the primary key. Finally, the columns the plugin
+ * filters on are indexed.
+ * <p>
+ * MySQL commits every DDL statement implicitly, so a failed migration can leave some steps applied.
+ * Every step therefore checks the columns, tables and indexes which already exist and continues where the
+ * previous attempt stopped, so the migration can be run again after a failure.
+ * <p>
+ * A value which can not be converted would lose the entry, an expiry would even become permanent. All values are
+ * therefore checked before the first table is changed, and the migration fails with the offending rows if any
+ * value can not be converted. The rows have to be corrected or deleted before the migration is run again.
+ */
+final class TypedColumnsMigration implements SchemaMigration {
+
+    /**
+     * The suffix of the temporary columns and tables of the migration.
+     */
+    private static final String MIGRATING_SUFFIX = "_migrating";
+    /**
+     * The maximum number of offending rows listed in the message of a failed check.
+     */
+    private static final int MAX_REPORTED_ROWS = 20;
+
+    /**
+     * Returns the version of the typed schema.
+     *
+     * @return 2
+     */
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    /**
+     * Returns the description of the migration.
+     *
+     * @return the description
+     */
+    @Override
+    public @NotNull String description() {
+        return "typed timestamp and ip columns with indexes";
+    }
+
+    /**
+     * Converts the columns of all tables and creates the indexes.
+     *
+     * @param connection the connection to the database
+     * @param dialect    the dialect of the database
+     * @throws SQLException if a statement failed or a value can not be converted
+     */
+    @Override
+    public void apply(@NotNull Connection connection, @NotNull SqlDialect dialect) throws SQLException {
+        this.checkConvertible(connection);
+        this.convertTimestamps(connection, dialect, "bannedplayers", "uuid", "created", false);
+        this.convertTimestamps(connection, dialect, "bannedplayers", "uuid", "expires", true);
+        this.convertTimestamps(connection, dialect, "mutedplayers", "uuid", "created", false);
+        this.convertTimestamps(connection, dialect, "mutedplayers", "uuid", "expires", true);
+        this.convertTimestamps(connection, dialect, "warns", "id", "created", false);
+        this.rebuildBannedIps(connection, dialect);
+
+        this.createIndex(connection, dialect, "idx_bannedplayers_expires", "bannedplayers", "expires");
+        this.createIndex(connection, dialect, "idx_mutedplayers_expires", "mutedplayers", "expires");
+        this.createIndex(connection, dialect, "idx_bannedips_expires", "bannedips", "expires");
+        this.createIndex(connection, dialect, "idx_warns_uuid", "warns", "uuid");
+        this.createIndex(connection, dialect, "idx_warns_created", "warns", "created");
+    }
+
+    /**
+     * Checks that every value of the columns which are not converted yet can be converted, before any table is changed.
+     *
+     * @param connection the connection to the database
+     * @throws SQLException if a statement failed or a value can not be converted. The message lists the offending rows.
+     */
+    private void checkConvertible(@NotNull Connection connection) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        this.checkTimestamps(connection, "bannedplayers", "uuid", "created", false, problems);
+        this.checkTimestamps(connection, "bannedplayers", "uuid", "expires", true, problems);
+        this.checkTimestamps(connection, "mutedplayers", "uuid", "created", false, problems);
+        this.checkTimestamps(connection, "mutedplayers", "uuid", "expires", true, problems);
+        this.checkTimestamps(connection, "warns", "id", "created", false, problems);
+        this.checkBannedIps(connection, problems);
+        if (problems.isEmpty())
+            return;
+        StringBuilder message = new StringBuilder("Could not migrate ").append(problems.size())
+                .append(" row(s) to version ").append(this.version())
+                .append(", correct or delete them and restart the server:");
+        problems.stream().limit(MAX_REPORTED_ROWS).forEach(problem -> message.append(System.lineSeparator()).append("  ").append(problem));
+        if (problems.size() > MAX_REPORTED_ROWS)
+            message.append(System.lineSeparator()).append("  and ").append(problems.size() - MAX_REPORTED_ROWS).append(" more");
+        throw new SQLException(message.toString());
+    }
+
+    /**
+     * Checks the values of a timestamp column unless the column is already converted.
+     *
+     * @param connection the connection to the database
+     * @param tableName  the name of the table
+     * @param keyColumn  the name of the primary key column of the table
+     * @param column     the name of the checked column
+     * @param expiry     whether the column holds expiry values, which may be "forever"
+     * @param problems   the list the offending rows are added to
+     * @throws SQLException if a statement failed
+     */
+    private void checkTimestamps(@NotNull Connection connection, @NotNull String tableName, @NotNull String keyColumn,
+                                 @NotNull String column, boolean expiry, @NotNull List<String> problems) throws SQLException {
+        String type = this.columnTypes(connection, tableName).get(column);
+        if (type == null || isInteger(type))
+            return;
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT " + keyColumn + ", " + column + " FROM " + tableName)) {
+            while (set.next()) {
+                try {
+                    timestampValue(tableName, set.getObject(1), column, set.getObject(2), expiry);
+                } catch (SQLException e) {
+                    problems.add(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the rows of the bannedips table unless the table is already rebuilt.
+     *
+     * @param connection the connection to the database
+     * @param problems   the list the offending rows are added to
+     * @throws SQLException if a statement failed
+     */
+    private void checkBannedIps(@NotNull Connection connection, @NotNull List<String> problems) throws SQLException {
+        Map<String, String> columns = this.columnTypes(connection, "bannedips");
+        if (columns.isEmpty() || isInteger(columns.get("created")))
+            return;
+        try (Statement statement = connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT ip, created, expires FROM bannedips")) {
+            while (set.next()) {
+                String ip = set.getString(1);
+                try {
+                    ipValue(ip);
+                } catch (SQLException e) {
+                    problems.add(e.getMessage());
+                }
+                try {
+                    timestampValue("bannedips", ip, "created", set.getObject(2), false);
+                } catch (SQLException e) {
+                    problems.add(e.getMessage());
+                }
+                try {
+                    timestampValue("bannedips", ip, "expires", set.getObject(3), true);
+                } catch (SQLException e) {
+                    problems.add(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts the value of a timestamp column of the old schema into milliseconds since the epoch.
+     *
+     * @param tableName the name of the table, for the message of the exception
+     * @param key       the primary key of the row, for the message of the exception
+     * @param column    the name of the column
+     * @param value     the value of the column
+     * @param expiry    whether the column holds expiry values, which may be "forever"
+     * @return the milliseconds since the epoch, or null if the value is null or the entry never expires
+     * @throws SQLException if the value is neither null, "forever" for an expiry nor a date
+     */
+    private static Long timestampValue(@NotNull String tableName, Object key, @NotNull String column, Object value, boolean expiry) throws SQLException {
+        if (value == null || (expiry && ColumnValues.FOREVER.equalsIgnoreCase(value.toString())))
+            return null;
+        Long millis = expiry ? ColumnValues.expiresToColumn(value) : ColumnValues.toMillis(ColumnValues.toDate(value));
+        if (millis == null)
+            throw new SQLException(tableName + " " + key + ": the " + column + " value '" + value + "' is not a date");
+        return millis;
+    }
+
+    /**
+     * Converts the ip column of the old bannedips table into 16 bytes.
+     *
+     * @param ip the textual IP address
+     * @return the 16 bytes of the address
+     * @throws SQLException if the text is not an IP address
+     */
+    private static byte @NotNull [] ipValue(String ip) throws SQLException {
+        try {
+            return ColumnValues.ipToColumn(String.valueOf(ip));
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("bannedips " + ip + ": '" + ip + "' is not an IP address", e);
+        }
+    }
+
+    /**
+     * Creates an index unless an index with the same name already exists on the table.
+     *
+     * @param connection the connection to the database
+     * @param dialect    the dialect of the database
+     * @param indexName  the name of the index
+     * @param tableName  the name of the table
+     * @param column     the name of the indexed column
+     * @throws SQLException if a statement failed
+     */
+    private void createIndex(@NotNull Connection connection, @NotNull SqlDialect dialect, @NotNull String indexName,
+                             @NotNull String tableName, @NotNull String column) throws SQLException {
+        try (ResultSet set = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, tableName, false, true)) {
+            while (set.next()) {
+                if (indexName.equalsIgnoreCase(set.getString("INDEX_NAME")))
+                    return;
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(dialect.createIndex(indexName, tableName, column));
+        }
+    }
+
+    /**
+     * Reads the columns of a table.
+     *
+     * @param connection the connection to the database
+     * @param tableName  the name of the table
+     * @return the upper case type names of the columns, keyed by the lower case column name. Empty if the table does not exist.
+     * @throws SQLException if the metadata could not be read
+     */
+    private @NotNull Map<String, String> columnTypes(@NotNull Connection connection, @NotNull String tableName) throws SQLException {
+        Map<String, String> columns = new HashMap<>();
+        try (ResultSet set = connection.getMetaData().getColumns(connection.getCatalog(), null, tableName, null)) {
+            while (set.next()) {
+                if (tableName.equalsIgnoreCase(set.getString("TABLE_NAME")))
+                    columns.put(set.getString("COLUMN_NAME").toLowerCase(Locale.ROOT), String.valueOf(set.getString("TYPE_NAME")).toUpperCase(Locale.ROOT));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Returns whether the given column type holds integers, which is the case for converted columns.
+     *
+     * @param type the upper case type name, or null if the column does not exist
+     * @return true if the column exists and holds integers
+     */
+    private static boolean isInteger(String type) {
+        return type != null && type.contains("INT");
+    }
+
+    /**
+     * Replaces a text column holding formatted dates with a BIGINT column holding milliseconds since the epoch.
+     * The values are copied into a new column, which replaces the old column afterward.
+     * <p>
+     * An already converted column is skipped. If a previous attempt left the new column behind, the values are
+     * copied again if the old column still exists, otherwise the new column is only renamed.
+     *
+     * @param connection the connection to the database
+     * @param dialect    the dialect of the database
+     * @param tableName  the name of the table
+     * @param keyColumn  the name of the primary key column of the table
+     * @param column     the name of the converted column
+     * @param expiry     whether the column holds expiry values, which may be "forever"
+     * @throws SQLException if a statement failed
+     */
+    private void convertTimestamps(@NotNull Connection connection, @NotNull SqlDialect dialect, @NotNull String tableName,
+                                   @NotNull String keyColumn, @NotNull String column, boolean expiry) throws SQLException {
+        String migrating = column + MIGRATING_SUFFIX;
+        Map<String, String> columns = this.columnTypes(connection, tableName);
+        if (!columns.containsKey(migrating)) {
+            if (isInteger(columns.get(column)))
+                return;
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("ALTER TABLE " + tableName + " ADD COLUMN " + migrating + " BIGINT");
+            }
+        }
+        if (columns.containsKey(column)) {
+            this.copyTimestamps(connection, tableName, keyColumn, column, migrating, expiry);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("ALTER TABLE " + tableName + " DROP COLUMN " + column);
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(dialect.renameColumn(tableName, migrating, column, "BIGINT"));
+        }
+    }
+
+    /**
+     * Copies the formatted dates of a text column as milliseconds since the epoch into the new column.
+     *
+     * @param connection the connection to the database
+     * @param tableName  the name of the table
+     * @param keyColumn  the name of the primary key column of the table
+     * @param column     the name of the converted column
+     * @param migrating  the name of the new column
+     * @param expiry     whether the column holds expiry values, which may be "forever"
+     * @throws SQLException if a statement failed or a value is not a date
+     */
+    private void copyTimestamps(@NotNull Connection connection, @NotNull String tableName, @NotNull String keyColumn,
+                                @NotNull String column, @NotNull String migrating, boolean expiry) throws SQLException {
+        List<List<Object>> updates = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet set = statement.executeQuery("SELECT " + keyColumn + ", " + column + " FROM " + tableName)) {
+                while (set.next()) {
+                    Long millis = timestampValue(tableName, set.getObject(1), column, set.getObject(2), expiry);
+                    if (millis != null)
+                        updates.add(Arrays.asList(millis, set.getObject(1)));
+                }
+            }
+        }
+        SQLStatementBuilder.executeBatch(connection, "UPDATE " + tableName + " SET " + migrating + " = ? WHERE " + keyColumn + " = ?", updates);
+    }
+
+    /**
+     * Rebuilds the bannedips table with the ip column holding 16 bytes and typed timestamp columns.
+     * <p>
+     * An already rebuilt table is skipped. If a previous attempt left the new table behind, it is filled again
+     * if the old table still exists, otherwise the new table is only renamed.
+     *
+     * @param connection the connection to the database
+     * @param dialect    the dialect of the database
+     * @throws SQLException if a statement failed
+     */
+    private void rebuildBannedIps(@NotNull Connection connection, @NotNull SqlDialect dialect) throws SQLException {
+        String migrating = "bannedips" + MIGRATING_SUFFIX;
+        Map<String, String> columns = this.columnTypes(connection, "bannedips");
+        boolean leftOver = !this.columnTypes(connection, migrating).isEmpty();
+        if (!leftOver && isInteger(columns.get("created")))
+            return;
+        if (!columns.isEmpty()) {
+            if (leftOver) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DROP TABLE " + migrating);
+                }
+            }
+            this.copyBannedIps(connection, dialect, migrating);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DROP TABLE bannedips");
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("ALTER TABLE " + migrating + " RENAME TO bannedips");
+        }
+    }
+
+    /**
+     * Creates the new bannedips table and copies the rows of the old table into it.
+     *
+     * @param connection the connection to the database
+     * @param dialect    the dialect of the database
+     * @param migrating  the name of the new table
+     * @throws SQLException if a statement failed or a row can not be converted
+     */
+    private void copyBannedIps(@NotNull Connection connection, @NotNull SqlDialect dialect, @NotNull String migrating) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE " + migrating + " (" +
+                    "ip " + dialect.ipType() + " PRIMARY KEY," +
+                    "source TEXT," +
+                    "created BIGINT," +
+                    "expires BIGINT," +
+                    "reason TEXT" +
+                    ")");
+            try (ResultSet set = statement.executeQuery("SELECT ip, source, created, expires, reason FROM bannedips")) {
+                while (set.next()) {
+                    String ip = set.getString(1);
+                    rows.add(Arrays.asList(ipValue(ip), set.getString(2), timestampValue("bannedips", ip, "created", set.getObject(3), false),
+                            timestampValue("bannedips", ip, "expires", set.getObject(4), true), set.getString(5)));
+                }
+            }
+        }
+        SQLStatementBuilder.executeBatch(connection, "INSERT INTO " + migrating + " (ip, source, created, expires, reason) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+}
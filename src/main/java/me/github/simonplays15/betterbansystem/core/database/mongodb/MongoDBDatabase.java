@@ -4,22 +4,35 @@ package me.github.simonplays15.betterbansystem.core.database.mongodb;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.IndexOptions;
-import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.*;
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
 import me.github.simonplays15.betterbansystem.core.database.Database;
+import me.github.simonplays15.betterbansystem.core.database.migration.SchemaMigrator;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
 import org.apache.commons.lang.NotImplementedException;
 import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * MongoDBDatabase is a concrete class that extends the abstract class Database. It provides
@@ -28,6 +41,35 @@ import java.util.Map;
  */
 public class MongoDBDatabase extends Database {
 
+    /**
+     * The field holding the expiry of a document as date, which is watched by the TTL indexes.
+     * MongoDB removes a document shortly after this date has passed.
+     */
+    private static final String EXPIRES_AT = "expiresAt";
+    /**
+     * The unique key field of every collection whose documents are written as upserts.
+     */
+    private static final Map<String, String> KEY_FIELDS = Map.of(
+            "bannedplayers", "uuid",
+            "mutedplayers", "uuid",
+            "warnedplayers", "uuid",
+            "bannedips", "ip");
+    /**
+     * The collections whose documents expire.
+     */
+    private static final List<String> EXPIRING_COLLECTIONS = List.of("bannedplayers", "bannedips", "mutedplayers");
+    /**
+     * The projection removing the fields which are only used internally from the read documents.
+     */
+    private static final Bson ROW_PROJECTION = Projections.exclude("_id", EXPIRES_AT);
+    /**
+     * The amount of documents converted with one bulk write.
+     */
+    private static final int MIGRATION_BATCH_SIZE = 500;
+    /**
+     * The parsed conditions of {@link #select(String, String)}, so the JSON of a condition is only parsed once.
+     */
+    private final Cache<String, Document> parsedConditions = CacheBuilder.newBuilder().maximumSize(256).build();
     /**
      * The MongoClient instance used to connect to a MongoDB database.
      */
@@ -39,16 +81,171 @@ public class MongoDBDatabase extends Database {
     private MongoDatabase database;
 
     /**
-     * Create the database and tables required for the application to function.
+     * Create the database and tables required for the application to function,
+     * converts documents of older versions and creates the indexes.
+     * <p>
+     * The key fields get unique indexes, so lookups and upserts are indexed point operations.
+     * The expiring collections get an index on the expires field for {@link #findExpired(String, long, int)}
+     * and a TTL index on the {@link #EXPIRES_AT} field, so MongoDB removes expired punishments by itself.
      */
     @Override
     public void createDatabaseAndTables() {
-        MongoDatabase database = mongoClient.getDatabase("betterbansystem");
+        try {
+            this.migrateDocuments();
+            for (Map.Entry<String, String> key : KEY_FIELDS.entrySet()) {
+                this.createIndex(key.getKey(), key.getValue(), true);
+            }
+            for (String collectionName : EXPIRING_COLLECTIONS) {
+                this.createIndex(collectionName, "expires", false);
+                database.getCollection(collectionName).createIndex(Indexes.ascending(EXPIRES_AT), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
+            }
+            this.createIndex("warns", "uuid", false);
+            this.createIndex("warns", "created", false);
+        } catch (MongoException ex) {
+            GlobalLogger.getLogger().error("Failed to migrate and index the documents", ex);
+        }
+    }
+
+    /**
+     * Migrates the documents to the latest version, unless the recorded version of the documents is already up-to-date.
+     * <p>
+     * Version 2 converts the formatted dates into milliseconds since the epoch and the textual ip addresses into 16 bytes.
+     * Version 3 removes duplicated documents, keeping the newest document of every key, and adds the {@link #EXPIRES_AT} field.
+     */
+    private void migrateDocuments() {
+        MongoCollection<Document> versions = database.getCollection(SchemaMigrator.VERSION_TABLE);
+        Document latest = versions.find().sort(Sorts.descending("version")).first();
+        int current = latest == null ? SchemaMigrator.BASELINE_VERSION : latest.getInteger("version", SchemaMigrator.BASELINE_VERSION);
+        if (current < 2) {
+            GlobalLogger.getLogger().info("Migrating the documents to version 2");
+            this.updateDocuments("bannedplayers", document -> this.typedValues(document, true, false));
+            this.updateDocuments("mutedplayers", document -> this.typedValues(document, true, false));
+            this.updateDocuments("bannedips", document -> this.typedValues(document, true, true));
+            this.updateDocuments("warns", document -> this.typedValues(document, false, false));
+            this.recordVersion(versions, 2, "typed timestamp and ip values");
+        }
+        if (current < 3) {
+            GlobalLogger.getLogger().info("Migrating the documents to version 3");
+            for (Map.Entry<String, String> key : KEY_FIELDS.entrySet()) {
+                this.removeDuplicates(key.getKey(), key.getValue());
+            }
+            for (String collectionName : EXPIRING_COLLECTIONS) {
+                this.updateDocuments(collectionName, document -> document.get("expires") instanceof Number expires
+                        ? List.of(Updates.set(EXPIRES_AT, new Date(expires.longValue())))
+                        : List.of());
+            }
+            this.recordVersion(versions, 3, "unique keys and expiry dates");
+        }
+    }
+
+    /**
+     * Records an applied version of the documents.
+     *
+     * @param versions    the collection recording the versions
+     * @param version     the applied version
+     * @param description the description of the version
+     */
+    private void recordVersion(@NotNull MongoCollection<Document> versions, int version, @NotNull String description) {
+        versions.insertOne(new Document("version", version)
+                .append("description", description)
+                .append("applied", System.currentTimeMillis()));
+    }
+
+    /**
+     * Returns the updates converting the textual values of a document into the typed values.
+     *
+     * @param document  the document
+     * @param hasExpiry whether the document has an expires field
+     * @param hasIp     whether the document has an ip field
+     * @return the updates, empty if the document already holds typed values
+     */
+    private @NotNull List<Bson> typedValues(@NotNull Document document, boolean hasExpiry, boolean hasIp) {
+        List<Bson> updates = new ArrayList<>();
+        if (document.get("created") instanceof String created)
+            updates.add(Updates.set("created", ColumnValues.toMillis(ColumnValues.toDate(created))));
+        if (hasExpiry && document.get("expires") instanceof String expires)
+            updates.add(Updates.set("expires", ColumnValues.expiresToColumn(expires)));
+        if (hasIp && document.get("ip") instanceof String ip) {
+            try {
+                updates.add(Updates.set("ip", ColumnValues.ipToColumn(ip)));
+            } catch (IllegalArgumentException e) {
+                GlobalLogger.getLogger().warn("Could not convert the invalid ip", ip, "of bannedips");
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * Applies the updates returned by the given function to every document of a collection, with bulk writes of {@link #MIGRATION_BATCH_SIZE} documents.
+     *
+     * @param collectionName the name of the collection
+     * @param updates        the function returning the updates of a document, an empty list leaves the document unchanged
+     */
+    private void updateDocuments(@NotNull String collectionName, @NotNull Function<Document, List<Bson>> updates) {
+        MongoCollection<Document> collection = database.getCollection(collectionName);
+        List<WriteModel<Document>> models = new ArrayList<>();
+        for (Document document : collection.find()) {
+            List<Bson> documentUpdates = updates.apply(document);
+            if (documentUpdates.isEmpty())
+                continue;
+            models.add(new UpdateOneModel<>(Filters.eq("_id", document.get("_id")), Updates.combine(documentUpdates)));
+            if (models.size() >= MIGRATION_BATCH_SIZE) {
+                collection.bulkWrite(models);
+                models.clear();
+            }
+        }
+        if (!models.isEmpty())
+            collection.bulkWrite(models);
+    }
+
+    /**
+     * Removes the documents sharing a key with another document, keeping the most recently created document of every key.
+     * Older versions inserted documents without upserting them, so a unique index could not be created otherwise.
+     *
+     * @param collectionName the name of the collection
+     * @param keyField       the name of the key field
+     */
+    private void removeDuplicates(@NotNull String collectionName, @NotNull String keyField) {
+        MongoCollection<Document> collection = database.getCollection(collectionName);
+        List<Bson> pipeline = List.of(
+                Aggregates.sort(Sorts.descending("created")),
+                Aggregates.group("$" + keyField, Accumulators.push("ids", "$_id"), Accumulators.sum("count", 1)),
+                Aggregates.match(Filters.gt("count", 1)));
+        long removed = 0;
+        for (Document group : collection.aggregate(pipeline).allowDiskUse(true)) {
+            List<Object> ids = group.getList("ids", Object.class);
+            removed += collection.deleteMany(Filters.in("_id", ids.subList(1, ids.size()))).getDeletedCount();
+        }
+        if (removed > 0)
+            GlobalLogger.getLogger().warn("Removed", removed, "duplicated documents from", collectionName);
+    }
 
-        database.getCollection("bannedplayers");
-        database.getCollection("bannedips");
-        database.getCollection("warnedplayers");
-        database.getCollection("mutedplayers");
+    /**
+     * Converts a row into a document. A numeric expires value is also stored as {@link #EXPIRES_AT} date for the TTL index.
+     *
+     * @param row the row
+     * @return the document
+     */
+    private static @NotNull Document toDocument(@NotNull Map<String, Object> row) {
+        Document document = new Document(row);
+        if (row.containsKey("expires"))
+            document.put(EXPIRES_AT, row.get("expires") instanceof Number expires ? new Date(expires.longValue()) : null);
+        return document;
+    }
+
+    /**
+     * Converts a document into a row. Binary values are returned as byte arrays, like the SQL databases return them,
+     * and the fields which are only used internally are removed.
+     *
+     * @param document the document
+     * @return a mutable map of the fields of the document
+     */
+    private static @NotNull Map<String, Object> toRow(@NotNull Document document) {
+        Map<String, Object> row = new HashMap<>(document);
+        row.remove("_id");
+        row.remove(EXPIRES_AT);
+        row.replaceAll((key, value) -> value instanceof Binary binary ? binary.getData() : value);
+        return row;
     }
 
     /**
@@ -76,14 +273,70 @@ public class MongoDBDatabase extends Database {
 
     /**
      * Inserts a new document into the specified table in the MongoDB database.
+     * Documents of collections with a unique key field are upserted, so a document with the same key is replaced instead of duplicated.
      *
      * @param tableName the name of the table to insert the document into
      * @param data      a map containing the data to be inserted, with the field names as keys and the field values as values
      */
     public void insert(String tableName, Map<String, Object> data) {
+        String keyField = KEY_FIELDS.get(tableName);
+        if (keyField != null && data.get(keyField) != null) {
+            this.upsert(tableName, keyField, List.of(data));
+            return;
+        }
         MongoCollection<Document> collection = database.getCollection(tableName);
-        Document doc = new Document(data);
-        collection.insertOne(doc);
+        collection.insertOne(toDocument(data));
+    }
+
+    /**
+     * Inserts multiple documents into the specified MongoDB collection with a single bulk write.
+     * The documents are inserted in order, so an error stops the insert at the failed document.
+     *
+     * @param tableName the name of the collection
+     * @param rows      the documents to insert, each a map of field names and their values
+     * @return the amount of inserted documents
+     */
+    @Override
+    public int insertBatch(String tableName, @NotNull List<Map<String, Object>> rows) {
+        if (rows.isEmpty())
+            return 0;
+        List<WriteModel<Document>> models = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            models.add(new InsertOneModel<>(toDocument(row)));
+        }
+        try {
+            return database.getCollection(tableName).bulkWrite(models).getInsertedCount();
+        } catch (MongoBulkWriteException ex) {
+            GlobalLogger.getLogger().error("Failed to insert", rows.size(), "documents into", tableName, ex);
+            return ex.getWriteResult().getInsertedCount();
+        }
+    }
+
+    /**
+     * Inserts the given documents into the specified MongoDB collection, or replaces the documents with the same primary key value,
+     * with a single unordered bulk write of upserting replacements.
+     *
+     * @param tableName  the name of the collection
+     * @param primaryKey the name of the primary key field
+     * @param rows       the documents to insert or replace
+     * @return the amount of inserted or replaced documents
+     */
+    @Override
+    public int upsert(String tableName, String primaryKey, @NotNull List<Map<String, Object>> rows) {
+        if (rows.isEmpty())
+            return 0;
+        ReplaceOptions options = new ReplaceOptions().upsert(true);
+        List<WriteModel<Document>> models = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            models.add(new ReplaceOneModel<>(Filters.eq(primaryKey, row.get(primaryKey)), toDocument(row), options));
+        }
+        try {
+            BulkWriteResult result = database.getCollection(tableName).bulkWrite(models, new BulkWriteOptions().ordered(false));
+            return result.getModifiedCount() + result.getUpserts().size();
+        } catch (MongoBulkWriteException ex) {
+            GlobalLogger.getLogger().error("Failed to upsert", rows.size(), "documents into", tableName, ex);
+            return ex.getWriteResult().getModifiedCount() + ex.getWriteResult().getUpserts().size();
+        }
     }
 
     /**
@@ -97,10 +350,7 @@ public class MongoDBDatabase extends Database {
     @Override
     public void update(String tableName, String primaryKey, Object primaryKeyValue, Map<String, Object> newData) {
         MongoCollection<Document> collection = database.getCollection(tableName);
-        Document filter = new Document(primaryKey, primaryKeyValue);
-        Document update = new Document("$set", new Document(newData));
-
-        collection.updateOne(filter, update);
+        collection.updateOne(Filters.eq(primaryKey, primaryKeyValue), new Document("$set", toDocument(newData)));
     }
 
     /**
@@ -118,8 +368,69 @@ public class MongoDBDatabase extends Database {
         collection.deleteOne(Filters.eq(primaryKey, primaryKeyValue));
     }
 
+    /**
+     * Deletes all documents from the specified collection whose primary key value is one of the given values, with a single $in filter.
+     *
+     * @param tableName        the name of the collection
+     * @param primaryKey       the name of the primary key field
+     * @param primaryKeyValues the values of the primary key to identify the documents to be deleted
+     * @return the amount of deleted documents
+     */
+    @Override
+    public int deleteBatch(String tableName, String primaryKey, @NotNull Collection<?> primaryKeyValues) {
+        if (primaryKeyValues.isEmpty())
+            return 0;
+        return (int) database.getCollection(tableName).deleteMany(Filters.in(primaryKey, primaryKeyValues)).getDeletedCount();
+    }
+
+    /**
+     * Deletes all documents from the specified collection whose field value is less than the given value.
+     *
+     * @param tableName the name of the collection
+     * @param column    the name of the field to compare
+     * @param value     the exclusive upper bound of the field value
+     */
+    @Override
+    public void deleteLessThan(String tableName, String column, Object value) {
+        MongoCollection<Document> collection = database.getCollection(tableName);
+        collection.deleteMany(Filters.lt(column, value));
+    }
+
+    /**
+     * Deletes all documents from the specified collection whose join field value is not used by any document of the child collection.
+     * The distinct values are read first, so a document inserted for a new parent in the meantime is not covered by this call.
+     *
+     * @param tableName  the name of the collection from which to delete the documents
+     * @param childTable the name of the child collection
+     * @param joinColumn the name of the field both collections are joined on
+     * @return the amount of deleted documents
+     */
+    @Override
+    public int deleteOrphans(String tableName, String childTable, String joinColumn) {
+        List<Object> referenced = database.getCollection(childTable).distinct(joinColumn, Object.class).into(new ArrayList<>());
+        return (int) database.getCollection(tableName).deleteMany(Filters.nin(joinColumn, referenced)).getDeletedCount();
+    }
+
+    /**
+     * Retrieves the expired documents of the specified collection with a $lte filter on the indexed expires field.
+     *
+     * @param tableName the name of the collection to select from
+     * @param now       the time in milliseconds since the epoch, documents expiring at or before it are returned
+     * @param limit     the maximum amount of documents
+     * @return a list of maps representing the expired documents, ordered by their expiry
+     */
+    @Override
+    public List<Map<String, Object>> findExpired(String tableName, long now, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Document document : database.getCollection(tableName).find(Filters.lte("expires", now)).projection(ROW_PROJECTION).sort(Sorts.ascending("expires")).limit(limit)) {
+            result.add(toRow(document));
+        }
+        return result;
+    }
+
     /**
      * Retrieves a list of rows from a database table based on the given condition.
+     * The condition is a filter in JSON, which is parsed once and reused for later calls with the same condition.
      *
      * @param tableName the name of the table to select from
      * @param condition the condition to use for selecting rows
@@ -127,18 +438,116 @@ public class MongoDBDatabase extends Database {
      */
     @Override
     public List<Map<String, Object>> select(String tableName, String condition) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        Document filter;
+        try {
+            filter = this.parsedConditions.get(condition, () -> Document.parse(condition));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            GlobalLogger.getLogger().error("Invalid MongoDB condition:", condition, ex.getCause());
+            return result;
+        }
+        for (Document document : database.getCollection(tableName).find(filter).projection(ROW_PROJECTION)) {
+            result.add(toRow(document));
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves a list of documents from a collection where every given field equals the given value.
+     *
+     * @param tableName the name of the collection to select from
+     * @param equals    the field names and the values they have to be equal to
+     * @return a list of maps representing the selected documents
+     */
+    @Override
+    public List<Map<String, Object>> select(String tableName, @NotNull Map<String, Object> equals) {
         List<Map<String, Object>> result = new ArrayList<>();
         MongoCollection<Document> collection = database.getCollection(tableName);
 
-        for (Document document : collection.find(Document.parse(condition))) {
-            Map<String, Object> row = new HashMap<>(document);
-            result.add(row);
+        for (Document document : collection.find(toFilter(equals)).projection(ROW_PROJECTION)) {
+            result.add(toRow(document));
         }
+        return result;
+    }
+
+    /**
+     * Retrieves the documents from a collection whose field equals one of the given values.
+     *
+     * @param tableName the name of the collection to select from
+     * @param column    the name of the field to compare
+     * @param values    the values the field may be equal to, null values never match
+     * @return a list of maps representing the matching documents
+     */
+    @Override
+    public List<Map<String, Object>> selectIn(String tableName, String column, @NotNull Collection<?> values) {
+        List<Object> bound = new ArrayList<>(values);
+        bound.removeIf(Objects::isNull);
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (bound.isEmpty())
+            return result;
+        for (Document document : database.getCollection(tableName).find(Filters.in(column, bound)).projection(ROW_PROJECTION)) {
+            result.add(toRow(document));
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the first document from a collection where every given field equals the given value.
+     * A lookup by the key field is a single point read on its unique index.
+     *
+     * @param tableName the name of the collection to select from
+     * @param equals    the field names and the values they have to be equal to
+     * @return the first matching document as a map, or null if no document matches
+     */
+    @Override
+    public @Nullable Map<String, Object> selectOne(String tableName, @NotNull Map<String, Object> equals) {
+        Document document = database.getCollection(tableName).find(toFilter(equals)).projection(ROW_PROJECTION).limit(1).first();
+        return document == null ? null : toRow(document);
+    }
 
+    /**
+     * Selects the documents of a collection together with their child documents using a single $lookup aggregation.
+     *
+     * @param tableName  the name of the collection to select from
+     * @param childTable the name of the child collection to join
+     * @param joinColumn the name of the field both collections are joined on
+     * @param equals     the field names of the parent collection and the values they have to be equal to
+     * @return a list of maps representing the selected documents, each containing a list of its child documents
+     */
+    @Override
+    public List<Map<String, Object>> selectWithChildren(String tableName, String childTable, String joinColumn, @NotNull Map<String, Object> equals) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        MongoCollection<Document> collection = database.getCollection(tableName);
+        List<Bson> pipeline = List.of(Aggregates.match(toFilter(equals)), Aggregates.lookup(childTable, joinColumn, joinColumn, childTable));
 
+        for (Document document : collection.aggregate(pipeline)) {
+            Map<String, Object> row = toRow(document);
+            List<Map<String, Object>> children = new ArrayList<>();
+            for (Document child : document.getList(childTable, Document.class, List.of())) {
+                children.add(toRow(child));
+            }
+            row.put(childTable, children);
+            result.add(row);
+        }
         return result;
     }
 
+    /**
+     * Converts the given field values into a filter matching documents where every field equals its value.
+     *
+     * @param equals the field names and the values they have to be equal to
+     * @return the filter
+     */
+    private @NotNull Bson toFilter(@NotNull Map<String, Object> equals) {
+        if (equals.isEmpty())
+            return new Document();
+        List<Bson> filters = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : equals.entrySet()) {
+            filters.add(Filters.eq(entry.getKey(), entry.getValue()));
+        }
+        return filters.size() == 1 ? filters.get(0) : Filters.and(filters);
+    }
+
     /**
      * Retrieves all records from the specified table in the MongoDB database.
      *
@@ -150,39 +559,83 @@ public class MongoDBDatabase extends Database {
         List<Map<String, Object>> result = new ArrayList<>();
         MongoCollection<Document> collection = database.getCollection(tableName);
 
-        for (Document document : collection.find()) {
-            Map<String, Object> row = new HashMap<>(document);
-            result.add(row);
+        for (Document document : collection.find().projection(ROW_PROJECTION)) {
+            result.add(toRow(document));
         }
 
         return result;
     }
 
+    /**
+     * Reads all documents of the specified collection sorted by the given field and passes them one by one to the consumer.
+     * The documents are fetched with a cursor in batches of the given size.
+     *
+     * @param tableName the name of the collection to read
+     * @param orderBy   the name of the field to sort the documents by
+     * @param fetchSize the amount of documents fetched at once
+     * @param consumer  the consumer receiving every document
+     * @return the amount of read documents
+     */
+    @Override
+    public long scan(String tableName, String orderBy, int fetchSize, @NotNull Consumer<Map<String, Object>> consumer) {
+        long count = 0;
+        try (MongoCursor<Document> cursor = database.getCollection(tableName).find().projection(ROW_PROJECTION).sort(Sorts.ascending(orderBy)).batchSize(fetchSize).iterator()) {
+            while (cursor.hasNext()) {
+                consumer.accept(toRow(cursor.next()));
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Executes a query on the MongoDB database.
+     * The query is a database command in JSON, e.g. {@code {"find": "bannedplayers", "filter": {"uuid": "..."}}}.
      *
-     * @param queryString The query string to be executed.
-     * @return A list of maps representing the query result. Each map contains field-value pairs of the documents returned by the query.
+     * @param queryString The database command to be executed.
+     * @return A list of maps representing the query result. For commands returning a cursor, each map contains the field-value pairs
+     * of a document of the first batch, otherwise the list contains the reply of the command.
      */
     @Override
     public List<Map<String, Object>> executeQuery(String queryString) {
         List<Map<String, Object>> result = new ArrayList<>();
-        MongoCollection<Document> collection = database.getCollection(queryString);
-
-        for (Document document : collection.find()) {
-            Map<String, Object> row = new HashMap<>(document);
-            result.add(row);
+        Document reply = this.runCommand(queryString);
+        if (reply == null)
+            return result;
+        Document cursor = reply.get("cursor", Document.class);
+        if (cursor == null) {
+            result.add(toRow(reply));
+            return result;
+        }
+        for (Document document : cursor.getList("firstBatch", Document.class, List.of())) {
+            result.add(toRow(document));
         }
-
         return result;
     }
 
     /**
+     * Executes a database command in JSON on the MongoDB database and discards its reply.
      *
+     * @param queryString The database command to be executed.
      */
     @Override
     public void query(String queryString) {
-        this.executeQuery(queryString); // didn't want to completly new write the code lol
+        this.runCommand(queryString);
+    }
+
+    /**
+     * Parses and runs a database command.
+     *
+     * @param command the database command in JSON
+     * @return the reply of the command, or null if the command is invalid or failed
+     */
+    private @Nullable Document runCommand(@NotNull String command) {
+        try {
+            return database.runCommand(Document.parse(command));
+        } catch (JsonParseException | MongoException ex) {
+            GlobalLogger.getLogger().error("Failed to execute MongoDB command:", command, ex);
+            return null;
+        }
     }
 
     /**
@@ -199,6 +652,16 @@ public class MongoDBDatabase extends Database {
         collection.createIndex(Indexes.ascending(fieldName), indexOptions);
     }
 
+    /**
+     * Returns whether this database supports transactions. Transactions are not implemented for MongoDB.
+     *
+     * @return false
+     */
+    @Override
+    public boolean supportsTransactions() {
+        return false;
+    }
+
     /**
      * Starts a transaction.
      */
@@ -4,15 +4,19 @@ package me.github.simonplays15.betterbansystem.core.database.mysql;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
+import me.github.simonplays15.betterbansystem.core.database.ConnectionPool;
+import me.github.simonplays15.betterbansystem.core.database.ConnectionPoolSettings;
 import me.github.simonplays15.betterbansystem.core.database.Database;
+import me.github.simonplays15.betterbansystem.core.database.SQLStatementBuilder;
+import me.github.simonplays15.betterbansystem.core.database.migration.SchemaMigrator;
+import me.github.simonplays15.betterbansystem.core.database.migration.SqlDialect;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * MySQLDatabase is a class that extends the abstract class Database and provides methods for managing an MySQL database.
@@ -20,17 +24,19 @@ import java.util.Map;
 public class MySQLDatabase extends Database {
 
     /**
-     * The Connection variable represents the connection to a database.
+     * The pool of connections to the database.
+     * Every database operation leases its own connection, so the database can be used from multiple threads at once.
      */
-    private Connection connection;
+    private ConnectionPool pool;
 
     /**
-     * Creates the database and tables required for the BetterBanSystem.
+     * Creates the database and tables required for the BetterBanSystem
+     * and migrates their schema to the latest version with the {@link SchemaMigrator}.
      */
     @Override
     public void createDatabaseAndTables() {
-        Statement statement = null;
-        try {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             String createDbQuery = "CREATE DATABASE IF NOT EXISTS betterbansystem";
             String createBannedPlayersTable = "CREATE TABLE IF NOT EXISTS bannedplayers (" +
                     "uuid VARCHAR(36) PRIMARY KEY," +
@@ -49,7 +55,7 @@ public class MySQLDatabase extends Database {
                     ");";
             String createWarnedPlayersTable = "CREATE TABLE IF NOT EXISTS warnedplayers (" +
                     "uuid VARCHAR(36) PRIMARY KEY," +
-                    "name TEXT," +
+                    "name TEXT" +
                     ");";
             String createWarnsTable = "CREATE TABLE IF NOT EXISTS warns (" +
                     "id INT AUTO_INCREMENT PRIMARY KEY," +
@@ -68,7 +74,6 @@ public class MySQLDatabase extends Database {
                     ");";
 
             // Execute table create queries
-            statement = connection.createStatement();
             statement.executeUpdate(createDbQuery);
             statement.executeUpdate(createBannedPlayersTable);
             statement.executeUpdate(createBannedIpsTable);
@@ -77,13 +82,11 @@ public class MySQLDatabase extends Database {
             statement.executeUpdate(createMutedPlayersTable);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error(ex);
-        } finally {
-            if (statement != null) {
-                try {
-                    statement.close();
-                } catch (SQLException ignored) {
-                }
-            }
+        }
+        try (Connection connection = this.getConnection()) {
+            SchemaMigrator.migrate(connection, SqlDialect.MYSQL);
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to migrate the database schema", ex.getSQLState() + ":" + ex.getErrorCode() + "/" + ex.getMessage(), ex);
         }
     }
 
@@ -97,9 +100,12 @@ public class MySQLDatabase extends Database {
     @Override
     public void connect(String connectionstring, String username, String password) {
         try {
-            String url = "jdbc:mysql://" + connectionstring;
+            // Server side prepared statements, so cached statements skip the parsing on the server,
+            // cursor fetching, so a fetch size streams large results instead of reading them completely,
+            // and rewritten batches, so a JDBC batch is sent as multi-row statements in a single round trip
+            String url = "jdbc:mysql://" + connectionstring + (connectionstring.contains("?") ? "&" : "?") + "useServerPrepStmts=true&useCursorFetch=true&rewriteBatchedStatements=true";
             Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection(url, username, password);
+            pool = new ConnectionPool(url, username, password, null, ConnectionPoolSettings.current());
         } catch (ClassNotFoundException | SQLException ex) {
             GlobalLogger.getLogger().error("An error occurred while connecting to database", ex);
         }
@@ -108,20 +114,14 @@ public class MySQLDatabase extends Database {
     /**
      * Disconnects from the database.
      * <p>
-     * This method closes the active connection to the database, if it is not already closed.
-     * </p>
-     * <p>
-     * If an error occurs while closing the connection, an error message is logged using the global logger.
+     * This method closes the connection pool and all idle connections.
+     * Connections which are still leased are closed as soon as they are returned.
      * </p>
      */
     @Override
     public void disconnect() {
-        try {
-            if (connection != null && !connection.isClosed())
-                connection.close();
-        } catch (SQLException ex) {
-            GlobalLogger.getLogger().error("Failed to close the database connection", ex);
-        }
+        if (pool != null)
+            pool.close();
     }
 
     /**
@@ -145,7 +145,8 @@ public class MySQLDatabase extends Database {
 
         String sql = "INSERT INTO %s (%s) VALUES (%s)".formatted(tableName, coloumns, values);
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             int index = 1;
             for (Object value : data.values()) {
                 statement.setObject(index++, value);
@@ -157,6 +158,57 @@ public class MySQLDatabase extends Database {
         }
     }
 
+    /**
+     * Inserts multiple rows into the specified table as a single JDBC batch.
+     * The connection is opened with rewriteBatchedStatements, so the driver sends the batch as multi-row INSERT statements.
+     * The columns are taken from the first row, missing values are inserted as NULL.
+     *
+     * @param tableName the name of the table to insert into
+     * @param rows      the rows to insert
+     * @return the amount of inserted rows, or 0 if an error occurred
+     */
+    @Override
+    public int insertBatch(String tableName, @NotNull List<Map<String, Object>> rows) {
+        if (rows.isEmpty())
+            return 0;
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        try (Connection connection = this.getConnection()) {
+            return SQLStatementBuilder.executeBatch(connection, SQLStatementBuilder.insertInto(tableName, columns), SQLStatementBuilder.rowValues(rows, columns));
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to insert", rows.size(), "rows into", tableName, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Inserts the given rows into the specified table, or updates the rows with the same primary key value,
+     * using INSERT ... ON DUPLICATE KEY UPDATE as a single JDBC batch.
+     *
+     * @param tableName  the name of the table
+     * @param primaryKey the name of the primary key column
+     * @param rows       the rows to insert or update
+     * @return the amount of affected rows as reported by the database, or 0 if an error occurred
+     */
+    @Override
+    public int upsert(String tableName, String primaryKey, @NotNull List<Map<String, Object>> rows) {
+        if (rows.isEmpty())
+            return 0;
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        StringJoiner updates = new StringJoiner(", ", " ON DUPLICATE KEY UPDATE ", "");
+        for (String column : columns) {
+            if (!column.equals(primaryKey))
+                updates.add(SQLStatementBuilder.identifier(column) + " = VALUES(" + SQLStatementBuilder.identifier(column) + ")");
+        }
+        if (columns.size() == 1)
+            updates.add(SQLStatementBuilder.identifier(primaryKey) + " = " + SQLStatementBuilder.identifier(primaryKey));
+        try (Connection connection = this.getConnection()) {
+            return SQLStatementBuilder.executeBatch(connection, SQLStatementBuilder.insertInto(tableName, columns) + updates, SQLStatementBuilder.rowValues(rows, columns));
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to upsert", rows.size(), "rows into", tableName, ex);
+            return 0;
+        }
+    }
+
     /**
      * Updates a record in the specified table with the new data provided.
      *
@@ -176,7 +228,8 @@ public class MySQLDatabase extends Database {
         setClause.delete(setClause.length() - 2, setClause.length());
         String sql = "UPDATE %s SET %s WHERE %s = ?".formatted(tableName, setClause, primaryKey);
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             int index = 2;
             for (Object value : newData.values()) {
                 statement.setObject(index++, value);
@@ -201,7 +254,8 @@ public class MySQLDatabase extends Database {
     @Override
     public void delete(String tableName, String primaryKey, Object primaryKeyValue) {
         String sql = "DELETE FROM %s WHERE %s = ?".formatted(tableName, primaryKey);
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setObject(1, primaryKeyValue);
 
             statement.executeUpdate();
@@ -210,6 +264,95 @@ public class MySQLDatabase extends Database {
         }
     }
 
+    /**
+     * Deletes all records from the specified table whose primary key value is one of the given values,
+     * executing the DELETE statement for every value as a single JDBC batch.
+     *
+     * @param tableName        the name of the table from which to delete the records
+     * @param primaryKey       the name of the primary key column in the table
+     * @param primaryKeyValues the values of the primary key to identify the records to be deleted
+     * @return the amount of deleted records, or 0 if an error occurred
+     */
+    @Override
+    public int deleteBatch(String tableName, String primaryKey, @NotNull Collection<?> primaryKeyValues) {
+        if (primaryKeyValues.isEmpty())
+            return 0;
+        String sql = "DELETE FROM %s WHERE %s = ?".formatted(SQLStatementBuilder.identifier(tableName), SQLStatementBuilder.identifier(primaryKey));
+        List<List<Object>> parameters = new ArrayList<>(primaryKeyValues.size());
+        for (Object value : primaryKeyValues) {
+            parameters.add(Collections.singletonList(value));
+        }
+        try (Connection connection = this.getConnection()) {
+            return SQLStatementBuilder.executeBatch(connection, sql, parameters);
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Deletes all records from the specified table whose column value is less than the given value.
+     *
+     * @param tableName the name of the table from which to delete the records
+     * @param column    the name of the column to compare
+     * @param value     the exclusive upper bound of the column value
+     */
+    @Override
+    public void deleteLessThan(String tableName, String column, Object value) {
+        String sql = "DELETE FROM %s WHERE %s < ?".formatted(SQLStatementBuilder.identifier(tableName), SQLStatementBuilder.identifier(column));
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, value);
+
+            statement.executeUpdate();
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+    }
+
+    /**
+     * Deletes all records from the specified table which no longer have a record in the child table.
+     *
+     * @param tableName  the name of the table from which to delete the records
+     * @param childTable the name of the child table
+     * @param joinColumn the name of the column both tables are joined on
+     * @return the amount of deleted records, or 0 if an error occurred
+     */
+    @Override
+    public int deleteOrphans(String tableName, String childTable, String joinColumn) {
+        String sql = SQLStatementBuilder.deleteOrphans(tableName, childTable, joinColumn);
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(sql);
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Retrieves the expired records of the specified table with a parameterized statement using the index of the expires column.
+     *
+     * @param tableName the name of the table to select from
+     * @param now       the time in milliseconds since the epoch, records expiring at or before it are returned
+     * @param limit     the maximum amount of records
+     * @return a list of maps representing the expired records, ordered by their expiry
+     */
+    @Override
+    public List<Map<String, Object>> findExpired(String tableName, long now, int limit) {
+        String sql = SQLStatementBuilder.selectExpired(tableName, limit);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, now);
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readRows(set);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * Executes a SELECT statement on the specified table with a given condition and returns the result as a list of maps.
      *
@@ -224,7 +367,8 @@ public class MySQLDatabase extends Database {
 
         String sql = "SELECT * FROM %s WHERE %s".formatted(tableName, condition);
 
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             ResultSet set = statement.executeQuery(sql);
             ResultSetMetaData metaData = set.getMetaData();
             int c = metaData.getColumnCount();
@@ -246,6 +390,136 @@ public class MySQLDatabase extends Database {
         return result;
     }
 
+    /**
+     * Executes a parameterized SELECT statement on the specified table, comparing every given column for equality.
+     * The statement is prepared once per connection and reused from the statement cache of the connection pool.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @return a list of maps representing the selected rows, with column names as keys and column values as values
+     */
+    @Override
+    public List<Map<String, Object>> select(String tableName, @NotNull Map<String, Object> equals) {
+        return this.selectWhereEquals(tableName, equals, 0);
+    }
+
+    /**
+     * Executes a parameterized SELECT statement on the specified table, returning the rows whose column equals one of the given values.
+     *
+     * @param tableName the name of the table to select from
+     * @param column    the name of the column to compare
+     * @param values    the values the column may be equal to, null values never match
+     * @return a list of maps representing the selected rows, with column names as keys and column values as values
+     */
+    @Override
+    public List<Map<String, Object>> selectIn(String tableName, String column, @NotNull Collection<?> values) {
+        List<Object> bound = new ArrayList<>(values);
+        bound.removeIf(Objects::isNull);
+        if (bound.isEmpty())
+            return new ArrayList<>();
+        String sql = SQLStatementBuilder.selectWhereIn(tableName, column, bound.size());
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            SQLStatementBuilder.bindValues(statement, 1, bound);
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readRows(set);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Executes a parameterized SELECT statement on the specified table and returns the first matching row.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @return the first matching row, or null if no row matches
+     */
+    @Override
+    public @Nullable Map<String, Object> selectOne(String tableName, @NotNull Map<String, Object> equals) {
+        List<Map<String, Object>> result = this.selectWhereEquals(tableName, equals, 1);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Executes a parameterized SELECT statement comparing every given column for equality.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @param limit     the maximum amount of rows, 0 for no limit
+     * @return a list of maps representing the selected rows
+     */
+    private @NotNull List<Map<String, Object>> selectWhereEquals(String tableName, @NotNull Map<String, Object> equals, int limit) {
+        String sql = SQLStatementBuilder.selectWhereEquals(tableName, equals, limit);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            SQLStatementBuilder.bindValues(statement, 1, equals.values());
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readRows(set);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Reads all records of the specified table ordered by the given column and passes them one by one to the consumer.
+     * The records are fetched in blocks of the given size.
+     * The connection is opened with cursor fetching, so the records are really fetched in blocks instead of reading the whole table.
+     *
+     * @param tableName the name of the table to read
+     * @param orderBy   the name of the column to order the records by
+     * @param fetchSize the amount of records fetched from the database at once
+     * @param consumer  the consumer receiving every record
+     * @return the amount of read records
+     */
+    @Override
+    public long scan(String tableName, String orderBy, int fetchSize, @NotNull Consumer<Map<String, Object>> consumer) {
+        String sql = "SELECT * FROM %s ORDER BY %s".formatted(SQLStatementBuilder.identifier(tableName), SQLStatementBuilder.identifier(orderBy));
+        long count = 0;
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet set = statement.executeQuery()) {
+                ResultSetMetaData metaData = set.getMetaData();
+                while (set.next()) {
+                    consumer.accept(SQLStatementBuilder.readRow(set, metaData));
+                    count++;
+                }
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return count;
+    }
+
+    /**
+     * Selects the rows of a table together with their child rows using a single LEFT JOIN statement.
+     *
+     * @param tableName  the name of the table to select from
+     * @param childTable the name of the child table to join
+     * @param joinColumn the name of the column both tables are joined on
+     * @param equals     the column names of the parent table and the values they have to be equal to
+     * @return a list of maps representing the selected rows, each containing a list of its child rows
+     */
+    @Override
+    public List<Map<String, Object>> selectWithChildren(String tableName, String childTable, String joinColumn, @NotNull Map<String, Object> equals) {
+        String sql = SQLStatementBuilder.selectLeftJoin(tableName, childTable, joinColumn, equals);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            SQLStatementBuilder.bindValues(statement, 1, equals.values());
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readJoinedRows(set, childTable, joinColumn);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * Retrieves all rows from the specified table in the database.
      *
@@ -259,7 +533,8 @@ public class MySQLDatabase extends Database {
 
         String sql = "SELECT * FROM %s".formatted(tableName);
 
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             ResultSet set = statement.executeQuery(sql);
             ResultSetMetaData metaData = set.getMetaData();
             int c = metaData.getColumnCount();
@@ -293,13 +568,14 @@ public class MySQLDatabase extends Database {
     public List<Map<String, Object>> executeQuery(String queryString) {
         List<Map<String, Object>> result = new ArrayList<>();
 
-        try (PreparedStatement statement = connection.prepareStatement(queryString);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(queryString);
              ResultSet resultSet = statement.executeQuery()) {
             ResultSetMetaData metaData = resultSet.getMetaData();
             int c = metaData.getColumnCount();
             while (resultSet.next()) {
                 Map<String, Object> row = new HashMap<>();
-                for (int i = 0; i <= c; i++) {
+                for (int i = 1; i <= c; i++) {
                     row.put(metaData.getColumnName(i), resultSet.getObject(i));
                 }
                 result.add(row);
@@ -334,7 +610,8 @@ public class MySQLDatabase extends Database {
         String indexName = "idx_%s_%s".formatted(collectionName, fieldName);
         String sql = "CREATE %s INDEX %s ON %s (%s)".formatted(indexType, indexName, collectionName, fieldName);
 
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             statement.executeUpdate(sql);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
@@ -342,8 +619,18 @@ public class MySQLDatabase extends Database {
     }
 
     /**
-     * Starts a transaction by disabling the auto-commit mode of the database connection.
-     * Once the transaction is started, all database operations until the transaction is committed or rolled back
+     * Returns whether this database supports transactions, which it always does.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsTransactions() {
+        return true;
+    }
+
+    /**
+     * Starts a transaction by pinning a connection with disabled auto-commit mode to the calling thread.
+     * Once the transaction is started, all database operations of this thread until the transaction is committed or rolled back
      * will be treated as a single atomic unit of work.
      * If an exception occurs while starting the transaction, an error message will be logged.
      *
@@ -352,38 +639,57 @@ public class MySQLDatabase extends Database {
     @Override
     public void startTransaction() {
         try {
-            connection.setAutoCommit(false);
+            this.getPool().beginTransaction();
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to start transaction", ex);
         }
     }
 
     /**
-     * Commits the current transaction by calling the 'commit()' method on the database connection.
-     * Sets auto-commit mode to true after the commit operation is successful.
+     * Commits the current transaction of the calling thread and returns the pinned connection to the pool.
      * If an SQLException occurs during the commit operation, it is logged as an error.
      */
     @Override
     public void commitTransaction() {
         try {
-            connection.commit();
-            connection.setAutoCommit(true);
+            this.getPool().commitTransaction();
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to commit transaction", ex);
         }
     }
 
     /**
-     * Rolls back the current transaction and sets auto-commit mode to true.
+     * Rolls back the current transaction of the calling thread and returns the pinned connection to the pool.
      * If an SQLException is caught during the rollback, an error message will be logged.
      */
     @Override
     public void rollbackTransaction() {
         try {
-            connection.rollback();
-            connection.setAutoCommit(true);
+            this.getPool().rollbackTransaction();
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to rollback transaction", ex);
         }
     }
+
+    /**
+     * Returns the connection pool of this database.
+     *
+     * @return the connection pool
+     * @throws SQLException if the database is not connected
+     */
+    public @NotNull ConnectionPool getPool() throws SQLException {
+        if (pool == null)
+            throw new SQLException("The database is not connected");
+        return pool;
+    }
+
+    /**
+     * Leases a connection from the connection pool. Closing the connection returns it to the pool.
+     *
+     * @return a leased connection
+     * @throws SQLException if the database is not connected or no connection could be leased
+     */
+    protected @NotNull Connection getConnection() throws SQLException {
+        return this.getPool().getConnection();
+    }
 }
@@ -4,15 +4,19 @@ package me.github.simonplays15.betterbansystem.core.database.sqlite;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
+import me.github.simonplays15.betterbansystem.core.database.ConnectionPool;
+import me.github.simonplays15.betterbansystem.core.database.ConnectionPoolSettings;
 import me.github.simonplays15.betterbansystem.core.database.Database;
+import me.github.simonplays15.betterbansystem.core.database.SQLStatementBuilder;
+import me.github.simonplays15.betterbansystem.core.database.migration.SchemaMigrator;
+import me.github.simonplays15.betterbansystem.core.database.migration.SqlDialect;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * The SQLiteDatabase class represents a database connection and provides methods for interacting with the database.
@@ -21,47 +25,10 @@ import java.util.Map;
 public class SQLiteDatabase extends Database {
 
     /**
-     * The connection variable represents the connection to the database.
-     * It is a private instance variable of type Connection.
-     * <p>
-     * Class Hierarchy:
-     * SQLiteDatabase -> Database -> IDatabase
-     * <p>
-     * Class Fields:
-     * SQLiteDatabase:
-     * - connection (private)
-     * <p>
-     * Class Methods:
-     * SQLiteDatabase:
-     * - connect(String connectionstring, String username, String password) : void (Override)
-     * - createDatabaseAndTables() : void (Override)
-     * - disconnect() : void (Override)
-     * - insert(String tableName, Map<String, Object> data) : void
-     * - update(String tableName, String primaryKey, Object primaryKeyValue, Map<String, Object> newData) : void (Override)
-     * - delete(String tableName, String primaryKey, Object primaryKeyValue) : void (Override)
-     * - select(String tableName, String condition) : List<Map<String, Object>> (Override)
-     * - selectAll(String tableName) : List<Map<String, Object>> (Override)
-     * - executeQuery(String queryString) : List<Map<String, Object>> (Override)
-     * - query(String queryString) : void (Override)
-     * - createIndex(String collectionName, String fieldName, boolean unique) : void (Override)
-     * - startTransaction() : void (Override)
-     * - commitTransaction() : void (Override)
-     * - rollbackTransaction() : void (Override)
-     * <p>
-     * Superclass:
-     * Database (abstract class)
-     * - Contains the declaration of connection variable.
-     * <p>
-     * Example usage:
-     * <p>
-     * ```
-     * SQLiteDatabase database = new SQLiteDatabase();
-     * database.connect("url", "username", "password");
-     * // Do something with the connection
-     * database.disconnect();
-     * ```
+     * The pool of connections to the database.
+     * Every database operation leases its own connection, so the database can be used from multiple threads at once.
      */
-    private Connection connection;
+    private ConnectionPool pool;
 
     /**
      * Connects to the database using the given connection string, username, and password.
@@ -74,7 +41,7 @@ public class SQLiteDatabase extends Database {
     public void connect(String connectionstring, String username, String password) {
         try {
             Class.forName("org.sqlite.JDBC");
-            connection = DriverManager.getConnection("jdbc:sqlite:" + connectionstring);
+            pool = new ConnectionPool("jdbc:sqlite:" + connectionstring, null, null, "PRAGMA busy_timeout = 5000", ConnectionPoolSettings.current());
         } catch (ClassNotFoundException | SQLException ex) {
             GlobalLogger.getLogger().error("Failed to connect to the database", ex);
         }
@@ -82,7 +49,8 @@ public class SQLiteDatabase extends Database {
 
 
     /**
-     * Creates the necessary database tables if they don't already exist.
+     * Creates the necessary database tables if they don't already exist
+     * and migrates their schema to the latest version with the {@link SchemaMigrator}.
      */
     @Override
     public void createDatabaseAndTables() {
@@ -120,46 +88,51 @@ public class SQLiteDatabase extends Database {
                 "expires TEXT," +
                 "reason TEXT" +
                 ");";
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             statement.execute(createBannedPlayersTable);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error(createBannedPlayersTable, "|", ex.getSQLState() + ":" + ex.getErrorCode() + "/" + ex.getMessage(), ex);
         }
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             statement.execute(createBannedIpsTable);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error(createBannedIpsTable, "|", ex.getSQLState() + ":" + ex.getErrorCode() + "/" + ex.getMessage(), ex);
         }
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             statement.execute(createWarnedPlayersTable);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error(createWarnedPlayersTable, "|", ex.getSQLState() + ":" + ex.getErrorCode() + "/" + ex.getMessage(), ex);
         }
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             statement.execute(createWarnsTable);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error(createWarnsTable, "|", ex.getSQLState() + ":" + ex.getErrorCode() + "/" + ex.getMessage(), ex);
         }
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             statement.execute(createMutedPlayersTable);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error(createMutedPlayersTable, "|", ex.getSQLState() + ":" + ex.getErrorCode() + "/" + ex.getMessage(), ex);
         }
+        try (Connection connection = this.getConnection()) {
+            SchemaMigrator.migrate(connection, SqlDialect.SQLITE);
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to migrate the database schema", ex.getSQLState() + ":" + ex.getErrorCode() + "/" + ex.getMessage(), ex);
+        }
     }
 
     /**
-     * Disconnects from the database by closing the connection.
-     * If the connection is already closed or null, no action is performed.
-     * Any exception that occurs during the process will be logged to the global logger.
+     * Disconnects from the database by closing the connection pool.
+     * If the database is not connected, no action is performed.
      */
     @Override
     public void disconnect() {
-        try {
-            if (connection != null && !connection.isClosed())
-                connection.close();
-        } catch (SQLException ex) {
-            GlobalLogger.getLogger().error("Failed to close the database connection", ex);
-        }
+        if (pool != null)
+            pool.close();
     }
 
     /**
@@ -184,7 +157,8 @@ public class SQLiteDatabase extends Database {
 
         String sql = "INSERT INTO %s (%s) VALUES (%s)".formatted(tableName, coloumns, values);
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             int index = 1;
             for (Object value : data.values()) {
                 statement.setObject(index++, value);
@@ -196,6 +170,57 @@ public class SQLiteDatabase extends Database {
         }
     }
 
+    /**
+     * Inserts multiple rows into the specified table as a single JDBC batch inside one transaction,
+     * so SQLite writes its journal only once for the whole batch.
+     * The columns are taken from the first row, missing values are inserted as NULL.
+     *
+     * @param tableName the name of the table to insert into
+     * @param rows      the rows to insert
+     * @return the amount of inserted rows, or 0 if an error occurred
+     */
+    @Override
+    public int insertBatch(String tableName, @NotNull List<Map<String, Object>> rows) {
+        if (rows.isEmpty())
+            return 0;
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        try (Connection connection = this.getConnection()) {
+            return SQLStatementBuilder.executeBatch(connection, SQLStatementBuilder.insertInto(tableName, columns), SQLStatementBuilder.rowValues(rows, columns));
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to insert", rows.size(), "rows into", tableName, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Inserts the given rows into the specified table, or updates the rows with the same primary key value,
+     * using INSERT ... ON CONFLICT DO UPDATE as a single JDBC batch inside one transaction.
+     *
+     * @param tableName  the name of the table
+     * @param primaryKey the name of the primary key column
+     * @param rows       the rows to insert or update
+     * @return the amount of affected rows as reported by the database, or 0 if an error occurred
+     */
+    @Override
+    public int upsert(String tableName, String primaryKey, @NotNull List<Map<String, Object>> rows) {
+        if (rows.isEmpty())
+            return 0;
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        StringJoiner updates = new StringJoiner(", ", " ON CONFLICT(" + SQLStatementBuilder.identifier(primaryKey) + ") DO UPDATE SET ", "");
+        for (String column : columns) {
+            if (!column.equals(primaryKey))
+                updates.add(SQLStatementBuilder.identifier(column) + " = excluded." + SQLStatementBuilder.identifier(column));
+        }
+        if (columns.size() == 1)
+            updates = new StringJoiner("", " ON CONFLICT(" + SQLStatementBuilder.identifier(primaryKey) + ") DO NOTHING", "");
+        try (Connection connection = this.getConnection()) {
+            return SQLStatementBuilder.executeBatch(connection, SQLStatementBuilder.insertInto(tableName, columns) + updates, SQLStatementBuilder.rowValues(rows, columns));
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to upsert", rows.size(), "rows into", tableName, ex);
+            return 0;
+        }
+    }
+
     /**
      * Updates a record in the specified table.
      *
@@ -217,7 +242,8 @@ public class SQLiteDatabase extends Database {
         setClause.delete(setClause.length() - 2, setClause.length());
         String sql = "UPDATE %s SET %s WHERE %s = ?".formatted(tableName, setClause, primaryKey);
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             int index = 2;
             for (Object value : newData.values()) {
                 statement.setObject(index++, value);
@@ -242,7 +268,8 @@ public class SQLiteDatabase extends Database {
     @Override
     public void delete(String tableName, String primaryKey, Object primaryKeyValue) {
         String sql = "DELETE FROM %s WHERE %s = ?".formatted(tableName, primaryKey);
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setObject(1, primaryKeyValue);
 
             statement.executeUpdate();
@@ -251,6 +278,95 @@ public class SQLiteDatabase extends Database {
         }
     }
 
+    /**
+     * Deletes all records from the specified table whose primary key value is one of the given values,
+     * executing the DELETE statement for every value as a single JDBC batch inside one transaction.
+     *
+     * @param tableName        the name of the table from which to delete the records
+     * @param primaryKey       the name of the primary key column in the table
+     * @param primaryKeyValues the values of the primary key to identify the records to be deleted
+     * @return the amount of deleted records, or 0 if an error occurred
+     */
+    @Override
+    public int deleteBatch(String tableName, String primaryKey, @NotNull Collection<?> primaryKeyValues) {
+        if (primaryKeyValues.isEmpty())
+            return 0;
+        String sql = "DELETE FROM %s WHERE %s = ?".formatted(SQLStatementBuilder.identifier(tableName), SQLStatementBuilder.identifier(primaryKey));
+        List<List<Object>> parameters = new ArrayList<>(primaryKeyValues.size());
+        for (Object value : primaryKeyValues) {
+            parameters.add(Collections.singletonList(value));
+        }
+        try (Connection connection = this.getConnection()) {
+            return SQLStatementBuilder.executeBatch(connection, sql, parameters);
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Deletes all records from the specified table whose column value is less than the given value.
+     *
+     * @param tableName the name of the table from which to delete the records
+     * @param column    the name of the column to compare
+     * @param value     the exclusive upper bound of the column value
+     */
+    @Override
+    public void deleteLessThan(String tableName, String column, Object value) {
+        String sql = "DELETE FROM %s WHERE %s < ?".formatted(SQLStatementBuilder.identifier(tableName), SQLStatementBuilder.identifier(column));
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, value);
+
+            statement.executeUpdate();
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+    }
+
+    /**
+     * Deletes all records from the specified table which no longer have a record in the child table.
+     *
+     * @param tableName  the name of the table from which to delete the records
+     * @param childTable the name of the child table
+     * @param joinColumn the name of the column both tables are joined on
+     * @return the amount of deleted records, or 0 if an error occurred
+     */
+    @Override
+    public int deleteOrphans(String tableName, String childTable, String joinColumn) {
+        String sql = SQLStatementBuilder.deleteOrphans(tableName, childTable, joinColumn);
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(sql);
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Retrieves the expired records of the specified table with a parameterized statement using the index of the expires column.
+     *
+     * @param tableName the name of the table to select from
+     * @param now       the time in milliseconds since the epoch, records expiring at or before it are returned
+     * @param limit     the maximum amount of records
+     * @return a list of maps representing the expired records, ordered by their expiry
+     */
+    @Override
+    public List<Map<String, Object>> findExpired(String tableName, long now, int limit) {
+        String sql = SQLStatementBuilder.selectExpired(tableName, limit);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, now);
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readRows(set);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * Executes a SELECT SQL statement on the specified table with the given condition.
      *
@@ -264,7 +380,8 @@ public class SQLiteDatabase extends Database {
 
         String sql = "SELECT * FROM %s WHERE %s".formatted(tableName, condition);
 
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             ResultSet set = statement.executeQuery(sql);
             ResultSetMetaData metaData = set.getMetaData();
             int c = metaData.getColumnCount();
@@ -286,6 +403,135 @@ public class SQLiteDatabase extends Database {
         return result;
     }
 
+    /**
+     * Executes a parameterized SELECT statement on the specified table, comparing every given column for equality.
+     * The statement is prepared once per connection and reused from the statement cache of the connection pool.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @return a list of maps representing the selected rows, with column names as keys and column values as values
+     */
+    @Override
+    public List<Map<String, Object>> select(String tableName, @NotNull Map<String, Object> equals) {
+        return this.selectWhereEquals(tableName, equals, 0);
+    }
+
+    /**
+     * Executes a parameterized SELECT statement on the specified table, returning the rows whose column equals one of the given values.
+     *
+     * @param tableName the name of the table to select from
+     * @param column    the name of the column to compare
+     * @param values    the values the column may be equal to, null values never match
+     * @return a list of maps representing the selected rows, with column names as keys and column values as values
+     */
+    @Override
+    public List<Map<String, Object>> selectIn(String tableName, String column, @NotNull Collection<?> values) {
+        List<Object> bound = new ArrayList<>(values);
+        bound.removeIf(Objects::isNull);
+        if (bound.isEmpty())
+            return new ArrayList<>();
+        String sql = SQLStatementBuilder.selectWhereIn(tableName, column, bound.size());
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            SQLStatementBuilder.bindValues(statement, 1, bound);
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readRows(set);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Executes a parameterized SELECT statement on the specified table and returns the first matching row.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @return the first matching row, or null if no row matches
+     */
+    @Override
+    public @Nullable Map<String, Object> selectOne(String tableName, @NotNull Map<String, Object> equals) {
+        List<Map<String, Object>> result = this.selectWhereEquals(tableName, equals, 1);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Executes a parameterized SELECT statement comparing every given column for equality.
+     *
+     * @param tableName the name of the table to select from
+     * @param equals    the column names and the values they have to be equal to
+     * @param limit     the maximum amount of rows, 0 for no limit
+     * @return a list of maps representing the selected rows
+     */
+    private @NotNull List<Map<String, Object>> selectWhereEquals(String tableName, @NotNull Map<String, Object> equals, int limit) {
+        String sql = SQLStatementBuilder.selectWhereEquals(tableName, equals, limit);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            SQLStatementBuilder.bindValues(statement, 1, equals.values());
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readRows(set);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Reads all records of the specified table ordered by the given column and passes them one by one to the consumer.
+     * The records are fetched in blocks of the given size.
+     *
+     * @param tableName the name of the table to read
+     * @param orderBy   the name of the column to order the records by
+     * @param fetchSize the amount of records fetched from the database at once
+     * @param consumer  the consumer receiving every record
+     * @return the amount of read records
+     */
+    @Override
+    public long scan(String tableName, String orderBy, int fetchSize, @NotNull Consumer<Map<String, Object>> consumer) {
+        String sql = "SELECT * FROM %s ORDER BY %s".formatted(SQLStatementBuilder.identifier(tableName), SQLStatementBuilder.identifier(orderBy));
+        long count = 0;
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet set = statement.executeQuery()) {
+                ResultSetMetaData metaData = set.getMetaData();
+                while (set.next()) {
+                    consumer.accept(SQLStatementBuilder.readRow(set, metaData));
+                    count++;
+                }
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return count;
+    }
+
+    /**
+     * Selects the rows of a table together with their child rows using a single LEFT JOIN statement.
+     *
+     * @param tableName  the name of the table to select from
+     * @param childTable the name of the child table to join
+     * @param joinColumn the name of the column both tables are joined on
+     * @param equals     the column names of the parent table and the values they have to be equal to
+     * @return a list of maps representing the selected rows, each containing a list of its child rows
+     */
+    @Override
+    public List<Map<String, Object>> selectWithChildren(String tableName, String childTable, String joinColumn, @NotNull Map<String, Object> equals) {
+        String sql = SQLStatementBuilder.selectLeftJoin(tableName, childTable, joinColumn, equals);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            SQLStatementBuilder.bindValues(statement, 1, equals.values());
+            try (ResultSet set = statement.executeQuery()) {
+                return SQLStatementBuilder.readJoinedRows(set, childTable, joinColumn);
+            }
+        } catch (SQLException ex) {
+            GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * Retrieves all records from the specified table.
      *
@@ -298,7 +544,8 @@ public class SQLiteDatabase extends Database {
 
         String sql = "SELECT * FROM %s".formatted(tableName);
 
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             ResultSet set = statement.executeQuery(sql);
             ResultSetMetaData metaData = set.getMetaData();
             int c = metaData.getColumnCount();
@@ -330,13 +577,14 @@ public class SQLiteDatabase extends Database {
     public List<Map<String, Object>> executeQuery(String queryString) {
         List<Map<String, Object>> result = new ArrayList<>();
 
-        try (PreparedStatement statement = connection.prepareStatement(queryString);
+        try (Connection connection = this.getConnection();
+             PreparedStatement statement = connection.prepareStatement(queryString);
              ResultSet resultSet = statement.executeQuery()) {
             ResultSetMetaData metaData = resultSet.getMetaData();
             int c = metaData.getColumnCount();
             while (resultSet.next()) {
                 Map<String, Object> row = new HashMap<>();
-                for (int i = 0; i <= c; i++) {
+                for (int i = 1; i <= c; i++) {
                     row.put(metaData.getColumnName(i), resultSet.getObject(i));
                 }
                 result.add(row);
@@ -371,7 +619,8 @@ public class SQLiteDatabase extends Database {
         String indexName = "idx_" + collectionName + "_" + fieldName;
         String sql = "CREATE %s INDEX %s ON %s (%s)".formatted(indexType, indexName, collectionName, fieldName);
 
-        try (Statement statement = connection.createStatement()) {
+        try (Connection connection = this.getConnection();
+             Statement statement = connection.createStatement()) {
             statement.executeUpdate(sql);
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to execute SQLStatement:", sql, ex);
@@ -379,13 +628,23 @@ public class SQLiteDatabase extends Database {
     }
 
     /**
-     * Starts a transaction by setting the auto commit value to false.
+     * Returns whether this database supports transactions, which it always does.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsTransactions() {
+        return true;
+    }
+
+    /**
+     * Starts a transaction by pinning a connection with disabled auto commit to the calling thread.
      * If an SQLException occurs, it is logged.
      */
     @Override
     public void startTransaction() {
         try {
-            connection.setAutoCommit(false);
+            this.getPool().beginTransaction();
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to start transaction", ex);
         }
@@ -394,36 +653,55 @@ public class SQLiteDatabase extends Database {
     /**
      * Commits the current transaction.
      * <p>
-     * This method commits the changes made during the current transaction. It calls the {@link Connection#commit()}
-     * method to commit the changes and then sets the auto-commit mode back to true using {@link Connection#setAutoCommit(boolean)}.
+     * This method commits the changes made during the current transaction of the calling thread and returns
+     * the pinned connection to the pool, which restores its auto-commit mode.
      * <p>
      * If an error occurs during the commit process, an error message will be logged using the {@link GlobalLogger} class.
      *
-     * @see Connection#commit()
-     * @see Connection#setAutoCommit(boolean)
+     * @see ConnectionPool#commitTransaction()
      * @see GlobalLogger
      */
     @Override
     public void commitTransaction() {
         try {
-            connection.commit();
-            connection.setAutoCommit(true);
+            this.getPool().commitTransaction();
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to commit transaction", ex);
         }
     }
 
     /**
-     * Rollbacks the current transaction and restores the auto-commit behavior of the database connection.
+     * Rollbacks the current transaction of the calling thread and returns the pinned connection to the pool.
      * If an SQLException occurs during the rollback, it is logged as an error.
      */
     @Override
     public void rollbackTransaction() {
         try {
-            connection.rollback();
-            connection.setAutoCommit(true);
+            this.getPool().rollbackTransaction();
         } catch (SQLException ex) {
             GlobalLogger.getLogger().error("Failed to rollback transaction", ex);
         }
     }
+
+    /**
+     * Returns the connection pool of this database.
+     *
+     * @return the connection pool
+     * @throws SQLException if the database is not connected
+     */
+    public @NotNull ConnectionPool getPool() throws SQLException {
+        if (pool == null)
+            throw new SQLException("The database is not connected");
+        return pool;
+    }
+
+    /**
+     * Leases a connection from the connection pool. Closing the connection returns it to the pool.
+     *
+     * @return a leased connection
+     * @throws SQLException if the database is not connected or no connection could be leased
+     */
+    protected @NotNull Connection getConnection() throws SQLException {
+        return this.getPool().getConnection();
+    }
 }
@@ -0,0 +1,244 @@
+package me.github.simonplays15.betterbansystem.core.expiry;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The ExpiryQueue class keeps expiring punishments ordered by their deadline.
+ * <p>
+ * Entries are added when a punishment is created and removed when it is lifted. Instead of polling all entries,
+ * a single task is scheduled for the earliest deadline. When it runs, all due entries are handed to the expiry action
+ * and the task is scheduled again for the next deadline, so an idle queue causes no work at all.
+ * Replaced and cancelled entries are removed from the queue right away, so it never holds more nodes than scheduled keys.
+ * <p>
+ * A queue created with {@link #batched(ScheduledExecutorService, BatchAction)} hands all entries which are due at the same time
+ * to the action in a single call, so they can be removed from the storage with one operation.
+ *
+ * @param <K> the type of the key identifying a punishment, e.g. the UUID of the punished player
+ * @param <V> the type of the punishment entry
+ */
+public class ExpiryQueue<K, V> {
+
+    /**
+     * The scheduled entries, ordered by their deadline and, for equal deadlines, by the order they were scheduled in.
+     */
+    private final NavigableSet<Node<K, V>> queue = new TreeSet<>(Comparator.<Node<K, V>>comparingLong(Node::deadline).thenComparingLong(Node::sequence));
+    /**
+     * The node of every scheduled key. Holds exactly the nodes of {@link #queue}.
+     */
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    /**
+     * The scheduler running the expiry task.
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * The action called with the expired entries.
+     */
+    private final BatchAction<V> action;
+    /**
+     * The scheduled expiry task, or null if no task is scheduled.
+     */
+    private ScheduledFuture<?> task;
+    /**
+     * The deadline the scheduled expiry task runs at.
+     */
+    private long taskDeadline = Long.MAX_VALUE;
+    /**
+     * The generation of the scheduled expiry task, incremented whenever a new task is scheduled.
+     * A running task only clears {@link #task} if it still is the current one.
+     */
+    private long taskGeneration = 0;
+    /**
+     * The sequence number of the next scheduled node.
+     */
+    private long nextSequence = 0;
+
+    /**
+     * Creates a new expiry queue.
+     *
+     * @param scheduler the scheduler running the expiry task
+     * @param action    the action called for every expired entry
+     */
+    public ExpiryQueue(@NotNull ScheduledExecutorService scheduler, @NotNull Consumer<V> action) {
+        this(scheduler, (BatchAction<V>) values -> {
+            for (V value : values) {
+                try {
+                    action.accept(value);
+                } catch (RuntimeException e) {
+                    GlobalLogger.getLogger().error("Failed to expire entry", value, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates a new expiry queue which hands all entries due at the same time to the action in a single call.
+     *
+     * @param scheduler the scheduler running the expiry task
+     * @param action    the action called with the expired entries
+     */
+    private ExpiryQueue(@NotNull ScheduledExecutorService scheduler, @NotNull BatchAction<V> action) {
+        this.scheduler = scheduler;
+        this.action = action;
+    }
+
+    /**
+     * Creates a new expiry queue which hands all entries due at the same time to the action in a single call.
+     *
+     * @param scheduler the scheduler running the expiry task
+     * @param action    the action called with the expired entries
+     * @param <K>       the type of the key identifying an entry
+     * @param <V>       the type of the entry
+     * @return the new expiry queue
+     */
+    public static <K, V> @NotNull ExpiryQueue<K, V> batched(@NotNull ScheduledExecutorService scheduler, @NotNull BatchAction<V> action) {
+        return new ExpiryQueue<>(scheduler, action);
+    }
+
+    /**
+     * Returns the deadline of the given expiry value in milliseconds since the epoch.
+     * Entries store the expiry as a date, values of the old database schema are formatted text.
+     *
+     * @param expires the expiry value of an entry
+     * @return the deadline, or -1 if the entry never expires
+     */
+    public static long deadlineOf(Object expires) {
+        Long deadline = ColumnValues.expiresToColumn(expires);
+        return deadline == null ? -1 : deadline;
+    }
+
+    /**
+     * Schedules the given entry. An already scheduled entry with the same key is replaced.
+     * Entries without a deadline are only removed from the queue.
+     *
+     * @param key      the key of the entry
+     * @param value    the entry
+     * @param deadline the deadline in milliseconds since the epoch, or -1 if the entry never expires
+     */
+    public synchronized void schedule(@NotNull K key, @NotNull V value, long deadline) {
+        this.cancel(key);
+        if (deadline < 0)
+            return;
+        Node<K, V> node = new Node<>(key, value, deadline, this.nextSequence++);
+        this.nodes.put(key, node);
+        this.queue.add(node);
+        this.reschedule();
+    }
+
+    /**
+     * Removes the entry with the given key from the queue.
+     *
+     * @param key the key of the entry
+     */
+    public synchronized void cancel(@NotNull K key) {
+        Node<K, V> node = this.nodes.remove(key);
+        if (node != null)
+            this.queue.remove(node);
+    }
+
+    /**
+     * Returns the amount of scheduled entries.
+     *
+     * @return the amount of scheduled entries
+     */
+    public synchronized int size() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Takes all due entries out of the queue, schedules the task for the next deadline and hands the entries to the expiry action.
+     * The task is scheduled again under the same lock as {@link #schedule(Object, Object, long)}, before the action runs,
+     * so a deadline scheduled in the meantime is never lost.
+     *
+     * @param generation the generation of the running task
+     */
+    private void expire(long generation) {
+        List<V> expired;
+        synchronized (this) {
+            expired = this.pollExpired(System.currentTimeMillis());
+            if (generation == this.taskGeneration) {
+                this.task = null;
+                this.taskDeadline = Long.MAX_VALUE;
+            }
+            this.reschedule();
+        }
+        if (expired.isEmpty())
+            return;
+        try {
+            this.action.expire(expired);
+        } catch (RuntimeException e) {
+            GlobalLogger.getLogger().error("Failed to expire", expired.size(), "entries", e);
+        }
+    }
+
+    /**
+     * Removes and returns all entries whose deadline has been reached.
+     *
+     * @param now the current time in milliseconds since the epoch
+     * @return the expired entries
+     */
+    private @NotNull List<V> pollExpired(long now) {
+        List<V> expired = new ArrayList<>();
+        while (!this.queue.isEmpty() && this.queue.first().deadline() <= now) {
+            Node<K, V> node = this.queue.pollFirst();
+            this.nodes.remove(node.key());
+            expired.add(node.value());
+        }
+        return expired;
+    }
+
+    /**
+     * Schedules the expiry task for the earliest deadline, if it is not already scheduled for it.
+     */
+    private void reschedule() {
+        if (this.queue.isEmpty() || this.scheduler.isShutdown())
+            return;
+        long deadline = this.queue.first().deadline();
+        if (this.task != null && this.taskDeadline <= deadline)
+            return;
+        if (this.task != null)
+            this.task.cancel(false);
+        long generation = ++this.taskGeneration;
+        this.taskDeadline = deadline;
+        this.task = this.scheduler.schedule(() -> this.expire(generation), Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The action called with the entries which expired at the same time.
+     *
+     * @param <V> the type of the entry
+     */
+    @FunctionalInterface
+    public interface BatchAction<V> {
+        /**
+         * Called with the expired entries.
+         *
+         * @param values the expired entries, never empty
+         */
+        void expire(@NotNull List<V> values);
+    }
+
+    /**
+     * A scheduled entry.
+     *
+     * @param key      the key of the entry
+     * @param value    the entry
+     * @param deadline the deadline in milliseconds since the epoch
+     * @param sequence the order the entry was scheduled in, which keeps nodes with equal deadlines apart
+     * @param <K>      the type of the key
+     * @param <V>      the type of the entry
+     */
+    private record Node<K, V>(K key, V value, long deadline, long sequence) {
+    }
+}
@@ -5,6 +5,7 @@ package me.github.simonplays15.betterbansystem.core.logging;
  */
 
 import me.github.simonplays15.betterbansystem.core.chat.ChatColor;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
@@ -12,7 +13,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.logging.*;
 
@@ -181,9 +181,8 @@ public class GlobalLogger extends Logger {
                 this.fileHandler = null;
             }
         }
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
         this.currentDate = new Date();
-        String toDayString = dateFormat.format(this.currentDate);
+        String toDayString = TimeFormats.format(TimeFormats.DAY, this.currentDate);
         String currentLogFileName = LOG_FOLDER + toDayString + "-%g.log";
         fileHandler = new FileHandler(currentLogFileName, true);
         fileHandler.setFormatter(new LogFormatter());
@@ -381,7 +380,7 @@ public class GlobalLogger extends Logger {
      * The `LogFormatter` class is a custom formatter used to format log records in a specific way. It extends the `Formatter` class provided by the Java logging framework. This class
      * overrides the `format` method to define the formatting logic for log records.
      * <p>
-     * The `LogFormatter` class formats the log record by concatenating the log message with the current date and time in the format "dd.MM.yyyy HH:mm:ss". It also strips any color
+     * The `LogFormatter` class formats the log record by concatenating the log message with the date and time of the record in the format "dd.MM.yyyy HH:mm:ss". It also strips any color
      * formatting from the log message using the `ChatColor.stripColor` method provided by the `ChatColor` class.
      * <p>
      * Example usage:
@@ -397,7 +396,7 @@ public class GlobalLogger extends Logger {
      */
     private static class LogFormatter extends Formatter {
         /**
-         * Formats a log record by concatenating the log message with the current date and time in the format "dd.MM.yyyy HH:mm:ss". It also strips any color formatting from the log
+         * Formats a log record by concatenating the log message with the date and time of the record in the format "dd.MM.yyyy HH:mm:ss". It also strips any color formatting from the log
          * message.
          *
          * @param record the log record to format
@@ -405,7 +404,7 @@ public class GlobalLogger extends Logger {
          */
         @Override
         public String format(@NotNull LogRecord record) {
-            return String.format("%s %s%n", new SimpleDateFormat("dd.MM.yyyy HH:mm:ss").format(new Date()), ChatColor.stripColor(record.getMessage()));
+            return String.format("%s %s%n", TimeFormats.LOG.format(record.getInstant()), ChatColor.stripColor(record.getMessage()));
         }
     }
 }
@@ -4,20 +4,21 @@ package me.github.simonplays15.betterbansystem.core.mute;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import me.github.simonplays15.betterbansystem.api.files.JsonEntryJournal;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
+import me.github.simonplays15.betterbansystem.core.expiry.ExpiryQueue;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
+import me.github.simonplays15.betterbansystem.core.transfer.TransferSpec;
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
-import java.lang.reflect.Type;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -27,47 +28,25 @@ import java.util.*;
 public record MuteEntry(UUID uuid, String name, String source, Date created,
                         Object expires, String reason)
         implements IMuteEntry {
-    /**
-     * The variable gson is an instance of the Gson class from the Gson library.
-     * It is used for JSON serialization and deserialization of IMuteEntry objects.
-     * The Gson instance is configured with pretty printing, date format, and a custom type adapter for IMuteEntry.
-     * It is a private static final variable.
-     * <p>
-     * To serialize an IMuteEntry object to JSON, use the toJson() method of the gson variable.
-     * To deserialize a JSON string to an IMuteEntry object, use the fromJson() method of the gson variable.
-     * The IMuteEntryAdapter class is responsible for the custom serialization and deserialization logic.
-     */
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().setDateFormat("yyyy-MM-dd HH:mm:ss Z").registerTypeAdapter(IMuteEntry.class, new IMuteEntryAdapter()).create();
     /**
      *
      */
     private static final File file = new File("muted-players.json");
-
     /**
-     * The format variable is a private static final SimpleDateFormat object used to parse and format dates in the format "yyyy-MM-dd HH:mm:ss Z".
-     * It is initialized with the given pattern and the US locale.
-     * <p>
-     * The format object is used in the IMuteEntryAdapter class to parse and format date values when reading and writing JSON.
-     * It ensures consistent date representation across different systems and locales.
-     * <p>
-     * Example usage:
-     * <p>
-     * // Parsing a date string
-     * String dateString = "2021-06-01 12:30:00 +0200";
-     * Date date = format.parse(dateString);
-     * <p>
-     * // Formatting a date object
-     * Date now = new Date();
-     * String formattedDate = format.format(now);
-     *
-     * @see IMuteEntryAdapter
+     * The journal holding all mute entries of the flat file backend.
+     * The entries are stored in muted-players.json, changes are appended to muted-players.json.journal until they are compacted.
      */
-    private static final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z", Locale.US);
+    private static final JsonEntryJournal<IMuteEntry> journal = new JsonEntryJournal<>(file, new IMuteEntryAdapter(), entry -> entry.uuid().toString());
+
     /**
      * The MUTE_TABLENAME variable represents the name of the table used for storing muted player entries.
      * It is a constant variable defined in the MuteEntry class.
      */
     private static final String MUTE_TABLENAME = "mutedplayers";
+    /**
+     * Describes how the mutes are moved between the json file and the database by the PunishmentTransfer.
+     */
+    public static final TransferSpec<IMuteEntry> TRANSFER = new TransferSpec<>("mutes", journal, MUTE_TABLENAME, "uuid", MuteEntry::toRow, MuteEntry::fromRow);
 
     /**
      * Creates a mute entry if the file does not exist.
@@ -94,40 +73,10 @@ public record MuteEntry(UUID uuid, String name, String source, Date created,
      */
     public static void saveToJson(IMuteEntry entry) {
         if (BetterBanSystem.getInstance().getDatabase() != null) {
-            BetterBanSystem.getInstance().getDatabase().insert(MUTE_TABLENAME, Map.of("uuid", entry.uuid().toString(), "name", entry.name(), "source", entry.source(), "created", format.format(entry.created()), "expires", (entry.expires() instanceof Date ? format.format(entry.expires()) : entry.expires()), "reason", entry.reason()));
+            BetterBanSystem.getInstance().getDatabase().upsert(MUTE_TABLENAME, "uuid", List.of(toRow(entry)));
             return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IMuteEntry> entries;
-        if (file.length() != 0) {
-            try (Reader reader = new FileReader(file.getName())) {
-                Type listType = new TypeToken<ArrayList<IMuteEntry>>() {
-                }.getType();
-                entries = gson.fromJson(reader, listType);
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-                return;
-            }
-        } else {
-            entries = new ArrayList<>();
-        }
-
-        List<IMuteEntry> tempEntries = new ArrayList<>(entries);
-        tempEntries.add(entry);
-
-        try (Writer writer = new FileWriter(file.getName())) {
-            gson.toJson(tempEntries, writer);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
+        journal.put(entry);
     }
 
     /**
@@ -151,36 +100,7 @@ public record MuteEntry(UUID uuid, String name, String source, Date created,
 
             return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IMuteEntry> entries;
-        List<IMuteEntry> tempEntries;
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IMuteEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-            tempEntries = new ArrayList<>(entries);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-            return;
-        }
-        tempEntries.removeIf(entry -> entry.uuid().equals(targetUUID));
-        if (entries.size() != tempEntries.size()) {
-            entries.clear();
-            entries.addAll(tempEntries);
-            try (Writer writer = new FileWriter(file.getName())) {
-                gson.toJson(entries, writer);
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
+        journal.remove(targetUUID.toString());
     }
 
     /**
@@ -195,41 +115,11 @@ public record MuteEntry(UUID uuid, String name, String source, Date created,
             List<Map<String, Object>> potentialEntries = BetterBanSystem.getInstance().getDatabase().selectAll(MUTE_TABLENAME);
             List<IMuteEntry> entries = new ArrayList<>();
             for (Map<String, Object> potentialEntry : potentialEntries) {
-                UUID uuid = UUID.fromString((String) potentialEntry.get("uuid"));
-                String name = (String) potentialEntry.get("name");
-                String source = (String) potentialEntry.get("source");
-                Date created = null;
-                try {
-                    created = format.parse((String) potentialEntry.get("created"));
-                } catch (ParseException e) {
-                    GlobalLogger.getLogger().error(e);
-                }
-                Object expires = potentialEntry.get("expires");
-                String reason = (String) potentialEntry.get("reason");
-                entries.add(new MuteEntry(uuid, name, source, created, expires, reason));
+                entries.add(fromRow(potentialEntry));
             }
             return entries;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IMuteEntry> entries = new ArrayList<>();
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IMuteEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
-        if (entries == null)
-            entries = new ArrayList<>();
-        return entries;
+        return journal.values();
     }
 
     /**
@@ -239,11 +129,70 @@ public record MuteEntry(UUID uuid, String name, String source, Date created,
      * @return The first mute entry with the specified UUID, or null if no such entry is found.
      */
     public static IMuteEntry findEntry(UUID targetUUID) {
-        List<IMuteEntry> entries = getAllEntries();
-        return entries.stream()
-                .filter(entry -> entry.uuid().equals(targetUUID))
-                .findFirst()
-                .orElse(null);
+        if (BetterBanSystem.getInstance().getDatabase() == null)
+            return journal.get(targetUUID.toString());
+        Map<String, Object> row = BetterBanSystem.getInstance().getDatabase().selectOne(MUTE_TABLENAME, Map.of("uuid", targetUUID.toString()));
+        return row == null ? null : fromRow(row);
+    }
+
+    /**
+     * Retrieves the mute entries which expire at or before the given time, ordered by their expiry.
+     * With a database the expiry is compared by the database, so only the matching rows are read.
+     *
+     * @param time  the time in milliseconds since the epoch
+     * @param limit the maximum amount of entries
+     * @return the expiring mute entries
+     */
+    public static @NotNull List<IMuteEntry> findExpired(long time, int limit) {
+        if (BetterBanSystem.getInstance().getDatabase() == null)
+            return journal.values().stream()
+                    .filter(entry -> {
+                        long deadline = ExpiryQueue.deadlineOf(entry.expires());
+                        return deadline >= 0 && deadline <= time;
+                    })
+                    .sorted(Comparator.comparingLong(entry -> ExpiryQueue.deadlineOf(entry.expires())))
+                    .limit(limit)
+                    .toList();
+        List<IMuteEntry> entries = new ArrayList<>();
+        for (Map<String, Object> row : BetterBanSystem.getInstance().getDatabase().findExpired(MUTE_TABLENAME, time, limit)) {
+            entries.add(fromRow(row));
+        }
+        return entries;
+    }
+
+    /**
+     * Converts a mute entry into a row of the muted players table.
+     *
+     * @param entry the mute entry to convert
+     * @return the row representing the entry
+     */
+    @Contract("_ -> new")
+    private static @NotNull Map<String, Object> toRow(@NotNull IMuteEntry entry) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("uuid", entry.uuid().toString());
+        row.put("name", entry.name());
+        row.put("source", entry.source());
+        row.put("created", ColumnValues.toMillis(entry.created()));
+        row.put("expires", ColumnValues.expiresToColumn(entry.expires()));
+        row.put("reason", entry.reason());
+        return row;
+    }
+
+    /**
+     * Converts a database row into a mute entry.
+     *
+     * @param potentialEntry the row read from the database
+     * @return the mute entry represented by the row
+     */
+    @Contract("_ -> new")
+    private static @NotNull IMuteEntry fromRow(@NotNull Map<String, Object> potentialEntry) {
+        UUID uuid = UUID.fromString((String) potentialEntry.get("uuid"));
+        String name = (String) potentialEntry.get("name");
+        String source = (String) potentialEntry.get("source");
+        Date created = ColumnValues.toDate(potentialEntry.get("created"));
+        Object expires = ColumnValues.expiresFromColumn(potentialEntry.get("expires"));
+        String reason = (String) potentialEntry.get("reason");
+        return new MuteEntry(uuid, name, source, created, expires, reason);
     }
 
     /**
@@ -280,9 +229,9 @@ public record MuteEntry(UUID uuid, String name, String source, Date created,
             writer.name("uuid").value(entry.uuid().toString());
             writer.name("name").value(entry.name());
             writer.name("source").value(entry.source());
-            writer.name("created").value(format.format(entry.created()));
-            if (entry.expires() instanceof Date) {
-                writer.name("expires").value(format.format(entry.expires()));
+            writer.name("created").value(TimeFormats.formatStorage(entry.created()));
+            if (entry.expires() instanceof Date expires) {
+                writer.name("expires").value(TimeFormats.formatStorage(expires));
             } else {
                 writer.name("expires").value(entry.expires().toString());
             }
@@ -323,16 +272,16 @@ public record MuteEntry(UUID uuid, String name, String source, Date created,
                     case "created":
                         String dateString = reader.nextString();
                         try {
-                            created = format.parse(dateString);
-                        } catch (ParseException e) {
+                            created = TimeFormats.parseStorage(dateString);
+                        } catch (DateTimeParseException e) {
                             throw new RuntimeException(e);
                         }
                         break;
                     case "expires":
                         String expiredString = reader.nextString();
                         try {
-                            expires = format.parse(expiredString);
-                        } catch (ParseException e) {
+                            expires = TimeFormats.parseStorage(expiredString);
+                        } catch (DateTimeParseException e) {
                             expires = expiredString;
                         }
                         break;
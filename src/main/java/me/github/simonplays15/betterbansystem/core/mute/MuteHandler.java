@@ -30,11 +30,13 @@ public class MuteHandler {
      * @param target  The name of the target player.
      * @param reason  The reason for the mute.
      * @param expires The expiration date of the mute.
+     * @return The added mute entry.
      */
-    public static void addMute(@NotNull BaseCommandSender sender, @NotNull String target, String reason, Date expires) {
+    public static @NotNull IMuteEntry addMute(@NotNull BaseCommandSender sender, @NotNull String target, String reason, Date expires) {
         UUID targetUUID = UUIDFetcher.getUUIDOrOfflineUUID(target);
         MuteEntry banEntry = new MuteEntry(targetUUID, target, sender.getName(), new Date(), getExpiryDate(expires), reason);
         addMuteEntry(banEntry);
+        return banEntry;
     }
 
     /**
@@ -45,6 +47,7 @@ public class MuteHandler {
     public static void removeMute(String target) {
         UUID targetUUID = UUIDFetcher.getUUIDOrOfflineUUID(target);
         MuteEntry.removeFromJson(targetUUID);
+        MuteManager.cancel(targetUUID);
     }
 
     /**
@@ -74,6 +77,7 @@ public class MuteHandler {
      */
     private static void addMuteEntry(IMuteEntry entry) {
         MuteEntry.saveToJson(entry);
+        MuteManager.schedule(entry);
     }
 
     /**
@@ -6,81 +6,117 @@ package me.github.simonplays15.betterbansystem.core.mute;
 
 import me.github.simonplays15.betterbansystem.api.runtimeservice.RuntimeService;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.expiry.ExpiryQueue;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import net.md_5.bungee.api.chat.TextComponent;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.Date;
 import java.util.Objects;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
  * The MuteManager class manages mute entries in a system.
- * It provides methods to start and stop the mute manager.
- * The mute manager periodically checks for expired mute entries and takes appropriate actions.
+ * Temporary mutes are kept in an {@link ExpiryQueue} ordered by their expiry date, which is kept up to date by the {@link MuteHandler}.
+ * The scheduler only wakes up when the next mute is due. With a database, the queue is filled by periodic sweeps which
+ * let the database select the mutes expiring soon. Without a database, the queue is loaded once on start.
  */
 public class MuteManager {
 
     /**
-     * The scheduler variable is an instance of ScheduledExecutorService.
-     * It is used to schedule recurring tasks such as checking for expired mute entries.
+     * The interval in seconds of the sweeps for expiring mutes, if a database is used.
      */
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private static final long SWEEP_INTERVAL = 30;
+    /**
+     * The maximum amount of mutes read by one sweep.
+     */
+    private static final int SWEEP_LIMIT = 500;
+    /**
+     * The temporary mute entries, keyed by the UUID of the muted player and ordered by their expiry date.
+     */
+    private static final ExpiryQueue<UUID, IMuteEntry> mutes = new ExpiryQueue<>(TaskScheduler.timer(), entry -> TaskScheduler.execute(() -> expireMute(entry)));
 
     /**
      * The MuteManager class manages mute entries in a system.
-     * It provides methods to start and stop the mute manager.
-     * The mute manager periodically checks for expired mute entries and takes appropriate actions.
+     * The mute manager removes expired mute entries and notifies the affected players.
+     * The expiry queue is driven by the timer of the {@link TaskScheduler}, which is shut down together with the plugin.
      */
     public MuteManager() {
-        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
     }
 
     /**
-     * The start method is used to start the mute manager.
-     * It schedules a task to periodically check for expired mute entries and take appropriate actions.
+     * Schedules the removal of the given mute entry. Permanent mutes are ignored.
+     *
+     * @param entry the mute entry
      */
-    public void start() {
-        Runnable checkExpiredBanEntry = () -> {
-            for (IMuteEntry entry : MuteEntry.getAllEntries()) {
-                if (entry.expires() instanceof Date && ((Date) entry.expires()).before(new Date())) {
-                    if (RuntimeService.isSpigot()) {
-                        if (org.bukkit.Bukkit.getPlayer(entry.uuid()) != null) {
-                            Objects.requireNonNull(org.bukkit.Bukkit.getPlayer(entry.uuid())).sendMessage(BetterBanSystem.getInstance().getPrefix() + "§aYour mute is expired. You can now chat again.");
-                        }
-                    } else if (RuntimeService.isBungeeCord()) {
-                        if (net.md_5.bungee.api.ProxyServer.getInstance().getPlayer(entry.uuid()) != null) {
-                            net.md_5.bungee.api.ProxyServer.getInstance().getPlayer(entry.uuid()).sendMessage(new TextComponent(BetterBanSystem.getInstance().getPrefix() + "§aYour mute is expired. You can now chat again."));
-                        }
-                    }
-                    MuteEntry.removeEntry(entry);
-                    GlobalLogger.getLogger().debug("Mute from", entry.name(), "expired.", entry.toString());
-                }
-            }
-        };
-        scheduler.scheduleAtFixedRate(checkExpiredBanEntry, 6, 1, TimeUnit.SECONDS);
+    public static void schedule(@NotNull IMuteEntry entry) {
+        mutes.schedule(entry.uuid(), entry, ExpiryQueue.deadlineOf(entry.expires()));
     }
 
     /**
-     * Stops the MuteManager.
-     * <p>
-     * This method shuts down the scheduler used by the MuteManager class. It waits for a maximum of 5 seconds for the
-     * scheduler to terminate gracefully. If the scheduler has not terminated within the timeout, this method forcibly
-     * shuts it down.
-     * <p>
-     * If an InterruptedException occurs while waiting for the scheduler to terminate, the scheduler is forcibly shut down
-     * and an error message is logged using the GlobalLogger class.
+     * Cancels the scheduled removal of the mute of the given player.
+     *
+     * @param uuid the UUID of the muted player
      */
-    public void stop() {
-        scheduler.shutdown();
-        try {
-            if (scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+    public static void cancel(@NotNull UUID uuid) {
+        mutes.cancel(uuid);
+    }
+
+    /**
+     * Removes the given mute entry if it is still stored and expired, and notifies the player if they are online.
+     * If the stored entry has been replaced by a mute with a later expiry date, the new mute is scheduled instead.
+     *
+     * @param entry the due mute entry
+     */
+    private static void expireMute(@NotNull IMuteEntry entry) {
+        IMuteEntry current = MuteEntry.findEntry(entry.uuid());
+        if (current == null)
+            return;
+        long deadline = ExpiryQueue.deadlineOf(current.expires());
+        if (deadline < 0 || deadline > System.currentTimeMillis()) {
+            schedule(current);
+            return;
+        }
+        if (RuntimeService.isSpigot()) {
+            if (org.bukkit.Bukkit.getPlayer(current.uuid()) != null) {
+                Objects.requireNonNull(org.bukkit.Bukkit.getPlayer(current.uuid())).sendMessage(BetterBanSystem.getInstance().getPrefix() + "§aYour mute is expired. You can now chat again.");
+            }
+        } else if (RuntimeService.isBungeeCord()) {
+            if (net.md_5.bungee.api.ProxyServer.getInstance().getPlayer(current.uuid()) != null) {
+                net.md_5.bungee.api.ProxyServer.getInstance().getPlayer(current.uuid()).sendMessage(new TextComponent(BetterBanSystem.getInstance().getPrefix() + "§aYour mute is expired. You can now chat again."));
             }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            GlobalLogger.getLogger().error(e.getMessage());
         }
+        MuteEntry.removeEntry(current);
+        GlobalLogger.getLogger().debug("Mute from", current.name(), "expired.", current.toString());
+    }
+
+    /**
+     * Schedules the mutes which expire within the next {@link #SWEEP_INTERVAL} seconds.
+     * Only the rows of these mutes are read from the database, including mutes created by other servers sharing the database.
+     * If more than {@link #SWEEP_LIMIT} mutes are due, the remaining mutes are scheduled by one of the next sweeps.
+     */
+    private static void sweep() {
+        long horizon = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(SWEEP_INTERVAL);
+        for (IMuteEntry entry : MuteEntry.findExpired(horizon, SWEEP_LIMIT)) {
+            schedule(entry);
+        }
+    }
+
+    /**
+     * The start method is used to start the mute manager.
+     * With a database the mutes due soon are scheduled by a sweep every {@link #SWEEP_INTERVAL} seconds.
+     * Otherwise, it loads all temporary mute entries into the expiry queue. Entries which expired while the server was offline are removed right away.
+     */
+    public void start() {
+        if (BetterBanSystem.getInstance().getDatabase() != null) {
+            TaskScheduler.scheduleAsync(MuteManager::sweep, 0, SWEEP_INTERVAL, TimeUnit.SECONDS);
+            GlobalLogger.getLogger().debug("MuteManager sweeps the database for expiring mutes every", SWEEP_INTERVAL, "seconds.");
+            return;
+        }
+        for (IMuteEntry entry : MuteEntry.getAllEntries()) {
+            schedule(entry);
+        }
+        GlobalLogger.getLogger().debug("MuteManager scheduled", mutes.size(), "mutes for expiry.");
     }
 }
@@ -0,0 +1,73 @@
+package me.github.simonplays15.betterbansystem.core.mute;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The MuteService class is the asynchronous counterpart of the {@link MuteHandler}.
+ * <p>
+ * Every method runs the storage access and the UUID lookup on the I/O executor of the {@link TaskScheduler}
+ * and returns a future, so the calling thread is never blocked.
+ */
+public final class MuteService {
+
+    /**
+     * The MuteService class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private MuteService() {
+    }
+
+    /**
+     * Mutes the given player.
+     *
+     * @param sender  the sender who is adding the mute
+     * @param target  the name of the target player
+     * @param reason  the reason for the mute
+     * @param expires the expiration date of the mute
+     * @return a future completed with the added mute entry
+     */
+    public static @NotNull CompletableFuture<IMuteEntry> muteAsync(@NotNull BaseCommandSender sender, @NotNull String target, String reason, Date expires) {
+        return TaskScheduler.supplyAsync(() -> MuteHandler.addMute(sender, target, reason, expires));
+    }
+
+    /**
+     * Removes the mute of the given player.
+     *
+     * @param target the name of the muted player
+     * @return a future completed once the mute is removed
+     */
+    public static @NotNull CompletableFuture<Void> unmuteAsync(@NotNull String target) {
+        return TaskScheduler.runAsync(() -> MuteHandler.removeMute(target));
+    }
+
+    /**
+     * Finds the mute entry of the given player.
+     *
+     * @param playerName the name of the player
+     * @return a future completed with the mute entry, or with null if the player is not muted
+     */
+    public static @NotNull CompletableFuture<IMuteEntry> findMuteAsync(@NotNull String playerName) {
+        return TaskScheduler.supplyAsync(() -> MuteHandler.findMuteEntry(playerName));
+    }
+
+    /**
+     * Finds the mute entry of the given player.
+     *
+     * @param uuid the UUID of the player
+     * @return a future completed with the mute entry, or with null if the player is not muted
+     */
+    public static @NotNull CompletableFuture<IMuteEntry> findMuteAsync(@NotNull UUID uuid) {
+        return TaskScheduler.supplyAsync(() -> MuteHandler.findMuteEntry(uuid));
+    }
+}
@@ -0,0 +1,324 @@
+package me.github.simonplays15.betterbansystem.core.scheduler;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The TaskScheduler class is the central scheduler service of the BetterBanSystem. All managers and listeners share its threads.
+ * <p>
+ * Disk, database and HTTP work runs on the I/O executor. On Java 21 and newer, every I/O task gets its own virtual thread.
+ * On older versions, a bounded pool of platform threads is used instead.
+ * Delayed and repeating tasks are triggered by a single timer thread. Timer tasks must be short; blocking work should be handed to {@link #execute(Runnable)}.
+ * Work which has to touch the server, like kicking a player or dispatching a command, is handed back to the server thread with {@link #runSync(Runnable)}.
+ */
+public final class TaskScheduler {
+
+    /**
+     * The amount of threads of the I/O executor if virtual threads are not available.
+     */
+    private static final int IO_THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    /**
+     * The amount of I/O tasks which have been submitted but not finished yet.
+     */
+    private static final AtomicInteger pendingIoTasks = new AtomicInteger();
+    /**
+     * The amount of finished I/O tasks.
+     */
+    private static final LongAdder completedIoTasks = new LongAdder();
+    /**
+     * Whether the I/O executor runs its tasks on virtual threads.
+     */
+    private static final AtomicBoolean virtualThreads = new AtomicBoolean();
+    /**
+     * The executor running blocking disk, database and HTTP work.
+     */
+    private static final ExecutorService io = createIoExecutor();
+    /**
+     * The single thread triggering delayed and repeating tasks.
+     */
+    private static final ScheduledThreadPoolExecutor timer = createTimer();
+    /**
+     * The executor handing tasks to the I/O executor, counting them for the metrics.
+     */
+    private static final Executor ioExecutor = TaskScheduler::execute;
+    /**
+     * The executor handing tasks to the server thread.
+     */
+    private static final Executor sync = TaskScheduler::runSync;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(TaskScheduler::shutdown));
+    }
+
+    /**
+     * The TaskScheduler class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private TaskScheduler() {
+    }
+
+    /**
+     * Creates the I/O executor.
+     * On Java 21 and newer, a virtual thread per task executor is created. The API is looked up reflectively,
+     * because the plugin is compiled for Java 17. If that fails, a bounded pool of daemon threads which time out when they are idle is created.
+     *
+     * @return the I/O executor
+     */
+    private static @NotNull ExecutorService createIoExecutor() {
+        if (Runtime.version().feature() >= 21) {
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "BetterBanSystem-IO-", 1L);
+                ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+                ExecutorService executor = (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+                virtualThreads.set(true);
+                return executor;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                GlobalLogger.getLogger().error("Could not create the virtual thread executor, falling back to a bounded thread pool.", e);
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(IO_THREADS, IO_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "BetterBanSystem-IO-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates the timer. Its only thread is a daemon thread, cancelled tasks are removed right away
+     * and delayed tasks are dropped on shutdown.
+     *
+     * @return the timer
+     */
+    private static @NotNull ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "BetterBanSystem-Timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Returns the executor running blocking disk, database and HTTP work.
+     *
+     * @return the I/O executor
+     */
+    @Contract(pure = true)
+    public static @NotNull Executor io() {
+        return ioExecutor;
+    }
+
+    /**
+     * Returns the timer triggering delayed and repeating tasks.
+     * The timer has a single thread, so its tasks must not block.
+     *
+     * @return the timer
+     */
+    @Contract(pure = true)
+    public static @NotNull ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    /**
+     * Returns the executor handing tasks to the server thread.
+     *
+     * @return the server thread executor
+     */
+    @Contract(pure = true)
+    public static @NotNull Executor sync() {
+        return sync;
+    }
+
+    /**
+     * Runs the given task on the I/O executor. Exceptions thrown by the task are logged.
+     *
+     * @param runnable the blocking work
+     * @throws RejectedExecutionException if the scheduler has been shut down
+     */
+    public static void execute(@NotNull Runnable runnable) {
+        pendingIoTasks.incrementAndGet();
+        try {
+            io.execute(() -> {
+                try {
+                    runnable.run();
+                } catch (Throwable throwable) {
+                    GlobalLogger.getLogger().error("An I/O task failed:", throwable);
+                } finally {
+                    pendingIoTasks.decrementAndGet();
+                    completedIoTasks.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingIoTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the given supplier on the I/O executor.
+     *
+     * @param supplier the blocking work
+     * @param <T>      the type of the result
+     * @return a future completed with the result of the supplier
+     */
+    public static <T> @NotNull CompletableFuture<T> supplyAsync(@NotNull Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, ioExecutor);
+    }
+
+    /**
+     * Runs the given task on the I/O executor.
+     *
+     * @param runnable the blocking work
+     * @return a future completed once the task has run
+     */
+    public static @NotNull CompletableFuture<Void> runAsync(@NotNull Runnable runnable) {
+        return CompletableFuture.runAsync(runnable, ioExecutor);
+    }
+
+    /**
+     * Runs the given task on the timer thread after the given delay.
+     * The task must be short; blocking work should be handed to {@link #execute(Runnable)}.
+     *
+     * @param runnable the task
+     * @param delay    the delay
+     * @param unit     the unit of the delay
+     * @return the future of the scheduled task, which can be used to cancel it
+     */
+    public static @NotNull ScheduledFuture<?> schedule(@NotNull Runnable runnable, long delay, @NotNull TimeUnit unit) {
+        return timer.schedule(runnable, delay, unit);
+    }
+
+    /**
+     * Runs the given task on the I/O executor repeatedly. The timer only triggers the task, so blocking work is fine.
+     * A run is skipped while the previous run has not finished yet.
+     *
+     * @param runnable     the blocking work
+     * @param initialDelay the delay before the first run
+     * @param period       the delay between two runs
+     * @param unit         the unit of the delays
+     * @return the future of the repeating task, which can be used to cancel it
+     */
+    public static @NotNull ScheduledFuture<?> scheduleAsync(@NotNull Runnable runnable, long initialDelay, long period, @NotNull TimeUnit unit) {
+        AtomicBoolean running = new AtomicBoolean();
+        return timer.scheduleWithFixedDelay(() -> {
+            if (!running.compareAndSet(false, true))
+                return;
+            try {
+                execute(() -> {
+                    try {
+                        runnable.run();
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+            }
+        }, initialDelay, period, unit);
+    }
+
+    /**
+     * Runs the given task on the server thread.
+     * The task is handed to {@link BetterBanSystem#runSync(Runnable)} of the running platform.
+     * If the plugin has not been initialized, the task is run right away.
+     *
+     * @param runnable the task touching the server
+     */
+    public static void runSync(@NotNull Runnable runnable) {
+        BetterBanSystem instance = BetterBanSystem.getInstance();
+        if (instance == null) {
+            runnable.run();
+            return;
+        }
+        instance.runSync(runnable);
+    }
+
+    /**
+     * Returns whether the I/O executor runs its tasks on virtual threads.
+     *
+     * @return true if virtual threads are used, false if the bounded thread pool is used
+     */
+    public static boolean isUsingVirtualThreads() {
+        return virtualThreads.get();
+    }
+
+    /**
+     * Returns the amount of I/O tasks which have been submitted but not finished yet.
+     * This includes the running tasks and the tasks waiting for a free thread.
+     *
+     * @return the amount of pending I/O tasks
+     */
+    public static int getPendingIoTasks() {
+        return pendingIoTasks.get();
+    }
+
+    /**
+     * Returns the amount of tasks waiting for a free I/O thread. Virtual threads never wait, so this is always 0 when they are used.
+     *
+     * @return the amount of queued I/O tasks
+     */
+    public static int getQueuedIoTasks() {
+        return io instanceof ThreadPoolExecutor pool ? pool.getQueue().size() : 0;
+    }
+
+    /**
+     * Returns the amount of finished I/O tasks since the start.
+     *
+     * @return the amount of completed I/O tasks
+     */
+    public static long getCompletedIoTasks() {
+        return completedIoTasks.sum();
+    }
+
+    /**
+     * Returns the amount of delayed and repeating tasks waiting on the timer.
+     *
+     * @return the amount of scheduled timer tasks
+     */
+    public static int getScheduledTimerTasks() {
+        return timer.getQueue().size();
+    }
+
+    /**
+     * Shuts the scheduler down. Pending timer tasks are dropped, while the submitted I/O tasks are drained for up to 5 seconds.
+     * If the I/O tasks do not finish in time, they are interrupted.
+     * Calling this method more than once has no effect.
+     */
+    public static void shutdown() {
+        if (timer.isShutdown() && io.isShutdown())
+            return;
+        timer.shutdown();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(5, TimeUnit.SECONDS)) {
+                GlobalLogger.getLogger().warn("Interrupting", pendingIoTasks.get(), "I/O tasks which did not finish in time.");
+                io.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            io.shutdownNow();
+            Thread.currentThread().interrupt();
+            GlobalLogger.getLogger().error(e.getMessage());
+        }
+        timer.shutdownNow();
+    }
+}
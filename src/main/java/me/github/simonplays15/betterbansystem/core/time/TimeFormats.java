@@ -0,0 +1,145 @@
+package me.github.simonplays15.betterbansystem.core.time;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * The TimeFormats class holds the date formats of the plugin.
+ * <p>
+ * All formats are immutable {@link DateTimeFormatter}s in the default time zone of the system, so unlike a shared
+ * {@link java.text.SimpleDateFormat} they can be used by the event, command and database threads at the same time.
+ * The display strings of the punishment dates are cached, because the same entries are rendered again on every
+ * join attempt of a banned player and on every page of the ban list.
+ */
+public final class TimeFormats {
+
+    /**
+     * The format of the dates stored in the JSON files, e.g. {@code 2024-01-31 18:30:00 +0100}.
+     */
+    public static final DateTimeFormatter STORAGE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss Z", Locale.US).withZone(ZoneId.systemDefault());
+    /**
+     * The format of the dates shown on kick screens and in the ban list, e.g. {@code 18:30:00 | 31.01.2024}.
+     */
+    public static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("HH:mm:ss | dd.MM.yyyy", Locale.US).withZone(ZoneId.systemDefault());
+    /**
+     * The format of the expiry dates in the command feedback, e.g. {@code 18:30:00 31.01.2024}.
+     */
+    public static final DateTimeFormatter FEEDBACK = DateTimeFormatter.ofPattern("HH:mm:ss dd.MM.yyyy", Locale.US).withZone(ZoneId.systemDefault());
+    /**
+     * The format of the warning dates in the lookup of a player, e.g. {@code 31/01/2024 18:30:00}.
+     */
+    public static final DateTimeFormatter LOOKUP = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss", Locale.US).withZone(ZoneId.systemDefault());
+    /**
+     * The format of the timestamps in the log files, e.g. {@code 31.01.2024 18:30:00}.
+     */
+    public static final DateTimeFormatter LOG = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss", Locale.US).withZone(ZoneId.systemDefault());
+    /**
+     * The format of the day in the names of the log files, e.g. {@code 2024-01-31}.
+     */
+    public static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyy-MM-dd", Locale.US).withZone(ZoneId.systemDefault());
+
+    /**
+     * The maximum amount of cached display strings.
+     */
+    private static final long DISPLAY_CACHE_SIZE = 1024;
+    /**
+     * The cached display strings in the {@link #DISPLAY} format, keyed by the milliseconds since the epoch.
+     */
+    private static final Cache<Long, String> displayCache = CacheBuilder.newBuilder()
+            .maximumSize(DISPLAY_CACHE_SIZE)
+            .build();
+
+    /**
+     * Private constructor to prevent instantiation of the TimeFormats class.
+     */
+    @Contract(pure = true)
+    private TimeFormats() {
+    }
+
+    /**
+     * Formats the date in the storage format.
+     *
+     * @param date the date
+     * @return the formatted date
+     */
+    public static @NotNull String formatStorage(@NotNull Date date) {
+        return STORAGE.format(date.toInstant());
+    }
+
+    /**
+     * Parses a date in the storage format.
+     *
+     * @param text the formatted date
+     * @return the parsed date
+     * @throws DateTimeParseException if the text is not a date in the storage format
+     */
+    public static @NotNull Date parseStorage(@NotNull String text) {
+        return Date.from(OffsetDateTime.parse(text, STORAGE).toInstant());
+    }
+
+    /**
+     * Parses a date in the storage format into the milliseconds since the epoch.
+     *
+     * @param text the formatted date
+     * @return the milliseconds since the epoch, or null if the text is not a date in the storage format
+     */
+    public static @Nullable Long parseStorageMillis(@NotNull String text) {
+        try {
+            return OffsetDateTime.parse(text, STORAGE).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats the date in the given format.
+     *
+     * @param formatter the format
+     * @param date      the date
+     * @return the formatted date
+     */
+    public static @NotNull String format(@NotNull DateTimeFormatter formatter, @NotNull Date date) {
+        return formatter.format(date.toInstant());
+    }
+
+    /**
+     * Formats the date in the {@link #DISPLAY} format, reusing the string of an earlier call for the same date.
+     *
+     * @param date the date
+     * @return the formatted date
+     */
+    public static @NotNull String formatDisplay(@NotNull Date date) {
+        long millis = date.getTime();
+        String formatted = displayCache.getIfPresent(millis);
+        if (formatted == null) {
+            formatted = DISPLAY.format(Instant.ofEpochMilli(millis));
+            displayCache.put(millis, formatted);
+        }
+        return formatted;
+    }
+
+    /**
+     * Formats the expiry of a punishment in the {@link #DISPLAY} format.
+     *
+     * @param expires the date the punishment expires at, or the text of a permanent punishment
+     * @return the formatted date, or the text if the punishment is permanent
+     */
+    public static @NotNull String formatDisplay(@Nullable Object expires) {
+        return expires instanceof Date date ? formatDisplay(date) : String.valueOf(expires);
+    }
+}
@@ -0,0 +1,386 @@
+package me.github.simonplays15.betterbansystem.core.transfer;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.ban.BanEntry;
+import me.github.simonplays15.betterbansystem.core.ban.IPBanEntry;
+import me.github.simonplays15.betterbansystem.core.database.IDatabase;
+import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.mute.MuteEntry;
+import me.github.simonplays15.betterbansystem.core.warn.WarnEntry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The PunishmentTransfer class moves the punishments between the json files and a database.
+ * <p>
+ * An import streams the entries from the json file and inserts them in chunks, every chunk with multi-row inserts inside one transaction.
+ * An export streams the rows from the database and writes them one by one into a new json file.
+ * In both directions the entries are never held in memory at once. The target has to be empty, so no punishment is overwritten.
+ * <p>
+ * Every chunk of an import is committed on its own, and MongoDB does not support transactions at all. If an import fails,
+ * the records inserted by it are therefore deleted again by their key, so the tables are empty and the import can be retried.
+ */
+public final class PunishmentTransfer {
+
+    /**
+     * The default amount of records inserted with one transaction.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    /**
+     * The minimum time in milliseconds between two progress reports.
+     */
+    private static final long PROGRESS_INTERVAL = 2000;
+
+    /**
+     * The PunishmentTransfer class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private PunishmentTransfer() {
+    }
+
+    /**
+     * Returns the transfer descriptions of all punishment types.
+     *
+     * @return an immutable list of the transfer descriptions
+     */
+    @Contract(pure = true)
+    public static @NotNull List<TransferSpec<?>> specs() {
+        return List.of(BanEntry.TRANSFER, IPBanEntry.TRANSFER, MuteEntry.TRANSFER, WarnEntry.TRANSFER);
+    }
+
+    /**
+     * Returns the transfer description with the given name.
+     *
+     * @param name the name of the punishment type, case-insensitive
+     * @return the transfer description, or null if no punishment type has the name
+     */
+    public static @Nullable TransferSpec<?> findSpec(@NotNull String name) {
+        for (TransferSpec<?> spec : specs()) {
+            if (spec.name().equalsIgnoreCase(name))
+                return spec;
+        }
+        return null;
+    }
+
+    /**
+     * Imports all entries of the json file of the given punishment type into the database.
+     * If the import fails, the records inserted by it are deleted again. The message of the thrown exception tells
+     * whether the tables are empty again, so the import can be retried, or whether they have to be cleaned up manually.
+     *
+     * @param database  the target database
+     * @param spec      the punishment type to import
+     * @param chunkSize the amount of records inserted with one transaction
+     * @param listener  the listener receiving the progress at most every two seconds and once the import is finished
+     * @param <T>       the type of the entries
+     * @return the final progress of the import
+     * @throws IllegalStateException if the table or the child table already contains records
+     * @throws IOException           if the json file could not be read or a chunk could not be inserted
+     */
+    public static <T> @NotNull TransferProgress importFromJson(@NotNull IDatabase database, @NotNull TransferSpec<T> spec, int chunkSize, @NotNull Consumer<TransferProgress> listener) throws IOException {
+        if (database.selectOne(spec.table(), Map.of()) != null)
+            throw new IllegalStateException("The table " + spec.table() + " already contains records");
+        if (spec.hasChildren() && database.selectOne(Objects.requireNonNull(spec.childTable()), Map.of()) != null)
+            throw new IllegalStateException("The table " + spec.childTable() + " already contains records");
+        ChunkWriter<T> writer = new ChunkWriter<>(database, spec, Math.max(1, chunkSize), new ProgressTracker(spec.name(), listener));
+        try {
+            spec.journal().forEachStored(writer::add);
+            writer.flush();
+        } catch (IOException | RuntimeException e) {
+            Throwable cause = e instanceof UncheckedIOException unchecked ? unchecked.getCause() : e;
+            throw new IOException(cause.getMessage() + ". " + writer.removeInserted(), cause);
+        }
+        return writer.tracker.finish();
+    }
+
+    /**
+     * Exports all records of the given punishment type from the database into its json file.
+     * <p>
+     * Entries with child rows are read with a scan of the parent table. For every chunk of parent rows,
+     * the child rows of the chunk are selected with one query, so only a single chunk is held in memory at once.
+     *
+     * @param database  the source database
+     * @param spec      the punishment type to export
+     * @param chunkSize the amount of records fetched from the database at once
+     * @param listener  the listener receiving the progress at most every two seconds and once the export is finished
+     * @param <T>       the type of the entries
+     * @return the final progress of the export
+     * @throws IllegalStateException if the json file already contains entries
+     * @throws IOException           if the json file could not be written
+     */
+    public static <T> @NotNull TransferProgress exportToJson(@NotNull IDatabase database, @NotNull TransferSpec<T> spec, int chunkSize, @NotNull Consumer<TransferProgress> listener) throws IOException {
+        if (!spec.journal().isEmpty())
+            throw new IllegalStateException("The file of " + spec.name() + " already contains entries");
+        int fetchSize = Math.max(1, chunkSize);
+        ProgressTracker tracker = new ProgressTracker(spec.name(), listener);
+        spec.journal().replaceAll(consumer -> {
+            Consumer<Map<String, Object>> emit = row -> {
+                consumer.accept(spec.fromRow().apply(row));
+                tracker.advance(1);
+            };
+            if (spec.hasChildren())
+                scanWithChildren(database, spec, fetchSize, emit);
+            else
+                database.scan(spec.table(), spec.keyColumn(), fetchSize, emit);
+        });
+        return tracker.finish();
+    }
+
+    /**
+     * Reads the rows of the parent table together with their child rows and passes every parent row,
+     * containing the list of its child rows under the name of the child table, to the consumer.
+     * <p>
+     * The parent rows are collected in chunks of the fetch size. The child rows of a chunk are selected by their key
+     * and grouped in memory, so the order in which the database returns them does not matter.
+     * While the scan of the parent table is running, the child rows are selected with a second connection.
+     *
+     * @param database  the source database
+     * @param spec      the punishment type with a child table
+     * @param fetchSize the amount of records fetched from the database at once
+     * @param consumer  the consumer receiving every parent row
+     */
+    private static void scanWithChildren(@NotNull IDatabase database, @NotNull TransferSpec<?> spec, int fetchSize, @NotNull Consumer<Map<String, Object>> consumer) {
+        List<Map<String, Object>> chunk = new ArrayList<>(fetchSize);
+        database.scan(spec.table(), spec.keyColumn(), fetchSize, row -> {
+            chunk.add(row);
+            if (chunk.size() >= fetchSize) {
+                emitWithChildren(database, spec, chunk, consumer);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty())
+            emitWithChildren(database, spec, chunk, consumer);
+    }
+
+    /**
+     * Selects the child rows of the given parent rows and passes every parent row, containing the list of its child rows
+     * under the name of the child table, to the consumer.
+     *
+     * @param database the source database
+     * @param spec     the punishment type with a child table
+     * @param parents  the parent rows of one chunk
+     * @param consumer the consumer receiving every parent row
+     */
+    private static void emitWithChildren(@NotNull IDatabase database, @NotNull TransferSpec<?> spec, @NotNull List<Map<String, Object>> parents, @NotNull Consumer<Map<String, Object>> consumer) {
+        String key = spec.keyColumn();
+        String childTable = Objects.requireNonNull(spec.childTable());
+        Set<Object> keys = new LinkedHashSet<>();
+        for (Map<String, Object> parent : parents) {
+            keys.add(parent.get(key));
+        }
+        Map<Object, List<Map<String, Object>>> children = new HashMap<>();
+        for (Map<String, Object> child : database.selectIn(childTable, key, keys)) {
+            children.computeIfAbsent(child.get(key), ignored -> new ArrayList<>()).add(child);
+        }
+        for (Map<String, Object> parent : parents) {
+            parent.put(childTable, children.getOrDefault(parent.get(key), new ArrayList<>()));
+            consumer.accept(parent);
+        }
+    }
+
+    /**
+     * Collects the rows of an import and inserts them chunk by chunk.
+     *
+     * @param <T> the type of the entries
+     */
+    private static final class ChunkWriter<T> {
+        /**
+         * The target database.
+         */
+        private final IDatabase database;
+        /**
+         * The imported punishment type.
+         */
+        private final TransferSpec<T> spec;
+        /**
+         * The amount of records inserted with one transaction.
+         */
+        private final int chunkSize;
+        /**
+         * The tracker reporting the progress of the import.
+         */
+        private final ProgressTracker tracker;
+        /**
+         * The rows of the parent table of the current chunk.
+         */
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        /**
+         * The rows of the child table of the current chunk.
+         */
+        private final List<Map<String, Object>> childRows = new ArrayList<>();
+        /**
+         * The keys of all rows handed to the database so far, used to delete them again if the import fails.
+         */
+        private final Set<Object> keys = new HashSet<>();
+
+        /**
+         * Creates a new ChunkWriter.
+         *
+         * @param database  the target database
+         * @param spec      the imported punishment type
+         * @param chunkSize the amount of records inserted with one transaction
+         * @param tracker   the tracker reporting the progress of the import
+         */
+        private ChunkWriter(@NotNull IDatabase database, @NotNull TransferSpec<T> spec, int chunkSize, @NotNull ProgressTracker tracker) {
+            this.database = database;
+            this.spec = spec;
+            this.chunkSize = chunkSize;
+            this.tracker = tracker;
+        }
+
+        /**
+         * Adds an entry to the current chunk and inserts the chunk once it is full.
+         *
+         * @param entry the entry to add
+         * @throws UncheckedIOException if the chunk could not be inserted
+         */
+        private void add(@NotNull T entry) {
+            Map<String, Object> row = this.spec.toRow().apply(entry);
+            this.rows.add(row);
+            this.keys.add(row.get(this.spec.keyColumn()));
+            if (this.spec.hasChildren())
+                this.childRows.addAll(Objects.requireNonNull(this.spec.toChildRows()).apply(entry));
+            if (this.rows.size() >= this.chunkSize)
+                this.flush();
+        }
+
+        /**
+         * Inserts the current chunk inside a transaction, if the database supports transactions.
+         * The transaction is rolled back if not every row was inserted.
+         *
+         * @throws UncheckedIOException if the chunk could not be inserted
+         */
+        private void flush() {
+            if (this.rows.isEmpty())
+                return;
+            boolean transaction = this.database.supportsTransactions();
+            if (transaction)
+                this.database.startTransaction();
+            boolean inserted = false;
+            try {
+                inserted = this.database.insertBatch(this.spec.table(), this.rows) == this.rows.size()
+                        && (this.childRows.isEmpty() || this.database.insertBatch(this.spec.childTable(), this.childRows) == this.childRows.size());
+            } finally {
+                if (transaction) {
+                    if (inserted)
+                        this.database.commitTransaction();
+                    else
+                        this.database.rollbackTransaction();
+                }
+            }
+            if (!inserted)
+                throw new UncheckedIOException(new IOException("Failed to insert " + this.rows.size() + " records into " + this.spec.table()
+                        + " after " + this.tracker.records + " records"));
+            this.tracker.advance(this.rows.size());
+            this.rows.clear();
+            this.childRows.clear();
+        }
+
+        /**
+         * Deletes the rows handed to the database by this import, including the child rows, and checks whether the tables are empty again.
+         *
+         * @return a sentence telling the operator whether the import can be retried
+         */
+        private @NotNull String removeInserted() {
+            String tables = this.spec.table() + (this.spec.hasChildren() ? " and " + this.spec.childTable() : "");
+            if (this.keys.isEmpty())
+                return "No records were inserted, the import can be retried.";
+            boolean empty;
+            try {
+                List<Object> inserted = new ArrayList<>(this.keys);
+                if (this.spec.hasChildren())
+                    this.database.deleteBatch(this.spec.childTable(), this.spec.keyColumn(), inserted);
+                this.database.deleteBatch(this.spec.table(), this.spec.keyColumn(), inserted);
+                empty = this.database.selectOne(this.spec.table(), Map.of()) == null
+                        && (!this.spec.hasChildren() || this.database.selectOne(Objects.requireNonNull(this.spec.childTable()), Map.of()) == null);
+            } catch (RuntimeException e) {
+                GlobalLogger.getLogger().error("Failed to remove the imported records of", tables, e);
+                empty = false;
+            }
+            if (empty)
+                return "The records inserted by this import were removed again, the import can be retried.";
+            return "The records inserted by this import could not be removed completely, delete the records of " + tables + " before retrying.";
+        }
+    }
+
+    /**
+     * Counts the transferred records and reports the progress to a listener.
+     */
+    private static final class ProgressTracker {
+        /**
+         * The name of the transferred punishment type.
+         */
+        private final String name;
+        /**
+         * The listener receiving the progress.
+         */
+        private final Consumer<TransferProgress> listener;
+        /**
+         * The {@link System#nanoTime()} at which the transfer started.
+         */
+        private final long startedAt = System.nanoTime();
+        /**
+         * The amount of records transferred so far.
+         */
+        private long records;
+        /**
+         * The {@link System#nanoTime()} of the last progress report.
+         */
+        private long lastReport = this.startedAt;
+
+        /**
+         * Creates a new ProgressTracker.
+         *
+         * @param name     the name of the transferred punishment type
+         * @param listener the listener receiving the progress
+         */
+        private ProgressTracker(@NotNull String name, @NotNull Consumer<TransferProgress> listener) {
+            this.name = name;
+            this.listener = listener;
+        }
+
+        /**
+         * Adds transferred records and reports the progress if the last report is at least {@link #PROGRESS_INTERVAL} old.
+         *
+         * @param amount the amount of transferred records
+         */
+        private void advance(int amount) {
+            this.records += amount;
+            long now = System.nanoTime();
+            if ((now - this.lastReport) / 1_000_000 < PROGRESS_INTERVAL)
+                return;
+            this.lastReport = now;
+            this.listener.accept(this.progress(now, false));
+        }
+
+        /**
+         * Reports and returns the final progress.
+         *
+         * @return the final progress
+         */
+        private @NotNull TransferProgress finish() {
+            TransferProgress progress = this.progress(System.nanoTime(), true);
+            this.listener.accept(progress);
+            return progress;
+        }
+
+        /**
+         * Creates the progress at the given time.
+         *
+         * @param now      the current {@link System#nanoTime()}
+         * @param finished whether the transfer is finished
+         * @return the progress
+         */
+        private @NotNull TransferProgress progress(long now, boolean finished) {
+            return new TransferProgress(this.name, this.records, (now - this.startedAt) / 1_000_000, finished);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package me.github.simonplays15.betterbansystem.core.transfer;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The TransferProgress record holds the state of a running or finished transfer of {@link PunishmentTransfer}.
+ *
+ * @param name          the name of the transferred punishment type
+ * @param records       the amount of records transferred so far
+ * @param elapsedMillis the time in milliseconds since the transfer started
+ * @param finished      whether the transfer is finished
+ */
+public record TransferProgress(@NotNull String name, long records, long elapsedMillis, boolean finished) {
+
+    /**
+     * Returns the throughput of the transfer.
+     *
+     * @return the amount of records transferred per second
+     */
+    public long recordsPerSecond() {
+        return this.elapsedMillis == 0 ? this.records * 1000 : this.records * 1000 / this.elapsedMillis;
+    }
+}
@@ -0,0 +1,57 @@
+package me.github.simonplays15.betterbansystem.core.transfer;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.api.files.JsonEntryJournal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The TransferSpec record describes how the entries of one punishment type are stored in the json files and in the database,
+ * so {@link PunishmentTransfer} can move them between both.
+ *
+ * @param name        the name of the punishment type, e.g. "bans"
+ * @param journal     the journal holding the entries of the flat file backend
+ * @param table       the name of the database table
+ * @param keyColumn   the name of the unique key column of the table, also used to join the child table
+ * @param toRow       the function converting an entry into a row of the table
+ * @param fromRow     the function converting a row of the table, including its child rows under the name of the child table, into an entry
+ * @param childTable  the name of the child table, or null if the entries have no child rows
+ * @param toChildRows the function converting an entry into the rows of the child table, or null if the entries have no child rows
+ * @param <T>         the type of the entries
+ */
+public record TransferSpec<T>(@NotNull String name, @NotNull JsonEntryJournal<T> journal, @NotNull String table,
+                              @NotNull String keyColumn, @NotNull Function<T, Map<String, Object>> toRow,
+                              @NotNull Function<Map<String, Object>, T> fromRow, @Nullable String childTable,
+                              @Nullable Function<T, List<Map<String, Object>>> toChildRows) {
+
+    /**
+     * Creates a TransferSpec for entries without child rows.
+     *
+     * @param name      the name of the punishment type
+     * @param journal   the journal holding the entries of the flat file backend
+     * @param table     the name of the database table
+     * @param keyColumn the name of the unique key column of the table
+     * @param toRow     the function converting an entry into a row of the table
+     * @param fromRow   the function converting a row of the table into an entry
+     */
+    public TransferSpec(@NotNull String name, @NotNull JsonEntryJournal<T> journal, @NotNull String table, @NotNull String keyColumn,
+                        @NotNull Function<T, Map<String, Object>> toRow, @NotNull Function<Map<String, Object>, T> fromRow) {
+        this(name, journal, table, keyColumn, toRow, fromRow, null, null);
+    }
+
+    /**
+     * Returns whether the entries have rows in a child table.
+     *
+     * @return true if a child table is set, false otherwise
+     */
+    public boolean hasChildren() {
+        return this.childTable != null && this.toChildRows != null;
+    }
+}
@@ -4,21 +4,21 @@ package me.github.simonplays15.betterbansystem.core.warn;
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import me.github.simonplays15.betterbansystem.api.files.JsonEntryJournal;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
+import me.github.simonplays15.betterbansystem.core.database.IDatabase;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
+import me.github.simonplays15.betterbansystem.core.transfer.TransferSpec;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
-import java.lang.reflect.Type;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -42,11 +42,6 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
      * This code snippet gets the current value of idGenerator and then increments it atomically. The returned value is stored in the "id" variable.
      */
     public static final AtomicInteger idGenerator = new AtomicInteger(1);
-    /**
-     * The variable gson is an instance of the Gson class. Gson is a library used for JSON serialization and deserialization in Java.
-     * It is used to convert Java objects to JSON representations and vice versa.
-     */
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().setDateFormat("yyyy-MM-dd HH:mm:ss Z").registerTypeAdapter(IWarnEntry.class, new IWarnEntryAdapter()).create();
     /**
      * Represents the file for storing warning entries for players.
      * The file is used to store player warnings in JSON format.
@@ -55,11 +50,10 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
      */
     private static final File file = new File("player-warns.json");
     /**
-     * Represents a SimpleDateFormat object with the following pattern: "yyyy-MM-dd HH:mm:ss Z".
-     * Uses the US locale for formatting and parsing dates.
-     * This format is used for parsing and formatting dates in the warning system.
+     * The journal holding all warn entries of the flat file backend.
+     * The entries are stored in player-warns.json, changes are appended to player-warns.json.journal until they are compacted.
      */
-    private static final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z", Locale.US);
+    private static final JsonEntryJournal<IWarnEntry> journal = new JsonEntryJournal<>(file, new IWarnEntryAdapter(), entry -> entry.uuid().toString());
     /**
      * The variable WARNED_PLAYERS_TABLENAME represents the name of the table
      * in the database that stores information about warned players.
@@ -69,6 +63,11 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
      * Represents the table name for storing player warns.
      */
     private static final String PLAYER_WARNS_TABLENAME = "warns";
+    /**
+     * Describes how the warns are moved between the json file and the database by the PunishmentTransfer.
+     * Every warned player is a row of the warned players table, every single warning a row of the warns table.
+     */
+    public static final TransferSpec<IWarnEntry> TRANSFER = new TransferSpec<>("warns", journal, WARNED_PLAYERS_TABLENAME, "uuid", WarnEntry::toRow, WarnEntry::fromRow, PLAYER_WARNS_TABLENAME, WarnEntry::toWarnRows);
 
     /**
      * Checks if the specified file exists, and if it doesn't, creates a new file.
@@ -92,86 +91,55 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
      *
      * @param map the map representation of a warning
      * @return the converted Warn object
-     * @throws RuntimeException if the map contains invalid data or an error occurs during parsing
      */
     @Contract("_ -> new")
-    private static @NotNull Warn convertMapToWarn(Map<String, Object> map) {
-        Map<String, Object> warnMap = new HashMap<>();
-        map.forEach((key, value) -> warnMap.put(key, value.toString()));
-        try {
-            return new Warn(
-                    Integer.parseInt((String) warnMap.get("id")),
-                    (String) warnMap.get("source"),
-                    format.parse((String) warnMap.get("created")),
-                    (String) warnMap.get("reason")
-            );
-        } catch (ParseException e) {
-            throw new RuntimeException(e);
-        }
+    private static @NotNull Warn convertMapToWarn(@NotNull Map<String, Object> map) {
+        Object id = map.get("id");
+        return new Warn(
+                id instanceof Number number ? number.intValue() : id == null ? -1 : Integer.parseInt(id.toString()),
+                (String) map.get("source"),
+                ColumnValues.toDate(map.get("created")),
+                (String) map.get("reason")
+        );
     }
 
     /**
      * Saves a WarnEntry to a JSON file.
+     * With a database, only the added warnings are inserted and the removed warnings are deleted by their row id.
+     * If a removed warning has no row id, all warnings of the player are replaced.
+     * The row of the player is written last, so the expiry sweep never sees it without its new warnings.
      *
      * @param entry The WarnEntry to be saved.
      */
     public static void saveToJson(IWarnEntry entry) {
-        if (BetterBanSystem.getInstance().getDatabase() != null) {
-            List<Map<String, Object>> existingEntry = BetterBanSystem.getInstance().getDatabase().select(WARNED_PLAYERS_TABLENAME, "uuid = '" + entry.uuid().toString() + "'");
-            if (existingEntry == null || existingEntry.isEmpty()) {
-                BetterBanSystem.getInstance().getDatabase().insert(WARNED_PLAYERS_TABLENAME, Map.of("uuid", entry.uuid().toString(), "name", entry.name()));
-                for (Warn warn : entry.warns()) {
-                    BetterBanSystem.getInstance().getDatabase().insert(PLAYER_WARNS_TABLENAME, Map.of("source", warn.source(), "created", format.format(warn.created()), "reason", warn.reason(), "uuid", entry.uuid()));
-                }
-                return;
-            }
-            List<Map<String, Object>> existingWarnsMaps = BetterBanSystem.getInstance().getDatabase().select(PLAYER_WARNS_TABLENAME, "uuid = '" + entry.uuid().toString() + "'");
+        IDatabase database = BetterBanSystem.getInstance().getDatabase();
+        if (database != null) {
+            List<Map<String, Object>> existingWarnsMaps = database.select(PLAYER_WARNS_TABLENAME, Map.of("uuid", entry.uuid().toString()));
             List<Warn> existingWarns = existingWarnsMaps.stream().map(WarnEntry::convertMapToWarn).toList();
+            List<Map<String, Object>> addedWarns = new ArrayList<>();
             for (Warn warn : entry.warns()) {
-                if (!existingWarns.contains(warn)) {
-                    BetterBanSystem.getInstance().getDatabase().insert(PLAYER_WARNS_TABLENAME, Map.of("source", warn.source(), "created", format.format(warn.created()), "reason", warn.reason(), "uuid", entry.uuid()));
-                }
+                if (!existingWarns.contains(warn))
+                    addedWarns.add(toWarnRow(entry.uuid(), warn));
             }
+            List<Integer> removedWarns = new ArrayList<>();
             for (Warn existing : existingWarns) {
-                if (!entry.warns().contains(existing)) {
-                    BetterBanSystem.getInstance().getDatabase().delete(PLAYER_WARNS_TABLENAME, "created", format.format(existing.created()));
+                if (entry.warns().contains(existing))
+                    continue;
+                if (existing.id() < 0) {
+                    // Without a row id the removed warning can not be told apart from the warnings of other players
+                    database.delete(PLAYER_WARNS_TABLENAME, "uuid", entry.uuid().toString());
+                    database.insertBatch(PLAYER_WARNS_TABLENAME, toWarnRows(entry));
+                    database.upsert(WARNED_PLAYERS_TABLENAME, "uuid", List.of(toRow(entry)));
+                    return;
                 }
+                removedWarns.add(existing.id());
             }
+            database.deleteBatch(PLAYER_WARNS_TABLENAME, "id", removedWarns);
+            database.insertBatch(PLAYER_WARNS_TABLENAME, addedWarns);
+            database.upsert(WARNED_PLAYERS_TABLENAME, "uuid", List.of(toRow(entry)));
+            return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IWarnEntry> entries;
-        if (file.length() != 0) {
-            try (Reader reader = new FileReader(file.getName())) {
-                Type listType = new TypeToken<ArrayList<IWarnEntry>>() {
-                }.getType();
-                entries = gson.fromJson(reader, listType);
-            } catch (IOException ex) {
-                GlobalLogger.getLogger().error(ex);
-                return;
-            }
-        } else {
-            entries = new ArrayList<>();
-        }
-        Optional<IWarnEntry> existing = entries.stream().filter(e -> e.uuid().equals(entry.uuid())).findFirst();
-        if (existing.isPresent()) {
-            existing.get().warns().clear();
-            existing.get().warns().addAll(entry.warns());
-        } else {
-            entries.add(entry);
-        }
-        try (Writer writer = new FileWriter(file.getName())) {
-            gson.toJson(entries, writer);
-        } catch (IOException ex) {
-            GlobalLogger.getLogger().error(ex);
-        }
+        journal.put(entry);
     }
 
     /**
@@ -192,36 +160,42 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
         if (BetterBanSystem.getInstance().getDatabase() != null) {
             BetterBanSystem.getInstance().getDatabase().delete(WARNED_PLAYERS_TABLENAME, "uuid", target.toString());
             BetterBanSystem.getInstance().getDatabase().delete(PLAYER_WARNS_TABLENAME, "uuid", target.toString());
+            return;
         }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
-            }
-        }
-        List<IWarnEntry> entries;
-        List<IWarnEntry> tempEntries;
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IWarnEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-            tempEntries = new ArrayList<>(entries);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
+        journal.remove(target.toString());
+    }
+
+    /**
+     * Removes all warnings created before the given date.
+     * On a database, this is a single range delete over the warnings of all players, followed by the removal of
+     * the players without any remaining warning. On the flat file backend, only the given players are rewritten
+     * and players without any remaining warning are removed.
+     *
+     * @param cutoff  the exclusive upper bound of the creation date
+     * @param players the players whose warnings are due, only used by the flat file backend
+     */
+    public static void removeWarnsBefore(@NotNull Date cutoff, @NotNull Collection<UUID> players) {
+        IDatabase database = BetterBanSystem.getInstance().getDatabase();
+        if (database != null) {
+            database.deleteLessThan(PLAYER_WARNS_TABLENAME, "created", cutoff.getTime());
+            database.deleteOrphans(WARNED_PLAYERS_TABLENAME, PLAYER_WARNS_TABLENAME, "uuid");
             return;
         }
-        tempEntries.removeIf(entry -> entry.uuid().equals(target));
-        if (entries.size() != tempEntries.size()) {
-            entries.clear();
-            entries.addAll(tempEntries);
-            try (Writer writer = new FileWriter(file.getName())) {
-                gson.toJson(entries, writer);
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
+        for (UUID uuid : players) {
+            IWarnEntry entry = journal.get(uuid.toString());
+            if (entry == null)
+                continue;
+            List<Warn> remaining = new ArrayList<>();
+            for (Warn warn : entry.warns()) {
+                if (warn.created() == null || !warn.created().before(cutoff))
+                    remaining.add(warn);
             }
+            if (remaining.size() == entry.warns().size())
+                continue;
+            if (remaining.isEmpty())
+                journal.remove(uuid.toString());
+            else
+                journal.put(new WarnEntry(entry.uuid(), entry.name(), remaining));
         }
     }
 
@@ -232,49 +206,14 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
      */
     public static @NotNull List<IWarnEntry> getAllEntries() {
         if (BetterBanSystem.getInstance().getDatabase() != null) {
-            List<Map<String, Object>> potentialEntries = BetterBanSystem.getInstance().getDatabase().selectAll(WARNED_PLAYERS_TABLENAME);
-            List<IWarnEntry> entries = new ArrayList<>();
-            potentialEntries.forEach(entry -> {
-                UUID uuid = UUID.fromString((String) entry.get("uuid"));
-                String name = (String) entry.get("name");
-                List<Map<String, Object>> warnEntries = BetterBanSystem.getInstance().getDatabase().select(PLAYER_WARNS_TABLENAME, "uuid = '" + uuid + "'");
-                List<Warn> warns = new ArrayList<>();
-                warnEntries.forEach(warnEntry -> {
-                    int id = (int) warnEntry.get("id");
-                    String source = (String) warnEntry.get("source");
-                    Date created = null;
-                    try {
-                        created = format.parse((String) warnEntry.get("created"));
-                    } catch (ParseException e) {
-                        throw new RuntimeException(e);
-                    }
-                    String reason = (String) warnEntry.get("reason");
-                    warns.add(new Warn(id, source, created, reason));
-                });
-                entries.add(new WarnEntry(uuid, name, warns));
-            });
-            return entries;
-        }
-        if (!file.exists()) {
-            try {
-                if (file.createNewFile()) {
-                    GlobalLogger.getLogger().info("File " + file.getName() + " created.");
-                }
-            } catch (IOException e) {
-                GlobalLogger.getLogger().error(e);
+            List<Map<String, Object>> potentialEntries = BetterBanSystem.getInstance().getDatabase().selectWithChildren(WARNED_PLAYERS_TABLENAME, PLAYER_WARNS_TABLENAME, "uuid", Map.of());
+            List<IWarnEntry> entries = new ArrayList<>(potentialEntries.size());
+            for (Map<String, Object> potentialEntry : potentialEntries) {
+                entries.add(fromRow(potentialEntry));
             }
+            return entries;
         }
-        List<IWarnEntry> entries = new ArrayList<>();
-        try (Reader reader = new FileReader(file.getName())) {
-            Type listType = new TypeToken<ArrayList<IWarnEntry>>() {
-            }.getType();
-            entries = gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            GlobalLogger.getLogger().error(e);
-        }
-        if (entries == null)
-            entries = new ArrayList<>();
-        return entries;
+        return journal.values();
     }
 
     /**
@@ -284,11 +223,66 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
      * @return the warning entry with the specified UUID, or null if not found
      */
     public static IWarnEntry findEntry(UUID targetUUID) {
-        List<IWarnEntry> entries = getAllEntries();
-        return entries.stream()
-                .filter(entry -> entry.uuid().equals(targetUUID))
-                .findFirst()
-                .orElse(null);
+        if (BetterBanSystem.getInstance().getDatabase() == null)
+            return journal.get(targetUUID.toString());
+        List<Map<String, Object>> rows = BetterBanSystem.getInstance().getDatabase().selectWithChildren(WARNED_PLAYERS_TABLENAME, PLAYER_WARNS_TABLENAME, "uuid", Map.of("uuid", targetUUID.toString()));
+        return rows.isEmpty() ? null : fromRow(rows.get(0));
+    }
+
+    /**
+     * Converts a warning entry into a row of the warned players table.
+     *
+     * @param entry the warning entry to convert
+     * @return the row representing the warned player
+     */
+    @Contract("_ -> new")
+    private static @NotNull Map<String, Object> toRow(@NotNull IWarnEntry entry) {
+        return Map.of("uuid", entry.uuid().toString(), "name", entry.name());
+    }
+
+    /**
+     * Converts a single warning into a row of the warns table. The ID is assigned by the database.
+     *
+     * @param uuid the UUID of the warned player
+     * @param warn the warning to convert
+     * @return the row representing the warning
+     */
+    @Contract("_, _ -> new")
+    private static @NotNull Map<String, Object> toWarnRow(@NotNull UUID uuid, @NotNull Warn warn) {
+        return Map.of("source", warn.source(), "created", ColumnValues.toMillis(warn.created()), "reason", warn.reason(), "uuid", uuid.toString());
+    }
+
+    /**
+     * Converts all warnings of a warning entry into rows of the warns table.
+     *
+     * @param entry the warning entry to convert
+     * @return the rows representing the warnings
+     */
+    private static @NotNull List<Map<String, Object>> toWarnRows(@NotNull IWarnEntry entry) {
+        List<Map<String, Object>> rows = new ArrayList<>(entry.warns().size());
+        for (Warn warn : entry.warns()) {
+            rows.add(toWarnRow(entry.uuid(), warn));
+        }
+        return rows;
+    }
+
+    /**
+     * Converts a database row of a warned player, including the rows of the warnings, into a warning entry.
+     *
+     * @param potentialEntry the row read from the database
+     * @return the warning entry represented by the row
+     */
+    @Contract("_ -> new")
+    @SuppressWarnings("unchecked")
+    private static @NotNull IWarnEntry fromRow(@NotNull Map<String, Object> potentialEntry) {
+        UUID uuid = UUID.fromString((String) potentialEntry.get("uuid"));
+        String name = (String) potentialEntry.get("name");
+        List<Map<String, Object>> warnEntries = (List<Map<String, Object>>) potentialEntry.getOrDefault(PLAYER_WARNS_TABLENAME, List.of());
+        List<Warn> warns = new ArrayList<>(warnEntries.size());
+        for (Map<String, Object> warnEntry : warnEntries) {
+            warns.add(convertMapToWarn(warnEntry));
+        }
+        return new WarnEntry(uuid, name, warns);
     }
 
     /**
@@ -331,7 +325,7 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
                 writer.beginObject();
                 writer.name("id").value(warn.id());
                 writer.name("source").value(warn.source());
-                writer.name("created").value(format.format(warn.created()));
+                writer.name("created").value(TimeFormats.formatStorage(warn.created()));
                 writer.name("reason").value(warn.reason());
                 writer.endObject();
             }
@@ -383,8 +377,8 @@ public record WarnEntry(UUID uuid, String name, List<Warn> warns) implements IWa
                                     case "created":
                                         String dateString = reader.nextString();
                                         try {
-                                            created = format.parse(dateString);
-                                        } catch (ParseException e) {
+                                            created = TimeFormats.parseStorage(dateString);
+                                        } catch (DateTimeParseException e) {
                                             throw new RuntimeException(e);
                                         }
                                         break;
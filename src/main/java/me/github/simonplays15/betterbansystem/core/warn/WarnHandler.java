@@ -8,6 +8,7 @@ import me.github.simonplays15.betterbansystem.api.uuid.UUIDFetcher;
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.chat.ChatColor;
 import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -33,12 +34,14 @@ public class WarnHandler {
         IWarnEntry potentialWarnEntry = WarnEntry.findEntry(targetUUID);
         if (potentialWarnEntry == null)
             potentialWarnEntry = new WarnEntry(targetUUID, target, new ArrayList<>());
-        potentialWarnEntry.addWarn(new Warn(WarnEntry.idGenerator.getAndIncrement(), sender.getName(), new Date(), reason));
+        Warn warn = new Warn(WarnEntry.idGenerator.getAndIncrement(), sender.getName(), new Date(), reason);
+        potentialWarnEntry.addWarn(warn);
         WarnEntry.saveToJson(potentialWarnEntry);
+        WarnManager.schedule(targetUUID, warn);
         String commandString = BetterBanSystem.getInstance().getConfig().getString("warns.actions." + potentialWarnEntry.warns().size(), "");
         if (!commandString.isEmpty()) {
-            commandString = commandString.replace("%p", target);
-            BetterBanSystem.getInstance().dispatchCommand(ChatColor.translateAlternateColorCodes('&', commandString));
+            String command = ChatColor.translateAlternateColorCodes('&', commandString.replace("%p", target));
+            TaskScheduler.runSync(() -> BetterBanSystem.getInstance().dispatchCommand(command));
         }
     }
 
@@ -51,6 +54,10 @@ public class WarnHandler {
     public static void removeWarn(String target, int id) {
         UUID targetUUID = UUIDFetcher.getUUIDOrOfflineUUID(target);
         IWarnEntry potentialWarnEntry = WarnEntry.findEntry(targetUUID);
+        for (Warn warn : potentialWarnEntry.warns()) {
+            if (warn.id() == id)
+                WarnManager.cancel(targetUUID, warn);
+        }
         potentialWarnEntry.removeWarn(id);
         WarnEntry.saveToJson(potentialWarnEntry);
     }
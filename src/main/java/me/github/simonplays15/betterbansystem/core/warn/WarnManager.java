@@ -1,37 +1,102 @@
-package me.github.simonplays15.betterbansystem.core.warn;/*
- * Copyright (c) SimonPlays15 2024. All Rights Reserved
- */
+package me.github.simonplays15.betterbansystem.core.warn;
 
 /*
  * Copyright (c) SimonPlays15 2024. All Rights Reserved
  */
 
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
+import me.github.simonplays15.betterbansystem.core.expiry.ExpiryQueue;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Date;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
  * WarnManager class for managing warnings and auto-deletion of expired warnings.
+ * <p>
+ * Every warning expires at its creation date plus the configured auto-delete time. The warnings are kept in an
+ * {@link ExpiryQueue} ordered by that date, which is kept up to date by the {@link WarnHandler}.
+ * All warnings due at the same time are removed from the storage with a single operation.
+ * <p>
+ * Without a database, the queue is loaded once on start. With a database, the queue only holds the warnings of this server,
+ * so a periodic sweep additionally deletes the expired warnings of all servers sharing the database.
  */
 public class WarnManager {
 
     /**
-     *
+     * The interval in seconds of the sweeps for expired warnings, if a database is used.
      */
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private static final long SWEEP_INTERVAL = 30;
+
+    /**
+     * The warnings, ordered by the date they expire at.
+     */
+    private static final ExpiryQueue<ScheduledWarn, ScheduledWarn> warns = ExpiryQueue.batched(TaskScheduler.timer(), expired -> TaskScheduler.execute(() -> expireWarns(expired)));
+    /**
+     * The time in milliseconds after which a warning is deleted, or -1 if the auto-deletion is disabled.
+     */
+    private static volatile long autoDeleteMillis = -1;
 
     /**
      * WarnManager class for managing warnings and auto-deletion of expired warnings.
      */
     public WarnManager() {
-        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
+    /**
+     * Schedules the deletion of the given warning. Does nothing if the auto-deletion is disabled.
+     *
+     * @param uuid the UUID of the warned player
+     * @param warn the warning
+     */
+    public static void schedule(@NotNull UUID uuid, @NotNull Warn warn) {
+        long interval = autoDeleteMillis;
+        if (interval < 0 || warn.created() == null)
+            return;
+        ScheduledWarn scheduled = new ScheduledWarn(uuid, warn);
+        warns.schedule(scheduled, scheduled, warn.created().getTime() + interval);
+    }
+
+    /**
+     * Cancels the scheduled deletion of the given warning.
+     *
+     * @param uuid the UUID of the warned player
+     * @param warn the warning
+     */
+    public static void cancel(@NotNull UUID uuid, @NotNull Warn warn) {
+        warns.cancel(new ScheduledWarn(uuid, warn));
+    }
+
+    /**
+     * Removes all due warnings with a single storage operation.
+     * Every warning created up to the millisecond of the newest due warning is deleted, which covers all due warnings at once.
+     *
+     * @param expired the due warnings
+     */
+    private static void expireWarns(@NotNull List<ScheduledWarn> expired) {
+        long newest = 0;
+        Set<UUID> players = new HashSet<>();
+        for (ScheduledWarn scheduled : expired) {
+            newest = Math.max(newest, scheduled.warn().created().getTime());
+            players.add(scheduled.uuid());
+        }
+        Date cutoff = new Date(newest + 1);
+        WarnEntry.removeWarnsBefore(cutoff, players);
+        GlobalLogger.getLogger().debug("Removed", expired.size(), "warns from", players.size(), "players. reason: Warn exceeded the interval");
+    }
+
+    /**
+     * Deletes every warning which expired, including the warnings added by other servers sharing the database,
+     * and the players left without any warning.
+     */
+    private static void sweep() {
+        WarnEntry.removeWarnsBefore(new Date(System.currentTimeMillis() - autoDeleteMillis), Set.of());
     }
 
     /**
@@ -50,48 +115,42 @@ public class WarnManager {
      * - MINUTES
      * - HOURS
      * - DAYS
+     * <p>
+     * With a database the expired warnings are deleted by a sweep every {@link #SWEEP_INTERVAL} seconds.
+     * Otherwise, all warnings of the json file are loaded into the expiry queue once.
      */
     public void start() {
         if (!BetterBanSystem.getInstance().getConfig().getBoolean("warns.autodelete.use"))
             return;
 
         String timeUnit = BetterBanSystem.getInstance().getConfig().getString("warns.autodelete.unit", "MINUTES").toUpperCase();
+        try {
+            autoDeleteMillis = TimeUnit.valueOf(timeUnit).toMillis(BetterBanSystem.getInstance().getConfig().getLong("warns.autodelete.time"));
+        } catch (IllegalArgumentException e) {
+            GlobalLogger.getLogger().error("Invalid time unit for warns.autodelete.unit:", timeUnit, e);
+            return;
+        }
 
-        Duration interval = Duration.of(BetterBanSystem.getInstance().getConfig().getLong("warns.autodelete.time"), ChronoUnit.valueOf(timeUnit));
-
-        Runnable checkWarns = () -> {
-            for (IWarnEntry entry : WarnEntry.getAllEntries()) {
-                for (Warn warn : entry.warns()) {
-                    Instant now = Instant.now();
-                    Instant future = now.plus(interval);
-
-                    if (warn.created().before(Date.from(future))) {
-                        entry.removeWarn(warn.id());
-                        GlobalLogger.getLogger().debug("Removed warn ID " + warn.id() + " from " + entry.name() + " reason: Warn exceeded the interval");
-                    }
-                }
+        if (BetterBanSystem.getInstance().getDatabase() != null) {
+            TaskScheduler.scheduleAsync(WarnManager::sweep, 0, SWEEP_INTERVAL, TimeUnit.SECONDS);
+            GlobalLogger.getLogger().debug("WarnManager sweeps the database for expired warns every", SWEEP_INTERVAL, "seconds.");
+            return;
+        }
+        for (IWarnEntry entry : WarnEntry.getAllEntries()) {
+            for (Warn warn : entry.warns()) {
+                schedule(entry.uuid(), warn);
             }
-        };
-
-        scheduler.scheduleAtFixedRate(checkWarns, 0, 1, TimeUnit.SECONDS);
-
+        }
+        GlobalLogger.getLogger().debug("WarnManager scheduled", warns.size(), "warns for deletion.");
     }
 
     /**
-     * Stops the execution of the scheduler and shuts it down gracefully.
-     * If the scheduler does not terminate within 5 seconds, it will be forced to shut down.
-     * If an InterruptedException occurs during the termination process, the scheduler will be forced to shut down as well.
+     * A warning scheduled for deletion.
+     *
+     * @param uuid the UUID of the warned player
+     * @param warn the warning
      */
-    public void stop() {
-        scheduler.shutdown();
-        try {
-            if (scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            GlobalLogger.getLogger().error(e.getMessage());
-        }
+    private record ScheduledWarn(UUID uuid, Warn warn) {
     }
 
 }
@@ -0,0 +1,62 @@
+package me.github.simonplays15.betterbansystem.core.warn;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.api.uuid.UUIDFetcher;
+import me.github.simonplays15.betterbansystem.core.player.BaseCommandSender;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The WarnService class is the asynchronous counterpart of the {@link WarnHandler}.
+ * <p>
+ * Every method runs the storage access and the UUID lookup on the I/O executor of the {@link TaskScheduler}
+ * and returns a future, so the calling thread is never blocked.
+ */
+public final class WarnService {
+
+    /**
+     * The WarnService class only provides static methods and can not be instantiated.
+     */
+    @Contract(pure = true)
+    private WarnService() {
+    }
+
+    /**
+     * Warns the given player. A configured warn action is dispatched on the server thread.
+     *
+     * @param sender the sender issuing the warning
+     * @param target the name of the target player
+     * @param reason the reason for the warning
+     * @return a future completed once the warning is stored
+     */
+    public static @NotNull CompletableFuture<Void> warnAsync(@NotNull BaseCommandSender sender, @NotNull String target, String reason) {
+        return TaskScheduler.runAsync(() -> WarnHandler.addWarn(sender, target, reason));
+    }
+
+    /**
+     * Removes a warning of the given player.
+     *
+     * @param target the name of the warned player
+     * @param id     the ID of the warning
+     * @return a future completed once the warning is removed
+     */
+    public static @NotNull CompletableFuture<Void> removeWarnAsync(@NotNull String target, int id) {
+        return TaskScheduler.runAsync(() -> WarnHandler.removeWarn(target, id));
+    }
+
+    /**
+     * Finds the warning entry of the given player.
+     *
+     * @param playerName the name of the player
+     * @return a future completed with the warning entry, or with null if the player has no warnings
+     */
+    public static @NotNull CompletableFuture<IWarnEntry> findWarnsAsync(@NotNull String playerName) {
+        return TaskScheduler.supplyAsync(() -> WarnEntry.findEntry(UUIDFetcher.getUUIDOrOfflineUUID(playerName)));
+    }
+}
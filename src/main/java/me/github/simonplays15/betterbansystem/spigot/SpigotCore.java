@@ -6,9 +6,11 @@ package me.github.simonplays15.betterbansystem.spigot;
 
 import me.github.simonplays15.betterbansystem.core.BetterBanSystem;
 import me.github.simonplays15.betterbansystem.core.logging.GlobalLogger;
+import me.github.simonplays15.betterbansystem.core.scheduler.TaskScheduler;
 import me.github.simonplays15.betterbansystem.spigot.event.EventManager;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Represents the core plugin class for Spigot.
@@ -54,6 +56,18 @@ public class SpigotCore extends JavaPlugin {
                 public void dispatchCommand(String command) {
                     Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
                 }
+
+                @Override
+                public void runSync(@NotNull Runnable runnable) {
+                    if (Bukkit.isPrimaryThread()) {
+                        runnable.run();
+                    } else if (instance.isEnabled()) {
+                        Bukkit.getScheduler().runTask(instance, runnable);
+                    } else {
+                        // The Bukkit API must not be used off the server thread, e.g. by the I/O tasks drained on disable
+                        GlobalLogger.getLogger().debug("Dropped a server task of a background thread, the plugin is disabled.");
+                    }
+                }
             };
         } catch (NoClassDefFoundError | Exception e) {
             GlobalLogger.getLogger().error("Failed to initialize BetterBanSystem:", e);
@@ -73,9 +87,13 @@ public class SpigotCore extends JavaPlugin {
      * operations before the plugin is completely shut down.
      * <p>
      * Note that when the plugin is disabled, it will no longer receive events or be able to execute commands.
+     * The config watcher, the {@link TaskScheduler}, the journals of the JSON files and the database are closed
+     * by {@link BetterBanSystem#shutdown()}.
      */
     public void onDisable() {
-
+        BetterBanSystem core = BetterBanSystem.getInstance();
+        if (core != null)
+            core.shutdown();
     }
 
     /**
@@ -0,0 +1,276 @@
+package me.github.simonplays15.betterbansystem.api.uuid;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the lookups of the {@link UUIDFetcher} against a local stand-in for the Mojang API.
+ * <p>
+ * The plugin is not initialized, so the found UUIDs are kept in the in-memory fallback of the UUID store.
+ * Every test uses its own names, because that fallback is shared by all tests.
+ */
+class UUIDFetcherTest {
+
+    /**
+     * The path the stand-in API answers the name lookups on.
+     */
+    private static final String PATH = "/users/profiles/minecraft/";
+    /**
+     * The path the stand-in API answers the bulk lookups on.
+     */
+    private static final String BULK_PATH = "/profiles/minecraft";
+    /**
+     * The UUIDs the stand-in API knows, keyed by the name.
+     */
+    private static final Map<String, UUID> known = new ConcurrentHashMap<>();
+    /**
+     * The amount of requests the stand-in API received during the current test.
+     */
+    private static final AtomicInteger requests = new AtomicInteger();
+    /**
+     * The stand-in API.
+     */
+    private static HttpServer server;
+    /**
+     * Whether the stand-in API answers every request with an internal server error.
+     */
+    private static volatile boolean failing;
+
+    /**
+     * Starts the stand-in API.
+     *
+     * @throws IOException if the server can not be started
+     */
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH, UUIDFetcherTest::answer);
+        server.createContext(BULK_PATH, UUIDFetcherTest::answerBulk);
+        server.start();
+    }
+
+    /**
+     * Stops the stand-in API.
+     */
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    /**
+     * Answers a name lookup like the Mojang API.
+     *
+     * @param exchange the request
+     * @throws IOException if the answer can not be sent
+     */
+    private static void answer(@NotNull HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String name = exchange.getRequestURI().getPath().substring(PATH.length());
+        UUID uuid = known.get(name);
+        if (failing) {
+            exchange.sendResponseHeaders(500, -1);
+        } else if (uuid == null) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            byte[] body = ("{\"id\":\"" + uuid.toString().replace("-", "") + "\",\"name\":\"" + name + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    /**
+     * Answers a bulk lookup like the Mojang API, leaving out the unknown names.
+     *
+     * @param exchange the request
+     * @throws IOException if the answer can not be sent
+     */
+    private static void answerBulk(@NotNull HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        JsonArray names = new Gson().fromJson(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), JsonArray.class);
+        if (failing) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        JsonArray profiles = new JsonArray();
+        for (JsonElement name : names) {
+            UUID uuid = known.get(name.getAsString());
+            if (uuid == null)
+                continue;
+            JsonObject profile = new JsonObject();
+            profile.addProperty("id", uuid.toString().replace("-", ""));
+            profile.addProperty("name", name.getAsString());
+            profiles.add(profile);
+        }
+        byte[] body = profiles.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        exchange.close();
+    }
+
+    /**
+     * Points the fetcher at the stand-in API and resets its state.
+     */
+    @BeforeEach
+    void configure() {
+        known.clear();
+        requests.set(0);
+        failing = false;
+        UUIDFetcher.configure("http://127.0.0.1:" + server.getAddress().getPort() + PATH, 100, 3600, 3600);
+        UUIDFetcher.configureBatching("http://127.0.0.1:" + server.getAddress().getPort() + BULK_PATH, 0);
+    }
+
+    /**
+     * Returns the offline UUID of the given name.
+     *
+     * @param name the name of the player
+     * @return the offline UUID
+     */
+    private static @NotNull UUID offline(@NotNull String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes());
+    }
+
+    @Test
+    void foundUUIDIsCached() {
+        UUID uuid = UUID.randomUUID();
+        known.put("Cached", uuid);
+
+        assertEquals(uuid, UUIDFetcher.getUUID("Cached"));
+        assertEquals(uuid, UUIDFetcher.getUUID("cached"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void unknownNameIsCachedButNotStored() {
+        assertEquals(offline("Ghost"), UUIDFetcher.getUUIDOrOfflineUUID("Ghost"));
+        assertEquals(offline("Ghost"), UUIDFetcher.getUUIDOrOfflineUUID("Ghost"));
+        assertEquals(Optional.of(UUIDResolverCache.UNKNOWN), UUIDFetcher.getResolverCache().getIfPresent("Ghost"));
+        assertEquals(1, requests.get());
+
+        UUID uuid = UUID.randomUUID();
+        known.put("Ghost", uuid);
+        UUIDFetcher.getResolverCache().clear();
+        assertEquals(uuid, UUIDFetcher.getUUIDOrOfflineUUID("Ghost"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void expiredNameIsRequestedAgain() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        known.put("Renamed", first);
+        assertEquals(first, UUIDFetcher.getUUID("Renamed"));
+
+        known.put("Renamed", second);
+        UUIDFetcher.getResolverCache().clear();
+        assertEquals(second, UUIDFetcher.getUUID("Renamed"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void storedUUIDIsUsedWhenTheApiFails() {
+        UUID uuid = UUID.randomUUID();
+        known.put("Stored", uuid);
+        assertEquals(uuid, UUIDFetcher.getUUID("Stored"));
+
+        failing = true;
+        UUIDFetcher.getResolverCache().clear();
+        assertEquals(uuid, UUIDFetcher.getUUID("Stored"));
+    }
+
+    @Test
+    void storedUUIDIsFoundIgnoringTheCase() {
+        UUID uuid = UUID.randomUUID();
+        known.put("StoredCase", uuid);
+        assertEquals(uuid, UUIDFetcher.getUUID("StoredCase"));
+
+        failing = true;
+        UUIDFetcher.getResolverCache().clear();
+        assertEquals(uuid, UUIDFetcher.getUUID("storedcase"));
+    }
+
+    @Test
+    void failedLookupIsNeitherCachedNorStored() {
+        failing = true;
+        assertThrows(RuntimeException.class, () -> UUIDFetcher.getUUID("Offline"));
+        assertEquals(offline("Offline"), UUIDFetcher.getUUIDOrOfflineUUID("Offline"));
+        assertEquals(Optional.empty(), UUIDFetcher.getResolverCache().getIfPresent("Offline"));
+        assertEquals(2, requests.get());
+
+        UUID uuid = UUID.randomUUID();
+        known.put("Offline", uuid);
+        failing = false;
+        assertEquals(uuid, UUIDFetcher.getUUIDOrOfflineUUID("Offline"));
+    }
+
+    @Test
+    void namesAreResolvedInBulk() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        known.put("BulkKnown", uuid);
+
+        Map<String, CompletableFuture<UUID>> lookups = UUIDFetcher.resolveAll(List.of("BulkKnown", "BulkUnknown", "BulkKnown"));
+        assertEquals(2, lookups.size());
+        assertEquals(uuid, lookups.get("BulkKnown").get(1, TimeUnit.SECONDS));
+        assertEquals(offline("BulkUnknown"), lookups.get("BulkUnknown").get(1, TimeUnit.SECONDS));
+        assertEquals(1, requests.get());
+
+        assertEquals(uuid, UUIDFetcher.getUUID("BulkKnown"));
+        assertEquals(offline("BulkUnknown"), UUIDFetcher.getUUIDOrOfflineUUID("BulkUnknown"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void failedBulkLookupLeavesNamesUnresolved() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        known.put("BulkStored", uuid);
+        assertEquals(uuid, UUIDFetcher.getUUID("BulkStored"));
+        UUIDFetcher.getResolverCache().clear();
+
+        failing = true;
+        Map<String, CompletableFuture<UUID>> lookups = UUIDFetcher.resolveAll(List.of("BulkStored", "BulkFailed"));
+        assertEquals(uuid, lookups.get("BulkStored").get(1, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> lookups.get("BulkFailed").get(1, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), UUIDFetcher.getResolverCache().getIfPresent("BulkFailed"));
+
+        UUID later = UUID.randomUUID();
+        known.put("BulkFailed", later);
+        failing = false;
+        assertEquals(later, UUIDFetcher.resolveAll(List.of("BulkFailed")).get("BulkFailed").get(1, TimeUnit.SECONDS));
+    }
+}
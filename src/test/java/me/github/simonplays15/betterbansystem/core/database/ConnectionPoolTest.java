@@ -0,0 +1,331 @@
+package me.github.simonplays15.betterbansystem.core.database;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link ConnectionPool} against a stand-in JDBC driver, which hands out connections without a database.
+ */
+class ConnectionPoolTest {
+
+    /**
+     * The url the stand-in driver accepts.
+     */
+    private static final String URL = "jdbc:betterbansystem-stub:pool";
+
+    /**
+     * The physical connections opened by the stand-in driver during the current test.
+     */
+    private static final List<StubConnection> opened = new CopyOnWriteArrayList<>();
+    /**
+     * The amount of connections the stand-in driver opens before it refuses further connections, -1 for no limit.
+     */
+    private static volatile int connectionLimit = -1;
+
+    /**
+     * The pool under test.
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Registers the stand-in driver at the driver manager.
+     *
+     * @throws SQLException if the driver can not be registered
+     */
+    @BeforeAll
+    static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(new StubDriver());
+    }
+
+    /**
+     * Forgets the connections of the previous test.
+     */
+    @BeforeEach
+    void resetConnections() {
+        opened.clear();
+        connectionLimit = -1;
+    }
+
+    /**
+     * Closes the pool under test.
+     */
+    @AfterEach
+    void closePool() {
+        if (this.pool != null)
+            this.pool.close();
+    }
+
+    /**
+     * Creates the pool under test, which validates every connection on borrow.
+     *
+     * @param maximumPoolSize the maximum amount of connections
+     * @param minimumIdle     the amount of connections opened up front
+     * @return the pool
+     * @throws SQLException if the first connection can not be opened
+     */
+    private @NotNull ConnectionPool createPool(int maximumPoolSize, int minimumIdle) throws SQLException {
+        return this.createPool(maximumPoolSize, minimumIdle, 0);
+    }
+
+    /**
+     * Creates the pool under test.
+     *
+     * @param maximumPoolSize    the maximum amount of connections
+     * @param minimumIdle        the amount of connections opened up front
+     * @param validationInterval the time in milliseconds a connection may be idle before it is validated on borrow
+     * @return the pool
+     * @throws SQLException if the first connection can not be opened
+     */
+    private @NotNull ConnectionPool createPool(int maximumPoolSize, int minimumIdle, long validationInterval) throws SQLException {
+        this.pool = new ConnectionPool(URL, null, null, null, new ConnectionPoolSettings(maximumPoolSize, minimumIdle, 250, 600000, 1, validationInterval, 0));
+        return this.pool;
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws SQLException {
+        ConnectionPool pool = this.createPool(2, 1);
+        assertEquals(1, pool.getIdleConnections());
+
+        Connection first = pool.getConnection();
+        assertEquals(1, pool.getActiveConnections());
+        assertEquals(0, pool.getIdleConnections());
+        first.close();
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(1, pool.getIdleConnections());
+
+        try (Connection second = pool.getConnection()) {
+            assertFalse(second.isClosed());
+        }
+        assertEquals(1, opened.size());
+        assertEquals(1, pool.getTotalConnections());
+    }
+
+    @Test
+    void closedLeaseCanNotBeUsed() throws SQLException {
+        ConnectionPool pool = this.createPool(2, 1);
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::commit);
+        assertEquals(1, pool.getIdleConnections());
+        assertFalse(opened.get(0).closed);
+    }
+
+    @Test
+    void returnedTransactionIsRolledBack() throws SQLException {
+        ConnectionPool pool = this.createPool(1, 1);
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+        }
+        StubConnection physical = opened.get(0);
+        assertTrue(physical.rolledBack);
+        assertTrue(physical.autoCommit);
+    }
+
+    @Test
+    void invalidConnectionIsReplacedOnBorrow() throws SQLException {
+        ConnectionPool pool = this.createPool(2, 1);
+        StubConnection broken = opened.get(0);
+        broken.valid = false;
+
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        assertTrue(broken.closed);
+        assertEquals(2, opened.size());
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    @Test
+    void recentlyUsedConnectionIsNotValidated() throws SQLException {
+        ConnectionPool pool = this.createPool(1, 1, 60000);
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(0, opened.get(0).validations);
+    }
+
+    @Test
+    void failedPrefillClosesOpenedConnections() {
+        connectionLimit = 2;
+        assertThrows(SQLException.class, () -> this.createPool(3, 3));
+        assertEquals(2, opened.size());
+        assertTrue(opened.get(0).closed);
+        assertTrue(opened.get(1).closed);
+    }
+
+    @Test
+    void exhaustedPoolTimesOut() throws SQLException {
+        ConnectionPool pool = this.createPool(1, 1);
+        try (Connection ignored = pool.getConnection()) {
+            long start = System.nanoTime();
+            assertThrows(SQLException.class, pool::getConnection);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+            assertEquals(1, pool.getActiveConnections());
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    void waitingCallerGetsReturnedConnection() throws Exception {
+        ConnectionPool pool = this.createPool(1, 1);
+        Connection held = pool.getConnection();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (pool.getWaitingThreads() == 0 && !waiting.isDone()) {
+            Thread.onSpinWait();
+        }
+        held.close();
+
+        try (Connection connection = waiting.get(1, TimeUnit.SECONDS)) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    void closedPoolRefusesLeases() throws SQLException {
+        ConnectionPool pool = this.createPool(2, 1);
+        Connection connection = pool.getConnection();
+        pool.close();
+
+        assertThrows(SQLException.class, pool::getConnection);
+        connection.close();
+        assertTrue(opened.get(0).closed);
+        assertEquals(0, pool.getTotalConnections());
+    }
+
+    /**
+     * The state of a physical connection handed out by the stand-in driver.
+     */
+    private static final class StubConnection {
+        /**
+         * Whether the connection answers the validation.
+         */
+        private volatile boolean valid = true;
+        /**
+         * Whether the connection has been closed.
+         */
+        private volatile boolean closed = false;
+        /**
+         * The auto-commit mode of the connection.
+         */
+        private volatile boolean autoCommit = true;
+        /**
+         * Whether the connection has been rolled back.
+         */
+        private volatile boolean rolledBack = false;
+        /**
+         * The amount of validations the connection answered.
+         */
+        private volatile int validations = 0;
+
+        /**
+         * Creates the JDBC view of this connection.
+         *
+         * @return the connection
+         */
+        private @NotNull Connection toConnection() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "isValid" -> {
+                    this.validations++;
+                    yield this.valid && !this.closed;
+                }
+                case "isClosed" -> this.closed;
+                case "close" -> {
+                    this.closed = true;
+                    yield null;
+                }
+                case "getAutoCommit" -> this.autoCommit;
+                case "setAutoCommit" -> {
+                    this.autoCommit = (boolean) args[0];
+                    yield null;
+                }
+                case "rollback" -> {
+                    this.rolledBack = true;
+                    yield null;
+                }
+                case "commit" -> null;
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> throw new SQLFeatureNotSupportedException(method.getName());
+            });
+        }
+    }
+
+    /**
+     * A stand-in JDBC driver which opens {@link StubConnection}s for the test url.
+     */
+    private static final class StubDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!this.acceptsURL(url))
+                return null;
+            if (connectionLimit >= 0 && opened.size() >= connectionLimit)
+                throw new SQLException("Connection limit of the stand-in driver reached");
+            StubConnection connection = new StubConnection();
+            opened.add(connection);
+            return connection.toConnection();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return URL.equals(url);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
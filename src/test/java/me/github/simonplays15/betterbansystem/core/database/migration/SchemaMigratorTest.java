@@ -0,0 +1,156 @@
+package me.github.simonplays15.betterbansystem.core.database.migration;
+
+/*
+ * Copyright (c) SimonPlays15 2024. All Rights Reserved
+ */
+
+import me.github.simonplays15.betterbansystem.core.database.ColumnValues;
+import me.github.simonplays15.betterbansystem.core.time.TimeFormats;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link SchemaMigrator} on a SQLite file holding the tables of the baseline schema.
+ */
+class SchemaMigratorTest {
+
+    /**
+     * The directory the database file is created in.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The connection to the database file.
+     */
+    private Connection connection;
+
+    /**
+     * Creates the tables of the baseline schema, as the SQLite database creates them.
+     *
+     * @throws SQLException if the tables can not be created
+     */
+    @BeforeEach
+    void createBaselineTables() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + this.directory.resolve("database.db"));
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE bannedplayers (uuid VARCHAR(36) PRIMARY KEY, name TEXT, source TEXT, created TEXT, expires TEXT, reason TEXT)");
+            statement.executeUpdate("CREATE TABLE bannedips (ip VARCHAR(15) PRIMARY KEY, source TEXT, created TEXT, expires TEXT, reason TEXT)");
+            statement.executeUpdate("CREATE TABLE warnedplayers (uuid VARCHAR(36) PRIMARY KEY, name TEXT)");
+            statement.executeUpdate("CREATE TABLE warns (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, source TEXT, created TEXT, reason TEXT, uuid VARCHAR(36), FOREIGN KEY (uuid) REFERENCES warnedplayers(uuid))");
+            statement.executeUpdate("CREATE TABLE mutedplayers (uuid VARCHAR(36) PRIMARY KEY, name TEXT, source TEXT, created TEXT, expires TEXT, reason TEXT)");
+        }
+    }
+
+    /**
+     * Closes the connection to the database file.
+     *
+     * @throws SQLException if the connection can not be closed
+     */
+    @AfterEach
+    void close() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    void validRowsAreConverted() throws SQLException {
+        Date created = new Date(1700000000000L);
+        this.execute("INSERT INTO bannedplayers VALUES ('a', 'Alex', 'CONSOLE', '" + storage(created) + "', 'forever', 'reason')");
+        this.execute("INSERT INTO bannedips VALUES ('10.0.0.1', 'CONSOLE', '" + storage(created) + "', '" + storage(created) + "', 'reason')");
+
+        assertEquals(SchemaMigrator.latestVersion(), SchemaMigrator.migrate(this.connection, SqlDialect.SQLITE));
+
+        try (Statement statement = this.connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT created, expires FROM bannedplayers WHERE uuid = 'a'")) {
+            assertTrue(set.next());
+            assertEquals(created.getTime(), set.getLong(1));
+            assertNull(set.getObject(2));
+        }
+        try (Statement statement = this.connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT ip, expires FROM bannedips")) {
+            assertTrue(set.next());
+            assertArrayEquals(ColumnValues.ipToColumn("10.0.0.1"), set.getBytes(1));
+            assertEquals(created.getTime(), set.getLong(2));
+        }
+    }
+
+    @Test
+    void unparseableDateAbortsTheMigration() throws SQLException {
+        this.execute("INSERT INTO bannedplayers VALUES ('a', 'Alex', 'CONSOLE', '" + storage(new Date()) + "', 'next tuesday', 'reason')");
+
+        SQLException exception = assertThrows(SQLException.class, () -> SchemaMigrator.migrate(this.connection, SqlDialect.SQLITE));
+        assertTrue(exception.getMessage().contains("bannedplayers a"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("next tuesday"), exception.getMessage());
+
+        assertEquals(SchemaMigrator.BASELINE_VERSION, SchemaMigrator.currentVersion(this.connection));
+        try (Statement statement = this.connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT expires FROM bannedplayers WHERE uuid = 'a'")) {
+            assertTrue(set.next());
+            assertEquals("next tuesday", set.getString(1));
+        }
+        assertFalse(this.hasColumn("bannedplayers", "expires_migrating"));
+    }
+
+    @Test
+    void invalidIpAbortsTheMigration() throws SQLException {
+        this.execute("INSERT INTO bannedips VALUES ('10.0.0.1', 'CONSOLE', '" + storage(new Date()) + "', 'forever', 'reason')");
+        this.execute("INSERT INTO bannedips VALUES ('999.1.1.1', 'CONSOLE', '" + storage(new Date()) + "', 'forever', 'reason')");
+
+        SQLException exception = assertThrows(SQLException.class, () -> SchemaMigrator.migrate(this.connection, SqlDialect.SQLITE));
+        assertTrue(exception.getMessage().contains("999.1.1.1"), exception.getMessage());
+
+        assertEquals(SchemaMigrator.BASELINE_VERSION, SchemaMigrator.currentVersion(this.connection));
+        try (Statement statement = this.connection.createStatement();
+             ResultSet set = statement.executeQuery("SELECT COUNT(*) FROM bannedips")) {
+            assertTrue(set.next());
+            assertEquals(2, set.getInt(1));
+        }
+        assertFalse(this.hasColumn("bannedips_migrating", "ip"));
+        assertFalse(this.hasColumn("bannedplayers", "created_migrating"));
+    }
+
+    /**
+     * Formats a date as the baseline schema stored it.
+     *
+     * @param date the date
+     * @return the formatted date
+     */
+    private static @NotNull String storage(@NotNull Date date) {
+        return TimeFormats.format(TimeFormats.STORAGE, date);
+    }
+
+    /**
+     * Executes an update on the database file.
+     *
+     * @param sql the statement
+     * @throws SQLException if the statement failed
+     */
+    private void execute(@NotNull String sql) throws SQLException {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Returns whether a table has the given column.
+     *
+     * @param tableName the name of the table
+     * @param column    the name of the column
+     * @return true if the table exists and has the column
+     * @throws SQLException if the metadata can not be read
+     */
+    private boolean hasColumn(@NotNull String tableName, @NotNull String column) throws SQLException {
+        try (ResultSet set = this.connection.getMetaData().getColumns(null, null, tableName, column)) {
+            return set.next();
+        }
+    }
+}